@@ -43,20 +43,19 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.xml.sax.SAXException;
 
-import de.tudarmstadt.tk.statistics.test.Statistics;
+import de.tudarmstadt.tk.statistics.test.TestRegistry;
 
 
 /**
- * Singleton to encapsulate the configuration for the statistical evaluation
- * Parameters can be set both via config file or programmatically 
+ * Encapsulates the configuration for the statistical evaluation
+ * Parameters can be set both via config file or programmatically. Each
+ * evaluation uses the configuration passed to it, so that evaluations with
+ * different configurations may run concurrently.
  * @author Guckelsberger, Schulz
  *
  */
 public class StatsConfig {
 
-	// Singleton: Only allow for one instance of RStatistics
-	private static volatile StatsConfig instance = null;
-	
     private static final Logger logger = LogManager.getLogger("Statistics");
     private static String SCHEMA_PATH = "config.xsd";
 	
@@ -66,122 +65,65 @@ public class StatsConfig {
 	private int selectBestN;
 	private String selectByMeasure;
 	private StatsConfigConstants.INDEPENDENT_VARIABLES_VALUES fixIndependentVariable;
+	// Optional: Backend to be used per test class. If none is given, the fastest backend supporting the test is chosen.
+	private HashMap<StatsConfigConstants.TEST_CLASSES,StatsConfigConstants.BACKEND_VALUES> backends = new HashMap<StatsConfigConstants.TEST_CLASSES,StatsConfigConstants.BACKEND_VALUES>();
+	// Optional: Number of R worker processes performing tests in parallel instead of the embedded R engine. 0 to use the embedded engine.
+	private int rWorkers = 0;
+	// Optional: Maximum duration of a test performed in R in seconds. 0 for no limit.
+	private int rTimeout = 0;
+	// Optional: Whether the metrics of an evaluation are written to its output folder.
+	private boolean exportMetrics = false;
+	// Optional: Whether the reports comprise plots, which are created in R if available. R is then started in the background even if all tests are performed in Java.
+	private boolean plots = false;
+	// Optional: Number of threads performing the tests of the splits and measures in parallel. 0 for the number of processors.
+	private int parallelism = 0;
 	
 	/**
-	 * Singleton constructor reading the configuration data from an external xml file
+	 * Constructor reading the configuration data from an external xml file
 	 * @param filePath the path of the configuration xml file
-	 * @return an object of type {@link StatsConfig}
 	 */
-	public static StatsConfig getInstance(String filePath) {
-		if (instance == null) {
-			synchronized (Statistics.class) {
-				if (instance == null) {
-					instance = new StatsConfig(filePath);
-				}
-			}
-		}
-		return instance;
+	public StatsConfig(String filePath) {
+
+		this.parseXML(filePath);
+		
 	}
 	
 	/**
-	 * Singleton constructor requiring the user to supply all configuration parameters as argument.
-	 * @return an object of type {@link StatsConfig}
+	 * Constructor requiring the user to supply all configuration parameters as argument.
 	 */
-	public static StatsConfig getInstance(HashMap<StatsConfigConstants.TEST_CLASSES,String> requiredTests, List<StatsConfigConstants.CORRECTION_VALUES> requiredCorrections, HashMap<StatsConfigConstants.SIGNIFICANCE_LEVEL_VALUES,Double> significanceLevels, int selectBestN, String selectByMeasure, StatsConfigConstants.INDEPENDENT_VARIABLES_VALUES fixIndependentVariable) {
-		if (instance == null) {
-			synchronized (Statistics.class) {
-				if (instance == null) {
-					
-					//Validate arguments
-					//Tests
-					if(requiredTests.size()!=StatsConfigConstants.TEST_CLASSES.values().length){
-						throw new IllegalArgumentException("Number of test classes specified does not match requirements!");
-					}
-					Iterator<StatsConfigConstants.TEST_CLASSES> itT = requiredTests.keySet().iterator();
-					while(itT.hasNext()){
-						StatsConfigConstants.TEST_CLASSES testClass = itT.next();
-						String testName = requiredTests.get(testClass);
-						
-						if(!StatsConfigConstants.TESTS.get(testClass).contains(testName)){
-							throw new IllegalArgumentException(testName + " is not a valid test for test class " + testClass+"!");
-						}
-					}
-					
-					//Correction methods
-					if(requiredCorrections.size()==0){
-						throw new IllegalArgumentException("At least one p-value correction method must be specified!");	
-					}
-					
-					//Significance levels
-					if(requiredCorrections.size()!=StatsConfigConstants.SIGNIFICANCE_LEVEL_VALUES.values().length){
-						throw new IllegalArgumentException("Number of significance levels specified does not match requirements!");
-					}
-					Iterator<StatsConfigConstants.SIGNIFICANCE_LEVEL_VALUES> it = significanceLevels.keySet().iterator();
-					while(it.hasNext()){
-						double significanceValue = significanceLevels.get(it.next());
-						if(significanceValue<0 || significanceValue>1){
-							throw new IllegalArgumentException(significanceValue + " is not a valid significance value (must be between 0 and 1)!");
-						}
-					}
-					
-					instance = new StatsConfig(requiredTests, requiredCorrections, significanceLevels, selectBestN, selectByMeasure, fixIndependentVariable); 
-					
-				}
+	public StatsConfig(HashMap<StatsConfigConstants.TEST_CLASSES,String> requiredTests, List<StatsConfigConstants.CORRECTION_VALUES> requiredCorrections, HashMap<StatsConfigConstants.SIGNIFICANCE_LEVEL_VALUES,Double> significanceLevels, int selectBestN, String selectByMeasure, StatsConfigConstants.INDEPENDENT_VARIABLES_VALUES fixIndependentVariable){
+
+		//Validate arguments
+		//Tests
+		if(requiredTests.size()!=StatsConfigConstants.TEST_CLASSES.values().length){
+			throw new IllegalArgumentException("Number of test classes specified does not match requirements!");
+		}
+		Iterator<StatsConfigConstants.TEST_CLASSES> itT = requiredTests.keySet().iterator();
+		while(itT.hasNext()){
+			StatsConfigConstants.TEST_CLASSES testClass = itT.next();
+			String testName = requiredTests.get(testClass);
+			
+			if(!TestRegistry.getDefault().contains(testClass, testName)){
+				throw new IllegalArgumentException(testName + " is not a valid test for test class " + testClass+"!");
 			}
 		}
-		return instance;
-	}
-	
-	private StatsConfig(String pathToConfigFile) {
-
-		this.parseXML(pathToConfigFile);
 		
-	}
-	
-	/**
-	 * Singleton constructor setting default values to the config file
-	 * @return an object of type {@link StatsConfig}
-	 */
-	public static StatsConfig getInstance(){
+		//Correction methods
+		if(requiredCorrections.size()==0){
+			throw new IllegalArgumentException("At least one p-value correction method must be specified!");	
+		}
 		
-		if (instance == null) {
-			synchronized (Statistics.class) {
-				if (instance == null) {
-					HashMap<StatsConfigConstants.TEST_CLASSES,String> requiredTests = new HashMap<StatsConfigConstants.TEST_CLASSES,String>();
-					requiredTests.put(StatsConfigConstants.TEST_CLASSES.TwoSamplesNonParametricContingency, "McNemar");
-					requiredTests.put(StatsConfigConstants.TEST_CLASSES.TwoSamplesParametric, "DependentT");
-					requiredTests.put(StatsConfigConstants.TEST_CLASSES.TwoSamplesNonParametric, "WilcoxonSignedRank");
-					requiredTests.put(StatsConfigConstants.TEST_CLASSES.MultipleSamplesParametric, "RepeatedMeasuresOneWayANOVA");
-					requiredTests.put(StatsConfigConstants.TEST_CLASSES.MultipleSamplesNonParametric, "Friedman");
-					requiredTests.put(StatsConfigConstants.TEST_CLASSES.MultipleSamplesParametricPosthoc, "Tukey");
-					requiredTests.put(StatsConfigConstants.TEST_CLASSES.MultipleSamplesNonParametricPostHoc, "Nemenyi");
-					requiredTests.put(StatsConfigConstants.TEST_CLASSES.MultipleSamplesParametricPosthocBaseline, "Dunett");
-					requiredTests.put(StatsConfigConstants.TEST_CLASSES.MultipleSamplesNonParametricPostHocBaseline, "PairwiseWilcoxonSignedRank");
-					
-					List<StatsConfigConstants.CORRECTION_VALUES> requiredCorrections = new ArrayList<StatsConfigConstants.CORRECTION_VALUES>();
-					requiredCorrections.add(StatsConfigConstants.CORRECTION_VALUES.bonferroni);
-					requiredCorrections.add(StatsConfigConstants.CORRECTION_VALUES.hochberg);
-					requiredCorrections.add(StatsConfigConstants.CORRECTION_VALUES.holm);
-					
-					HashMap<StatsConfigConstants.SIGNIFICANCE_LEVEL_VALUES, Double> significanceLevels = new HashMap<StatsConfigConstants.SIGNIFICANCE_LEVEL_VALUES, Double>();
-					significanceLevels.put(StatsConfigConstants.SIGNIFICANCE_LEVEL_VALUES.low, 0.1);
-					significanceLevels.put(StatsConfigConstants.SIGNIFICANCE_LEVEL_VALUES.medium, 0.05);
-					significanceLevels.put(StatsConfigConstants.SIGNIFICANCE_LEVEL_VALUES.high, 0.01);
-			
-					StatsConfigConstants.INDEPENDENT_VARIABLES_VALUES fixIndependentVariable = StatsConfigConstants.INDEPENDENT_VARIABLES_VALUES.Classifier;
-			
-					int selectBestN = 10;
-					String selectByMeasure = "Weighted F-Measure";
-					
-					instance = new StatsConfig(requiredTests, requiredCorrections, significanceLevels, selectBestN, selectByMeasure, fixIndependentVariable); 
-					
-				}
+		//Significance levels
+		if(requiredCorrections.size()!=StatsConfigConstants.SIGNIFICANCE_LEVEL_VALUES.values().length){
+			throw new IllegalArgumentException("Number of significance levels specified does not match requirements!");
+		}
+		Iterator<StatsConfigConstants.SIGNIFICANCE_LEVEL_VALUES> it = significanceLevels.keySet().iterator();
+		while(it.hasNext()){
+			double significanceValue = significanceLevels.get(it.next());
+			if(significanceValue<0 || significanceValue>1){
+				throw new IllegalArgumentException(significanceValue + " is not a valid significance value (must be between 0 and 1)!");
 			}
 		}
-		return instance;
-	}
-	
-	private StatsConfig(HashMap<StatsConfigConstants.TEST_CLASSES,String> requiredTests, List<StatsConfigConstants.CORRECTION_VALUES> requiredCorrections, HashMap<StatsConfigConstants.SIGNIFICANCE_LEVEL_VALUES,Double> significanceLevels, int selectBestN, String selectByMeasure, StatsConfigConstants.INDEPENDENT_VARIABLES_VALUES fixIndependentVariable){
 
 		this.requiredTests = requiredTests;
 		this.requiredCorrections = requiredCorrections;
@@ -192,6 +134,72 @@ public class StatsConfig {
 		
 	}
 	
+	/**
+	 * Creates a configuration with default values
+	 * @return a new object of type {@link StatsConfig}
+	 */
+	public static StatsConfig createDefault(){
+		
+		HashMap<StatsConfigConstants.TEST_CLASSES,String> requiredTests = new HashMap<StatsConfigConstants.TEST_CLASSES,String>();
+		requiredTests.put(StatsConfigConstants.TEST_CLASSES.TwoSamplesNonParametricContingency, "McNemar");
+		requiredTests.put(StatsConfigConstants.TEST_CLASSES.TwoSamplesParametric, "DependentT");
+		requiredTests.put(StatsConfigConstants.TEST_CLASSES.TwoSamplesNonParametric, "WilcoxonSignedRank");
+		requiredTests.put(StatsConfigConstants.TEST_CLASSES.MultipleSamplesParametric, "RepeatedMeasuresOneWayANOVA");
+		requiredTests.put(StatsConfigConstants.TEST_CLASSES.MultipleSamplesNonParametric, "Friedman");
+		requiredTests.put(StatsConfigConstants.TEST_CLASSES.MultipleSamplesParametricPosthoc, "Tukey");
+		requiredTests.put(StatsConfigConstants.TEST_CLASSES.MultipleSamplesNonParametricPostHoc, "Nemenyi");
+		requiredTests.put(StatsConfigConstants.TEST_CLASSES.MultipleSamplesParametricPosthocBaseline, "Dunett");
+		requiredTests.put(StatsConfigConstants.TEST_CLASSES.MultipleSamplesNonParametricPostHocBaseline, "PairwiseWilcoxonSignedRank");
+		
+		List<StatsConfigConstants.CORRECTION_VALUES> requiredCorrections = new ArrayList<StatsConfigConstants.CORRECTION_VALUES>();
+		requiredCorrections.add(StatsConfigConstants.CORRECTION_VALUES.bonferroni);
+		requiredCorrections.add(StatsConfigConstants.CORRECTION_VALUES.hochberg);
+		requiredCorrections.add(StatsConfigConstants.CORRECTION_VALUES.holm);
+		
+		HashMap<StatsConfigConstants.SIGNIFICANCE_LEVEL_VALUES, Double> significanceLevels = new HashMap<StatsConfigConstants.SIGNIFICANCE_LEVEL_VALUES, Double>();
+		significanceLevels.put(StatsConfigConstants.SIGNIFICANCE_LEVEL_VALUES.low, 0.1);
+		significanceLevels.put(StatsConfigConstants.SIGNIFICANCE_LEVEL_VALUES.medium, 0.05);
+		significanceLevels.put(StatsConfigConstants.SIGNIFICANCE_LEVEL_VALUES.high, 0.01);
+
+		StatsConfigConstants.INDEPENDENT_VARIABLES_VALUES fixIndependentVariable = StatsConfigConstants.INDEPENDENT_VARIABLES_VALUES.Classifier;
+
+		int selectBestN = 10;
+		String selectByMeasure = "Weighted F-Measure";
+		
+		return new StatsConfig(requiredTests, requiredCorrections, significanceLevels, selectBestN, selectByMeasure, fixIndependentVariable); 
+	}
+
+	/**
+	 * @deprecated Configurations are no longer shared. Use
+	 *             {@link #StatsConfig(String)}, which this method calls.
+	 * @return a new object of type {@link StatsConfig}
+	 */
+	@Deprecated
+	public static StatsConfig getInstance(String filePath) {
+		return new StatsConfig(filePath);
+	}
+	
+	/**
+	 * @deprecated Configurations are no longer shared. Use
+	 *             {@link #StatsConfig(HashMap, List, HashMap, int, String, StatsConfigConstants.INDEPENDENT_VARIABLES_VALUES)},
+	 *             which this method calls.
+	 * @return a new object of type {@link StatsConfig}
+	 */
+	@Deprecated
+	public static StatsConfig getInstance(HashMap<StatsConfigConstants.TEST_CLASSES,String> requiredTests, List<StatsConfigConstants.CORRECTION_VALUES> requiredCorrections, HashMap<StatsConfigConstants.SIGNIFICANCE_LEVEL_VALUES,Double> significanceLevels, int selectBestN, String selectByMeasure, StatsConfigConstants.INDEPENDENT_VARIABLES_VALUES fixIndependentVariable) {
+		return new StatsConfig(requiredTests, requiredCorrections, significanceLevels, selectBestN, selectByMeasure, fixIndependentVariable);
+	}
+	
+	/**
+	 * @deprecated Configurations are no longer shared. Use
+	 *             {@link #createDefault()}, which this method calls.
+	 * @return a new object of type {@link StatsConfig}
+	 */
+	@Deprecated
+	public static StatsConfig getInstance(){
+		return createDefault();
+	}
+	
 	/**
 	 * Validate and parse XML config file. Also check if file contains legal values for tests, p-value corrections and signficiance levels.
 	 * @param pathToConfigFile 
@@ -237,6 +245,7 @@ public class StatsConfig {
 		          if (event.isStartElement() && event.asStartElement().getName().getLocalPart().equals("test")) {
 		        	  String c = null;
 		        	  String n = null;
+		        	  String b = null;
 		        	  while(!(event.isEndElement() && event.asEndElement().getName().getLocalPart().equals("test"))){
 		        		  event = eventReader.nextEvent();
 				          if (event.isStartElement() && event.asStartElement().getName().getLocalPart().equals("class")) {
@@ -245,22 +254,35 @@ public class StatsConfig {
 				          } else if (event.isStartElement() && event.asStartElement().getName().getLocalPart().equals("name")) {
 				        	  event = eventReader.nextEvent();
 				        	  n = event.asCharacters().getData();
+				          } else if (event.isStartElement() && event.asStartElement().getName().getLocalPart().equals("backend")) {
+				        	  event = eventReader.nextEvent();
+				        	  b = event.asCharacters().getData();
 				          }
 		        	  }
 		        	  
 		        	  boolean illegal = true;
 		        	  for (StatsConfigConstants.TEST_CLASSES tc : StatsConfigConstants.TEST_CLASSES.values()) {
 		        	        if (tc.name().equals(c)) {
-		        	        	 if(StatsConfigConstants.TESTS.get(tc).contains(n)){
+		        	        	 if(TestRegistry.getDefault().contains(tc, n)){
 		        	        		 requiredTests.put(tc, n);
 				        	         illegal = false;
+				        	         if(b != null){
+				        	        	 illegal = true;
+				        	        	 for (StatsConfigConstants.BACKEND_VALUES bv : StatsConfigConstants.BACKEND_VALUES.values()) {
+				        	        		 if (bv.name().equals(b)) {
+				        	        			 backends.put(tc, bv);
+				        	        			 illegal = false;
+				        	        			 break;
+				        	        		 }
+				        	        	 }
+				        	         }
 						        	 break;
 				        		  }
 		        	        }
 		        	  }
 		        	  
 		        	  if(illegal){
-		        		  throw new IllegalArgumentException(c + ", " + n); 
+		        		  throw new IllegalArgumentException(b == null ? c + ", " + n : c + ", " + n + ", " + b); 
 		        	  }
 		          }
 		          else if (event.isStartElement() && event.asStartElement().getName().getLocalPart().equals("significanceLevel")) {
@@ -319,6 +341,35 @@ public class StatsConfig {
 				          }
 		        	  }
 		          }
+		          else if (event.isStartElement() && event.asStartElement().getName().getLocalPart().equals("rWorkers")) {
+		        	  event = eventReader.nextEvent();
+		        	  rWorkers = Integer.parseInt(event.asCharacters().getData());
+		        	  if(rWorkers < 0){
+		        		  throw new IllegalArgumentException("rWorkers " + rWorkers);
+		        	  }
+		          }
+		          else if (event.isStartElement() && event.asStartElement().getName().getLocalPart().equals("rTimeout")) {
+		        	  event = eventReader.nextEvent();
+		        	  rTimeout = Integer.parseInt(event.asCharacters().getData());
+		        	  if(rTimeout < 0){
+		        		  throw new IllegalArgumentException("rTimeout " + rTimeout);
+		        	  }
+		          }
+		          else if (event.isStartElement() && event.asStartElement().getName().getLocalPart().equals("parallelism")) {
+		        	  event = eventReader.nextEvent();
+		        	  parallelism = Integer.parseInt(event.asCharacters().getData());
+		        	  if(parallelism < 0){
+		        		  throw new IllegalArgumentException("parallelism " + parallelism);
+		        	  }
+		          }
+		          else if (event.isStartElement() && event.asStartElement().getName().getLocalPart().equals("metrics")) {
+		        	  event = eventReader.nextEvent();
+		        	  exportMetrics = Boolean.parseBoolean(event.asCharacters().getData().trim());
+		          }
+		          else if (event.isStartElement() && event.asStartElement().getName().getLocalPart().equals("plots")) {
+		        	  event = eventReader.nextEvent();
+		        	  plots = Boolean.parseBoolean(event.asCharacters().getData().trim());
+		          }
 		          else if (event.isStartElement() && event.asStartElement().getName().getLocalPart().equals("fixIndependentVariable")) {
 		        	  event = eventReader.nextEvent();
 		        	  String f = event.asCharacters().getData();
@@ -377,6 +428,30 @@ public class StatsConfig {
 		return fixIndependentVariable;
 	}
 
+	public HashMap<StatsConfigConstants.TEST_CLASSES, StatsConfigConstants.BACKEND_VALUES> getBackends() {
+		return backends;
+	}
+
+	public int getRWorkers() {
+		return rWorkers;
+	}
+
+	public int getRTimeout() {
+		return rTimeout;
+	}
+
+	public boolean isExportMetrics() {
+		return exportMetrics;
+	}
+
+	public boolean isPlots() {
+		return plots;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
 	public void setRequiredTests(
 			HashMap<StatsConfigConstants.TEST_CLASSES, String> requiredTests) {
 		this.requiredTests = requiredTests;
@@ -405,4 +480,67 @@ public class StatsConfig {
 		this.fixIndependentVariable = fixIndependentVariable;
 	}
 
+	/**
+	 * Set the number of R worker processes performing the tests assigned to R
+	 * in parallel, cf. {@link de.tudarmstadt.tk.statistics.test.RWorkerPool}
+	 * @param rWorkers the number of processes, or 0 to use the embedded R engine
+	 */
+	public void setRWorkers(int rWorkers) {
+		this.rWorkers = rWorkers;
+	}
+
+	/**
+	 * Set the maximum duration of a test, correction or plot performed in R.
+	 * Tests exceeding it are aborted and marked as timed out in the
+	 * {@link de.tudarmstadt.tk.statistics.report.EvaluationResults}.
+	 * @param rTimeout the timeout in seconds, or 0 for no limit
+	 */
+	public void setRTimeout(int rTimeout) {
+		this.rTimeout = rTimeout;
+	}
+
+	/**
+	 * Set whether the metrics of an evaluation, cf.
+	 * {@link de.tudarmstadt.tk.statistics.helper.Metrics}, are written to its
+	 * output folder as metrics.json and metrics.prom
+	 * @param exportMetrics true to write the metrics
+	 */
+	public void setExportMetrics(boolean exportMetrics) {
+		this.exportMetrics = exportMetrics;
+	}
+
+	/**
+	 * Set whether the reports comprise plots. Plots are created in R, which
+	 * is then started in the background together with the evaluation even if
+	 * all tests are performed in Java. Without R, reports comprise no plots.
+	 * @param plots true to create plots
+	 */
+	public void setPlots(boolean plots) {
+		this.plots = plots;
+	}
+
+	/**
+	 * Set the number of threads evaluating splits, measures and the chains of
+	 * tests of a measure in parallel, cf.
+	 * {@link de.tudarmstadt.tk.statistics.test.StatsProcessor}
+	 * @param parallelism the number of threads, or 0 for the number of processors
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Set the backend to be used for a test class, overriding the automatic
+	 * choice of the fastest backend supporting the test
+	 * @param testClass the test class
+	 * @param backend the backend to be used, or null to restore the automatic choice
+	 */
+	public void setBackend(StatsConfigConstants.TEST_CLASSES testClass, StatsConfigConstants.BACKEND_VALUES backend) {
+		if (backend == null) {
+			this.backends.remove(testClass);
+		} else {
+			this.backends.put(testClass, backend);
+		}
+	}
+
 }
@@ -48,6 +48,9 @@ public abstract class StatsConfigConstants {
 	
 	public static enum SIGNIFICANCE_LEVEL_VALUES{low, medium, high};
 	
+	// Engines performing the statistical tests, ordered from fastest to slowest
+	public static enum BACKEND_VALUES{Java, R};
+	
 	public static final ArrayList<String> TWO_SAMPLES_NONPARAMETRIC_CONTINGENCY_TABLE_VALUES = new ArrayList<String>(){{add("McNemar");}};
 	public static final ArrayList<String> TWO_SAMPLES_PARAMETRIC_VALUES = new ArrayList<String>(){{add("DependentT");}};
 	public static final ArrayList<String> TWO_SAMPLES_NONPARAMETRIC_VALUES = new ArrayList<String>(){{add("WilcoxonSignedRank");}};
@@ -0,0 +1,312 @@
+package de.tudarmstadt.tk.statistics.helper;
+
+/**
+ * Copyright 2014
+ * Telecooperation (TK) Lab
+ * Technische Universit�t Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Locale;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.json.JSONObject;
+
+/**
+ * Collects metrics of an evaluation: the number, failures and latency of the
+ * calls of each test per backend, the duration of the phases of the evaluation
+ * (e.g. import, split, test, report) and counters maintained elsewhere, e.g.
+ * the number of R evaluations and the bytes transferred into R. Latencies are
+ * recorded in histograms with buckets growing by powers of two, from which
+ * quantiles such as p50 and p99 are estimated. Recording does not block and
+ * may happen from any thread.
+ *
+ * The metrics are exported as JSON ({@link #toJSON()}) or in the text format
+ * of Prometheus ({@link #toPrometheus()}).
+ *
+ * @author Guckelsberger, Schulz
+ */
+public class Metrics {
+
+	private static final String PREFIX = "statistics_";
+	private static final double[] QUANTILES = { 0.5, 0.99 };
+
+	// Calls by test name and backend
+	private final ConcurrentHashMap<Pair<String, String>, Calls> calls = new ConcurrentHashMap<Pair<String, String>, Calls>();
+	private final ConcurrentHashMap<String, Histogram> phases = new ConcurrentHashMap<String, Histogram>();
+	private final ConcurrentHashMap<String, AtomicLong> counters = new ConcurrentHashMap<String, AtomicLong>();
+
+	/**
+	 * Records a call of a test
+	 *
+	 * @param test
+	 *            The name of the test, e.g. "Friedman"
+	 * @param backend
+	 *            The backend performing it, e.g. "Java"
+	 * @param nanos
+	 *            The duration of the call in ns
+	 * @param failed
+	 *            Whether the call failed or timed out
+	 */
+	public void recordCall(String test, String backend, long nanos, boolean failed) {
+		Pair<String, String> key = Pair.of(test, backend);
+		Calls c = calls.get(key);
+		if (c == null) {
+			calls.putIfAbsent(key, new Calls());
+			c = calls.get(key);
+		}
+		c.latency.record(nanos);
+		if (failed) {
+			c.failures.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Records the duration of a phase of the evaluation. Phases occurring
+	 * several times, e.g. once per split, are recorded each time.
+	 *
+	 * @param phase
+	 *            The name of the phase, e.g. "import"
+	 * @param nanos
+	 *            The duration in ns
+	 */
+	public void recordPhase(String phase, long nanos) {
+		Histogram h = phases.get(phase);
+		if (h == null) {
+			phases.putIfAbsent(phase, new Histogram());
+			h = phases.get(phase);
+		}
+		h.record(nanos);
+	}
+
+	/**
+	 * Sets a counter maintained outside, e.g. by a backend
+	 */
+	public void setCounter(String name, long value) {
+		AtomicLong c = counters.get(name);
+		if (c == null) {
+			counters.putIfAbsent(name, new AtomicLong());
+			c = counters.get(name);
+		}
+		c.set(value);
+	}
+
+	/**
+	 * @return The number of calls of a test on a backend
+	 */
+	public long getCallCount(String test, String backend) {
+		Calls c = calls.get(Pair.of(test, backend));
+		return c == null ? 0 : c.latency.getCount();
+	}
+
+	/**
+	 * @return The number of failed calls of a test on a backend
+	 */
+	public long getFailures(String test, String backend) {
+		Calls c = calls.get(Pair.of(test, backend));
+		return c == null ? 0 : c.failures.get();
+	}
+
+	/**
+	 * @param quantile
+	 *            The quantile, e.g. 0.99
+	 * @return The estimated quantile of the latency of a test on a backend in
+	 *         ms, NaN if there were no calls
+	 */
+	public double getLatency(String test, String backend, double quantile) {
+		Calls c = calls.get(Pair.of(test, backend));
+		return c == null ? Double.NaN : c.latency.quantile(quantile) / 1e6;
+	}
+
+	/**
+	 * @return The total duration of a phase in ms
+	 */
+	public double getPhaseTime(String phase) {
+		Histogram h = phases.get(phase);
+		return h == null ? 0 : h.getSum() / 1e6;
+	}
+
+	/**
+	 * @return The value of a counter, 0 if it was never set
+	 */
+	public long getCounter(String name) {
+		AtomicLong c = counters.get(name);
+		return c == null ? 0 : c.get();
+	}
+
+	/**
+	 * @return The metrics as JSON object of the calls per test and backend,
+	 *         the phases and the counters, durations in ms
+	 */
+	public String toJSON() {
+		JSONObject json = new JSONObject();
+
+		JSONObject tests = new JSONObject();
+		for (Entry<Pair<String, String>, Calls> e : sorted(calls).entrySet()) {
+			JSONObject test = tests.optJSONObject(e.getKey().getKey());
+			if (test == null) {
+				test = new JSONObject();
+				tests.put(e.getKey().getKey(), test);
+			}
+			JSONObject call = toJSON(e.getValue().latency);
+			call.put("failures", e.getValue().failures.get());
+			test.put(e.getKey().getValue(), call);
+		}
+		json.put("tests", tests);
+
+		JSONObject phaseObject = new JSONObject();
+		for (Entry<String, Histogram> e : sorted(phases).entrySet()) {
+			phaseObject.put(e.getKey(), toJSON(e.getValue()));
+		}
+		json.put("phases", phaseObject);
+
+		JSONObject counterObject = new JSONObject();
+		for (Entry<String, AtomicLong> e : sorted(counters).entrySet()) {
+			counterObject.put(e.getKey(), e.getValue().get());
+		}
+		json.put("counters", counterObject);
+		return json.toString(2);
+	}
+
+	private static JSONObject toJSON(Histogram h) {
+		JSONObject json = new JSONObject();
+		json.put("count", h.getCount());
+		json.put("total", h.getSum() / 1e6);
+		for (double q : QUANTILES) {
+			json.put(String.format(Locale.ENGLISH, "p%.0f", q * 100), h.getCount() == 0 ? 0 : h.quantile(q) / 1e6);
+		}
+		return json;
+	}
+
+	/**
+	 * @return The metrics in the text exposition format of Prometheus. The
+	 *         latencies are exported as summaries in seconds with the
+	 *         quantiles 0.5 and 0.99.
+	 */
+	public String toPrometheus() {
+		StringBuilder text = new StringBuilder();
+
+		String duration = PREFIX + "test_duration_seconds";
+		text.append(String.format("# HELP %s Duration of the calls of a test.\n# TYPE %s summary\n", duration, duration));
+		TreeMap<Pair<String, String>, Calls> sortedCalls = sorted(calls);
+		for (Entry<Pair<String, String>, Calls> e : sortedCalls.entrySet()) {
+			appendSummary(text, duration, String.format("test=\"%s\",backend=\"%s\"", escape(e.getKey().getKey()), escape(e.getKey().getValue())), e.getValue().latency);
+		}
+		String failures = PREFIX + "test_failures_total";
+		text.append(String.format("# HELP %s Failed or timed out calls of a test.\n# TYPE %s counter\n", failures, failures));
+		for (Entry<Pair<String, String>, Calls> e : sortedCalls.entrySet()) {
+			text.append(String.format(Locale.ENGLISH, "%s{test=\"%s\",backend=\"%s\"} %d\n", failures, escape(e.getKey().getKey()), escape(e.getKey().getValue()), e.getValue().failures.get()));
+		}
+
+		String phase = PREFIX + "phase_duration_seconds";
+		text.append(String.format("# HELP %s Duration of a phase of the evaluation.\n# TYPE %s summary\n", phase, phase));
+		for (Entry<String, Histogram> e : sorted(phases).entrySet()) {
+			appendSummary(text, phase, String.format("phase=\"%s\"", escape(e.getKey())), e.getValue());
+		}
+
+		for (Entry<String, AtomicLong> e : sorted(counters).entrySet()) {
+			String counter = PREFIX + e.getKey().replaceAll("[^a-zA-Z0-9_]", "_") + "_total";
+			text.append(String.format("# TYPE %s counter\n%s %d\n", counter, counter, e.getValue().get()));
+		}
+		return text.toString();
+	}
+
+	private static void appendSummary(StringBuilder text, String name, String labels, Histogram h) {
+		for (double q : QUANTILES) {
+			double value = h.getCount() == 0 ? Double.NaN : h.quantile(q) / 1e9;
+			text.append(String.format(Locale.ENGLISH, "%s{%s,quantile=\"%s\"} %s\n", name, labels, q, format(value)));
+		}
+		text.append(String.format(Locale.ENGLISH, "%s_sum{%s} %s\n", name, labels, format(h.getSum() / 1e9)));
+		text.append(String.format(Locale.ENGLISH, "%s_count{%s} %d\n", name, labels, h.getCount()));
+	}
+
+	private static String format(double value) {
+		return Double.isNaN(value) ? "NaN" : String.format(Locale.ENGLISH, "%.9f", value);
+	}
+
+	private static String escape(String label) {
+		return label.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+
+	private static <K extends Comparable<? super K>, V> TreeMap<K, V> sorted(ConcurrentHashMap<K, V> map) {
+		return new TreeMap<K, V>(map);
+	}
+
+	private static class Calls {
+		private final Histogram latency = new Histogram();
+		private final AtomicLong failures = new AtomicLong();
+	}
+
+	/**
+	 * Histogram of durations in buckets of powers of two of microseconds:
+	 * bucket 0 holds durations below 1 us, bucket i those in [2^(i-1), 2^i)
+	 * us. Quantiles are interpolated linearly within their bucket.
+	 */
+	static class Histogram {
+
+		private static final int BUCKETS = 40;
+
+		private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+		private final AtomicLong count = new AtomicLong();
+		private final AtomicLong sum = new AtomicLong();
+
+		void record(long nanos) {
+			long micros = Math.max(nanos, 0) / 1000;
+			int bucket = micros == 0 ? 0 : Math.min(64 - Long.numberOfLeadingZeros(micros), BUCKETS - 1);
+			buckets.incrementAndGet(bucket);
+			sum.addAndGet(Math.max(nanos, 0));
+			count.incrementAndGet();
+		}
+
+		long getCount() {
+			return count.get();
+		}
+
+		/**
+		 * @return The sum of all durations in ns
+		 */
+		long getSum() {
+			return sum.get();
+		}
+
+		/**
+		 * @return The estimated quantile in ns
+		 */
+		double quantile(double q) {
+			long total = 0;
+			long[] counts = new long[BUCKETS];
+			for (int i = 0; i < BUCKETS; i++) {
+				counts[i] = buckets.get(i);
+				total += counts[i];
+			}
+			double rank = q * total;
+			long cumulative = 0;
+			for (int i = 0; i < BUCKETS; i++) {
+				if (counts[i] > 0 && cumulative + counts[i] >= rank) {
+					double lower = i == 0 ? 0 : (1L << (i - 1)) * 1000.0;
+					double upper = (1L << i) * 1000.0;
+					return lower + (upper - lower) * (rank - cumulative) / counts[i];
+				}
+				cumulative += counts[i];
+			}
+			return 0;
+		}
+	}
+
+}
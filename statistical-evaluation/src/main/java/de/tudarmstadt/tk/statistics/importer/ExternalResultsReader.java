@@ -25,6 +25,7 @@ import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -351,7 +352,6 @@ public class ExternalResultsReader{
 	}
 	
 	public static void readLODPipelineTrainTest(String pathToDirectory) {
-		Locale.setDefault(Locale.ENGLISH);
 				
 		String[] semanticFeatures = new String[] { "Baseline", "+ALL", "+LOC", "+TIME", "+LOD", "+LOC+TIME", "+LOC+LOD", "+TIME+LOD", "+TYPES", "+CAT" };
 		String[] measures = new String[] { "Percent Correct", "Weighted Precision", "Weighted Recall", "Weighted F-Measure" };
@@ -541,7 +541,7 @@ public class ExternalResultsReader{
 					String featureSet = String.format("%s, nGrams: %s", semFeature, nGrams);
 
 					for (int j = 0; j < measures.length; j++) {
-						String outputRow = String.format("%s;%s;%s;%s;%s;%f", trainSetName, testSetName, "0", featureSet, measures[j], ((double[]) currentValues.get("aggregatedMeasureValues"))[j] / nrDifferentClassifiers);
+						String outputRow = String.format(Locale.ENGLISH, "%s;%s;%s;%s;%s;%f", trainSetName, testSetName, "0", featureSet, measures[j], ((double[]) currentValues.get("aggregatedMeasureValues"))[j] / nrDifferentClassifiers);
 						outputRows.add(outputRow);
 					}
 				}
@@ -869,9 +869,44 @@ public class ExternalResultsReader{
 	 * @param separator the separator to be used to split a line in separate cells, each relating to one column ArrayList<String[]> containing all lines split into tokens
 	 */
 	public static List<String[]> readAndCheckCSV(String pathToCsvFile, char separator) {
+		List<String[]> rows = readCSV(pathToCsvFile, separator);
+		if (rows == null) {
+			System.exit(1);
+		}
+		return rows;
+	}
+
+	/**
+	 * Reads a .csv file like {@link #readAndCheckCSV(String, char)}, but
+	 * returns null instead of terminating the JVM if the file cannot be read
+	 * or is corrupt, e.g. when evaluating many files in a batch
+	 * 
+	 * @param pathToCsvFile the path to the .csv file
+	 * @param separator the separator to be used to split a line in separate cells
+	 * @return all lines split into tokens, or null if the file is missing or corrupt
+	 */
+	public static List<String[]> readCSV(String pathToCsvFile, char separator) {
+		try {
+			return readCSV(new FileReader(pathToCsvFile), separator);
+		} catch (FileNotFoundException e) {
+			logger.log(Level.ERROR, "Input .csv file not found!");
+			System.err.println("Input .csv file not found!");
+			return null;
+		}
+	}
+
+	/**
+	 * Reads .csv data like {@link #readCSV(String, char)} from a reader, e.g.
+	 * rows appended to a file since it was read last
+	 * 
+	 * @param input the reader of the .csv data, which is closed
+	 * @param separator the separator to be used to split a line in separate cells
+	 * @return all lines split into tokens, or null if the data is corrupt
+	 */
+	public static List<String[]> readCSV(Reader input, char separator) {
 		List<String[]> rows = new ArrayList<String[]>();
 		try {
-		    CSVReader reader = new CSVReader(new FileReader(pathToCsvFile),separator);
+		    CSVReader reader = new CSVReader(input,separator);
 		    rows = reader.readAll();
 			reader.close();
 
@@ -880,24 +915,20 @@ public class ExternalResultsReader{
 					if(row.length!=rows.get(0).length){
 						logger.log(Level.ERROR, ".csv file corrupt: number of columns not same for each row.");
 						System.err.println(".csv file corrupt: number of columns not same for each row.");
-						System.exit(1);
+						return null;
 					}
 					if(row.length!=7){
 						logger.log(Level.ERROR, ".csv file corrupt: must contain exactly 7 columns.");
 						System.err.println(".csv file corrupt: must contain exactly 7 columns.");
-						System.exit(1);
+						return null;
 					}
 				}
 			}
-		} catch (FileNotFoundException e) {
-			logger.log(Level.ERROR, "Input .csv file not found!");
-			System.err.println("Input .csv file not found!");
-			System.exit(1);		
 		} catch (IOException e) {
 				logger.log(Level.ERROR, "Exception while reading input data .csv!");
 				System.err.println("Exception while reading input data .csv!");
 				e.printStackTrace();
-				System.exit(1);		
+				return null;
 		}
 		return rows;
 	}
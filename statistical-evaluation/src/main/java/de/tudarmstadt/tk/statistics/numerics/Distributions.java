@@ -0,0 +1,443 @@
+package de.tudarmstadt.tk.statistics.numerics;
+
+/**
+ * Copyright 2014
+ * Telecooperation (TK) Lab
+ * Technische Universit�t Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Distribution and quantile functions of the distributions required by the
+ * in-process statistical tests. Names and arguments follow their R
+ * equivalents, e.g. {@link #pchisq(double, double, boolean)} corresponds to
+ * pchisq(q, df, lower.tail) in R. All methods are static, thread-safe and do
+ * not allocate memory. Quantiles without a closed form are found by bracketing
+ * the root of the distribution function, evaluated in the requested tail to
+ * retain small probabilities.
+ *
+ * @author Guckelsberger, Schulz
+ */
+public final class Distributions {
+
+	private static final double SQRT_32 = Math.sqrt(32);
+	private static final double ONE_OVER_SQRT_2PI = 1 / Math.sqrt(2 * Math.PI);
+
+	// Coefficients of Cody's rational Chebyshev approximations of the normal
+	// distribution function, cf. Cody, W. J. (1969). Rational Chebyshev
+	// approximations for the error function. Mathematics of Computation,
+	// 23(107), 631-637.
+	private static final double[] NORMAL_A = { 2.2352520354606839287, 161.02823106855587881, 1067.6894854603709582, 18154.981253343561249, 0.065682337918207449113 };
+	private static final double[] NORMAL_B = { 47.20258190468824187, 976.09855173777669322, 10260.932208618978205, 45507.789335026729956 };
+	private static final double[] NORMAL_C = { 0.39894151208813466764, 8.8831497943883759412, 93.506656132177855979, 597.27027639480026226, 2494.5375852903726711, 6848.1904505362823326, 11602.651437647350124, 9842.7148383839780218,
+			1.0765576773720192317e-8 };
+	private static final double[] NORMAL_D = { 22.266688044328115691, 235.38790178262499861, 1519.377599407554805, 6485.558298266760755, 18615.571640885098091, 34900.952721145977266, 38912.003286093271411, 19685.429676859990727 };
+	private static final double[] NORMAL_P = { 0.21589853405795699, 0.1274011611602473639, 0.022235277870649807, 0.001421619193227893466, 2.9112874951168792e-5, 0.02307344176494017303 };
+	private static final double[] NORMAL_Q = { 1.28426009614491121, 0.468238212480865118, 0.0659881378689285515, 0.00378239633202758244, 7.29751555083966205e-5 };
+
+	// Coefficients of Acklam's rational approximation of the normal quantile
+	// function, which is refined by one step of Halley's method
+	private static final double[] QUANTILE_A = { -3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02, 1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00 };
+	private static final double[] QUANTILE_B = { -5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02, 6.680131188771972e+01, -1.328068155288572e+01 };
+	private static final double[] QUANTILE_C = { -7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00, -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00 };
+	private static final double[] QUANTILE_D = { 7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00, 3.754408661907416e+00 };
+	private static final double QUANTILE_LOW = 0.02425;
+
+	// Distributions whose quantiles are found numerically
+	static final int CHI_SQUARED = 0;
+	static final int STUDENT_T = 1;
+	static final int F = 2;
+	static final int STUDENTIZED_RANGE = 3;
+
+	// Relative accuracy and maximum number of iterations of the root finding
+	private static final double QUANTILE_TOLERANCE = 1e-13;
+	private static final int QUANTILE_MAX_ITERATIONS = 500;
+
+	private Distributions() {
+	}
+
+	/**
+	 * Distribution function of the normal distribution
+	 *
+	 * @param q
+	 *            quantile
+	 * @param mean
+	 *            mean
+	 * @param sd
+	 *            standard deviation, must be positive
+	 * @param lowerTail
+	 *            if true, P[X<=q] is returned, otherwise P[X>q]
+	 * @return the probability, or NaN for illegal arguments
+	 */
+	public static double pnorm(double q, double mean, double sd, boolean lowerTail) {
+		if (Double.isNaN(q) || Double.isNaN(mean) || Double.isNaN(sd) || sd <= 0) {
+			return Double.NaN;
+		}
+		double x = (q - mean) / sd;
+		if (Double.isInfinite(x)) {
+			return (x < 0) == lowerTail ? 0 : 1;
+		}
+		// The upper tail is the lower tail of the mirrored quantile
+		return standardNormalLowerTail(lowerTail ? x : -x);
+	}
+
+	/**
+	 * Quantile function of the normal distribution
+	 *
+	 * @param p
+	 *            probability
+	 * @param mean
+	 *            mean
+	 * @param sd
+	 *            standard deviation, must be positive
+	 * @param lowerTail
+	 *            if true, p is P[X<=x], otherwise P[X>x]
+	 * @return the quantile x, or NaN for illegal arguments
+	 */
+	public static double qnorm(double p, double mean, double sd, boolean lowerTail) {
+		if (Double.isNaN(p) || Double.isNaN(mean) || Double.isNaN(sd) || sd <= 0 || p < 0 || p > 1) {
+			return Double.NaN;
+		}
+		if (!lowerTail) {
+			return mean - sd * standardNormalQuantile(p);
+		}
+		return mean + sd * standardNormalQuantile(p);
+	}
+
+	private static double standardNormalQuantile(double p) {
+		if (p == 0) {
+			return Double.NEGATIVE_INFINITY;
+		}
+		if (p == 1) {
+			return Double.POSITIVE_INFINITY;
+		}
+
+		double x;
+		if (p < QUANTILE_LOW || p > 1 - QUANTILE_LOW) {
+			double q = Math.sqrt(-2 * Math.log(p < 0.5 ? p : 1 - p));
+			x = (((((QUANTILE_C[0] * q + QUANTILE_C[1]) * q + QUANTILE_C[2]) * q + QUANTILE_C[3]) * q + QUANTILE_C[4]) * q + QUANTILE_C[5])
+					/ ((((QUANTILE_D[0] * q + QUANTILE_D[1]) * q + QUANTILE_D[2]) * q + QUANTILE_D[3]) * q + 1);
+			if (p > 0.5) {
+				x = -x;
+			}
+		} else {
+			double q = p - 0.5;
+			double r = q * q;
+			x = (((((QUANTILE_A[0] * r + QUANTILE_A[1]) * r + QUANTILE_A[2]) * r + QUANTILE_A[3]) * r + QUANTILE_A[4]) * r + QUANTILE_A[5]) * q
+					/ (((((QUANTILE_B[0] * r + QUANTILE_B[1]) * r + QUANTILE_B[2]) * r + QUANTILE_B[3]) * r + QUANTILE_B[4]) * r + 1);
+		}
+
+		// Halley's step on the tail closer to zero, to retain precision
+		double e = x < 0 ? standardNormalLowerTail(x) - p : (1 - p) - standardNormalLowerTail(-x);
+		double u = e * Math.sqrt(2 * Math.PI) * Math.exp(x * x / 2);
+		return x - u / (1 + x * u / 2);
+	}
+
+	/**
+	 * Lower tail of the standard normal distribution, computed with Cody's
+	 * algorithm to full double precision also far in the tails
+	 */
+	private static double standardNormalLowerTail(double x) {
+		double y = Math.abs(x);
+		double xnum;
+		double xden;
+		double temp;
+		double xsq;
+		double del;
+
+		if (y <= 0.67448975) {
+			xnum = 0;
+			xden = 0;
+			if (y > 1e-17) {
+				xsq = x * x;
+				xnum = NORMAL_A[4] * xsq;
+				xden = xsq;
+				for (int i = 0; i < 3; i++) {
+					xnum = (xnum + NORMAL_A[i]) * xsq;
+					xden = (xden + NORMAL_B[i]) * xsq;
+				}
+			}
+			temp = x * (xnum + NORMAL_A[3]) / (xden + NORMAL_B[3]);
+			return 0.5 + temp;
+		}
+
+		if (y <= SQRT_32) {
+			xnum = NORMAL_C[8] * y;
+			xden = y;
+			for (int i = 0; i < 7; i++) {
+				xnum = (xnum + NORMAL_C[i]) * y;
+				xden = (xden + NORMAL_D[i]) * y;
+			}
+			temp = (xnum + NORMAL_C[7]) / (xden + NORMAL_D[7]);
+		} else {
+			xsq = 1 / (x * x);
+			xnum = NORMAL_P[5] * xsq;
+			xden = xsq;
+			for (int i = 0; i < 4; i++) {
+				xnum = (xnum + NORMAL_P[i]) * xsq;
+				xden = (xden + NORMAL_Q[i]) * xsq;
+			}
+			temp = xsq * (xnum + NORMAL_P[4]) / (xden + NORMAL_Q[4]);
+			temp = (ONE_OVER_SQRT_2PI - temp) / y;
+		}
+
+		// Split exp(-y^2/2) to avoid cancellation
+		xsq = Math.floor(y * 16) / 16;
+		del = (y - xsq) * (y + xsq);
+		double tail = Math.exp(-xsq * xsq * 0.5) * Math.exp(-del * 0.5) * temp;
+		return x > 0 ? 1 - tail : tail;
+	}
+
+	/**
+	 * Distribution function of the chi-squared distribution
+	 *
+	 * @param q
+	 *            quantile
+	 * @param df
+	 *            degrees of freedom, must be positive
+	 * @param lowerTail
+	 *            if true, P[X<=q] is returned, otherwise P[X>q]
+	 * @return the probability, or NaN for illegal arguments
+	 */
+	public static double pchisq(double q, double df, boolean lowerTail) {
+		if (Double.isNaN(q) || Double.isNaN(df) || df <= 0) {
+			return Double.NaN;
+		}
+		if (q <= 0) {
+			return lowerTail ? 0 : 1;
+		}
+		if (lowerTail) {
+			return SpecialFunctions.regularizedGammaP(df / 2, q / 2);
+		}
+		return SpecialFunctions.regularizedGammaQ(df / 2, q / 2);
+	}
+
+	/**
+	 * Distribution function of Student's t distribution
+	 *
+	 * @param q
+	 *            quantile
+	 * @param df
+	 *            degrees of freedom, must be positive, may be infinite
+	 * @param lowerTail
+	 *            if true, P[X<=q] is returned, otherwise P[X>q]
+	 * @return the probability, or NaN for illegal arguments
+	 */
+	public static double pt(double q, double df, boolean lowerTail) {
+		if (Double.isNaN(q) || Double.isNaN(df) || df <= 0) {
+			return Double.NaN;
+		}
+		if (Double.isInfinite(df)) {
+			return pnorm(q, 0, 1, lowerTail);
+		}
+		if (Double.isInfinite(q)) {
+			return (q < 0) == lowerTail ? 0 : 1;
+		}
+		// Probability of the tail beyond |q|
+		double tail = 0.5 * SpecialFunctions.regularizedBeta(df / (df + q * q), df / 2, 0.5);
+		return (q > 0) == lowerTail ? 1 - tail : tail;
+	}
+
+	/**
+	 * Distribution function of the F distribution
+	 *
+	 * @param q
+	 *            quantile
+	 * @param df1
+	 *            numerator degrees of freedom, must be positive
+	 * @param df2
+	 *            denominator degrees of freedom, must be positive, may be
+	 *            infinite
+	 * @param lowerTail
+	 *            if true, P[X<=q] is returned, otherwise P[X>q]
+	 * @return the probability, or NaN for illegal arguments
+	 */
+	public static double pf(double q, double df1, double df2, boolean lowerTail) {
+		if (Double.isNaN(q) || Double.isNaN(df1) || Double.isNaN(df2) || df1 <= 0 || df2 <= 0 || Double.isInfinite(df1)) {
+			return Double.NaN;
+		}
+		if (q <= 0) {
+			return lowerTail ? 0 : 1;
+		}
+		if (Double.isInfinite(q)) {
+			return lowerTail ? 1 : 0;
+		}
+		if (Double.isInfinite(df2)) {
+			return pchisq(q * df1, df1, lowerTail);
+		}
+		// Both tails are evaluated directly to retain small probabilities
+		double x = df1 * q;
+		if (lowerTail) {
+			return SpecialFunctions.regularizedBeta(x / (x + df2), df1 / 2, df2 / 2);
+		}
+		return SpecialFunctions.regularizedBeta(df2 / (df2 + x), df2 / 2, df1 / 2);
+	}
+
+	/**
+	 * Quantile function of the chi-squared distribution
+	 *
+	 * @param p
+	 *            probability
+	 * @param df
+	 *            degrees of freedom, must be positive
+	 * @param lowerTail
+	 *            if true, p is P[X<=x], otherwise P[X>x]
+	 * @return the quantile x, or NaN for illegal arguments
+	 */
+	public static double qchisq(double p, double df, boolean lowerTail) {
+		if (Double.isNaN(p) || Double.isNaN(df) || df <= 0 || p < 0 || p > 1) {
+			return Double.NaN;
+		}
+		return quantile(CHI_SQUARED, p, df, 0, lowerTail);
+	}
+
+	/**
+	 * Quantile function of Student's t distribution
+	 *
+	 * @param p
+	 *            probability
+	 * @param df
+	 *            degrees of freedom, must be positive, may be infinite
+	 * @param lowerTail
+	 *            if true, p is P[X<=x], otherwise P[X>x]
+	 * @return the quantile x, or NaN for illegal arguments
+	 */
+	public static double qt(double p, double df, boolean lowerTail) {
+		if (Double.isNaN(p) || Double.isNaN(df) || df <= 0 || p < 0 || p > 1) {
+			return Double.NaN;
+		}
+		if (Double.isInfinite(df)) {
+			return qnorm(p, 0, 1, lowerTail);
+		}
+		// The distribution is symmetric; the quantile is found from the
+		// probability of the upper tail beyond its absolute value
+		boolean negative = lowerTail ? p < 0.5 : p > 0.5;
+		double upper = negative == lowerTail ? p : 1 - p;
+		if (upper == 0.5) {
+			return 0;
+		}
+		double x = quantile(STUDENT_T, upper, df, 0, false);
+		return negative ? -x : x;
+	}
+
+	/**
+	 * Quantile function of the F distribution
+	 *
+	 * @param p
+	 *            probability
+	 * @param df1
+	 *            numerator degrees of freedom, must be positive
+	 * @param df2
+	 *            denominator degrees of freedom, must be positive, may be
+	 *            infinite
+	 * @param lowerTail
+	 *            if true, p is P[X<=x], otherwise P[X>x]
+	 * @return the quantile x, or NaN for illegal arguments
+	 */
+	public static double qf(double p, double df1, double df2, boolean lowerTail) {
+		if (Double.isNaN(p) || Double.isNaN(df1) || Double.isNaN(df2) || df1 <= 0 || df2 <= 0 || Double.isInfinite(df1) || p < 0 || p > 1) {
+			return Double.NaN;
+		}
+		return quantile(F, p, df1, df2, lowerTail);
+	}
+
+	/**
+	 * Finds the non-negative quantile of a distribution by bracketing the root
+	 * of its distribution function and refining it with the Illinois variant
+	 * of regula falsi
+	 *
+	 * @param distribution
+	 *            one of {@link #CHI_SQUARED}, {@link #STUDENT_T}, {@link #F} and
+	 *            {@link #STUDENTIZED_RANGE}
+	 * @param p
+	 *            probability, in [0,1]
+	 * @param a
+	 *            first parameter of the distribution
+	 * @param b
+	 *            second parameter of the distribution
+	 * @param lowerTail
+	 *            if true, p is P[X<=x], otherwise P[X>x]
+	 * @return the quantile x
+	 */
+	static double quantile(int distribution, double p, double a, double b, boolean lowerTail) {
+		if (p == (lowerTail ? 0 : 1)) {
+			return 0;
+		}
+		if (p == (lowerTail ? 1 : 0)) {
+			return Double.POSITIVE_INFINITY;
+		}
+
+		// The difference is increasing in x for the lower tail and
+		// decreasing for the upper tail
+		double sign = lowerTail ? 1 : -1;
+		double lo = 0;
+		double fLo = sign * (probability(distribution, lo, a, b, lowerTail) - p);
+		double hi = 1;
+		double fHi = sign * (probability(distribution, hi, a, b, lowerTail) - p);
+		while (fHi < 0) {
+			lo = hi;
+			fLo = fHi;
+			hi *= 2;
+			if (Double.isInfinite(hi)) {
+				return Double.POSITIVE_INFINITY;
+			}
+			fHi = sign * (probability(distribution, hi, a, b, lowerTail) - p);
+		}
+
+		int side = 0;
+		for (int i = 0; i < QUANTILE_MAX_ITERATIONS && hi - lo > QUANTILE_TOLERANCE * hi; i++) {
+			double x = (lo * fHi - hi * fLo) / (fHi - fLo);
+			if (!(x > lo && x < hi)) {
+				x = 0.5 * (lo + hi);
+			}
+			double f = sign * (probability(distribution, x, a, b, lowerTail) - p);
+			if (f == 0) {
+				return x;
+			}
+			if (f < 0) {
+				lo = x;
+				fLo = f;
+				// Halve the weight of the end point that was retained twice
+				if (side == -1) {
+					fHi /= 2;
+				}
+				side = -1;
+			} else {
+				hi = x;
+				fHi = f;
+				if (side == 1) {
+					fLo /= 2;
+				}
+				side = 1;
+			}
+		}
+		return 0.5 * (lo + hi);
+	}
+
+	private static double probability(int distribution, double x, double a, double b, boolean lowerTail) {
+		switch (distribution) {
+		case CHI_SQUARED:
+			return pchisq(x, a, lowerTail);
+		case STUDENT_T:
+			return pt(x, a, lowerTail);
+		case F:
+			return pf(x, a, b, lowerTail);
+		case STUDENTIZED_RANGE:
+			return StudentizedRange.ptukey(x, (int) a, b, lowerTail);
+		default:
+			throw new IllegalArgumentException("Unknown distribution " + distribution);
+		}
+	}
+
+}
@@ -0,0 +1,38 @@
+package de.tudarmstadt.tk.statistics.numerics;
+
+/**
+ * Copyright 2014
+ * Telecooperation (TK) Lab
+ * Technische Universit�t Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Nodes and weights of the 16-point Gauss-Legendre quadrature on [-1,1]. As
+ * the rule is symmetric, only the positive nodes are stored; each node x is
+ * used as x and -x with the same weight.
+ *
+ * @author Guckelsberger, Schulz
+ */
+final class GaussLegendre {
+
+	static final double[] NODES = { 0.989400934991649932596154173450, 0.944575023073232576077988415535, 0.865631202387831743880467897712, 0.755404408355003033895101194847, 0.617876244402643748446671764049,
+			0.458016777657227386342419442984, 0.281603550779258913230460501460, 0.950125098376374401853193354250e-1 };
+	static final double[] WEIGHTS = { 0.271524594117540948517805724560e-1, 0.622535239386478928628438369944e-1, 0.951585116824927848099251076022e-1, 0.124628971255533872052476282192, 0.149595988816576732081501730547,
+			0.169156519395002538189312079030, 0.182603415044923588866763667969, 0.189450610455068496285396723208 };
+
+	private GaussLegendre() {
+	}
+
+}
@@ -0,0 +1,200 @@
+package de.tudarmstadt.tk.statistics.numerics;
+
+/**
+ * Copyright 2014
+ * Telecooperation (TK) Lab
+ * Technische Universit�t Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Distribution of the maximum absolute value of multivariate t (or, for
+ * infinite degrees of freedom, normal) variables with product correlation
+ * structure rho_ij = lambda_i*lambda_j, as required by Dunnett's many-to-one
+ * comparisons. The variables can then be written as Z_j = lambda_j*U +
+ * sqrt(1-lambda_j^2)*E_j with independent standard normal U and E_j, so that
+ * the multivariate integral reduces to one dimension (two for finite degrees
+ * of freedom). Equicorrelated variables, e.g. comparisons of equally sized
+ * groups with a control, have lambda_j = sqrt(rho), cf. Dunnett,
+ * C. W. (1955). A multiple comparison procedure for comparing several
+ * treatments with a control. Journal of the American Statistical Association,
+ * 50(272), 1096-1121.
+ *
+ * @author Guckelsberger, Schulz
+ */
+public final class MultivariateT {
+
+	// The normal variable U is integrated over [-U_MAX, U_MAX]
+	private static final double U_MAX = 9;
+	private static final int U_INTERVALS = 24;
+	// The scale of the t variables is integrated over this many intervals
+	private static final int S_INTERVALS = 8;
+
+	private static final double ONE_OVER_SQRT_2PI = 1 / Math.sqrt(2 * Math.PI);
+
+	private MultivariateT() {
+	}
+
+	/**
+	 * Distribution function of max(|T_1|,...,|T_m|) for m equicorrelated
+	 * multivariate t variables, i.e. the two-sided Dunnett distribution
+	 *
+	 * @param q
+	 *            quantile
+	 * @param m
+	 *            number of variables (comparisons), at least 1
+	 * @param rho
+	 *            common correlation, in [0,1), 0.5 for comparisons of equally
+	 *            sized groups with a control
+	 * @param df
+	 *            degrees of freedom, positive, may be infinite
+	 * @param lowerTail
+	 *            if true, P[X<=q] is returned, otherwise P[X>q]
+	 * @return the probability, or NaN for illegal arguments
+	 */
+	public static double pmaxabs(double q, int m, double rho, double df, boolean lowerTail) {
+		if (Double.isNaN(q) || Double.isNaN(rho) || Double.isNaN(df) || m < 1 || rho < 0 || rho >= 1 || df <= 0) {
+			return Double.NaN;
+		}
+		if (q <= 0) {
+			return lowerTail ? 0 : 1;
+		}
+		if (Double.isInfinite(q)) {
+			return lowerTail ? 1 : 0;
+		}
+
+		return probability(q, m, Math.sqrt(rho), null, df, lowerTail);
+	}
+
+	/**
+	 * Distribution function of max(|T_1|,...,|T_m|) for multivariate t
+	 * variables with correlations rho_ij = lambda_i*lambda_j, e.g. Dunnett's
+	 * comparisons of groups of sizes n_i with a control of size n_0, for which
+	 * lambda_i = sqrt(n_i/(n_i+n_0))
+	 *
+	 * @param q
+	 *            quantile
+	 * @param lambda
+	 *            one factor per variable, in [0,1)
+	 * @param df
+	 *            degrees of freedom, positive, may be infinite
+	 * @param lowerTail
+	 *            if true, P[X<=q] is returned, otherwise P[X>q]
+	 * @return the probability, or NaN for illegal arguments
+	 */
+	public static double pmaxabs(double q, double[] lambda, double df, boolean lowerTail) {
+		if (Double.isNaN(q) || Double.isNaN(df) || lambda.length < 1 || df <= 0) {
+			return Double.NaN;
+		}
+		for (double l : lambda) {
+			if (Double.isNaN(l) || l < 0 || l >= 1) {
+				return Double.NaN;
+			}
+		}
+		if (q <= 0) {
+			return lowerTail ? 0 : 1;
+		}
+		if (Double.isInfinite(q)) {
+			return lowerTail ? 1 : 0;
+		}
+		return probability(q, lambda.length, 0, lambda, df, lowerTail);
+	}
+
+	/**
+	 * @param lambda
+	 *            the factors of the variables, or null if all m variables have
+	 *            the common factor a
+	 */
+	private static double probability(double q, int m, double a, double[] lambda, double df, boolean lowerTail) {
+		double p;
+		if (Double.isInfinite(df)) {
+			p = normalProbability(q, m, a, lambda);
+		} else {
+			p = tProbability(q, m, a, lambda, df);
+		}
+		p = Math.max(0, Math.min(1, p));
+		return lowerTail ? p : 1 - p;
+	}
+
+	/**
+	 * P[max|Z_j|<=q] for correlated standard normal variables, integrated over
+	 * the common component U
+	 */
+	private static double normalProbability(double q, int m, double a, double[] lambda) {
+		double b = Math.sqrt(1 - a * a);
+		double halfWidth = U_MAX / U_INTERVALS;
+		double sum = 0;
+		for (int interval = 0; interval < U_INTERVALS; interval++) {
+			double center = -U_MAX + (2 * interval + 1) * halfWidth;
+			for (int j = 0; j < GaussLegendre.NODES.length; j++) {
+				for (int sign = -1; sign <= 1; sign += 2) {
+					double u = center + sign * GaussLegendre.NODES[j] * halfWidth;
+					double logInner;
+					if (lambda == null) {
+						logInner = m * logInnerProbability(q, u, a, b);
+					} else {
+						logInner = 0;
+						for (int v = 0; v < m && logInner > Double.NEGATIVE_INFINITY; v++) {
+							logInner += logInnerProbability(q, u, lambda[v], Math.sqrt(1 - lambda[v] * lambda[v]));
+						}
+					}
+					if (logInner > Double.NEGATIVE_INFINITY) {
+						sum += GaussLegendre.WEIGHTS[j] * Math.exp(-0.5 * u * u + logInner);
+					}
+				}
+			}
+		}
+		return sum * halfWidth * ONE_OVER_SQRT_2PI;
+	}
+
+	/**
+	 * @return log P[|a*u + b*E| <= q] for standard normal E
+	 */
+	private static double logInnerProbability(double q, double u, double a, double b) {
+		double inner = Distributions.pnorm((q - a * u) / b, 0, 1, true) - Distributions.pnorm((-q - a * u) / b, 0, 1, true);
+		return inner > 0 ? Math.log(inner) : Double.NEGATIVE_INFINITY;
+	}
+
+	/**
+	 * P[max|T_j|<=q] for correlated t variables T_j=Z_j/S, integrated over the
+	 * distribution of S=sqrt(chi^2_df/df)
+	 */
+	private static double tProbability(double q, int m, double a, double[] lambda, double df) {
+		// Log-density of S: log(2) + (df/2)*log(df/2) - logGamma(df/2) +
+		// (df-1)*log(s) - df*s^2/2
+		double logConstant = Math.log(2) + df / 2 * Math.log(df / 2) - SpecialFunctions.logGamma(df / 2);
+
+		// S concentrates around 1 with standard deviation ~1/sqrt(2*df)
+		double spread = 10 / Math.sqrt(2 * df);
+		double lower = Math.max(0, 1 - spread);
+		double upper = 1 + Math.max(spread, 5);
+		double halfWidth = (upper - lower) / (2 * S_INTERVALS);
+
+		double sum = 0;
+		for (int interval = 0; interval < S_INTERVALS; interval++) {
+			double center = lower + (2 * interval + 1) * halfWidth;
+			for (int j = 0; j < GaussLegendre.NODES.length; j++) {
+				for (int sign = -1; sign <= 1; sign += 2) {
+					double s = center + sign * GaussLegendre.NODES[j] * halfWidth;
+					double logDensity = logConstant + (df - 1) * Math.log(s) - df * s * s / 2;
+					if (logDensity > -40) {
+						sum += GaussLegendre.WEIGHTS[j] * Math.exp(logDensity) * normalProbability(q * s, m, a, lambda);
+					}
+				}
+			}
+		}
+		return sum * halfWidth;
+	}
+
+}
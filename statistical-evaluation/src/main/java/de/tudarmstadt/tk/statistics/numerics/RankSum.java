@@ -0,0 +1,127 @@
+package de.tudarmstadt.tk.statistics.numerics;
+
+/**
+ * Copyright 2014
+ * Telecooperation (TK) Lab
+ * Technische Universit�t Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Exact null distribution of the Wilcoxon rank sum (Mann-Whitney) statistic
+ * W, i.e. the number of pairs (x_i, y_j) with x_i > y_j for samples of sizes m
+ * and n. The distribution is computed by dynamic programming once per
+ * combination of sample sizes and cached, like {@link SignedRank}.
+ *
+ * @author Guckelsberger, Schulz
+ */
+public final class RankSum {
+
+	// Largest sample size for which the exact distribution is computed. The
+	// temporary table takes (m+1)*(m*n+1) doubles.
+	public static final int MAX_N = 100;
+
+	private static final ConcurrentHashMap<Long, double[]> DISTRIBUTIONS = new ConcurrentHashMap<Long, double[]>();
+
+	private RankSum() {
+	}
+
+	/**
+	 * Distribution function of the Wilcoxon rank sum statistic, equivalent to
+	 * pwilcox(q, m, n, lower.tail) in R
+	 *
+	 * @param q
+	 *            quantile
+	 * @param m
+	 *            size of the first sample, between 1 and {@link #MAX_N}
+	 * @param n
+	 *            size of the second sample, between 1 and {@link #MAX_N}
+	 * @param lowerTail
+	 *            if true, P[W<=q] is returned, otherwise P[W>q]
+	 * @return the probability, or NaN for illegal arguments
+	 */
+	public static double pwilcox(double q, int m, int n, boolean lowerTail) {
+		if (Double.isNaN(q) || m < 1 || n < 1 || m > MAX_N || n > MAX_N) {
+			return Double.NaN;
+		}
+		int max = m * n;
+		double x = Math.floor(q + 1e-7);
+		if (x < 0) {
+			return lowerTail ? 0 : 1;
+		}
+		if (x >= max) {
+			return lowerTail ? 1 : 0;
+		}
+
+		double[] cdf = distribution(m, n);
+		if (lowerTail) {
+			return cdf[(int) x];
+		}
+		// The distribution is symmetric: P[W>x] = P[W<=max-x-1]
+		return cdf[max - (int) x - 1];
+	}
+
+	/**
+	 * @return the cached cumulative distribution for samples of sizes m and n,
+	 *         computed if necessary
+	 */
+	private static double[] distribution(int m, int n) {
+		// The distribution is the same for swapped sample sizes
+		Long key = ((long) Math.min(m, n) << 32) | Math.max(m, n);
+		double[] cdf = DISTRIBUTIONS.get(key);
+		if (cdf == null) {
+			cdf = computeDistribution(Math.min(m, n), Math.max(m, n));
+			double[] previous = DISTRIBUTIONS.putIfAbsent(key, cdf);
+			if (previous != null) {
+				cdf = previous;
+			}
+		}
+		return cdf;
+	}
+
+	private static double[] computeDistribution(int m, int n) {
+		int max = m * n;
+
+		// Number of arrangements of a x- and b y-values with statistic w,
+		// f(a, b, w) = f(a-1, b, w-b) + f(a, b-1, w), updated in place for
+		// b=1..n. The counts stay below choose(2*MAX_N, MAX_N) and within the
+		// range of doubles.
+		double[][] f = new double[m + 1][max + 1];
+		for (int a = 0; a <= m; a++) {
+			f[a][0] = 1;
+		}
+		for (int b = 1; b <= n; b++) {
+			for (int a = 1; a <= m; a++) {
+				for (int w = a * b; w >= b; w--) {
+					f[a][w] += f[a - 1][w - b];
+				}
+			}
+		}
+
+		double[] cdf = f[m];
+		double total = 0;
+		for (int w = 0; w <= max; w++) {
+			total += cdf[w];
+		}
+		double cumulative = 0;
+		for (int w = 0; w <= max; w++) {
+			cumulative += cdf[w];
+			cdf[w] = cumulative / total;
+		}
+		return cdf;
+	}
+
+}
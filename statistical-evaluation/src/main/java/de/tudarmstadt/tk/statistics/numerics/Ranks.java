@@ -0,0 +1,121 @@
+package de.tudarmstadt.tk.statistics.numerics;
+
+/**
+ * Copyright 2014
+ * Telecooperation (TK) Lab
+ * Technische Universit�t Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Arrays;
+
+/**
+ * Ranking of primitive samples as required by the rank-based tests. Ties are
+ * assigned their mid-rank, equivalent to rank(x, ties.method="average") in R.
+ *
+ * @author Guckelsberger, Schulz
+ */
+public final class Ranks {
+
+	private Ranks() {
+	}
+
+	/**
+	 * Replaces the first n values of an array by their ranks (1..n) in place.
+	 * Apart from the caller-provided scratch array, no memory is allocated,
+	 * so that the method can be applied to many blocks (e.g. folds) in a row.
+	 * The values must not contain NaNs.
+	 *
+	 * @param values
+	 *            the values to be ranked, overwritten with their ranks
+	 * @param n
+	 *            the number of values to be ranked
+	 * @param scratch
+	 *            an array of at least n elements used for sorting
+	 * @return the tie correction term sum(t^3-t) over all groups of t tied
+	 *         values
+	 */
+	public static double rank(double[] values, int n, double[] scratch) {
+
+		System.arraycopy(values, 0, scratch, 0, n);
+		Arrays.sort(scratch, 0, n);
+
+		for (int i = 0; i < n; i++) {
+			double v = values[i];
+			int first = lowerBound(scratch, n, v);
+			int last = upperBound(scratch, first, n, v) - 1;
+			values[i] = (first + last) / 2.0 + 1;
+		}
+
+		return tieCorrection(scratch, n);
+	}
+
+	/**
+	 * Computes the tie correction term sum(t^3-t) over all groups of t tied
+	 * values of a sorted array
+	 *
+	 * @param sorted
+	 *            values in ascending order
+	 * @param n
+	 *            the number of values to be considered
+	 * @return the tie correction term
+	 */
+	public static double tieCorrection(double[] sorted, int n) {
+		double ties = 0;
+		int start = 0;
+		for (int i = 1; i <= n; i++) {
+			if (i == n || sorted[i] != sorted[start]) {
+				double t = i - start;
+				ties += t * t * t - t;
+				start = i;
+			}
+		}
+		return ties;
+	}
+
+	/**
+	 * @return index of the first element in sorted[0..n) not less than v
+	 */
+	private static int lowerBound(double[] sorted, int n, double v) {
+		int lo = 0;
+		int hi = n;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (sorted[mid] < v) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * @return index of the first element in sorted[from..n) greater than v
+	 */
+	private static int upperBound(double[] sorted, int from, int n, double v) {
+		int lo = from;
+		int hi = n;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (sorted[mid] <= v) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+}
@@ -0,0 +1,226 @@
+package de.tudarmstadt.tk.statistics.numerics;
+
+/**
+ * Copyright 2014
+ * Telecooperation (TK) Lab
+ * Technische Universit�t Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shapiro-Wilk test for normality, equivalent to shapiro.test in R, cf.
+ * Royston, P. (1995). Remark AS R94: A remark on algorithm AS 181: The W-test
+ * for normality. Journal of the Royal Statistical Society. Series C (Applied
+ * Statistics), 44(4), 547-551. The coefficients of the test depend on the
+ * sample size only; they are computed once per sample size and cached, so that
+ * repeated tests on samples of the same size (e.g. the differences of all pairs
+ * of models evaluated on the same folds) only require a lookup.
+ *
+ * @author Guckelsberger, Schulz
+ */
+public final class ShapiroWilk {
+
+	public static final int MIN_N = 3;
+	public static final int MAX_N = 5000;
+
+	// Samples whose range is below this value are considered constant
+	private static final double SMALL = 1e-19;
+
+	// Polynomial coefficients of Royston's approximations
+	private static final double[] G = { -2.273, 0.459 };
+	private static final double[] C1 = { 0.0, 0.221157, -0.147981, -2.07119, 4.434685, -2.706056 };
+	private static final double[] C2 = { 0.0, 0.042981, -0.293762, -1.752461, 5.682633, -3.582633 };
+	private static final double[] C3 = { 0.544, -0.39978, 0.025054, -6.714e-4 };
+	private static final double[] C4 = { 1.3822, -0.77857, 0.062767, -0.0020322 };
+	private static final double[] C5 = { -1.5861, -0.31082, -0.083751, 0.0038915 };
+	private static final double[] C6 = { -0.4803, -0.082676, 0.0030302 };
+
+	private static final ConcurrentHashMap<Integer, double[]> COEFFICIENTS = new ConcurrentHashMap<Integer, double[]>();
+
+	private ShapiroWilk() {
+	}
+
+	/**
+	 * W statistic of the Shapiro-Wilk test. Apart from the coefficients of a
+	 * sample size seen for the first time, no memory is allocated.
+	 *
+	 * @param sorted
+	 *            sample in ascending order, without missing values
+	 * @param n
+	 *            number of values of the sample to be used, between
+	 *            {@link #MIN_N} and {@link #MAX_N}
+	 * @return the statistic W, or NaN if the sample size is out of range or
+	 *         all values are identical
+	 */
+	public static double statistic(double[] sorted, int n) {
+		if (n < MIN_N || n > MAX_N) {
+			return Double.NaN;
+		}
+		double range = sorted[n - 1] - sorted[0];
+		if (range < SMALL || Double.isNaN(range)) {
+			return Double.NaN;
+		}
+		double[] a = coefficients(n);
+
+		// W is the squared correlation between the scaled data and the
+		// coefficients, which are antisymmetric: the i-th smallest value has
+		// coefficient -a[i], the i-th largest +a[i]
+		double sa = 0;
+		double sx = 0;
+		for (int i = 0; i < n; i++) {
+			sa += coefficient(a, i, n);
+			sx += sorted[i] / range;
+		}
+		sa /= n;
+		sx /= n;
+
+		double ssa = 0;
+		double ssx = 0;
+		double sax = 0;
+		for (int i = 0; i < n; i++) {
+			double asa = coefficient(a, i, n) - sa;
+			double xsx = sorted[i] / range - sx;
+			ssa += asa * asa;
+			ssx += xsx * xsx;
+			sax += asa * xsx;
+		}
+
+		// 1-W is calculated this way to avoid excessive rounding error for W
+		// close to 1
+		double ssassx = Math.sqrt(ssa * ssx);
+		return 1 - (ssassx - sax) * (ssassx + sax) / (ssa * ssx);
+	}
+
+	/**
+	 * p-value of the Shapiro-Wilk test, i.e. the probability of a statistic as
+	 * small as w under the hypothesis of normality
+	 *
+	 * @param w
+	 *            the statistic W
+	 * @param n
+	 *            sample size, between {@link #MIN_N} and {@link #MAX_N}
+	 * @return the p-value, or NaN for illegal arguments
+	 */
+	public static double pValue(double w, int n) {
+		if (Double.isNaN(w) || n < MIN_N || n > MAX_N) {
+			return Double.NaN;
+		}
+		if (n == 3) {
+			// Exact: 6/pi * (asin(sqrt(w)) - pi/3)
+			return Math.max(0, 6 / Math.PI * (Math.asin(Math.sqrt(Math.min(1, w))) - Math.PI / 3));
+		}
+
+		double y = Math.log(1 - w);
+		double m;
+		double s;
+		if (n <= 11) {
+			double gamma = polynomial(G, n);
+			if (y >= gamma) {
+				return 1e-99;
+			}
+			y = -Math.log(gamma - y);
+			m = polynomial(C3, n);
+			s = Math.exp(polynomial(C4, n));
+		} else {
+			double logN = Math.log(n);
+			m = polynomial(C5, logN);
+			s = Math.exp(polynomial(C6, logN));
+		}
+		return Distributions.pnorm(y, m, s, false);
+	}
+
+	/**
+	 * Coefficient of the i-th smallest of n values (0-based)
+	 */
+	private static double coefficient(double[] a, int i, int n) {
+		int j = n - 1 - i;
+		if (i < j) {
+			return -a[i];
+		}
+		if (i > j) {
+			return a[j];
+		}
+		return 0;
+	}
+
+	/**
+	 * @return the cached coefficients for n values, computed if necessary
+	 */
+	private static double[] coefficients(int n) {
+		Integer key = n;
+		double[] a = COEFFICIENTS.get(key);
+		if (a == null) {
+			a = computeCoefficients(n);
+			double[] previous = COEFFICIENTS.putIfAbsent(key, a);
+			if (previous != null) {
+				a = previous;
+			}
+		}
+		return a;
+	}
+
+	/**
+	 * Royston's approximation of the coefficients of the n/2 largest values,
+	 * in descending order of the values
+	 */
+	private static double[] computeCoefficients(int n) {
+		int half = n / 2;
+		double[] a = new double[half];
+		if (n == 3) {
+			a[0] = Math.sqrt(0.5);
+			return a;
+		}
+
+		// Normal scores m_i, normalized with polynomial corrections of the two
+		// outermost values
+		double an25 = n + 0.25;
+		double summ2 = 0;
+		for (int i = 0; i < half; i++) {
+			a[i] = Distributions.qnorm((i + 1 - 0.375) / an25, 0, 1, true);
+			summ2 += a[i] * a[i];
+		}
+		summ2 *= 2;
+		double ssumm2 = Math.sqrt(summ2);
+		double rsn = 1 / Math.sqrt(n);
+		double a1 = polynomial(C1, rsn) - a[0] / ssumm2;
+
+		int first;
+		double fac;
+		if (n > 5) {
+			first = 2;
+			double a2 = -a[1] / ssumm2 + polynomial(C2, rsn);
+			fac = Math.sqrt((summ2 - 2 * a[0] * a[0] - 2 * a[1] * a[1]) / (1 - 2 * a1 * a1 - 2 * a2 * a2));
+			a[1] = a2;
+		} else {
+			first = 1;
+			fac = Math.sqrt((summ2 - 2 * a[0] * a[0]) / (1 - 2 * a1 * a1));
+		}
+		a[0] = a1;
+		for (int i = first; i < half; i++) {
+			a[i] /= -fac;
+		}
+		return a;
+	}
+
+	private static double polynomial(double[] c, double x) {
+		double result = 0;
+		for (int i = c.length - 1; i >= 0; i--) {
+			result = result * x + c[i];
+		}
+		return result;
+	}
+
+}
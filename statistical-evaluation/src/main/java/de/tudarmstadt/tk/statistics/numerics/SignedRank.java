@@ -0,0 +1,115 @@
+package de.tudarmstadt.tk.statistics.numerics;
+
+/**
+ * Copyright 2014
+ * Telecooperation (TK) Lab
+ * Technische Universit�t Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Exact null distribution of the Wilcoxon signed rank statistic, i.e. of the
+ * sum of a random subset of the ranks 1..n. The distribution is computed by
+ * dynamic programming once per sample size n and cached, so that repeated
+ * tests on samples of the same size (e.g. all pairs of models evaluated on the
+ * same folds) only require a lookup.
+ *
+ * @author Guckelsberger, Schulz
+ */
+public final class SignedRank {
+
+	// Largest sample size for which the probabilities 2^-n are representable
+	public static final int MAX_N = 1000;
+
+	private static final ConcurrentHashMap<Integer, double[]> DISTRIBUTIONS = new ConcurrentHashMap<Integer, double[]>();
+
+	private SignedRank() {
+	}
+
+	/**
+	 * Distribution function of the Wilcoxon signed rank statistic, equivalent
+	 * to psignrank(q, n, lower.tail) in R
+	 *
+	 * @param q
+	 *            quantile
+	 * @param n
+	 *            number of observations, between 1 and {@link #MAX_N}
+	 * @param lowerTail
+	 *            if true, P[V<=q] is returned, otherwise P[V>q]
+	 * @return the probability, or NaN for illegal arguments
+	 */
+	public static double psignrank(double q, int n, boolean lowerTail) {
+		if (Double.isNaN(q) || n < 1 || n > MAX_N) {
+			return Double.NaN;
+		}
+		int max = n * (n + 1) / 2;
+		double x = Math.floor(q + 1e-7);
+		if (x < 0) {
+			return lowerTail ? 0 : 1;
+		}
+		if (x >= max) {
+			return lowerTail ? 1 : 0;
+		}
+
+		double[] cdf = distribution(n);
+		if (lowerTail) {
+			return cdf[(int) x];
+		}
+		// The distribution is symmetric: P[V>x] = P[V<=max-x-1]
+		return cdf[max - (int) x - 1];
+	}
+
+	/**
+	 * @return the cached cumulative distribution for n observations, computed
+	 *         if necessary
+	 */
+	private static double[] distribution(int n) {
+		Integer key = n;
+		double[] cdf = DISTRIBUTIONS.get(key);
+		if (cdf == null) {
+			cdf = computeDistribution(n);
+			double[] previous = DISTRIBUTIONS.putIfAbsent(key, cdf);
+			if (previous != null) {
+				cdf = previous;
+			}
+		}
+		return cdf;
+	}
+
+	private static double[] computeDistribution(int n) {
+		int max = n * (n + 1) / 2;
+
+		// Number of subsets of 1..i with sum s, updated in place for i=1..n.
+		// The counts are scaled by 1/2 per step to obtain probabilities and to
+		// stay within the range of doubles.
+		double[] w = new double[max + 1];
+		w[0] = 1;
+		int upper = 0;
+		for (int i = 1; i <= n; i++) {
+			upper += i;
+			for (int s = upper; s >= 0; s--) {
+				double with = s >= i ? w[s - i] : 0;
+				w[s] = 0.5 * (w[s] + with);
+			}
+		}
+
+		for (int s = 1; s <= max; s++) {
+			w[s] += w[s - 1];
+		}
+		return w;
+	}
+
+}
@@ -0,0 +1,260 @@
+package de.tudarmstadt.tk.statistics.numerics;
+
+/**
+ * Copyright 2014
+ * Telecooperation (TK) Lab
+ * Technische Universit�t Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Special functions underlying the distribution functions in
+ * {@link Distributions}. All methods are static, free of side effects and do
+ * not allocate memory.
+ *
+ * Cf. Press, W. H., Teukolsky, S. A., Vetterling, W. T., & Flannery, B. P.
+ * (2007). Numerical Recipes: The Art of Scientific Computing (3rd ed.),
+ * chapter 6.
+ *
+ * @author Guckelsberger, Schulz
+ */
+public final class SpecialFunctions {
+
+	private static final double EPSILON = 1e-15;
+	private static final double TINY = 1e-300;
+	private static final int MAX_ITERATIONS = 100000;
+
+	// Lanczos approximation (g=7, n=9)
+	private static final double LANCZOS_G = 7;
+	private static final double[] LANCZOS_COEFFICIENTS = { 0.99999999999980993, 676.5203681218851, -1259.1392167224028, 771.32342877765313, -176.61502916214059, 12.507343278686905, -0.13857109526572012, 9.9843695780195716e-6,
+			1.5056327351493116e-7 };
+	private static final double HALF_LOG_2_PI = 0.5 * Math.log(2 * Math.PI);
+
+	private SpecialFunctions() {
+	}
+
+	/**
+	 * Natural logarithm of the gamma function
+	 *
+	 * @param x
+	 *            a positive number
+	 * @return ln(Gamma(x)), or NaN if x is not positive
+	 */
+	public static double logGamma(double x) {
+		if (Double.isNaN(x) || x <= 0) {
+			return Double.NaN;
+		}
+		if (x < 0.5) {
+			// Reflection formula
+			return Math.log(Math.PI / Math.sin(Math.PI * x)) - logGamma(1 - x);
+		}
+		x -= 1;
+		double a = LANCZOS_COEFFICIENTS[0];
+		double t = x + LANCZOS_G + 0.5;
+		for (int i = 1; i < LANCZOS_COEFFICIENTS.length; i++) {
+			a += LANCZOS_COEFFICIENTS[i] / (x + i);
+		}
+		return HALF_LOG_2_PI + (x + 0.5) * Math.log(t) - t + Math.log(a);
+	}
+
+	/**
+	 * Regularized lower incomplete gamma function P(a,x)
+	 *
+	 * @param a
+	 *            shape, must be positive
+	 * @param x
+	 *            upper limit of integration, must be non-negative
+	 * @return P(a,x), or NaN for illegal arguments
+	 */
+	public static double regularizedGammaP(double a, double x) {
+		if (Double.isNaN(a) || Double.isNaN(x) || a <= 0 || x < 0) {
+			return Double.NaN;
+		}
+		if (x == 0) {
+			return 0;
+		}
+		if (Double.isInfinite(x)) {
+			return 1;
+		}
+		if (x < a + 1) {
+			return gammaSeries(a, x);
+		}
+		return 1 - gammaContinuedFraction(a, x);
+	}
+
+	/**
+	 * Regularized upper incomplete gamma function Q(a,x)=1-P(a,x), computed
+	 * without cancellation for large x
+	 *
+	 * @param a
+	 *            shape, must be positive
+	 * @param x
+	 *            lower limit of integration, must be non-negative
+	 * @return Q(a,x), or NaN for illegal arguments
+	 */
+	public static double regularizedGammaQ(double a, double x) {
+		if (Double.isNaN(a) || Double.isNaN(x) || a <= 0 || x < 0) {
+			return Double.NaN;
+		}
+		if (x == 0) {
+			return 1;
+		}
+		if (Double.isInfinite(x)) {
+			return 0;
+		}
+		if (x < a + 1) {
+			return 1 - gammaSeries(a, x);
+		}
+		return gammaContinuedFraction(a, x);
+	}
+
+	/**
+	 * Natural logarithm of the beta function
+	 *
+	 * @param a
+	 *            a positive number
+	 * @param b
+	 *            a positive number
+	 * @return ln(B(a,b)), or NaN if a or b is not positive
+	 */
+	public static double logBeta(double a, double b) {
+		return logGamma(a) + logGamma(b) - logGamma(a + b);
+	}
+
+	/**
+	 * Regularized incomplete beta function I_x(a,b)
+	 *
+	 * @param x
+	 *            upper limit of integration, in [0,1]
+	 * @param a
+	 *            first shape, must be positive
+	 * @param b
+	 *            second shape, must be positive
+	 * @return I_x(a,b), or NaN for illegal arguments
+	 */
+	public static double regularizedBeta(double x, double a, double b) {
+		if (Double.isNaN(x) || Double.isNaN(a) || Double.isNaN(b) || a <= 0 || b <= 0 || x < 0 || x > 1) {
+			return Double.NaN;
+		}
+		if (x == 0) {
+			return 0;
+		}
+		if (x == 1) {
+			return 1;
+		}
+		double front = Math.exp(a * Math.log(x) + b * Math.log1p(-x) - logBeta(a, b));
+		// The continued fraction converges quickly on the smaller side of the
+		// mean; the other side is obtained by symmetry
+		if (x < (a + 1) / (a + b + 2)) {
+			return front * betaContinuedFraction(x, a, b) / a;
+		}
+		return 1 - front * betaContinuedFraction(1 - x, b, a) / b;
+	}
+
+	/**
+	 * Continued fraction representation of the incomplete beta function
+	 * (modified Lentz's method)
+	 */
+	private static double betaContinuedFraction(double x, double a, double b) {
+		double qab = a + b;
+		double qap = a + 1;
+		double qam = a - 1;
+		double c = 1;
+		double d = 1 - qab * x / qap;
+		if (Math.abs(d) < TINY) {
+			d = TINY;
+		}
+		d = 1 / d;
+		double h = d;
+		for (int m = 1; m < MAX_ITERATIONS; m++) {
+			int m2 = 2 * m;
+			double aa = m * (b - m) * x / ((qam + m2) * (a + m2));
+			d = 1 + aa * d;
+			if (Math.abs(d) < TINY) {
+				d = TINY;
+			}
+			c = 1 + aa / c;
+			if (Math.abs(c) < TINY) {
+				c = TINY;
+			}
+			d = 1 / d;
+			h *= d * c;
+			aa = -(a + m) * (qab + m) * x / ((a + m2) * (qap + m2));
+			d = 1 + aa * d;
+			if (Math.abs(d) < TINY) {
+				d = TINY;
+			}
+			c = 1 + aa / c;
+			if (Math.abs(c) < TINY) {
+				c = TINY;
+			}
+			d = 1 / d;
+			double delta = d * c;
+			h *= delta;
+			if (Math.abs(delta - 1) < EPSILON) {
+				break;
+			}
+		}
+		return h;
+	}
+
+	/**
+	 * Series representation of P(a,x), converging quickly for x<a+1
+	 */
+	private static double gammaSeries(double a, double x) {
+		double ap = a;
+		double delta = 1 / a;
+		double sum = delta;
+		for (int n = 0; n < MAX_ITERATIONS; n++) {
+			ap += 1;
+			delta *= x / ap;
+			sum += delta;
+			if (Math.abs(delta) < Math.abs(sum) * EPSILON) {
+				break;
+			}
+		}
+		return sum * Math.exp(-x + a * Math.log(x) - logGamma(a));
+	}
+
+	/**
+	 * Continued fraction representation of Q(a,x) (modified Lentz's method),
+	 * converging quickly for x>=a+1
+	 */
+	private static double gammaContinuedFraction(double a, double x) {
+		double b = x + 1 - a;
+		double c = 1 / TINY;
+		double d = 1 / b;
+		double h = d;
+		for (int i = 1; i < MAX_ITERATIONS; i++) {
+			double an = -i * (i - a);
+			b += 2;
+			d = an * d + b;
+			if (Math.abs(d) < TINY) {
+				d = TINY;
+			}
+			c = b + an / c;
+			if (Math.abs(c) < TINY) {
+				c = TINY;
+			}
+			d = 1 / d;
+			double delta = d * c;
+			h *= delta;
+			if (Math.abs(delta - 1) < EPSILON) {
+				break;
+			}
+		}
+		return Math.exp(-x + a * Math.log(x) - logGamma(a)) * h;
+	}
+
+}
@@ -0,0 +1,383 @@
+package de.tudarmstadt.tk.statistics.numerics;
+
+/**
+ * Copyright 2014
+ * Telecooperation (TK) Lab
+ * Technische Universit�t Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Distribution of the studentized range, as required by Tukey- and
+ * Nemenyi-type multiple comparisons. {@link #ptukey(double, int, double, boolean)}
+ * evaluates the distribution function by numerical integration, equivalent to
+ * ptukey(q, nmeans, df, lower.tail) in R, cf. Copenhaver, M. D., & Holland, B.
+ * S. (1988). Computation of the distribution of the maximum studentized range
+ * statistic with application to multiple significance testing of simple
+ * effects. Journal of Statistical Computation and Simulation, 30(1), 1-15.
+ *
+ * As the integration is expensive and post-hoc tests query the same
+ * distribution once per pair of models, {@link #upperTail(double, int, double)}
+ * answers from a table of upper-tail probabilities that is computed once per
+ * combination of means and degrees of freedom and interpolated between the
+ * grid points.
+ *
+ * @author Guckelsberger, Schulz
+ */
+public final class StudentizedRange {
+
+	// Grid of the cached tables: step width and range of the quantiles
+	private static final double TABLE_STEP = 0.05;
+	private static final double TABLE_MAX_Q = 100;
+	// Tables end where the upper tail falls below this probability
+	private static final double TABLE_MIN_P = 1e-12;
+	// Maximum absolute interpolation error, checked at the interval midpoints
+	private static final double TABLE_TOLERANCE = 1e-6;
+
+	private static final ConcurrentHashMap<Key, Table> TABLES = new ConcurrentHashMap<Key, Table>();
+
+	// Gauss-Legendre nodes and weights (12 points) for the range integral
+	private static final double[] RANGE_NODES = { 0.981560634246719250690549090149, 0.904117256370474856678465866119, 0.769902674194304687036893833213, 0.587317954286617447296702418941, 0.367831498998180193752691536644,
+			0.125233408511468915472441369464 };
+	private static final double[] RANGE_WEIGHTS = { 0.047175336386511827194615961485, 0.106939325995318430960254718194, 0.160078328543346226334652529543, 0.203167426723065921749064455810, 0.233492536538354808760849898925,
+			0.249147045813402785000562436043 };
+
+	private static final double ONE_OVER_SQRT_2PI = 1 / Math.sqrt(2 * Math.PI);
+
+	private StudentizedRange() {
+	}
+
+	/**
+	 * Distribution function of the studentized range
+	 *
+	 * @param q
+	 *            quantile
+	 * @param nmeans
+	 *            number of means (groups), at least 2
+	 * @param df
+	 *            degrees of freedom of the variance estimate, at least 2, may
+	 *            be infinite
+	 * @param lowerTail
+	 *            if true, P[X<=q] is returned, otherwise P[X>q]
+	 * @return the probability, or NaN for illegal arguments
+	 */
+	public static double ptukey(double q, int nmeans, double df, boolean lowerTail) {
+		if (Double.isNaN(q) || Double.isNaN(df) || df < 2 || nmeans < 2) {
+			return Double.NaN;
+		}
+		if (q <= 0) {
+			return lowerTail ? 0 : 1;
+		}
+		if (Double.isInfinite(q)) {
+			return lowerTail ? 1 : 0;
+		}
+		double p = lowerTailProbability(q, nmeans, df);
+		return lowerTail ? p : 1 - p;
+	}
+
+	/**
+	 * Quantile function of the studentized range, equivalent to qtukey(p,
+	 * nmeans, df, lower.tail) in R, e.g. for critical differences
+	 *
+	 * @param p
+	 *            probability
+	 * @param nmeans
+	 *            number of means (groups), at least 2
+	 * @param df
+	 *            degrees of freedom of the variance estimate, at least 2, may
+	 *            be infinite
+	 * @param lowerTail
+	 *            if true, p is P[X<=x], otherwise P[X>x]
+	 * @return the quantile x, or NaN for illegal arguments
+	 */
+	public static double qtukey(double p, int nmeans, double df, boolean lowerTail) {
+		if (Double.isNaN(p) || Double.isNaN(df) || df < 2 || nmeans < 2 || p < 0 || p > 1) {
+			return Double.NaN;
+		}
+		return Distributions.quantile(Distributions.STUDENTIZED_RANGE, p, nmeans, df, lowerTail);
+	}
+
+	/**
+	 * Upper tail P[X>q] of the studentized range, interpolated from a cached
+	 * table. The table for a combination of nmeans and df is computed on first
+	 * use; subsequent calls do not allocate memory. Quantiles beyond the table
+	 * and intervals in which the interpolation is not accurate to 1e-6 (e.g.
+	 * close to 0) fall back to {@link #ptukey(double, int, double, boolean)}.
+	 *
+	 * @param q
+	 *            quantile
+	 * @param nmeans
+	 *            number of means (groups), at least 2
+	 * @param df
+	 *            degrees of freedom of the variance estimate, at least 2, may
+	 *            be infinite
+	 * @return the probability, or NaN for illegal arguments
+	 */
+	public static double upperTail(double q, int nmeans, double df) {
+		if (Double.isNaN(q) || Double.isNaN(df) || df < 2 || nmeans < 2) {
+			return Double.NaN;
+		}
+		if (q <= 0) {
+			return 1;
+		}
+
+		Table table = table(nmeans, df);
+		double x = q / TABLE_STEP;
+		int i = (int) x;
+		if (i >= table.exact.length || table.exact[i]) {
+			return ptukey(q, nmeans, df, false);
+		}
+		return interpolate(table.logP, i, x - i);
+	}
+
+	/**
+	 * Cubic (Catmull-Rom) interpolation of the log-probabilities in the
+	 * interval [i, i+1] of the grid, with a linearly extrapolated point before
+	 * q=0
+	 */
+	private static double interpolate(double[] logP, int i, double t) {
+		double p0 = i > 0 ? logP[i - 1] : 2 * logP[0] - logP[1];
+		double p1 = logP[i];
+		double p2 = logP[i + 1];
+		double p3 = logP[i + 2];
+		double log = p1 + 0.5 * t * (p2 - p0 + t * (2 * p0 - 5 * p1 + 4 * p2 - p3 + t * (3 * (p1 - p2) + p3 - p0)));
+		return Math.min(1, Math.exp(log));
+	}
+
+	/**
+	 * @return the cached table for the given parameters, computed if necessary
+	 */
+	private static Table table(int nmeans, double df) {
+		Key key = new Key(nmeans, df);
+		Table table = TABLES.get(key);
+		if (table == null) {
+			table = computeTable(nmeans, df);
+			Table previous = TABLES.putIfAbsent(key, table);
+			if (previous != null) {
+				table = previous;
+			}
+		}
+		return table;
+	}
+
+	private static Table computeTable(int nmeans, double df) {
+		int max = (int) (TABLE_MAX_Q / TABLE_STEP);
+		double[] values = new double[max + 1];
+		int n = 0;
+		while (n <= max) {
+			double p = ptukey(n * TABLE_STEP, nmeans, df, false);
+			if (p <= 0) {
+				break;
+			}
+			values[n++] = Math.log(p);
+			if (p < TABLE_MIN_P && n >= 4) {
+				break;
+			}
+		}
+		double[] logP = new double[n];
+		System.arraycopy(values, 0, logP, 0, n);
+
+		// The interpolation needs a further grid point after each interval.
+		// Intervals in which it is not accurate, e.g. as the distribution
+		// function is not smooth, are evaluated exactly.
+		boolean[] exact = new boolean[Math.max(0, n - 2)];
+		for (int i = 0; i < exact.length; i++) {
+			double p = ptukey((i + 0.5) * TABLE_STEP, nmeans, df, false);
+			exact[i] = Math.abs(interpolate(logP, i, 0.5) - p) > TABLE_TOLERANCE;
+		}
+		return new Table(logP, exact);
+	}
+
+	/**
+	 * Integrates the probability of the range of nmeans standard normal
+	 * variables over the distribution of the standard deviation estimate
+	 */
+	private static double lowerTailProbability(double q, int nmeans, double df) {
+
+		if (df > 25000) {
+			return rangeProbability(q, nmeans);
+		}
+
+		double f2 = df * 0.5;
+		double f2lf = f2 * Math.log(df) - df * Math.log(2) - SpecialFunctions.logGamma(f2);
+		double f21 = f2 - 1.0;
+		double ff4 = df * 0.25;
+
+		// The integral is divided into intervals whose length depends on the
+		// degrees of freedom
+		double ulen;
+		if (df <= 100) {
+			ulen = 1.0;
+		} else if (df <= 800) {
+			ulen = 0.5;
+		} else if (df <= 5000) {
+			ulen = 0.25;
+		} else {
+			ulen = 0.125;
+		}
+		f2lf += Math.log(ulen);
+
+		double ans = 0.0;
+		for (int i = 1; i <= 50; i++) {
+			double otsum = 0.0;
+			double twa1 = (2 * i - 1) * ulen;
+
+			for (int jj = 0; jj < 2 * GaussLegendre.NODES.length; jj++) {
+				int j;
+				double u;
+				if (jj < GaussLegendre.NODES.length) {
+					j = jj;
+					u = twa1 - GaussLegendre.NODES[j] * ulen;
+				} else {
+					j = jj - GaussLegendre.NODES.length;
+					u = twa1 + GaussLegendre.NODES[j] * ulen;
+				}
+				double t1 = f2lf + f21 * Math.log(u) - u * ff4;
+
+				// Omit contributions below exp(-30)
+				if (t1 >= -30) {
+					double qsqz = q * Math.sqrt(u * 0.5);
+					otsum += rangeProbability(qsqz, nmeans) * GaussLegendre.WEIGHTS[j] * Math.exp(t1);
+				}
+			}
+
+			// Stop if the contribution of the interval is negligible, but
+			// integrate at least over [0, 1] to capture the left tail
+			if (i * ulen >= 1.0 && otsum <= 1e-14) {
+				break;
+			}
+			ans += otsum;
+		}
+
+		return Math.min(1, ans);
+	}
+
+	/**
+	 * Probability that the range of nmeans standard normal variables is at
+	 * most w, cf. Hartley's form of the integral
+	 */
+	private static double rangeProbability(double w, int nmeans) {
+
+		double qsqz = w * 0.5;
+		double cc = nmeans;
+
+		// For w>=16, the probability is 1 within double precision
+		if (qsqz >= 8) {
+			return 1.0;
+		}
+
+		// (2*Phi(w/2)-1)^cc, the first term of Hartley's form
+		double prW = 2 * Distributions.pnorm(qsqz, 0, 1, true) - 1;
+		if (prW >= Math.exp(-50 / cc)) {
+			prW = Math.pow(prW, cc);
+		} else {
+			prW = 0.0;
+		}
+
+		// Integrate the second term over [w/2, 8] with two or three intervals
+		double wincr = w > 3 ? 2 : 3;
+		double blb = qsqz;
+		double binc = (8 - qsqz) / wincr;
+		double bub = blb + binc;
+		double einsum = 0.0;
+		double cc1 = cc - 1.0;
+		double minTerm = Math.exp(-30 / cc1);
+
+		for (int wi = 1; wi <= wincr; wi++) {
+			double elsum = 0.0;
+			double a = 0.5 * (bub + blb);
+			double b = 0.5 * (bub - blb);
+
+			for (int jj = 0; jj < 2 * RANGE_NODES.length; jj++) {
+				int j;
+				double xx;
+				if (jj < RANGE_NODES.length) {
+					j = jj;
+					xx = -RANGE_NODES[j];
+				} else {
+					j = 2 * RANGE_NODES.length - 1 - jj;
+					xx = RANGE_NODES[j];
+				}
+				double ac = a + b * xx;
+
+				// Omit contributions below exp(-30)
+				double qexpo = ac * ac;
+				if (qexpo > 60) {
+					break;
+				}
+
+				double rinsum = Distributions.pnorm(ac, 0, 1, true) - Distributions.pnorm(ac, w, 1, true);
+				if (rinsum >= minTerm) {
+					elsum += RANGE_WEIGHTS[j] * Math.exp(-0.5 * qexpo) * Math.pow(rinsum, cc1);
+				}
+			}
+			einsum += elsum * 2.0 * b * cc * ONE_OVER_SQRT_2PI;
+			blb = bub;
+			bub += binc;
+		}
+
+		prW += einsum;
+		if (prW <= Math.exp(-30)) {
+			return 0;
+		}
+		return Math.min(1, prW);
+	}
+
+	/**
+	 * Log-probabilities of the upper tail on the grid, and the intervals to be
+	 * evaluated exactly
+	 */
+	private static final class Table {
+
+		private final double[] logP;
+		private final boolean[] exact;
+
+		Table(double[] logP, boolean[] exact) {
+			this.logP = logP;
+			this.exact = exact;
+		}
+	}
+
+	/**
+	 * Parameters identifying a cached table
+	 */
+	private static final class Key {
+
+		private final int nmeans;
+		private final double df;
+
+		Key(int nmeans, double df) {
+			this.nmeans = nmeans;
+			this.df = df;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) o;
+			return nmeans == other.nmeans && Double.compare(df, other.df) == 0;
+		}
+
+		@Override
+		public int hashCode() {
+			long bits = Double.doubleToLongBits(df);
+			return 31 * nmeans + (int) (bits ^ (bits >>> 32));
+		}
+	}
+
+}
@@ -31,7 +31,8 @@ import de.tudarmstadt.tk.statistics.test.SampleData;
 /**
  * Container to store the results of a statistical evaluation, i.e. the
  * p-values, parameters and statistics of the individual tests, the names of the
- * data sets, the metadata of the evaluated models etc.
+ * data sets, the metadata of the evaluated models etc. Results of different
+ * measures may be added concurrently.
  * 
  * @author Guckelsberger, Schulz
  */
@@ -72,6 +73,9 @@ public class EvaluationResults implements java.io.Serializable {
 	// Indicates if this is a nxn or 1:n baseline evaluation
 	private boolean isBaselineEvaluation = false;
 
+	// Tests per measure which were aborted because they exceeded the timeout
+	private HashMap<String, HashSet<String>> timedOutTests;
+
 	public EvaluationResults() {
 		parametricTestResults = new HashMap<String, Pair<String, AbstractTestResult>>();
 		nonParametricTestResults = new HashMap<String, Pair<String, AbstractTestResult>>();
@@ -82,6 +86,7 @@ public class EvaluationResults implements java.io.Serializable {
 		parameticPostHocEdgelist = new HashMap<String, int[][]>();
 		nonParameticPostHocEdgelist = new HashMap<String, int[][]>();
 		measures = new HashSet<String>();
+		timedOutTests = new HashMap<String, HashSet<String>>();
 	}
 
 	public boolean isBaselineEvaluation() {
@@ -92,22 +97,58 @@ public class EvaluationResults implements java.io.Serializable {
 		this.isBaselineEvaluation = isBaselineEvaluation;
 	}
 
-	public void addParametricTestResult(Pair<String, AbstractTestResult> result, String measure) {
+	public synchronized void addParametricTestResult(Pair<String, AbstractTestResult> result, String measure) {
 		this.parametricTestResults.put(measure, result);
 	}
 
-	public void addNonParametricTestResult(Pair<String, AbstractTestResult> nonParametricTestResult, String measure) {
+	public synchronized void addNonParametricTestResult(Pair<String, AbstractTestResult> nonParametricTestResult, String measure) {
 		this.nonParametricTestResults.put(measure, nonParametricTestResult);
 	}
 
-	public void addParametricPostHocTestResult(Pair<String, AbstractTestResult> result, String measure) {
+	public synchronized void addParametricPostHocTestResult(Pair<String, AbstractTestResult> result, String measure) {
 		this.parametricPostHocTestResults.put(measure, result);
 	}
 
-	public void addNonParametricPostHocTestResult(Pair<String, AbstractTestResult> nonParametricTestResult, String measure) {
+	public synchronized void addNonParametricPostHocTestResult(Pair<String, AbstractTestResult> nonParametricTestResult, String measure) {
 		this.nonParametricPostHocTestResults.put(measure, nonParametricTestResult);
 	}
 
+	/**
+	 * Marks a test as timed out. Its result slot remains empty.
+	 */
+	public synchronized void addTimedOutTest(String testName, String measure) {
+		if (!timedOutTests.containsKey(measure)) {
+			timedOutTests.put(measure, new HashSet<String>());
+		}
+		timedOutTests.get(measure).add(testName);
+	}
+
+	/**
+	 * Stores the ordering of the models by significant differences of a
+	 * parametric post-hoc test and the edges of its graph
+	 */
+	public synchronized void addParametricPostHocOrdering(String measure, HashMap<Integer, TreeSet<Integer>> ordering, int[][] edgelist) {
+		parameticPostHocOrdering.put(measure, ordering);
+		parameticPostHocEdgelist.put(measure, edgelist);
+	}
+
+	/**
+	 * Stores the ordering of the models by significant differences of a
+	 * non-parametric post-hoc test and the edges of its graph
+	 */
+	public synchronized void addNonParametricPostHocOrdering(String measure, HashMap<Integer, TreeSet<Integer>> ordering, int[][] edgelist) {
+		nonParameticPostHocOrdering.put(measure, ordering);
+		nonParameticPostHocEdgelist.put(measure, edgelist);
+	}
+
+	public synchronized boolean isTimedOut(String testName, String measure) {
+		return timedOutTests.containsKey(measure) && timedOutTests.get(measure).contains(testName);
+	}
+
+	public HashMap<String, HashSet<String>> getTimedOutTests() {
+		return timedOutTests;
+	}
+
 	public HashMap<String, Pair<String, AbstractTestResult>> getParametricTestResults() {
 		return parametricTestResults;
 	}
@@ -186,7 +227,7 @@ public class EvaluationResults implements java.io.Serializable {
 		return new ArrayList<String>(measures);
 	}
 
-	public void addMeasure(String measure) {
+	public synchronized void addMeasure(String measure) {
 		this.measures.add(measure);
 	}
 
@@ -43,13 +43,18 @@ import org.apache.logging.log4j.Logger;
 import de.tudarmstadt.tk.statistics.config.ReportTypes;
 import de.tudarmstadt.tk.statistics.config.StatsConfigConstants;
 import de.tudarmstadt.tk.statistics.test.AbstractTestResult;
+import de.tudarmstadt.tk.statistics.test.JavaStatistics;
 import de.tudarmstadt.tk.statistics.test.PairwiseTestResult;
-import de.tudarmstadt.tk.statistics.test.Statistics;
+import de.tudarmstadt.tk.statistics.test.StatisticsBackend;
 import de.tudarmstadt.tk.statistics.test.TestResult;
 
 public class ReportGenerator {
 
     private static final Logger logger = LogManager.getLogger("Statistics");
+	// Reports are independent of the machine they're created on, e.g. use "."
+	// as decimal point on any machine. The default locale of the JVM is left
+	// untouched, as reports may be created concurrently.
+	private static final Locale LOCALE = Locale.ENGLISH;
 	
 	/*
 	 * Pre-defined significance levels. Changes will affect what is deemed
@@ -59,6 +64,8 @@ public class ReportGenerator {
 	private double significance_medium = 1;
 	private double significance_high = 1;
 	EvaluationResults evalResults = null;
+	// Backend creating the plots of the Latex report, null for none
+	private StatisticsBackend plotter = null;
 
 	public ReportGenerator(EvaluationResults evalResults) {
 		this.evalResults = evalResults;
@@ -66,6 +73,17 @@ public class ReportGenerator {
 		this.significance_medium = evalResults.getSignificance_medium();
 		this.significance_high = evalResults.getSignificance_high();
 	}
+
+	/**
+	 * @param plotter
+	 *            The backend creating the plots of the Latex report, e.g. the
+	 *            R context of the evaluation. Plots are omitted if it does not
+	 *            support plotting.
+	 */
+	public ReportGenerator(EvaluationResults evalResults, StatisticsBackend plotter) {
+		this(evalResults);
+		this.plotter = plotter;
+	}
 	
 
 	/**
@@ -77,6 +95,19 @@ public class ReportGenerator {
 	 * @param inputFilePath path of the input file to attach the filename to the output folder
 	 */
 	public static void createEvaluationReport(String pathToDirectory, String inputFilePath, EvaluationResults evalResults) {
+		createEvaluationReport(pathToDirectory, inputFilePath, evalResults, null);
+	}
+
+	/**
+	 * Creates a latex and plain report of the evaluation results and writes it
+	 * into the specified directory
+	 * 
+	 * @param pathToDirectory directory in which the reports should be written
+	 * @param evalResults results of the statistical evaluation to be described in the reports
+	 * @param inputFilePath path of the input file to attach the filename to the output folder
+	 * @param plotter backend creating the plots, null for none
+	 */
+	public static void createEvaluationReport(String pathToDirectory, String inputFilePath, EvaluationResults evalResults, StatisticsBackend plotter) {
 
 		try {
 			File input = new File(inputFilePath);
@@ -92,7 +123,7 @@ public class ReportGenerator {
 			File latexFile = new File(directory, "statisticalReport.tex");
 			File plainFile = new File(directory, "statisticalReport.txt");
 			
-			ReportGenerator resultsWriter = new ReportGenerator(evalResults);
+			ReportGenerator resultsWriter = new ReportGenerator(evalResults, plotter);
 			String latexReport = resultsWriter.createLatexReport(latexFile.getParentFile());
 			String plainReport = resultsWriter.createPlainReport();
 
@@ -331,7 +362,7 @@ public class ReportGenerator {
 		for (int i = 0; i < overallValues.length; i++) {
 			StringBuilder tabular = new StringBuilder();
 			String[][] values = overallValues[i];
-			tabular.append(String.format("\\begin{subfigure}[b]{%dcm}\n", values[0].length + 2));
+			tabular.append(String.format(LOCALE, "\\begin{subfigure}[b]{%dcm}\n", values[0].length + 2));
 			tabular.append("\\centering\n");
 			tabular.append("\\adjustbox{max width=\\linewidth}{\n");
 			tabular.append(createLatexTabular(header, formatting, values));
@@ -366,12 +397,12 @@ public class ReportGenerator {
 		while (it.hasNext()) {
 			String parameter = it.next();
 			double value = r.getParameter().get(parameter);
-			parameters.append(String.format("%s=%.3f, ", parameter, value));
+			parameters.append(String.format(LOCALE, "%s=%.3f, ", parameter, value));
 		}
 		if (r.getStatisticType().isEmpty()) {
-			return String.format("$%sp=%.3f, \\alpha=%.2f$", parameters, r.getpValue(), pThreshold);
+			return String.format(LOCALE, "$%sp=%.3f, \\alpha=%.2f$", parameters, r.getpValue(), pThreshold);
 		} else {
-			return String.format("$%s%s=%.3f, p=%.3f, \\alpha=%.2f$", parameters, r.getStatisticType(), r.getStatistic(), r.getpValue(), pThreshold);
+			return String.format(LOCALE, "$%s%s=%.3f, p=%.3f, \\alpha=%.2f$", parameters, r.getStatisticType(), r.getStatistic(), r.getpValue(), pThreshold);
 		}
 	}
 
@@ -397,9 +428,9 @@ public class ReportGenerator {
 
 				int n = s.first();
 				s.remove(n);
-				orderSequence.append(String.format("(M%d", n));
+				orderSequence.append(String.format(LOCALE, "(M%d", n));
 				for (Integer node : ordering.get(level)) {
-					orderSequence.append(String.format(",M%d", node));
+					orderSequence.append(String.format(LOCALE, ",M%d", node));
 				}
 				orderSequence.append(")");
 
@@ -426,12 +457,13 @@ public class ReportGenerator {
 	 *         Latex-format
 	 */
 	public String createLatexReport(File outputFolder) {
-		// Set locale to English globally to make reports independent of the
-		// machine thei're created on, e.g. use "." as decimal points on any
-		// machine
-		Locale.setDefault(Locale.ENGLISH);
 		StringBuilder report = new StringBuilder();
-		Statistics stats = Statistics.getInstance(true);
+		// Plots are only created by a backend supporting them, which is
+		// passed in so that R is never started for a report
+		StatisticsBackend stats = plotter;
+		if (stats == null) {
+			stats = new JavaStatistics();
+		}
 		HashMap<String, String> methodsSummary = new HashMap<String, String>();
 		HashMap<String, HashMap<String, List<String>>> testSummary = new HashMap<String, HashMap<String, List<String>>>();
 		ArrayList<String[]> figures = new ArrayList<String[]>();
@@ -498,17 +530,17 @@ public class ReportGenerator {
 		switch (pipelineType) {
 		// One-domain n-fold CV (ReportData=per Fold)
 		case CV:
-			pipelineDescription = String.format("%d-fold cross validation", evalResults.getSampleData().getnFolds());
+			pipelineDescription = String.format(LOCALE, "%d-fold cross validation", evalResults.getSampleData().getnFolds());
 			sampleOrigin = "per fold ";
 			break;
 		case MULTIPLE_CV:
-			pipelineDescription = String.format("%dx%s repeated cross validation", evalResults.getSampleData().getnRepetitions(), evalResults.getSampleData().getnFolds());
+			pipelineDescription = String.format(LOCALE, "%dx%s repeated cross validation", evalResults.getSampleData().getnRepetitions(), evalResults.getSampleData().getnFolds());
 			break;
 		case CV_DATASET_LVL:
-			pipelineDescription = String.format("%d-fold cross validation over %d datasets", evalResults.getSampleData().getnFolds(), trainingDataSet.size());
+			pipelineDescription = String.format(LOCALE, "%d-fold cross validation over %d datasets", evalResults.getSampleData().getnFolds(), trainingDataSet.size());
 			break;
 		case MULTIPLE_CV_DATASET_LVL:
-			pipelineDescription = String.format("%dx%s repeated cross validation over %d datasets", evalResults.getSampleData().getnRepetitions(), evalResults.getSampleData().getnFolds(), trainingDataSet.size());
+			pipelineDescription = String.format(LOCALE, "%dx%s repeated cross validation over %d datasets", evalResults.getSampleData().getnRepetitions(), evalResults.getSampleData().getnFolds(), trainingDataSet.size());
 			sampleOrigin = "per dataset";
 			break;
 		case TRAIN_TEST_DATASET_LVL:
@@ -516,7 +548,7 @@ public class ReportGenerator {
 			// distinct ones
 			Set<String> allDataSets = new HashSet<String>(testingDataSet);
 			allDataSets.addAll(trainingDataSet);
-			pipelineDescription = String.format("Train/Test over %d datasets", allDataSets.size());
+			pipelineDescription = String.format(LOCALE, "Train/Test over %d datasets", allDataSets.size());
 			sampleOrigin = "per dataset";
 			break;
 		default:
@@ -526,7 +558,7 @@ public class ReportGenerator {
 		}
 
 		boolean isBaselineEvaluation = evalResults.isBaselineEvaluation();
-		report.append(String.format("The system performed a %s for the %d models in Tbl \\ref{%s}. ", pipelineDescription, nModels, ref));
+		report.append(String.format(LOCALE, "The system performed a %s for the %d models in Tbl \\ref{%s}. ", pipelineDescription, nModels, ref));
 		if (isBaselineEvaluation) {
 			report.append(String.format("The models were compared against the first baseline model. \n", pipelineDescription, nModels, ref));
 		} else {
@@ -535,7 +567,7 @@ public class ReportGenerator {
 
 		String[][] values = new String[nModels][3];
 		for (int r = 0; r < nModels; r++) {
-			values[r][0] = String.format("M%d", r);
+			values[r][0] = String.format(LOCALE, "M%d", r);
 			// Remove package prefix for algorithms, e.g. shorten "trees.J48" to "J48".
 			String[] algorithm = evalResults.getSampleData().getModelMetadata().get(r).getKey().split("\\.");
 			values[r][1] = escapeLatexCharacters(algorithm[algorithm.length-1]);
@@ -574,7 +606,7 @@ public class ReportGenerator {
 											// before this point
 		report.append("\\section{Results}\n");
 		report.append(String
-				.format("Throughout the report, p-values are annotated if they are significant. While {\\footnotesize *} indicates low significance ($p<\\alpha=%.2f$), the annotations {\\footnotesize **} and {\\footnotesize ***} represent medium ($p<\\alpha=%.2f$) and high significance ($p<\\alpha=%.2f$).",
+				.format(LOCALE, "Throughout the report, p-values are annotated if they are significant. While {\\footnotesize *} indicates low significance ($p<\\alpha=%.2f$), the annotations {\\footnotesize **} and {\\footnotesize ***} represent medium ($p<\\alpha=%.2f$) and high significance ($p<\\alpha=%.2f$).",
 						significance_low, significance_medium, significance_high));
 
 		for (int i = 0; i < measures.size(); i++) {
@@ -592,7 +624,7 @@ public class ReportGenerator {
 			report.append("\\FloatBarrier\n");
 			report.append(String.format("\\subsection{%s}\n", measure));
 			ref = String.format("tbl:%s", measure.replaceAll("\\s", ""));
-			report.append(String.format("The %s samples drawn from the %s and the %d models are presented in Tbl. \\ref{%s}.\n", measure, pipelineDescription, nModels, ref));
+			report.append(String.format(LOCALE, "The %s samples drawn from the %s and the %d models are presented in Tbl. \\ref{%s}.\n", measure, pipelineDescription, nModels, ref));
 
 			// Plot Box-Whisker-Diagram of samples for the current measure and add the figure to the appendix
 			// Use the min/max sample value as indicators for the box-plots limits
@@ -626,7 +658,7 @@ public class ReportGenerator {
 				report.append(String.format("See Fig. \\ref{%s} for a Box-Whisker plot of these samples. ", figRef));
 			}
 
-			caption = String.format("Samples of the %s drawn from the %s and the %d models", measure, pipelineDescription, nModels);
+			caption = String.format(LOCALE, "Samples of the %s drawn from the %s and the %d models", measure, pipelineDescription, nModels);
 			switch (pipelineType) {
 			case CV:
 			case MULTIPLE_CV:
@@ -642,21 +674,21 @@ public class ReportGenerator {
 						// Next lines with model indices, samples per fold and
 						// average measure over all samples
 					} else {
-						values[r][0] = String.format("M%d", (r - 1));
-						//values[r][nSamples + 1] = String.format("%.2f", averageMeasureSamples.get(r - 1) * 100);
-						values[r][nSamples + 1] = String.format("%.2f", averageMeasureSamples.get(r - 1));
+						values[r][0] = String.format(LOCALE, "M%d", (r - 1));
+						//values[r][nSamples + 1] = String.format(LOCALE, "%.2f", averageMeasureSamples.get(r - 1) * 100);
+						values[r][nSamples + 1] = String.format(LOCALE, "%.2f", averageMeasureSamples.get(r - 1));
 						ArrayList<Double> s = measureSamples.get(r - 1);
 						for (int j = 0; j < s.size(); j++) {
-							//values[r][j + 1] = String.format("%.2f", s.get(j) * 100);
-							values[r][j + 1] = String.format("%.2f", s.get(j));
+							//values[r][j + 1] = String.format(LOCALE, "%.2f", s.get(j) * 100);
+							values[r][j + 1] = String.format(LOCALE, "%.2f", s.get(j));
 						}
 					}
 				}
 				if (values.length > 58) {
-					table = createLatexLongTable(caption, ref, new String[] { "Classifier", String.format("\\multicolumn{%d}{|c|}{%s %s}", nSamples, measure, sampleOrigin), "Average" },
+					table = createLatexLongTable(caption, ref, new String[] { "Classifier", String.format(LOCALE, "\\multicolumn{%d}{|c|}{%s %s}", nSamples, measure, sampleOrigin), "Average" },
 							String.format("|%s", StringUtils.repeat("l|", nSamples + 2)), values);
 				} else {
-					table = createLatexTable(caption, ref, new String[] { "Classifier", String.format("\\multicolumn{%d}{|c|}{%s %s}", nSamples, measure, sampleOrigin), "Average" },
+					table = createLatexTable(caption, ref, new String[] { "Classifier", String.format(LOCALE, "\\multicolumn{%d}{|c|}{%s %s}", nSamples, measure, sampleOrigin), "Average" },
 							String.format("|%s", StringUtils.repeat("l|", nSamples + 2)), values);
 				}
 				break;
@@ -671,14 +703,14 @@ public class ReportGenerator {
 					if (r == 0) {
 						values[r][0] = "";
 						for (int j = 0; j < nModels; j++) {
-							values[r][j + 1] = String.format("M%d", (j));
+							values[r][j + 1] = String.format(LOCALE, "M%d", (j));
 						}
 						// Last line of table = average sums
 					} else if (r == nSamples + 1) {
 						values[r][0] = "Average";
 						for (int j = 0; j < nModels; j++) {
-							//values[r][j + 1] = String.format("%.2f", averageMeasureSamples.get(j) * 100);
-							values[r][j + 1] = String.format("%.2f", averageMeasureSamples.get(j));
+							//values[r][j + 1] = String.format(LOCALE, "%.2f", averageMeasureSamples.get(j) * 100);
+							values[r][j + 1] = String.format(LOCALE, "%.2f", averageMeasureSamples.get(j));
 						}
 						// Next lines with model indices, samples per fold and
 						// average measure over all samples
@@ -697,15 +729,15 @@ public class ReportGenerator {
 						}
 						for (int j = 0; j < nModels; j++) {
 							ArrayList<Double> s = measureSamples.get(j);
-							//values[r][j + 1] = String.format("%.2f", s.get(r - 1) * 100);
-							values[r][j + 1] = String.format("%.2f", s.get(r - 1));
+							//values[r][j + 1] = String.format(LOCALE, "%.2f", s.get(r - 1) * 100);
+							values[r][j + 1] = String.format(LOCALE, "%.2f", s.get(r - 1));
 						}
 					}
 				}
 				if (values.length > 58) {
-					table = createLatexLongTable(caption, ref, new String[] { "Dataset", String.format("\\multicolumn{%d}{|c|}{%s %s}", nModels, measure, sampleOrigin) }, String.format("|%s", StringUtils.repeat("l|", nModels + 1)), values);
+					table = createLatexLongTable(caption, ref, new String[] { "Dataset", String.format(LOCALE, "\\multicolumn{%d}{|c|}{%s %s}", nModels, measure, sampleOrigin) }, String.format("|%s", StringUtils.repeat("l|", nModels + 1)), values);
 				} else {
-					table = createLatexTable(caption, ref, new String[] { "Dataset", String.format("\\multicolumn{%d}{|c|}{%s %s}", nModels, measure, sampleOrigin) }, String.format("|%s", StringUtils.repeat("l|", nModels + 1)), values);
+					table = createLatexTable(caption, ref, new String[] { "Dataset", String.format(LOCALE, "\\multicolumn{%d}{|c|}{%s %s}", nModels, measure, sampleOrigin) }, String.format("|%s", StringUtils.repeat("l|", nModels + 1)), values);
 				}
 				break;
 			}
@@ -736,7 +768,7 @@ public class ReportGenerator {
 				methodsSummary.put(testType, method);
 
 				TestResult r = (TestResult) result.getValue();
-				report.append(String.format("The system compared the %d models using the \\emph{%s}. ", nModels, method));
+				report.append(String.format(LOCALE, "The system compared the %d models using the \\emph{%s}. ", nModels, method));
 
 				if (r != null && !Double.isNaN(r.getpValue())) {
 
@@ -779,10 +811,7 @@ public class ReportGenerator {
 						pathR = this.fixSlashes(path);
 						figRef = String.format("fig:qqNormPlot%s", measure.replaceAll("\\s", ""));
 						caption = String.format("QQ-Normal plot of pairwise differences between %s samples.", measure);
-						double[] differences = new double[samples[0].length];
-						for (int j = 0; j < samples[0].length; j++) {
-							differences[j] = samples[0][j] - samples[1][j];
-						}
+						double[] differences = evalResults.getSampleData().getPairwiseDifferences(measure).get(0, 1);
 						successful = stats.plotQQNorm(differences, "M0-M1", measure, pathR);
 						if (successful) {
 							figures.add(new String[] { figRef, caption, filename });
@@ -828,7 +857,7 @@ public class ReportGenerator {
 						report.append(String.format("The system performed the \\emph{%s} post-hoc. ", method));
 
 						if (rPostHoc == null) {
-							report.append("The test failed. ");
+							report.append(String.format("The test %s. ", verbalizeFailure(postHocResult.getKey(), measure)));
 							continue;
 						}
 
@@ -864,9 +893,9 @@ public class ReportGenerator {
 							if ((max > significance_low && min <= significance_low) || (max > significance_medium && min <= significance_medium) || (max > significance_high && min <= significance_high)) {
 								// partly significant to degree as specified by
 								// verbalized p-value
-								report.append(String.format("%s partly %s violation of %s ($\\alpha=%.2f$, Tbl. \\ref{%s}).\n", at.getMethod(), verbalizedP.getKey(), assumption, verbalizedP.getValue(), ref));
+								report.append(String.format(LOCALE, "%s partly %s violation of %s ($\\alpha=%.2f$, Tbl. \\ref{%s}).\n", at.getMethod(), verbalizedP.getKey(), assumption, verbalizedP.getValue(), ref));
 							} else {
-								report.append(String.format("%s %s violation of %s ($\\alpha=%.2f$, Tbl. \\ref{%s}).\n", at.getMethod(), verbalizedP.getKey(), assumption, verbalizedP.getValue(), ref));
+								report.append(String.format(LOCALE, "%s %s violation of %s ($\\alpha=%.2f$, Tbl. \\ref{%s}).\n", at.getMethod(), verbalizedP.getKey(), assumption, verbalizedP.getValue(), ref));
 							}
 							report.append(table);
 
@@ -912,9 +941,9 @@ public class ReportGenerator {
 						if ((max > significance_low && min <= significance_low) || (max > significance_medium && min <= significance_medium) || (max > significance_high && min <= significance_high)) {
 							// partly significant to degree as specified by
 							// verbalized p-value
-							report.append(String.format("The %s partly %s differences between the performances of the models%s ($\\alpha=%.2f$, Tbl. \\ref{%s}). ", method, verbalizedP.getKey(), adjustWord, verbalizedP.getValue(), ref));
+							report.append(String.format(LOCALE, "The %s partly %s differences between the performances of the models%s ($\\alpha=%.2f$, Tbl. \\ref{%s}). ", method, verbalizedP.getKey(), adjustWord, verbalizedP.getValue(), ref));
 						} else {
-							report.append(String.format("The %s %s differences between the performances of the models%s ($\\alpha=%.2f$, Tbl. \\ref{%s}). ", method, verbalizedP.getKey(), adjustWord, verbalizedP.getValue(), ref));
+							report.append(String.format(LOCALE, "The %s %s differences between the performances of the models%s ($\\alpha=%.2f$, Tbl. \\ref{%s}). ", method, verbalizedP.getKey(), adjustWord, verbalizedP.getValue(), ref));
 						}
 
 						// Determine ordering of models
@@ -936,7 +965,7 @@ public class ReportGenerator {
 						path = String.format("%s%s%s", outputFolderPath, File.separator, filename);
 						pathR = this.fixSlashes(path);
 						figRef = String.format("fig:graphOrdering%s%s", measure.replaceAll("\\s", ""), testType);
-						caption = String.format("Directed graph of significant differences for %s, as indicated by the %s post-hoc test.", measure, testType.toLowerCase());
+						caption = String.format("Directed graph of significant differences for %s, as indicated by the %s post-hoc test.", measure, testType.toLowerCase(LOCALE));
 						// int nodes[] = new int[nModels];
 						// for(int j=0; j<nModels;j++){nodes[j]=j;};
 						successful = stats.plotGraph(orderingEdgeList, nModels, pathR);
@@ -984,9 +1013,9 @@ public class ReportGenerator {
 							if ((max > significance_low && min <= significance_low) || (max > significance_medium && min <= significance_medium) || (max > significance_high && min <= significance_high)) {
 								// partly significant to degree as specified by
 								// verbalized p-value
-								report.append(String.format("It partly %s differences for adjusted p-values ($\\alpha=%.2f$, Tbl. \\ref{%s}).\n\n ", verbalizedP.getKey(), verbalizedP.getValue(), ref));
+								report.append(String.format(LOCALE, "It partly %s differences for adjusted p-values ($\\alpha=%.2f$, Tbl. \\ref{%s}).\n\n ", verbalizedP.getKey(), verbalizedP.getValue(), ref));
 							} else {
-								report.append(String.format("It %s differences for adjusted p-values ($\\alpha=%.2f$, Tbl. \\ref{%s}).\n\n ", verbalizedP.getKey(), verbalizedP.getValue(), ref));
+								report.append(String.format(LOCALE, "It %s differences for adjusted p-values ($\\alpha=%.2f$, Tbl. \\ref{%s}).\n\n ", verbalizedP.getKey(), verbalizedP.getValue(), ref));
 							}
 						}
 
@@ -997,7 +1026,7 @@ public class ReportGenerator {
 
 					}
 				} else {
-					report.append(String.format("The %s failed.", method));
+					report.append(String.format("The %s %s.", method, verbalizeFailure(result.getKey(), measure)));
 				}
 			}
 
@@ -1014,11 +1043,11 @@ public class ReportGenerator {
 
 			String caption = String.format("Contingency table with correctly and incorrectly classified folds for %s", measure);
 			if (evalResults.getSampleData().getPipelineType() == ReportTypes.MULTIPLE_CV) {
-				report.append(String.format("The contingency table drawn from the %s and the %d models is listed in Tbl. \\ref{%s}. The correctly and incorrectly classified instances per fold were averaged over all repetitions. \n",
+				report.append(String.format(LOCALE, "The contingency table drawn from the %s and the %d models is listed in Tbl. \\ref{%s}. The correctly and incorrectly classified instances per fold were averaged over all repetitions. \n",
 						pipelineDescription, nModels, ref));
 				caption = String.format("Averaged contingency table with correctly and incorrectly classified folds for %s", measure);
 			} else {
-				report.append(String.format("The contingency table drawn from the %s and the %d models is listed in Tbl. \\ref{%s}.\n", pipelineDescription, nModels, ref));
+				report.append(String.format(LOCALE, "The contingency table drawn from the %s and the %d models is listed in Tbl. \\ref{%s}.\n", pipelineDescription, nModels, ref));
 			}
 
 			int[][] contingencyMatrix = evalResults.getSampleData().getContingencyMatrix();
@@ -1034,7 +1063,7 @@ public class ReportGenerator {
 
 			// Test results
 			report.append(String.format("\\subsubsection{%s Testing}", testType));
-			report.append(String.format("The system compared the %d models using the \\emph{McNemar test}. ", nModels));
+			report.append(String.format(LOCALE, "The system compared the %d models using the \\emph{McNemar test}. ", nModels));
 			Pair<String, AbstractTestResult> result = evalResults.getNonParametricTestResults().get(measure);
 
 			// Use pretty-print method descriptor if specified
@@ -1051,12 +1080,12 @@ public class ReportGenerator {
 				while (it.hasNext()) {
 					String parameter = it.next();
 					double value = r.getParameter().get(parameter);
-					parameters.append(String.format("%s=%.3f, ", parameter, value));
+					parameters.append(String.format(LOCALE, "%s=%.3f, ", parameter, value));
 				}
 
 				// Verbalize result according to p value
 				Pair<String, Double> verbalizedP = verbalizeP(r.getpValue(), false);
-				report.append(String.format("The test %s differences between the performances of the models ($%sp=%.3f, \\alpha=%.2f$).\\\\ \n", verbalizedP.getKey(), parameters.toString(), r.getpValue(), verbalizedP.getValue()));
+				report.append(String.format(LOCALE, "The test %s differences between the performances of the models ($%sp=%.3f, \\alpha=%.2f$).\\\\ \n", verbalizedP.getKey(), parameters.toString(), r.getpValue(), verbalizedP.getValue()));
 				// Store result for summary
 				if (testSummary.get(testType).containsKey(verbalizedP.getKey())) {
 					testSummary.get(testType).get(verbalizedP.getKey()).add(measure);
@@ -1067,7 +1096,7 @@ public class ReportGenerator {
 				}
 
 			} else {
-				report.append("The test failed.\\\\ \n");
+				report.append(String.format("The test %s.\\\\ \n", verbalizeFailure(result.getKey(), measure)));
 			}
 		}
 
@@ -1080,11 +1109,11 @@ public class ReportGenerator {
 			String prefix = "";
 
 			if (nModels == 2) {
-				report.append(String.format("The system performed %s testing of the %d models using a %s. The test ", testType.toLowerCase(), nModels, methodsSummary.get(testType)));
+				report.append(String.format(LOCALE, "The system performed %s testing of the %d models using a %s. The test ", testType.toLowerCase(LOCALE), nModels, methodsSummary.get(testType)));
 				prefix = "It";
 			} else {
 				String postHocTesting = String.format("%sPostHoc", testType);
-				report.append(String.format("The system performed %s testing of the %d models using a %s and a %s post-hoc. The tests ", testType.toLowerCase(), nModels, methodsSummary.get(testType), methodsSummary.get(postHocTesting)));
+				report.append(String.format(LOCALE, "The system performed %s testing of the %d models using a %s and a %s post-hoc. The tests ", testType.toLowerCase(LOCALE), nModels, methodsSummary.get(testType), methodsSummary.get(postHocTesting)));
 				prefix = "They";
 			}
 
@@ -1136,10 +1165,6 @@ public class ReportGenerator {
 	}
 
 	public String createPlainReport() {
-		// Set locale to English globally to make reports independent of the
-		// machine thei're created on, e.g. use "." as decimal points on any
-		// machine
-		Locale.setDefault(Locale.ENGLISH);
 
 		StringBuilder report = new StringBuilder();
 
@@ -1176,17 +1201,17 @@ public class ReportGenerator {
 		switch (pipelineType) {
 		// One-domain n-fold CV (ReportData=per Fold)
 		case CV:
-			pipelineDescription = String.format("%d-fold cross validation", evalResults.getSampleData().getnFolds());
+			pipelineDescription = String.format(LOCALE, "%d-fold cross validation", evalResults.getSampleData().getnFolds());
 			sampleOrigin = "per fold ";
 			break;
 		case MULTIPLE_CV:
-			pipelineDescription = String.format("%dx%s repeated cross validation", evalResults.getSampleData().getnRepetitions(), evalResults.getSampleData().getnFolds());
+			pipelineDescription = String.format(LOCALE, "%dx%s repeated cross validation", evalResults.getSampleData().getnRepetitions(), evalResults.getSampleData().getnFolds());
 			break;
 		case CV_DATASET_LVL:
-			pipelineDescription = String.format("%d-fold cross validation over %d datasets", evalResults.getSampleData().getnFolds(), trainingDataSet.size());
+			pipelineDescription = String.format(LOCALE, "%d-fold cross validation over %d datasets", evalResults.getSampleData().getnFolds(), trainingDataSet.size());
 			break;
 		case MULTIPLE_CV_DATASET_LVL:
-			pipelineDescription = String.format("%dx%s repeated cross validation over %d datasets", evalResults.getSampleData().getnRepetitions(), evalResults.getSampleData().getnFolds(), trainingDataSet.size());
+			pipelineDescription = String.format(LOCALE, "%dx%s repeated cross validation over %d datasets", evalResults.getSampleData().getnRepetitions(), evalResults.getSampleData().getnFolds(), trainingDataSet.size());
 			sampleOrigin = "per dataset";
 			break;
 		case TRAIN_TEST_DATASET_LVL:
@@ -1194,7 +1219,7 @@ public class ReportGenerator {
 			// distinct ones
 			Set<String> allDataSets = new HashSet<String>(testingDataSet);
 			allDataSets.addAll(trainingDataSet);
-			pipelineDescription = String.format("Train/Test over %d datasets", allDataSets.size());
+			pipelineDescription = String.format(LOCALE, "Train/Test over %d datasets", allDataSets.size());
 			sampleOrigin = "per dataset";
 			break;
 		default:
@@ -1204,7 +1229,7 @@ public class ReportGenerator {
 		}
 
 		boolean isBaselineEvaluation = evalResults.isBaselineEvaluation();
-		report.append(String.format("The system performed a %s for the following %d models. \n", pipelineDescription, nModels));
+		report.append(String.format(LOCALE, "The system performed a %s for the following %d models. \n", pipelineDescription, nModels));
 		if (isBaselineEvaluation) {
 			report.append(String.format("The models were compared against the first baseline model. \n", pipelineDescription, nModels));
 		} else {
@@ -1216,7 +1241,7 @@ public class ReportGenerator {
 			String[] algorithm = modelMetadata.get(modelIndex).getKey().split("\\.");
 			String modelAlgorithm = algorithm[algorithm.length-1];
 			String modelFeatureSet = modelMetadata.get(modelIndex).getValue();
-			report.append(String.format("M%d: %s; %s\n", modelIndex, modelAlgorithm, modelFeatureSet));
+			report.append(String.format(LOCALE, "M%d: %s; %s\n", modelIndex, modelAlgorithm, modelFeatureSet));
 		}
 
 		// List test/training datasets. Consider the case when these sets are
@@ -1266,9 +1291,9 @@ public class ReportGenerator {
 			ArrayList<ArrayList<Double>> models = evalResults.getSampleData().getSamples().get(measure);
 			for (int modelId = 0; i < models.size(); i++) {
 				ArrayList<Double> samples = models.get(modelId);
-				report.append(String.format("C%d: ", modelId));
+				report.append(String.format(LOCALE, "C%d: ", modelId));
 				for (int j = 0; j < samples.size(); j++) {
-					report.append(String.format("%.3f;", samples.get(j)));
+					report.append(String.format(LOCALE, "%.3f;", samples.get(j)));
 				}
 				report.append("\n");
 			}
@@ -1292,7 +1317,7 @@ public class ReportGenerator {
 				}
 
 				TestResult r = (TestResult) result.getValue();
-				report.append(String.format("The system compared the %d models using the %s. ", nModels, method));
+				report.append(String.format(LOCALE, "The system compared the %d models using the %s. ", nModels, method));
 
 				if (r != null && !Double.isNaN(r.getpValue())) {
 
@@ -1321,7 +1346,7 @@ public class ReportGenerator {
 						// Verbalize result according to p value
 						Pair<String, Double> verbalizedP = verbalizeP(ap, true);
 
-						report.append(String.format("%s %s violation of %s (p=%f, alpha=%f). ", at.getMethod(), verbalizedP.getKey(), assumption, ap, verbalizedP.getValue()));
+						report.append(String.format(LOCALE, "%s %s violation of %s (p=%f, alpha=%f). ", at.getMethod(), verbalizedP.getKey(), assumption, ap, verbalizedP.getValue()));
 
 					}
 
@@ -1331,7 +1356,7 @@ public class ReportGenerator {
 
 					// A Priori test results
 					Pair<String, Double> verbalizedP = verbalizeP(r.getpValue(), false);
-					report.append(String.format("The %s %s differences between the performances of the models (p=%f, alpha=%f).\n\n", method, verbalizedP.getKey(), r.getpValue(), verbalizedP.getValue()));
+					report.append(String.format(LOCALE, "The %s %s differences between the performances of the models (p=%f, alpha=%f).\n\n", method, verbalizedP.getKey(), r.getpValue(), verbalizedP.getValue()));
 
 					// Post-hoc test for >2 models (pairwise comparisons)
 					if (evalResults.getSampleData().getModelMetadata().size() > 2) {
@@ -1354,7 +1379,7 @@ public class ReportGenerator {
 						report.append(String.format("The system performed the %s post-hoc. ", method));
 
 						if (rPostHoc == null) {
-							report.append("The test failed. ");
+							report.append(String.format("The test %s. ", verbalizeFailure(postHocResult.getKey(), measure)));
 							continue;
 						}
 
@@ -1381,9 +1406,9 @@ public class ReportGenerator {
 							if ((max > significance_low && min <= significance_low) || (max > significance_medium && min <= significance_medium) || (max > significance_high && min <= significance_high)) {
 								// partly significant to degree as specified by
 								// verbalized p-value
-								report.append(String.format("%s partly %s violation of %s (alpha=%.2f).\n", at.getMethod(), verbalizedP.getKey(), assumption, verbalizedP.getValue()));
+								report.append(String.format(LOCALE, "%s partly %s violation of %s (alpha=%.2f).\n", at.getMethod(), verbalizedP.getKey(), assumption, verbalizedP.getValue()));
 							} else {
-								report.append(String.format("%s %s violation of %s (alpha=%.2f).\n", at.getMethod(), verbalizedP.getKey(), assumption, verbalizedP.getValue()));
+								report.append(String.format(LOCALE, "%s %s violation of %s (alpha=%.2f).\n", at.getMethod(), verbalizedP.getKey(), assumption, verbalizedP.getValue()));
 							}
 
 							if (min <= this.significance_low) {
@@ -1413,9 +1438,9 @@ public class ReportGenerator {
 						if ((max > significance_low && min <= significance_low) || (max > significance_medium && min <= significance_medium) || (max > significance_high && min <= significance_high)) {
 							// partly significant to degree as specified by
 							// verbalized p-value
-							report.append(String.format("The %s partly %s differences between the performances of the models%s ($\\alpha=%.2f$, Tbl. \\ref{%s}). ", method, verbalizedP.getKey(), adjustWord, verbalizedP.getValue(), ref));
+							report.append(String.format(LOCALE, "The %s partly %s differences between the performances of the models%s ($\\alpha=%.2f$, Tbl. \\ref{%s}). ", method, verbalizedP.getKey(), adjustWord, verbalizedP.getValue(), ref));
 						} else {
-							report.append(String.format("The %s %s differences between the performances of the models%s ($\\alpha=%.2f$, Tbl. \\ref{%s}). ", method, verbalizedP.getKey(), adjustWord, verbalizedP.getValue(), ref));
+							report.append(String.format(LOCALE, "The %s %s differences between the performances of the models%s ($\\alpha=%.2f$, Tbl. \\ref{%s}). ", method, verbalizedP.getKey(), adjustWord, verbalizedP.getValue(), ref));
 						}
 
 						// Determine ordering of models
@@ -1447,14 +1472,14 @@ public class ReportGenerator {
 							if ((max > significance_low && min <= significance_low) || (max > significance_medium && min <= significance_medium) || (max > significance_high && min <= significance_high)) {
 								// partly significant to degree as specified by
 								// verbalized p-value
-								report.append(String.format("It partly %s differences for adjusted p-values (alpha=%.2f$).\n\n ", verbalizedP.getKey(), verbalizedP.getValue(), ref));
+								report.append(String.format(LOCALE, "It partly %s differences for adjusted p-values (alpha=%.2f$).\n\n ", verbalizedP.getKey(), verbalizedP.getValue(), ref));
 							} else {
-								report.append(String.format("It %s differences for adjusted p-values (alpha=%.2f$).\n\n ", verbalizedP.getKey(), verbalizedP.getValue(), ref));
+								report.append(String.format(LOCALE, "It %s differences for adjusted p-values (alpha=%.2f$).\n\n ", verbalizedP.getKey(), verbalizedP.getValue(), ref));
 							}
 						}
 					}
 				} else {
-					report.append(String.format("The %s failed.", method));
+					report.append(String.format("The %s %s.", method, verbalizeFailure(result.getKey(), measure)));
 				}
 			}
 		}
@@ -1471,15 +1496,15 @@ public class ReportGenerator {
 
 			int[][] contingencyMatrix = evalResults.getSampleData().getContingencyMatrix();
 			if (evalResults.getSampleData().getPipelineType() == ReportTypes.MULTIPLE_CV) {
-				report.append(String.format("Contingency table drawn from the %s and the %d models. The correctly and incorrectly classified instances per fold were averaged over all repetitions:\n%s\n", pipelineDescription, nModels,
+				report.append(String.format(LOCALE, "Contingency table drawn from the %s and the %d models. The correctly and incorrectly classified instances per fold were averaged over all repetitions:\n%s\n", pipelineDescription, nModels,
 						this.contingencyMatrixToString(contingencyMatrix)));
 			} else {
-				report.append(String.format("Contingency table drawn from the %s and the %d models:\n%s\n", pipelineDescription, nModels, this.contingencyMatrixToString(contingencyMatrix)));
+				report.append(String.format(LOCALE, "Contingency table drawn from the %s and the %d models:\n%s\n", pipelineDescription, nModels, this.contingencyMatrixToString(contingencyMatrix)));
 			}
 
 			// Test results
 			report.append(String.format("%s Testing\n", testType));
-			report.append(String.format("The system compared the %d models using the McNemar test. ", nModels));
+			report.append(String.format(LOCALE, "The system compared the %d models using the McNemar test. ", nModels));
 			Pair<String, AbstractTestResult> result = evalResults.getNonParametricTestResults().get(measure);
 
 			TestResult r = (TestResult) result.getValue();
@@ -1489,15 +1514,15 @@ public class ReportGenerator {
 				while (it.hasNext()) {
 					String parameter = it.next();
 					double value = r.getParameter().get(parameter);
-					parameters.append(String.format("%s=%.3f, ", parameter, value));
+					parameters.append(String.format(LOCALE, "%s=%.3f, ", parameter, value));
 				}
 
 				// Verbalize result according to p value
 				Pair<String, Double> verbalizedP = verbalizeP(r.getpValue(), false);
-				report.append(String.format("The test %s differences between the performances of the models (%sp=%.3f, alpha=%.2f).\\\\ \n", verbalizedP.getKey(), parameters.toString(), r.getpValue(), verbalizedP.getValue()));
+				report.append(String.format(LOCALE, "The test %s differences between the performances of the models (%sp=%.3f, alpha=%.2f).\\\\ \n", verbalizedP.getKey(), parameters.toString(), r.getpValue(), verbalizedP.getValue()));
 
 			} else {
-				report.append("The test failed.\n");
+				report.append(String.format("The test %s.\n", verbalizeFailure(result.getKey(), measure)));
 			}
 		}
 
@@ -1553,14 +1578,14 @@ public class ReportGenerator {
 		String[] header = new String[nCols + 1];
 		header[0] = "";
 		for (int j = 0; j < nCols; j++) {
-			header[j + 1] = String.format("M%d", j);
+			header[j + 1] = String.format(LOCALE, "M%d", j);
 		}
 
 		// Create value array
 		String[][] values = new String[nRows][];
 		for (int j = 0; j < nRows; j++) {
 			values[j] = new String[nCols + 1];
-			values[j][0] = String.format("M%d", j + 1);
+			values[j][0] = String.format(LOCALE, "M%d", j + 1);
 			for (int k = 0; k < nCols; k++) {
 				if (Double.isNaN(ap[j][k])) {
 					values[j][k + 1] = "-";
@@ -1573,7 +1598,7 @@ public class ReportGenerator {
 					} else if (ap[j][k] <= significance_low) {
 						significance = "{\\footnotesize *}";
 					}
-					values[j][k + 1] = String.format("%.3f%s", ap[j][k], significance);
+					values[j][k + 1] = String.format(LOCALE, "%.3f%s", ap[j][k], significance);
 				}
 			}
 		}
@@ -1603,7 +1628,7 @@ public class ReportGenerator {
 				str.append("M0 Correct");
 			}
 			for (int p : subarray) {
-				str.append(String.format("%10d ", p));
+				str.append(String.format(LOCALE, "%10d ", p));
 			}
 			str.append("\n");
 		}
@@ -1620,20 +1645,20 @@ public class ReportGenerator {
 		// Header
 		str.append(String.format("    "));
 		for (int i = 0; i < array.length; i++) {
-			str.append(String.format("M%d%4s", i, " "));
+			str.append(String.format(LOCALE, "M%d%4s", i, " "));
 		}
 		str.append("\n");
 
 		// Values
 		for (int i = 0; i < array.length; i++) {
 			double[] subarray = array[i];
-			str.append(String.format("M%d  ", i + 1));
+			str.append(String.format(LOCALE, "M%d  ", i + 1));
 			for (double p : subarray) {
 				if (Double.isNaN(p)) {
-					str.append(String.format("%f%3s", p, " "));
-					// str.append(String.format("%f  ",p));
+					str.append(String.format(LOCALE, "%f%3s", p, " "));
+					// str.append(String.format(LOCALE, "%f  ",p));
 				} else {
-					str.append(String.format("%.3f ", p));
+					str.append(String.format(LOCALE, "%.3f ", p));
 				}
 			}
 			str.append("\n");
@@ -1715,6 +1740,20 @@ public class ReportGenerator {
 		return flattened;
 	}
 
+	/**
+	 * Verbalize why a test has no result
+	 * 
+	 * @param testName
+	 *            The name of the test
+	 * @param measure
+	 *            The measure the test was performed on
+	 * @return "timed out" if the test exceeded the timeout of R, "failed"
+	 *         otherwise
+	 */
+	private String verbalizeFailure(String testName, String measure) {
+		return evalResults.isTimedOut(testName, measure) ? "timed out" : "failed";
+	}
+
 	/**
 	 * Verbalizes a p-value according to different significance levels (defined
 	 * globally) and use-cases
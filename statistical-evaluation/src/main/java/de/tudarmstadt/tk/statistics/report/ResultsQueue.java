@@ -0,0 +1,77 @@
+package de.tudarmstadt.tk.statistics.report;
+
+/**
+ * Copyright 2014
+ * Telecooperation (TK) Lab
+ * Technische Universit�t Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Passes the results of evaluations to a consumer running on a thread of its
+ * own, e.g. a dashboard or report writer. At most as many results as the
+ * capacity of the queue are held; once it is full, the evaluation waits for
+ * the consumer to take results. Results must therefore not be taken by the
+ * thread performing the evaluation.
+ *
+ * @author Guckelsberger, Schulz
+ */
+public class ResultsQueue implements ResultsSink {
+
+	// Marks the completion of an evaluation within the queue
+	private static final EvaluationResults COMPLETE = new EvaluationResults();
+
+	private final BlockingQueue<EvaluationResults> queue;
+
+	/**
+	 * @param capacity
+	 *            The maximum number of results not yet taken by the consumer
+	 */
+	public ResultsQueue(int capacity) {
+		queue = new ArrayBlockingQueue<EvaluationResults>(capacity);
+	}
+
+	@Override
+	public void onResults(String pathToCsvFile, int split, EvaluationResults results) {
+		put(results);
+	}
+
+	@Override
+	public void onComplete(String pathToCsvFile) {
+		put(COMPLETE);
+	}
+
+	private void put(EvaluationResults results) {
+		try {
+			queue.put(results);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Waits for the next results
+	 *
+	 * @return The results of the next split, or null once an evaluation has
+	 *         completed, i.e. once for each file evaluated
+	 */
+	public EvaluationResults take() throws InterruptedException {
+		EvaluationResults results = queue.take();
+		return results == COMPLETE ? null : results;
+	}
+
+}
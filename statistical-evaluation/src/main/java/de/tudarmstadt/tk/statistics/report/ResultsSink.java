@@ -0,0 +1,57 @@
+package de.tudarmstadt.tk.statistics.report;
+
+/**
+ * Copyright 2014
+ * Telecooperation (TK) Lab
+ * Technische Universit�t Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Receives the results of an evaluation split by split, as soon as each split
+ * has been evaluated, cf.
+ * {@link de.tudarmstadt.tk.statistics.test.StatsProcessor#evaluate(String, char, de.tudarmstadt.tk.statistics.config.ReportTypes, java.util.HashMap, ResultsSink)}.
+ * The splits of an evaluation are evaluated in parallel, so results arrive in
+ * the order of their completion and may be delivered concurrently from
+ * several threads. The evaluation waits while {@link #onResults} blocks: a
+ * slow sink thus holds back the evaluation rather than accumulating results,
+ * cf. {@link ResultsQueue}.
+ *
+ * @author Guckelsberger, Schulz
+ */
+public interface ResultsSink {
+
+	/**
+	 * Called once for each split which has been evaluated successfully
+	 *
+	 * @param pathToCsvFile
+	 *            The file the split stems from
+	 * @param split
+	 *            The index of the split within the file
+	 * @param results
+	 *            The results of the split
+	 */
+	void onResults(String pathToCsvFile, int split, EvaluationResults results);
+
+	/**
+	 * Called once after all splits of a file have been evaluated or have
+	 * failed, and after all calls of {@link #onResults} for the file have
+	 * returned, unless the thread performing the evaluation is interrupted
+	 *
+	 * @param pathToCsvFile
+	 *            The file evaluated
+	 */
+	void onComplete(String pathToCsvFile);
+
+}
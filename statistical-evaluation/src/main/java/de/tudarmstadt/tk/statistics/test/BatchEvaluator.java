@@ -0,0 +1,365 @@
+package de.tudarmstadt.tk.statistics.test;
+
+/**
+ * Copyright 2014
+ * Telecooperation (TK) Lab
+ * Technische Universit�t Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.tudarmstadt.tk.statistics.config.ReportTypes;
+import de.tudarmstadt.tk.statistics.config.StatsConfig;
+
+/**
+ * Evaluates many files of external data with a single {@link StatsProcessor},
+ * so that R is started only once for all of them. The files are evaluated by
+ * a bounded number of workers. Each file completed is recorded in a journal in
+ * the output folder; a batch started again with the same output folder, e.g.
+ * after a crash, skips the files recorded there. Progress, throughput and the
+ * estimated remaining time are reported after each file.
+ *
+ * @author Guckelsberger, Schulz
+ */
+public class BatchEvaluator {
+
+	private static final Logger logger = LogManager.getLogger("Statistics");
+
+	/**
+	 * Name of the journal of completed files within the output folder
+	 */
+	public static final String JOURNAL = "batch.journal";
+
+	/**
+	 * A file to be evaluated
+	 */
+	public static final class Input {
+
+		private final String path;
+		private final ReportTypes pipelineType;
+		private final int nFolds;
+
+		/**
+		 * @param path
+		 *            The path to the .csv file
+		 * @param pipelineType
+		 *            {@link ReportTypes#CV}, {@link ReportTypes#MULTIPLE_CV}
+		 *            or {@link ReportTypes#TRAIN_TEST_DATASET_LVL}, cf.
+		 *            {@link StatsProcessor#evaluateCV},
+		 *            {@link StatsProcessor#evaluateRepeatedCV} and
+		 *            {@link StatsProcessor#evaluateTrainTest}
+		 * @param nFolds
+		 *            The number of folds of a repeated cross-validation,
+		 *            ignored otherwise
+		 */
+		public Input(String path, ReportTypes pipelineType, int nFolds) {
+			this.path = new File(path).getAbsolutePath();
+			this.pipelineType = pipelineType;
+			this.nFolds = nFolds;
+		}
+
+		public String getPath() {
+			return path;
+		}
+
+		public ReportTypes getPipelineType() {
+			return pipelineType;
+		}
+
+		public int getnFolds() {
+			return nFolds;
+		}
+	}
+
+	private final StatsConfig config;
+	private final String outputPath;
+	private final char separator;
+	private final int workers;
+
+	/**
+	 * @param outputPath
+	 *            The folder the reports and the journal are written to
+	 * @param separator
+	 *            The character used to separate columns in the files
+	 * @param workers
+	 *            The maximum number of files evaluated at the same time, 0 for
+	 *            the number of processors
+	 */
+	public BatchEvaluator(StatsConfig config, String outputPath, char separator, int workers) {
+		if (workers < 0) {
+			throw new IllegalArgumentException("The number of workers must not be negative!");
+		}
+		this.config = config;
+		this.outputPath = outputPath;
+		this.separator = separator;
+		this.workers = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Lists the .csv files of a directory, in order of their names
+	 *
+	 * @param pathToDirectory
+	 *            The directory
+	 * @param pipelineType
+	 *            The type of all files, cf. {@link Input}
+	 * @param nFolds
+	 *            The number of folds of a repeated cross-validation
+	 * @return The files, empty if the directory does not exist
+	 */
+	public static List<Input> listDirectory(String pathToDirectory, ReportTypes pipelineType, int nFolds) {
+		List<Input> inputs = new ArrayList<Input>();
+		File[] files = new File(pathToDirectory).listFiles();
+		if (files == null) {
+			String error = String.format("%s is not a directory.", pathToDirectory);
+			logger.log(Level.ERROR, error);
+			System.err.println(error);
+			return inputs;
+		}
+		Arrays.sort(files);
+		for (File f : files) {
+			if (f.isFile() && f.getName().toLowerCase(Locale.ENGLISH).endsWith(".csv")) {
+				inputs.add(new Input(f.getPath(), pipelineType, nFolds));
+			}
+		}
+		return inputs;
+	}
+
+	/**
+	 * Reads a manifest of files to be evaluated. Each line names a file and
+	 * its type, separated by ';': "path;CV", "path;RepeatedCV;nFolds" or
+	 * "path;TrainTest". The type may be omitted for a cross-validation.
+	 * Relative paths are resolved against the folder of the manifest; empty
+	 * lines and lines starting with '#' are ignored.
+	 *
+	 * @param pathToManifest
+	 *            The path to the manifest
+	 * @return The files, or null if the manifest could not be read or is
+	 *         invalid
+	 */
+	public static List<Input> readManifest(String pathToManifest) {
+		File manifest = new File(pathToManifest);
+		List<Input> inputs = new ArrayList<Input>();
+		int lineNumber = 0;
+		try (BufferedReader reader = new BufferedReader(new FileReader(manifest))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+				String[] fields = line.split(";");
+				File file = new File(fields[0].trim());
+				if (!file.isAbsolute()) {
+					file = new File(manifest.getAbsoluteFile().getParentFile(), fields[0].trim());
+				}
+				String type = fields.length > 1 ? fields[1].trim() : "CV";
+				if (type.equals("CV")) {
+					inputs.add(new Input(file.getPath(), ReportTypes.CV, 0));
+				} else if (type.equals("RepeatedCV") && fields.length > 2) {
+					inputs.add(new Input(file.getPath(), ReportTypes.MULTIPLE_CV, Integer.parseInt(fields[2].trim())));
+				} else if (type.equals("TrainTest")) {
+					inputs.add(new Input(file.getPath(), ReportTypes.TRAIN_TEST_DATASET_LVL, 0));
+				} else {
+					throw new IllegalArgumentException(line);
+				}
+			}
+		} catch (IOException e) {
+			String error = String.format("Manifest %s could not be read: %s", pathToManifest, e.getMessage());
+			logger.log(Level.ERROR, error);
+			System.err.println(error);
+			return null;
+		} catch (IllegalArgumentException e) {
+			String error = String.format("Invalid entry in line %d of manifest %s: %s", lineNumber, pathToManifest, e.getMessage());
+			logger.log(Level.ERROR, error);
+			System.err.println(error);
+			return null;
+		}
+		return inputs;
+	}
+
+	/**
+	 * Evaluates the files which have not been completed before according to
+	 * the journal. Reports are written to the output folder, as are the
+	 * metrics of the whole batch if configured.
+	 *
+	 * @param inputs
+	 *            The files to be evaluated
+	 * @return The number of files which could not be evaluated. These are not
+	 *         recorded in the journal and thus evaluated again if the batch is
+	 *         restarted.
+	 */
+	public int evaluate(List<Input> inputs) {
+
+		File directory = new File(outputPath);
+		directory.mkdirs();
+		final File journal = new File(directory, JOURNAL);
+
+		Set<String> completed = readJournal(journal);
+		final List<Input> pending = new ArrayList<Input>();
+		for (Input input : inputs) {
+			if (!completed.contains(input.getPath())) {
+				pending.add(input);
+			}
+		}
+		if (pending.size() < inputs.size()) {
+			logger.log(Level.INFO, String.format("Skipping %d files completed before according to %s.", inputs.size() - pending.size(), journal));
+		}
+		if (pending.isEmpty()) {
+			return 0;
+		}
+
+		final Writer journalWriter;
+		final FileOutputStream journalStream;
+		try {
+			journalStream = new FileOutputStream(journal, true);
+			journalWriter = new OutputStreamWriter(journalStream, "UTF-8");
+		} catch (IOException e) {
+			String error = String.format("Journal %s could not be opened: %s", journal, e.getMessage());
+			logger.log(Level.ERROR, error);
+			System.err.println(error);
+			return pending.size();
+		}
+
+		final StatsProcessor stats = new StatsProcessor(config);
+		final AtomicInteger done = new AtomicInteger();
+		final AtomicInteger failed = new AtomicInteger();
+		final long start = System.nanoTime();
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(workers, pending.size()));
+		for (final Input input : pending) {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					boolean successful = false;
+					try {
+						HashMap<String, Integer> pipelineMetadata = new HashMap<String, Integer>();
+						if (input.getPipelineType() == ReportTypes.MULTIPLE_CV) {
+							pipelineMetadata.put("nFolds", input.getnFolds());
+						}
+						logger.log(Level.INFO, String.format("Evaluating %s.", input.getPath()));
+						successful = stats.evaluate(input.getPath(), outputPath, separator, input.getPipelineType(), pipelineMetadata);
+					} catch (RuntimeException e) {
+						logger.log(Level.ERROR, String.format("Error while evaluating %s: %s", input.getPath(), e));
+					}
+
+					if (successful) {
+						successful = record(journalWriter, journalStream, input.getPath());
+					}
+					if (!successful) {
+						failed.incrementAndGet();
+					}
+					reportProgress(done.incrementAndGet(), failed.get(), pending.size(), System.nanoTime() - start);
+				}
+			});
+		}
+		executor.shutdown();
+		try {
+			while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+				// Files are still being evaluated
+			}
+		} catch (InterruptedException e) {
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+		stats.close();
+
+		try {
+			journalWriter.close();
+		} catch (IOException e) {
+			logger.log(Level.WARN, String.format("Journal %s could not be closed: %s", journal, e.getMessage()));
+		}
+		if (config.isExportMetrics()) {
+			StatsProcessor.exportMetrics(stats.getMetrics(), outputPath);
+		}
+		return failed.get() + pending.size() - done.get();
+	}
+
+	/**
+	 * @return The absolute paths of the files recorded in the journal, empty
+	 *         if there is none
+	 */
+	static Set<String> readJournal(File journal) {
+		Set<String> completed = new HashSet<String>();
+		if (!journal.isFile()) {
+			return completed;
+		}
+		// Written as UTF-8, cf. evaluate
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(journal), "UTF-8"))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				// A line cut off by a crash names no file of the batch
+				completed.add(line);
+			}
+		} catch (IOException e) {
+			logger.log(Level.WARN, String.format("Journal %s could not be read, evaluating all files: %s", journal, e.getMessage()));
+		}
+		return completed;
+	}
+
+	/**
+	 * Appends a completed file to the journal and forces it to disk, so that
+	 * it survives a crash of the JVM
+	 *
+	 * @return True if the file has been recorded
+	 */
+	private static boolean record(Writer writer, FileOutputStream stream, String path) {
+		try {
+			synchronized (writer) {
+				writer.write(path + "\n");
+				writer.flush();
+				stream.getFD().sync();
+			}
+			return true;
+		} catch (IOException e) {
+			logger.log(Level.ERROR, String.format("%s could not be recorded in the journal: %s", path, e.getMessage()));
+			return false;
+		}
+	}
+
+	private static void reportProgress(int done, int failed, int total, long nanos) {
+		double seconds = nanos / 1e9;
+		double rate = done / seconds;
+		long remaining = Math.round((total - done) / rate);
+		String progress = String.format(Locale.ENGLISH, "Evaluated %d of %d files (%d failed), %.2f files/min, ETA %d:%02d:%02d.", done, total, failed, rate * 60,
+				remaining / 3600, remaining / 60 % 60, remaining % 60);
+		logger.log(Level.INFO, progress);
+		System.out.println(progress);
+	}
+
+}
@@ -0,0 +1,278 @@
+package de.tudarmstadt.tk.statistics.test;
+
+/**
+ * Copyright 2014
+ * Telecooperation (TK) Lab
+ * Technische Universit�t Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.tudarmstadt.tk.statistics.config.ReportTypes;
+import de.tudarmstadt.tk.statistics.config.StatsConfig;
+import de.tudarmstadt.tk.statistics.helper.Helpers;
+import de.tudarmstadt.tk.statistics.importer.ExternalResultsReader;
+import de.tudarmstadt.tk.statistics.report.EvaluationResults;
+
+/**
+ * Evaluates a file of external data which grows while the folds of an
+ * evaluation are completed, e.g. by a running cross-validation. The file is
+ * imported and evaluated once; afterwards, each update reads only the rows
+ * appended since, adds them to the samples of their models and evaluates the
+ * splits which received new folds again. The omnibus and post-hoc tests
+ * performed in Java on repeated measures are updated from the
+ * {@link SufficientStatistics} of the samples, in time proportional to the
+ * new folds.
+ * 
+ * Appended rows are read once terminated by a line break. A split is
+ * evaluated again once all of its models have been measured on the same
+ * number of folds. The models, measures and the selection of the best models
+ * are determined by the first import; rows of other models are ignored. A
+ * file which has been shortened is imported again.
+ *
+ * @author Guckelsberger, Schulz
+ */
+public class IncrementalEvaluation {
+
+	private static final Logger logger = LogManager.getLogger("Statistics");
+
+	private final StatsConfig config;
+	private final String pathToCsvFile;
+	private final char separator;
+	private final ReportTypes pipelineType;
+	private final HashMap<String, Integer> pipelineMetadata;
+	private final StatsProcessor processor;
+
+	// The splits of the samples imported so far, null before the first import
+	private List<SampleData> splits = null;
+	// The latest results of each split
+	private List<EvaluationResults> results = null;
+	// Position in the file up to which rows have been imported
+	private long offset = 0;
+
+	/**
+	 * @param pathToCsvFile
+	 *            The path to the external data file.
+	 * @param separator
+	 *            The character used to separate columns in the file.
+	 * @param pipelineType
+	 *            The pipeline the data stems from, cf.
+	 *            {@link StatsProcessor#evaluateCV(StatsConfig, String, String, char)}
+	 *            etc.
+	 * @param pipelineMetadata
+	 *            Further information on the pipeline, e.g. "nFolds" for
+	 *            repeated cross-validations
+	 */
+	public IncrementalEvaluation(StatsConfig config, String pathToCsvFile, char separator, ReportTypes pipelineType, HashMap<String, Integer> pipelineMetadata) {
+		this.config = config;
+		this.pathToCsvFile = pathToCsvFile;
+		this.separator = separator;
+		this.pipelineType = pipelineType;
+		this.pipelineMetadata = pipelineMetadata;
+		this.processor = new StatsProcessor(config);
+	}
+
+	/**
+	 * Imports the rows appended to the file since the last update and
+	 * evaluates the splits which received new folds. The first update imports
+	 * and evaluates the whole file.
+	 * 
+	 * @return The latest results of each split, or null if the file could not
+	 *         be read or evaluated
+	 */
+	public synchronized List<EvaluationResults> update() {
+		File file = new File(pathToCsvFile);
+		if (splits != null && file.length() < offset) {
+			logger.log(Level.WARN, String.format("%s has been shortened, importing it again.", pathToCsvFile));
+			splits = null;
+			offset = 0;
+		}
+
+		String appended;
+		try {
+			appended = readAppended(file);
+		} catch (IOException e) {
+			String error = String.format("%s could not be read: %s", pathToCsvFile, e.getMessage());
+			logger.log(Level.ERROR, error);
+			System.err.println(error);
+			return null;
+		}
+		return splits == null ? importAll(appended) : importAppended(appended);
+	}
+
+	/**
+	 * @return The processor evaluating the splits, e.g. for its metrics
+	 */
+	public StatsProcessor getProcessor() {
+		return processor;
+	}
+
+	/**
+	 * Terminates the threads of the processor, cf. {@link StatsProcessor#close()}
+	 */
+	public void close() {
+		processor.close();
+	}
+
+	/**
+	 * Reads the file from the offset on, up to the last line break or, on the
+	 * first import, to its end, and advances the offset accordingly
+	 */
+	private String readAppended(File file) throws IOException {
+		try (RandomAccessFile access = new RandomAccessFile(file, "r")) {
+			long length = access.length();
+			byte[] bytes = new byte[(int) (length - offset)];
+			access.seek(offset);
+			access.readFully(bytes);
+
+			int end = bytes.length;
+			if (splits != null) {
+				while (end > 0 && bytes[end - 1] != '\n') {
+					end--;
+				}
+			}
+			offset += end;
+			// Decoded like the FileReader of the first import
+			return new String(bytes, 0, end);
+		}
+	}
+
+	private List<EvaluationResults> importAll(String text) {
+		List<String[]> rows = ExternalResultsReader.readCSV(new StringReader(text), separator);
+		SampleData sampleData = rows == null ? null : ExternalResultsReader.interpretCSV(config, rows, pipelineType, pipelineMetadata);
+		if (sampleData == null) {
+			String error = String.format("%s could not be imported. Aborting.", pathToCsvFile);
+			logger.log(Level.ERROR, error);
+			System.err.println(error);
+			offset = 0;
+			return null;
+		}
+		splits = ExternalResultsReader.splitData(sampleData, config);
+		results = new ArrayList<EvaluationResults>();
+		for (SampleData split : splits) {
+			EvaluationResults evalResults = processor.performStatisticalEvaluation(split, true);
+			if (evalResults == null) {
+				return null;
+			}
+			results.add(evalResults);
+		}
+		return new ArrayList<EvaluationResults>(results);
+	}
+
+	private List<EvaluationResults> importAppended(String text) {
+		List<String[]> rows = new ArrayList<String[]>();
+		if (!text.trim().isEmpty()) {
+			// Lines left empty by a file not ending with a line break
+			rows = ExternalResultsReader.readCSV(new StringReader(text.replaceAll("(?m)^\\s*\\r?\\n", "")), separator);
+			if (rows == null) {
+				return null;
+			}
+		}
+		if (rows.size() > 0 && rows.get(0)[6].equals("IsBaseline")) {
+			rows.remove(0);
+		}
+		// Folds are added in the same order as by the first import
+		Collections.sort(rows, new Helpers.LexicographicArrayComparator());
+
+		// New samples per split, measure and model
+		List<HashMap<String, ArrayList<ArrayList<Double>>>> newSamples = new ArrayList<HashMap<String, ArrayList<ArrayList<Double>>>>();
+		for (int s = 0; s < splits.size(); s++) {
+			newSamples.add(new HashMap<String, ArrayList<ArrayList<Double>>>());
+		}
+		int ignored = 0;
+		for (String[] columns : rows) {
+			String classifier = columns[2];
+			if (classifier.equals("0")) {
+				classifier = "Aggregated";
+			}
+			Pair<String, String> model = Pair.of(classifier, columns[3]);
+			String measure = columns[4];
+
+			int split = -1;
+			int modelIndex = -1;
+			for (int s = 0; s < splits.size() && modelIndex < 0; s++) {
+				modelIndex = splits.get(s).getModelMetadata().indexOf(model);
+				split = s;
+			}
+			if (modelIndex < 0 || !splits.get(split).getSamples().containsKey(measure)) {
+				ignored++;
+				continue;
+			}
+
+			HashMap<String, ArrayList<ArrayList<Double>>> samples = newSamples.get(split);
+			if (!samples.containsKey(measure)) {
+				ArrayList<ArrayList<Double>> samplesPerModel = new ArrayList<ArrayList<Double>>();
+				for (int i = 0; i < splits.get(split).getModelMetadata().size(); i++) {
+					samplesPerModel.add(new ArrayList<Double>());
+				}
+				samples.put(measure, samplesPerModel);
+			}
+			samples.get(measure).get(modelIndex).add(Double.parseDouble(columns[5]));
+		}
+		if (ignored > 0) {
+			logger.log(Level.WARN, String.format("Ignored %d rows of models or measures which are not evaluated.", ignored));
+		}
+
+		for (int s = 0; s < splits.size(); s++) {
+			if (newSamples.get(s).isEmpty()) {
+				continue;
+			}
+			SampleData split = splits.get(s);
+			split.addSamples(newSamples.get(s));
+			if (!isBalanced(split)) {
+				logger.log(Level.INFO, String.format("Split %d awaits the remaining models of the new folds.", s));
+				continue;
+			}
+			logger.log(Level.INFO, String.format("Evaluating split %d again with the new folds.", s));
+			EvaluationResults evalResults = processor.performStatisticalEvaluation(split, true);
+			if (evalResults == null) {
+				return null;
+			}
+			results.set(s, evalResults);
+		}
+		return new ArrayList<EvaluationResults>(results);
+	}
+
+	/**
+	 * @return True if all models have been measured on the same number of
+	 *         folds for all measures
+	 */
+	private static boolean isBalanced(SampleData split) {
+		int size = -1;
+		for (Entry<String, ArrayList<ArrayList<Double>>> e : split.getSamples().entrySet()) {
+			for (ArrayList<Double> values : e.getValue()) {
+				if (size >= 0 && values.size() != size) {
+					return false;
+				}
+				size = values.size();
+			}
+		}
+		return true;
+	}
+
+}
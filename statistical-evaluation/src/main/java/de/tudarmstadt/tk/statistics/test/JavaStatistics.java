@@ -0,0 +1,1237 @@
+package de.tudarmstadt.tk.statistics.test;
+
+/**
+ * Copyright 2014
+ * Telecooperation (TK) Lab
+ * Technische Universit�t Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.tudarmstadt.tk.statistics.config.StatsConfigConstants;
+import de.tudarmstadt.tk.statistics.numerics.Distributions;
+import de.tudarmstadt.tk.statistics.numerics.MultivariateT;
+import de.tudarmstadt.tk.statistics.numerics.RankSum;
+import de.tudarmstadt.tk.statistics.numerics.Ranks;
+import de.tudarmstadt.tk.statistics.numerics.ShapiroWilk;
+import de.tudarmstadt.tk.statistics.numerics.SignedRank;
+import de.tudarmstadt.tk.statistics.numerics.StudentizedRange;
+
+/**
+ * In-process implementation of the statistical tests, computing the results
+ * directly in Java instead of passing the data to R. The methods follow the
+ * input conventions and return the same result structures as their
+ * counterparts in {@link Statistics}. Tests which are not (yet) available
+ * return null, cf. {@link #supportsTest(String)}.
+ *
+ * The class holds no mutable state and can be shared between threads.
+ *
+ * @author Guckelsberger, Schulz
+ */
+public class JavaStatistics implements StatisticsBackend {
+
+	private static final Logger logger = LogManager.getLogger("Statistics");
+
+	// Names of the tests implemented in this backend, as used in the config
+	private static final HashSet<String> SUPPORTED_TESTS = new HashSet<String>(Arrays.asList("Friedman", "Nemenyi", "WilcoxonSignedRank", "PairwiseWilcoxonSignedRank", "RepeatedMeasuresOneWayANOVA", "Tukey", "Dunett", "DependentT",
+			"PairwiseDependentT", "PairwiseIndependentT", "McNemar", "KruskalWallis", "MannWhitneyU"));
+
+	// Default sample size up to which exact p-values are computed, as in R
+	public static final int DEFAULT_EXACT_LIMIT = 50;
+
+	private final int exactLimit;
+
+	public JavaStatistics() {
+		this(DEFAULT_EXACT_LIMIT);
+	}
+
+	/**
+	 * @param exactLimit
+	 *            Rank tests on samples with less than this number of
+	 *            observations compute exact p-values, larger samples use the
+	 *            normal approximation
+	 */
+	public JavaStatistics(int exactLimit) {
+		this.exactLimit = Math.min(exactLimit, SignedRank.MAX_N + 1);
+	}
+
+	public StatsConfigConstants.BACKEND_VALUES getBackendType() {
+		return StatsConfigConstants.BACKEND_VALUES.Java;
+	}
+
+	public boolean supportsTest(String testName) {
+		return SUPPORTED_TESTS.contains(testName);
+	}
+
+	/**
+	 * All corrections are available, cf. {@link PValueAdjustment}.
+	 */
+	public boolean supportsCorrection(StatsConfigConstants.CORRECTION_VALUES method) {
+		return true;
+	}
+
+	/**
+	 * Plots are only available in R.
+	 */
+	public boolean supportsPlotting() {
+		return false;
+	}
+
+	/**
+	 * Kruskal-Wallis rank sum test, equivalent to kruskal.test in R. All
+	 * observations are ranked once in a primitive buffer, ties are assigned
+	 * their mid-rank and corrected for in the statistic. Missing values (NaNs)
+	 * are omitted.
+	 * 
+	 * @param values
+	 *            Individual performance results of different groups (e.g.
+	 *            models -> rows) over different domains or folds (columns)
+	 * @return Instance of class TestResult, comprising p-Values, statistics,
+	 *         the method applied, etc. and a method for human-friendly printing
+	 */
+	public TestResult testKruskalWallis(double[][] values) {
+
+		if (values.length < 3) {
+			String error = "Less than three samples given to Kruskal-Wallis-test. Please check input or use a more suitable test.";
+			logger.log(Level.ERROR, error);
+			System.err.println(error);
+			return null;
+		}
+
+		int k = values.length;
+		int total = 0;
+		for (double[] v : values) {
+			total += v.length;
+		}
+		double[] ranks = new double[total];
+		int[] sizes = new int[k];
+		int n = 0;
+		for (int i = 0; i < k; i++) {
+			for (double v : values[i]) {
+				if (!Double.isNaN(v)) {
+					ranks[n++] = v;
+					sizes[i]++;
+				}
+			}
+			if (sizes[i] == 0) {
+				String error = "All groups of the Kruskal-Wallis test must contain data. Please check!";
+				logger.log(Level.ERROR, error);
+				System.err.println(error);
+				return null;
+			}
+		}
+
+		double ties = Ranks.rank(ranks, n, new double[n]);
+		double sum = 0;
+		int offset = 0;
+		for (int i = 0; i < k; i++) {
+			double rankSum = 0;
+			for (int j = offset; j < offset + sizes[i]; j++) {
+				rankSum += ranks[j];
+			}
+			sum += rankSum * rankSum / sizes[i];
+			offset += sizes[i];
+		}
+		double statistic = (12 * sum / (n * (n + 1.0)) - 3 * (n + 1.0)) / (1 - ties / ((double) n * n * n - n));
+		double df = k - 1;
+		double p = Distributions.pchisq(statistic, df, false);
+
+		HashMap<String, Double> parameter = new HashMap<String, Double>();
+		parameter.put("df", df);
+		TestResult result = new TestResult("Kruskal-Wallis rank sum test", parameter, p, statistic);
+		result.setStatisticType("H");
+		return result;
+	}
+
+	/**
+	 * Friedman rank sum test, equivalent to friedman.test in R. Each fold is
+	 * ranked in place on a reused primitive buffer, ties are assigned their
+	 * mid-rank and corrected for in the statistic. Folds with missing values
+	 * (NaNs) are omitted.
+	 * 
+	 * @param values
+	 *            Individual performance results of different items (e.g. models
+	 *            -> rows) over different domains or folds (columns). Please
+	 *            ensure that data is measured on at least two domains/folds!
+	 * @return Instance of class TestResult, comprising p-Values, statistics,
+	 *         the method applied, etc. and a method for human-friendly printing
+	 */
+	public TestResult testFriedman(double[][] values) {
+		return testFriedman(new SufficientStatistics(values, EnumSet.of(SufficientStatistics.Part.Ranks)));
+	}
+
+	/**
+	 * Friedman rank sum test on the rank sums of the folds measured so far,
+	 * cf. {@link #testFriedman(double[][])}
+	 * 
+	 * @param statistics
+	 *            Sufficient statistics of the performance results of different
+	 *            items (e.g. models) over the domains or folds measured so far
+	 * @return Instance of class TestResult, comprising p-Values, statistics,
+	 *         the method applied, etc. and a method for human-friendly printing
+	 */
+	public TestResult testFriedman(SufficientStatistics statistics) {
+
+		if (statistics.getItems() == 0) {
+			String error = "No samples for Friedman test. Please check!";
+			logger.log(Level.ERROR, error);
+			System.err.println(error);
+			return null;
+		}
+		if (statistics.getColumns() < 2) {
+			String error = "The Friedman test is only suitable for repeated measured. Please provide appropriate input.";
+			logger.log(Level.ERROR, error);
+			System.err.println(error);
+			return null;
+		}
+		if (!hasParts(statistics, EnumSet.of(SufficientStatistics.Part.Ranks), "The Friedman test")) {
+			return null;
+		}
+
+		int k = statistics.k;
+		int n = statistics.n;
+
+		double expected = n * (k + 1) / 2.0;
+		double sumOfSquares = 0;
+		for (int i = 0; i < k; i++) {
+			double d = statistics.rankSums[i] - expected;
+			sumOfSquares += d * d;
+		}
+		double statistic = 12 * sumOfSquares / (n * k * (k + 1.0) - statistics.ties / (k - 1));
+		double df = k - 1;
+		double p = Distributions.pchisq(statistic, df, false);
+
+		HashMap<String, Double> parameter = new HashMap<String, Double>();
+		parameter.put("df", df);
+		TestResult result = new TestResult("Friedman rank sum test", parameter, p, statistic);
+		result.setStatisticType("Q");
+		return result;
+	}
+
+	/**
+	 * Nemenyi post-hoc test for pairwise comparisons after a Friedman test,
+	 * equivalent to posthoc.friedman.nemenyi.test in the R package PMCMR. The
+	 * p-values of the studentized range distribution are looked up in a table
+	 * that is computed once per number of items, so that the costs per pair are
+	 * constant.
+	 * 
+	 * @param values
+	 *            Individual performance results of different items (e.g. models
+	 *            -> rows) over different domains or folds (columns). Please
+	 *            ensure that data is measured on at least two domains/folds!
+	 * @return Instance of class PairwiseTestResult, comprising p-Values,
+	 *         statistics, the method applied, etc. and a method for
+	 *         human-friendly printing
+	 */
+	public PairwiseTestResult testNemenyi(double[][] values) {
+		return testNemenyi(new SufficientStatistics(values, EnumSet.of(SufficientStatistics.Part.Ranks)));
+	}
+
+	/**
+	 * Nemenyi post-hoc test on the rank sums of the folds measured so far, cf.
+	 * {@link #testNemenyi(double[][])}
+	 * 
+	 * @param statistics
+	 *            Sufficient statistics of the performance results of different
+	 *            items (e.g. models) over the domains or folds measured so far
+	 * @return Instance of class PairwiseTestResult, comprising p-Values,
+	 *         statistics, the method applied, etc. and a method for
+	 *         human-friendly printing
+	 */
+	public PairwiseTestResult testNemenyi(SufficientStatistics statistics) {
+
+		if (statistics.getItems() < 2) {
+			String error = "Less than two samples for Nemenyi test. Please check!";
+			logger.log(Level.ERROR, error);
+			System.err.println(error);
+			return null;
+		}
+		if (statistics.getColumns() < 2) {
+			String error = "The Nemenyi test is only suitable for repeated measured. Please provide appropriate input.";
+			logger.log(Level.ERROR, error);
+			System.err.println(error);
+			return null;
+		}
+		if (!hasParts(statistics, EnumSet.of(SufficientStatistics.Part.Ranks), "The Nemenyi test")) {
+			return null;
+		}
+
+		int k = statistics.k;
+		int n = statistics.n;
+		double standardError = Math.sqrt(k * (k + 1) / (6.0 * n));
+
+		// Lower triangular matrices of the pairwise results, as in R
+		double[][] statistic = new double[k - 1][k - 1];
+		double[][] pValue = new double[k - 1][k - 1];
+		for (int i = 1; i < k; i++) {
+			for (int j = 0; j < k - 1; j++) {
+				if (j >= i) {
+					statistic[i - 1][j] = Double.NaN;
+					pValue[i - 1][j] = Double.NaN;
+					continue;
+				}
+				double q = Math.abs(statistics.rankSums[i] - statistics.rankSums[j]) / n / standardError;
+				statistic[i - 1][j] = q;
+				pValue[i - 1][j] = StudentizedRange.upperTail(q * Math.sqrt(2), k, Double.POSITIVE_INFINITY);
+			}
+		}
+
+		PairwiseTestResult result = new PairwiseTestResult("Nemenyi multiple comparison test with q approximation for unreplicated blocked data", new HashMap<String, Double>(), pValue, statistic);
+		result.setRequiresPValueCorrection(false);
+		result.setStatisticType("q");
+		return result;
+	}
+
+	/**
+	 * McNemar's chi-squared test for symmetry of a square contingency table,
+	 * equivalent to mcnemar.test(m, correct=TRUE) in R. The continuity
+	 * correction is applied to 2x2 tables only.
+	 * 
+	 * @param contingencies
+	 *            Square contingency table, e.g. of correct and incorrect
+	 *            classifications of two models
+	 * @return Instance of class TestResult, comprising p-Values, statistics,
+	 *         the method applied, etc. and a method for human-friendly printing
+	 */
+	public TestResult testMcNemar(int[][] contingencies) {
+
+		if (contingencies.length == 0) {
+			String error = "Empty contingency matrix for McNemar's test. Please check!";
+			logger.log(Level.ERROR, error);
+			System.err.println(error);
+			return null;
+		}
+
+		int r = contingencies.length;
+		for (int[] row : contingencies) {
+			if (row.length != r || r < 2) {
+				String error = "The contingency matrix for McNemar's test must be square with at least two rows. Please check!";
+				logger.log(Level.ERROR, error);
+				System.err.println(error);
+				return null;
+			}
+		}
+
+		double statistic;
+		String method;
+		if (r == 2) {
+			double b = contingencies[0][1];
+			double c = contingencies[1][0];
+			double d = Math.abs(b - c) - 1;
+			statistic = d * d / (b + c);
+			method = "McNemar's Chi-squared test with continuity correction";
+		} else {
+			statistic = 0;
+			for (int i = 0; i < r; i++) {
+				for (int j = i + 1; j < r; j++) {
+					double d = contingencies[i][j] - contingencies[j][i];
+					statistic += d * d / (contingencies[i][j] + contingencies[j][i]);
+				}
+			}
+			method = "McNemar's Chi-squared test";
+		}
+		double df = r * (r - 1) / 2;
+		double p = Distributions.pchisq(statistic, df, false);
+
+		HashMap<String, Double> parameter = new HashMap<String, Double>();
+		parameter.put("df", df);
+		TestResult result = new TestResult(method, parameter, p, statistic);
+		result.setStatisticType("\\chi^2");
+		return result;
+	}
+
+	/**
+	 * Mann-Whitney U test (Wilcoxon rank sum test) for independent samples,
+	 * equivalent to wilcox.test(x, y) in R. If both samples have less than
+	 * {@link #DEFAULT_EXACT_LIMIT} (or the configured number of) observations
+	 * and there are no ties, the p-value is exact. Otherwise, it is
+	 * approximated by the normal distribution with continuity correction,
+	 * corrected for ties. Missing values (NaNs) are omitted.
+	 * 
+	 * @param x
+	 *            First sample
+	 * @param y
+	 *            Second sample
+	 * @return Instance of class TestResult, comprising p-Values, statistics,
+	 *         the method applied, etc. and a method for human-friendly printing
+	 */
+	public TestResult testMannWhitneyU(double[] x, double[] y) {
+
+		if (x.length == 0 || y.length == 0) {
+			String error = "No samples for Mann-Whitney-U test. Please check!";
+			logger.log(Level.ERROR, error);
+			System.err.println(error);
+			return null;
+		}
+
+		double[] ranks = new double[x.length + y.length];
+		int nx = 0;
+		for (double v : x) {
+			if (!Double.isNaN(v) && !Double.isInfinite(v)) {
+				ranks[nx++] = v;
+			}
+		}
+		int n = nx;
+		for (double v : y) {
+			if (!Double.isNaN(v) && !Double.isInfinite(v)) {
+				ranks[n++] = v;
+			}
+		}
+		int ny = n - nx;
+		if (nx == 0 || ny == 0) {
+			String error = "No samples for Mann-Whitney-U test. Please check!";
+			logger.log(Level.ERROR, error);
+			System.err.println(error);
+			return null;
+		}
+
+		double ties = Ranks.rank(ranks, n, new double[n]);
+		double statistic = -nx * (nx + 1) / 2.0;
+		for (int i = 0; i < nx; i++) {
+			statistic += ranks[i];
+		}
+
+		double p;
+		String method;
+		boolean exact = nx < exactLimit && ny < exactLimit && nx <= RankSum.MAX_N && ny <= RankSum.MAX_N && ties == 0;
+		if (exact) {
+			if (statistic > nx * ny / 2.0) {
+				p = RankSum.pwilcox(statistic - 1, nx, ny, false);
+			} else {
+				p = RankSum.pwilcox(statistic, nx, ny, true);
+			}
+			p = Math.min(2 * p, 1);
+			method = "Wilcoxon rank sum exact test";
+		} else {
+			double z = statistic - nx * ny / 2.0;
+			double sigma = Math.sqrt(nx * (double) ny / 12 * ((n + 1) - ties / (n * (n - 1.0))));
+			z = (z - Math.signum(z) * 0.5) / sigma;
+			p = 2 * Math.min(Distributions.pnorm(z, 0, 1, true), Distributions.pnorm(z, 0, 1, false));
+			method = "Wilcoxon rank sum test with continuity correction";
+		}
+
+		TestResult result = new TestResult(method, new HashMap<String, Double>(), p, statistic);
+		result.setStatisticType("U");
+		return result;
+	}
+
+	/**
+	 * Wilcoxon signed rank test for paired samples, equivalent to
+	 * wilcox.test(x, y, paired=TRUE, correct=FALSE) in R. For less than
+	 * {@link #DEFAULT_EXACT_LIMIT} (or the configured number of) non-zero
+	 * differences without ties, the p-value is exact. Otherwise, it is
+	 * approximated by the normal distribution, corrected for ties.
+	 * 
+	 * @param x
+	 *            First sample
+	 * @param y
+	 *            Second sample, paired with the first
+	 * @return Instance of class TestResult, comprising p-Values, statistics,
+	 *         the method applied, etc. and a method for human-friendly printing
+	 */
+	public TestResult testWilcoxonSignedRank(double[] x, double[] y) {
+
+		if (x.length == 0 || y.length == 0) {
+			String error = "No samples for Wilcoxon-Signed-Rank test. Please check!";
+			logger.log(Level.ERROR, error);
+			System.err.println(error);
+			return null;
+		}
+
+		int n = Math.min(x.length, y.length);
+		double[] result = new double[3];
+		wilcoxonSignedRank(x, y, new double[n], new double[n], new double[n], result);
+
+		String method = result[2] != 0 ? "Wilcoxon signed rank exact test" : "Wilcoxon signed rank test";
+		TestResult testResult = new TestResult(method, new HashMap<String, Double>(), result[1], result[0]);
+		testResult.setStatisticType("W");
+		return testResult;
+	}
+
+	public PairwiseTestResult testPairwiseWilcoxonSignedRank(double[][] values) {
+		return this.testPairwiseWilcoxonSignedRank(values, true);
+	}
+
+	/**
+	 * Wilcoxon signed rank test for pairwise comparison of >2 groups. The
+	 * buffers for the differences are shared by all pairs, and the exact null
+	 * distribution is computed only once per sample size.
+	 * 
+	 * @param values
+	 *            Individual performance results of different items (e.g. models
+	 *            -> rows) over different domains or folds (columns).
+	 * @param isBaselineEvaluation
+	 *            If true, only compare each group against the first.
+	 * @return Instance of class {@link PairwiseTestResult}, comprising pairwise
+	 *         p-Values, statistics, the method applied, etc. and a method for
+	 *         human-friendly printing
+	 */
+	public PairwiseTestResult testPairwiseWilcoxonSignedRank(double[][] values, boolean isBaselineEvaluation) {
+
+		if (values.length == 0) {
+			String error = "No samples for Pairwise Wilcoxon-Signed-Rank test. Please check!";
+			logger.log(Level.ERROR, error);
+			System.err.println(error);
+			return null;
+		}
+
+		double[][] statistic = new double[values.length - 1][values.length - 1];
+		double[][] pValue = new double[values.length - 1][values.length - 1];
+		for (int c = 0; c < values.length - 1; c++) {
+			Arrays.fill(pValue[c], Double.NaN);
+			Arrays.fill(statistic[c], Double.NaN);
+		}
+
+		int n = 0;
+		for (double[] v : values) {
+			n = Math.max(n, v.length);
+		}
+		double[] differences = new double[n];
+		double[] ranks = new double[n];
+		double[] scratch = new double[n];
+		double[] result = new double[3];
+
+		int comparisons = isBaselineEvaluation ? 1 : values.length;
+		for (int c = 0; c < comparisons; c++) {
+			for (int c1 = c + 1; c1 < values.length; c1++) {
+				wilcoxonSignedRank(values[c], values[c1], differences, ranks, scratch, result);
+				pValue[c1 - 1][c] = result[1];
+				statistic[c1 - 1][c] = result[0];
+			}
+		}
+
+		PairwiseTestResult testResult = new PairwiseTestResult("Pairwise Wilcoxon Signed-Rank test", new HashMap<String, Double>(), pValue, statistic);
+		testResult.setRequiresPValueCorrection(true);
+		testResult.setStatisticType("W");
+		return testResult;
+	}
+
+	public PairwiseTestResult testPairwiseIndependentT(double[][] values) {
+		return testPairwiseT(values, false);
+	}
+
+	public PairwiseTestResult testPairwiseDependentT(double[][] values) {
+		return testPairwiseT(values, true);
+	}
+
+	/**
+	 * Pairwise t-tests for the comparison of >2 groups without corrections,
+	 * equivalent to pairwise.t.test(..., p.adjust.method='none') in R. Paired
+	 * tests are computed on the differences of each pair, unpaired tests on
+	 * the means with a standard deviation pooled over all groups. The
+	 * normality of the pairwise differences is checked by Shapiro-Wilk tests
+	 * in the same pass over the pairs, sharing the buffers and the cached
+	 * coefficients for the common sample size. The result is stored as the
+	 * "Normality" assumption.
+	 * 
+	 * @param values
+	 *            Individual performance results of different items (e.g. models
+	 *            -> rows) over different domains or folds (columns). Please
+	 *            ensure that data is measured on at least two domains/folds!
+	 * @param paired
+	 *            Specified whether individual samples should be treated as
+	 *            paired (independent/dependent)
+	 * @return Instance of class {@link PairwiseTestResult}, comprising pairwise
+	 *         p-Values, statistics, the method applied, etc. and a method for
+	 *         human-friendly printing
+	 */
+	public PairwiseTestResult testPairwiseT(double[][] values, boolean paired) {
+
+		if (values.length == 0) {
+			String error = "No samples for Pairwise t-test. Please check!";
+			logger.log(Level.ERROR, error);
+			System.err.println(error);
+			return null;
+		}
+
+		int k = values.length;
+		double[][] statistic = new double[k - 1][k - 1];
+		double[][] pValue = new double[k - 1][k - 1];
+		for (int c = 0; c < k - 1; c++) {
+			Arrays.fill(pValue[c], Double.NaN);
+			Arrays.fill(statistic[c], Double.NaN);
+		}
+
+		int n = 0;
+		for (double[] v : values) {
+			n = Math.max(n, v.length);
+		}
+		PairwiseDifferences pairs = new PairwiseDifferences(values);
+		double[] differences = new double[n];
+		double[] result = new double[3];
+
+		// Means and standard deviation pooled over all groups, for unpaired
+		// tests
+		double[] means = new double[k];
+		int[] sizes = new int[k];
+		double pooledSd = 0;
+		int totalDf = 0;
+		if (!paired) {
+			for (int i = 0; i < k; i++) {
+				for (double v : values[i]) {
+					if (!Double.isNaN(v)) {
+						means[i] += v;
+						sizes[i]++;
+					}
+				}
+				means[i] /= sizes[i];
+				for (double v : values[i]) {
+					if (!Double.isNaN(v)) {
+						pooledSd += (v - means[i]) * (v - means[i]);
+					}
+				}
+				totalDf += sizes[i] - 1;
+			}
+			pooledSd = Math.sqrt(pooledSd / totalDf);
+		}
+
+		for (int c = 0; c < k; c++) {
+			for (int c1 = c + 1; c1 < k; c1++) {
+				if (paired) {
+					int m = pairs.copy(c1, c, differences);
+					pairedT(differences, m, result);
+					statistic[c1 - 1][c] = result[0];
+					pValue[c1 - 1][c] = result[2];
+				} else {
+					double t = (means[c1] - means[c]) / (pooledSd * Math.sqrt(1.0 / sizes[c1] + 1.0 / sizes[c]));
+					statistic[c1 - 1][c] = t;
+					pValue[c1 - 1][c] = 2 * Distributions.pt(-Math.abs(t), totalDf, true);
+				}
+			}
+		}
+		PairwiseTestResult normality = pairs.testNormality();
+
+		String method = paired ? "paired t tests" : "t tests with pooled SD";
+		PairwiseTestResult testResult = new PairwiseTestResult(method, new HashMap<String, Double>(), pValue, statistic);
+		testResult.getAssumptions().put("Normality", normality);
+		testResult.setRequiresPValueCorrection(true);
+		testResult.setStatisticType("t");
+		return testResult;
+	}
+
+	/**
+	 * Dependent t-test (paired-samples t-test), equivalent to t.test(x, y,
+	 * paired=TRUE) in R. The normality of the differences is checked by a
+	 * Shapiro-Wilk test and stored as the "Normality" assumption. Pairs with
+	 * missing values are omitted.
+	 * 
+	 * @param x
+	 *            : First sample of dependent performance measures
+	 * @param y
+	 *            : Second sample of dependent performance measures
+	 * @return Instance of class TestResult, comprising p-Values, statistics,
+	 *         the method applied, etc. and a method for human-friendly printing
+	 */
+	public TestResult testDependentT(double[] x, double[] y) {
+
+		if (x.length == 0 || y.length == 0) {
+			String error = "No samples for dependend t-test. Please check!";
+			logger.log(Level.ERROR, error);
+			System.err.println(error);
+			return null;
+		}
+
+		double[] differences = new double[Math.min(x.length, y.length)];
+		int n = differences(x, y, differences);
+		if (n < 2) {
+			String error = "The dependent t-test requires at least two complete pairs. Please provide appropriate input.";
+			logger.log(Level.ERROR, error);
+			System.err.println(error);
+			return null;
+		}
+
+		double[] result = new double[3];
+		pairedT(differences, n, result);
+		HashMap<String, Double> parameter = new HashMap<String, Double>();
+		parameter.put("df", result[1]);
+		TestResult testResult = new TestResult("Paired t-test", parameter, result[2], result[0]);
+		testResult.setStatisticType("t");
+
+		// As in R, a failed normality test (e.g. for constant differences)
+		// leaves the assumption empty
+		TestResult normalityTest = null;
+		shapiroWilk(differences, n, result);
+		if (!Double.isNaN(result[0])) {
+			normalityTest = new TestResult("Shapiro-Wilk normality test", new HashMap<String, Double>(), result[1], result[0]);
+			normalityTest.setStatisticType("W");
+		}
+		testResult.getAssumptions().put("Normality", normalityTest);
+		return testResult;
+	}
+
+	/**
+	 * Repeated-Measures One-Way ANOVA, equivalent to ezANOVA in R for a within
+	 * design of items (e.g. models) and domains or folds as subjects. The sums
+	 * of squares and the covariances of orthonormal contrasts, from which
+	 * Mauchly's test and the Greenhouse-Geisser and Huynh-Feldt corrections
+	 * follow, are accumulated in one pass over the folds. Folds with missing
+	 * values (NaNs) are omitted.
+	 * 
+	 * @param values
+	 *            Individual performance results of different items (e.g. models
+	 *            -> rows) over different domains or folds (columns). Please
+	 *            ensure that data is measured on at least two domains/folds!
+	 * @return Instance of class {@link TestResult}, comprising p-Values,
+	 *         statistics, the method applied, etc. and a method for
+	 *         human-friendly printing. The corrected p-values according to
+	 *         Greenhouse-Geissner and Huynh-Feldt are comprised in the
+	 *         parameters map of the sphericity assumption.
+	 */
+	public TestResult testRepeatedMeasuresOneWayANOVA(double[][] values) {
+		return testRepeatedMeasuresOneWayANOVA(new SufficientStatistics(values, EnumSet.of(SufficientStatistics.Part.Contrasts)));
+	}
+
+	/**
+	 * Repeated-Measures One-Way ANOVA on the sums of squares and cross
+	 * products of the folds measured so far, cf.
+	 * {@link #testRepeatedMeasuresOneWayANOVA(double[][])}
+	 * 
+	 * @param statistics
+	 *            Sufficient statistics of the performance results of different
+	 *            items (e.g. models) over the domains or folds measured so far
+	 * @return Instance of class {@link TestResult}, comprising p-Values,
+	 *         statistics, the method applied, etc. and a method for
+	 *         human-friendly printing. The corrected p-values according to
+	 *         Greenhouse-Geissner and Huynh-Feldt are comprised in the
+	 *         parameters map of the sphericity assumption.
+	 */
+	public TestResult testRepeatedMeasuresOneWayANOVA(SufficientStatistics statistics) {
+
+		if (statistics.getItems() == 0) {
+			String error = "No samples for Repeated Measures One-Way ANOVA. Please check!";
+			logger.log(Level.ERROR, error);
+			System.err.println(error);
+			return null;
+		}
+		if (statistics.getColumns() < 2) {
+			String error = "The Repeated Measures One-Way ANOVA is only suitable for repeated measured. Please provide appropriate input.";
+			logger.log(Level.ERROR, error);
+			System.err.println(error);
+			return null;
+		}
+		if (!hasParts(statistics, EnumSet.of(SufficientStatistics.Part.Contrasts), "The Repeated Measures One-Way ANOVA")) {
+			return null;
+		}
+
+		int k = statistics.k;
+		int p = k - 1;
+		int n = statistics.n;
+		double total = statistics.total;
+		double[] itemSums = statistics.itemSums;
+		double[] contrastSums = statistics.contrastSums;
+		double[][] crossProducts = statistics.crossProducts;
+
+		// Sums of squares of the effect, the subjects (folds) and the error
+		double correction = total * total / (n * k);
+		double itemSumsOfSquares = 0;
+		for (int i = 0; i < k; i++) {
+			itemSumsOfSquares += itemSums[i] * itemSums[i];
+		}
+		double ssEffect = itemSumsOfSquares / n - correction;
+		double ssFolds = statistics.foldSumsOfSquares / k - correction;
+		double ssError = statistics.sumOfSquares - correction - ssEffect - ssFolds;
+
+		double df1 = p;
+		double df2 = p * (n - 1.0);
+		double statistic = (ssEffect / df1) / (ssError / df2);
+		double pValue = Distributions.pf(statistic, df1, df2, false);
+
+		// Mauchly's test and sphericity corrections on the sums of squares and
+		// cross products of the contrasts, cf. mauchly and summary.Anova.mlm
+		// in the R package car
+		double[][] ssd = new double[p][p];
+		for (int a = 0; a < p; a++) {
+			for (int b = 0; b <= a; b++) {
+				ssd[a][b] = crossProducts[a][b] - contrastSums[a] * contrastSums[b] / n;
+				ssd[b][a] = ssd[a][b];
+			}
+		}
+		double errorDf = n - 1;
+		double trace = 0;
+		double traceOfSquare = 0;
+		for (int a = 0; a < p; a++) {
+			trace += ssd[a][a];
+			for (int b = 0; b < p; b++) {
+				traceOfSquare += ssd[a][b] * ssd[a][b];
+			}
+		}
+		double logW = logDeterminant(ssd) - p * Math.log(trace / p);
+		double rho = 1 - (2.0 * p * p + p + 2) / (6 * p * errorDf);
+		double w2 = (p + 2.0) * (p - 1) * (p - 2) * (2.0 * p * p * p + 6 * p * p + 3 * p + 2) / (288 * Math.pow(errorDf * p * rho, 2));
+		double z = -errorDf * rho * logW;
+		double f = p * (p + 1) / 2.0 - 1;
+		double pMauchly = 1;
+		if (f > 0) {
+			double pr1 = Distributions.pchisq(z, f, false);
+			double pr2 = Distributions.pchisq(z, f + 4, false);
+			pMauchly = pr1 + w2 * (pr2 - pr1);
+		}
+
+		double epsilonGG = trace * trace / (p * traceOfSquare);
+		double epsilonHF = Math.min(1, ((errorDf + 1) * p * epsilonGG - 2) / (p * (errorDf - p * epsilonGG)));
+		double pCorrectedGreenhouseGeissner = Distributions.pf(statistic, df1 * epsilonGG, df2 * epsilonGG, false);
+		double pCorrectedHuynhFeldt = Distributions.pf(statistic, df1 * epsilonHF, df2 * epsilonHF, false);
+
+		HashMap<String, Double> parameter = new HashMap<String, Double>();
+		parameter.put("df", df1);
+
+		HashMap<String, Double> sphericityParameters = new HashMap<String, Double>();
+		sphericityParameters.put("p_{GG}", pCorrectedGreenhouseGeissner);
+		sphericityParameters.put("p_{HF}", pCorrectedHuynhFeldt);
+		TestResult testSphericity = new TestResult("Mauchly's test", sphericityParameters, pMauchly, Math.exp(logW));
+		testSphericity.setStatisticType("\\sigma^2");
+
+		TestResult result = new TestResult("Repeated Measures One-Way ANOVA", parameter, pValue, statistic);
+		result.getAssumptions().put("Sphericity", testSphericity);
+		result.setStatisticType("F");
+		return result;
+	}
+
+	/**
+	 * Dunnett's test after a Repeated-Measures One-Way ANOVA for comparing
+	 * different items against the first (the baseline), equivalent to
+	 * glht(lme(...), linfct=mcp(Model='Dunnett')) in R for complete data. In
+	 * the balanced design, the contrasts follow directly from the item means
+	 * and the error mean square of the ANOVA, and the single-step p-values
+	 * from the distribution of the maximum of equicorrelated normal variables.
+	 * 
+	 * @param values
+	 *            Individual performance results of different items (e.g. models
+	 *            -> rows) over different domains or folds (columns). The first
+	 *            item represents the baseline to be evaluated against. Please
+	 *            ensure that data is measured on at least two domains/folds!
+	 * @return Instance of class {@link PairwiseTestResult}, comprising
+	 *         p-Values, statistics, the method applied, etc. and a method for
+	 *         human-friendly printing.
+	 */
+	public PairwiseTestResult testDunett(double[][] values) {
+		return testDunett(new SufficientStatistics(values, EnumSet.noneOf(SufficientStatistics.Part.class)));
+	}
+
+	/**
+	 * Dunnett's test on the item means and the error mean square of the folds
+	 * measured so far, cf. {@link #testDunett(double[][])}
+	 * 
+	 * @param statistics
+	 *            Sufficient statistics of the performance results of different
+	 *            items (e.g. models) over the domains or folds measured so far
+	 *            The first item represents the baseline.
+	 * @return Instance of class {@link PairwiseTestResult}, comprising
+	 *         p-Values, statistics, the method applied, etc. and a method for
+	 *         human-friendly printing.
+	 */
+	public PairwiseTestResult testDunett(SufficientStatistics statistics) {
+
+		if (statistics.getItems() == 0) {
+			String error = "No samples for Dunett's test. Please check!";
+			logger.log(Level.ERROR, error);
+			System.err.println(error);
+			return null;
+		}
+
+		ItemMeans means = computeItemMeans(statistics);
+		if (means == null) {
+			return null;
+		}
+
+		int m = statistics.k - 1;
+		double[][] pValue = new double[m][m];
+		double[][] statistic = new double[m][m];
+		for (int c = 0; c < m; c++) {
+			Arrays.fill(pValue[c], Double.NaN);
+			Arrays.fill(statistic[c], Double.NaN);
+		}
+
+		// Comparisons with a common baseline are correlated with rho=0.5
+		for (int c = 0; c < m; c++) {
+			double t = (means.means[c + 1] - means.means[0]) / means.standardError;
+			statistic[c][0] = t;
+			pValue[c][0] = MultivariateT.pmaxabs(Math.abs(t), m, 0.5, Double.POSITIVE_INFINITY, false);
+		}
+
+		PairwiseTestResult result = new PairwiseTestResult("Dunnett's test", new HashMap<String, Double>(), pValue, statistic);
+		result.setStatisticType("t");
+		return result;
+	}
+
+	/**
+	 * Tukey's test after a Repeated-Measures One-Way ANOVA for pairwise n:n
+	 * comparisons, equivalent to glht(lme(...), linfct=mcp(Model='Tukey')) in R
+	 * for complete data. In the balanced design, the contrasts follow directly
+	 * from the item means and the error mean square of the ANOVA, and the
+	 * single-step p-values from the studentized range distribution.
+	 * 
+	 * @param values
+	 *            Individual performance results of different items (e.g. models
+	 *            -> rows) over different domains or folds (columns). Please
+	 *            ensure that data is measured on at least two domains/folds!
+	 * @return Instance of class {@link PairwiseTestResult}, comprising
+	 *         p-Values, statistics, the method applied, etc. and a method for
+	 *         human-friendly printing.
+	 */
+	public PairwiseTestResult testTukey(double[][] values) {
+		return testTukey(new SufficientStatistics(values, EnumSet.noneOf(SufficientStatistics.Part.class)));
+	}
+
+	/**
+	 * Tukey's test on the item means and the error mean square of the folds
+	 * measured so far, cf. {@link #testTukey(double[][])}
+	 * 
+	 * @param statistics
+	 *            Sufficient statistics of the performance results of different
+	 *            items (e.g. models) over the domains or folds measured so far
+	 * @return Instance of class {@link PairwiseTestResult}, comprising
+	 *         p-Values, statistics, the method applied, etc. and a method for
+	 *         human-friendly printing.
+	 */
+	public PairwiseTestResult testTukey(SufficientStatistics statistics) {
+
+		if (statistics.getItems() == 0) {
+			String error = "No samples for Tukey's test. Please check!";
+			logger.log(Level.ERROR, error);
+			System.err.println(error);
+			return null;
+		}
+
+		ItemMeans means = computeItemMeans(statistics);
+		if (means == null) {
+			return null;
+		}
+
+		int k = statistics.k;
+		double[][] pValue = new double[k - 1][k - 1];
+		double[][] statistic = new double[k - 1][k - 1];
+		for (int c = 0; c < k - 1; c++) {
+			Arrays.fill(pValue[c], Double.NaN);
+			Arrays.fill(statistic[c], Double.NaN);
+		}
+
+		for (int c = 0; c < k - 1; c++) {
+			for (int c1 = c + 1; c1 < k; c1++) {
+				double t = (means.means[c1] - means.means[c]) / means.standardError;
+				statistic[c1 - 1][c] = t;
+				pValue[c1 - 1][c] = StudentizedRange.upperTail(Math.abs(t) * Math.sqrt(2), k, Double.POSITIVE_INFINITY);
+			}
+		}
+
+		PairwiseTestResult result = new PairwiseTestResult("Tukey's test", new HashMap<String, Double>(), pValue, statistic);
+		result.setStatisticType("t");
+		return result;
+	}
+
+	/**
+	 * Adjusts the p-values from multiple comparisons, equivalent to p.adjust
+	 * in R.
+	 * 
+	 * @param result
+	 *            The resulting PairwiseTestResult from a multiple comparisons
+	 *            test
+	 * @param method
+	 *            The method to be applied e.g. "bonferroni" for a conservative
+	 *            adjustment
+	 * @return the adjusted p-values in the shape of the original ones
+	 */
+	public double[][] adjustP(PairwiseTestResult result, StatsConfigConstants.CORRECTION_VALUES method) {
+		return new PValueAdjustment(result.getpValue()).adjust(method);
+	}
+
+	/**
+	 * Adjusts the p-values from multiple comparisons with several methods,
+	 * sorting the p-values only once.
+	 * 
+	 * @param result
+	 *            The resulting PairwiseTestResult from a multiple comparisons
+	 *            test
+	 * @param methods
+	 *            The methods to be applied
+	 * @return the adjusted p-values per method, in the shape of the original
+	 *         ones
+	 */
+	public HashMap<StatsConfigConstants.CORRECTION_VALUES, double[][]> adjustP(PairwiseTestResult result, List<StatsConfigConstants.CORRECTION_VALUES> methods) {
+		return PValueAdjustment.adjust(result.getpValue(), methods);
+	}
+
+	public boolean plotQQNorm(double[] samples, String model, String measure, String filename) {
+		unsupported("QQ-Normal-plot");
+		return false;
+	}
+
+	public boolean plotBoxWhisker(double[][] s, int min, int max, String filename, String measure) {
+		unsupported("Box-Whisker-diagram");
+		return false;
+	}
+
+	public boolean plotGraph(int[][] edgelist, int nModels, String filename) {
+		unsupported("graph plot");
+		return false;
+	}
+
+	/**
+	 * Computes the Wilcoxon signed rank test for two paired samples. Pairs with
+	 * missing values and zero differences are omitted, as in R.
+	 * 
+	 * @param x
+	 *            First sample
+	 * @param y
+	 *            Second sample, paired with the first
+	 * @param differences
+	 *            Buffer with at least min(x.length, y.length) elements
+	 * @param ranks
+	 *            Buffer of the same size for the ranks
+	 * @param scratch
+	 *            Buffer of the same size for sorting
+	 * @param result
+	 *            Receives the statistic V, the two-sided p-value, and 1 if the
+	 *            p-value is exact or 0 if it is approximated
+	 */
+	private void wilcoxonSignedRank(double[] x, double[] y, double[] differences, double[] ranks, double[] scratch, double[] result) {
+
+		int n = 0;
+		boolean zeroes = false;
+		for (int i = 0; i < Math.min(x.length, y.length); i++) {
+			double d = x[i] - y[i];
+			if (Double.isNaN(d) || Double.isInfinite(d)) {
+				continue;
+			}
+			if (d == 0) {
+				zeroes = true;
+				continue;
+			}
+			differences[n] = d;
+			ranks[n] = Math.abs(d);
+			n++;
+		}
+
+		double ties = Ranks.rank(ranks, n, scratch);
+		double statistic = 0;
+		for (int i = 0; i < n; i++) {
+			if (differences[i] > 0) {
+				statistic += ranks[i];
+			}
+		}
+
+		double p;
+		boolean exact = n > 0 && n < exactLimit && ties == 0 && !zeroes;
+		if (exact) {
+			double half = n * (n + 1) / 4.0;
+			if (statistic > half) {
+				p = SignedRank.psignrank(statistic - 1, n, false);
+			} else {
+				p = SignedRank.psignrank(statistic, n, true);
+			}
+			p = Math.min(2 * p, 1);
+		} else {
+			double z = statistic - n * (n + 1) / 4.0;
+			double sigma = Math.sqrt(n * (n + 1.0) * (2 * n + 1) / 24 - ties / 48);
+			z /= sigma;
+			p = 2 * Math.min(Distributions.pnorm(z, 0, 1, true), Distributions.pnorm(z, 0, 1, false));
+		}
+
+		result[0] = statistic;
+		result[1] = p;
+		result[2] = exact ? 1 : 0;
+	}
+
+	/**
+	 * Copies the differences x-y of all complete pairs into a buffer
+	 * 
+	 * @param differences
+	 *            Buffer with at least min(x.length, y.length) elements
+	 * @return the number of complete pairs
+	 */
+	private static int differences(double[] x, double[] y, double[] differences) {
+		int n = 0;
+		for (int i = 0; i < Math.min(x.length, y.length); i++) {
+			double d = x[i] - y[i];
+			if (!Double.isNaN(d)) {
+				differences[n++] = d;
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * Computes the t-test of paired samples from their differences
+	 * 
+	 * @param differences
+	 *            The differences of the pairs
+	 * @param n
+	 *            The number of differences
+	 * @param result
+	 *            Receives the statistic t, the degrees of freedom and the
+	 *            two-sided p-value
+	 */
+	private static void pairedT(double[] differences, int n, double[] result) {
+		double mean = 0;
+		for (int i = 0; i < n; i++) {
+			mean += differences[i];
+		}
+		mean /= n;
+		double variance = 0;
+		for (int i = 0; i < n; i++) {
+			variance += (differences[i] - mean) * (differences[i] - mean);
+		}
+		variance /= n - 1;
+
+		double df = n - 1;
+		double t = mean / Math.sqrt(variance / n);
+		result[0] = t;
+		result[1] = df;
+		result[2] = 2 * Distributions.pt(-Math.abs(t), df, true);
+	}
+
+	/**
+	 * Computes the Shapiro-Wilk test on a sample, which is sorted in place
+	 * 
+	 * @param sample
+	 *            The sample, without missing values
+	 * @param n
+	 *            The sample size
+	 * @param result
+	 *            Receives the statistic W and the p-value, or NaNs if the test
+	 *            is not applicable (e.g. constant values)
+	 */
+	private static void shapiroWilk(double[] sample, int n, double[] result) {
+		Arrays.sort(sample, 0, n);
+		double w = ShapiroWilk.statistic(sample, n);
+		result[0] = w;
+		result[1] = ShapiroWilk.pValue(w, n);
+	}
+
+	/**
+	 * Natural logarithm of the determinant of a symmetric positive
+	 * semi-definite matrix, computed by Cholesky decomposition
+	 * 
+	 * @param matrix
+	 *            The matrix, overwritten by the decomposition
+	 * @return the logarithm of the determinant, or negative infinity if the
+	 *         matrix is singular
+	 */
+	private static double logDeterminant(double[][] matrix) {
+		int p = matrix.length;
+		double logDet = 0;
+		for (int a = 0; a < p; a++) {
+			for (int b = 0; b <= a; b++) {
+				double sum = matrix[a][b];
+				for (int c = 0; c < b; c++) {
+					sum -= matrix[a][c] * matrix[b][c];
+				}
+				if (a == b) {
+					if (sum <= 0) {
+						return Double.NEGATIVE_INFINITY;
+					}
+					matrix[a][a] = Math.sqrt(sum);
+					logDet += Math.log(sum);
+				} else {
+					matrix[a][b] = sum / matrix[b][b];
+				}
+			}
+		}
+		return logDet;
+	}
+
+	/**
+	 * Computes the means of the items over all complete folds and the standard
+	 * error of their pairwise differences, as required by the parametric
+	 * post-hoc tests
+	 * 
+	 * @param statistics
+	 *            Sufficient statistics of the performance results of different
+	 *            items (rows) over different folds (columns)
+	 * @return the means and standard error, or null if there are not enough
+	 *         complete folds
+	 */
+	private static ItemMeans computeItemMeans(SufficientStatistics statistics) {
+		int k = statistics.k;
+		int n = statistics.n;
+		double[] sums = statistics.itemSums;
+
+		if (k < 2 || n < 2) {
+			String error = "The post-hoc test requires at least two items measured on two complete domains/folds. Please provide appropriate input.";
+			logger.log(Level.ERROR, error);
+			System.err.println(error);
+			return null;
+		}
+
+		ItemMeans means = new ItemMeans(k);
+		double correction = statistics.total * statistics.total / (n * k);
+		double ssEffect = 0;
+		for (int i = 0; i < k; i++) {
+			means.means[i] = sums[i] / n;
+			ssEffect += sums[i] * sums[i];
+		}
+		ssEffect = ssEffect / n - correction;
+		double ssFolds = statistics.foldSumsOfSquares / k - correction;
+		double ssError = statistics.sumOfSquares - correction - ssEffect - ssFolds;
+		double meanSquareError = ssError / ((k - 1) * (n - 1.0));
+		means.standardError = Math.sqrt(2 * meanSquareError / n);
+		return means;
+	}
+
+	/**
+	 * Checks whether the sufficient statistics comprise the parts required by
+	 * a test
+	 * 
+	 * @param test
+	 *            A human-friendly name of the test
+	 * @return false if parts are missing
+	 */
+	private static boolean hasParts(SufficientStatistics statistics, EnumSet<SufficientStatistics.Part> parts, String test) {
+		if (statistics.hasParts(parts)) {
+			return true;
+		}
+		String error = String.format("%s requires the parts %s of the sufficient statistics, but only %s are computed.", test, parts, statistics.getParts());
+		logger.log(Level.ERROR, error);
+		System.err.println(error);
+		return false;
+	}
+
+	/**
+	 * Log that the requested operation is not available in this backend
+	 *
+	 * @param operation
+	 *            A human-friendly name of the operation
+	 * @return null
+	 */
+	private <T> T unsupported(String operation) {
+		String error = String.format("The %s is not available in the Java backend. Returning null!", operation);
+		logger.log(Level.ERROR, error);
+		System.err.println(error);
+		return null;
+	}
+
+	/**
+	 * Means of the items over all complete folds
+	 */
+	private static final class ItemMeans {
+
+		private final double[] means;
+		// Standard error of the difference of two means
+		private double standardError;
+
+		ItemMeans(int k) {
+			this.means = new double[k];
+		}
+	}
+
+}
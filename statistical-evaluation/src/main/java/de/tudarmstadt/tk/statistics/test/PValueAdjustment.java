@@ -0,0 +1,327 @@
+package de.tudarmstadt.tk.statistics.test;
+
+/**
+ * Copyright 2014
+ * Telecooperation (TK) Lab
+ * Technische Universit�t Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import de.tudarmstadt.tk.statistics.config.StatsConfigConstants;
+
+/**
+ * Adjustment of p-values from multiple comparisons, equivalent to p.adjust in
+ * R. Missing values (NaNs, e.g. the upper triangle of a pairwise p-value
+ * matrix) are skipped and do not count as comparisons. The non-missing
+ * p-values are packed and sorted once; all requested corrections are then
+ * computed from the sorted values in linear time, apart from Hommel's method
+ * which takes O(m log m).
+ *
+ * @author Guckelsberger, Schulz
+ */
+public final class PValueAdjustment {
+
+	private final int[] columns;
+	// Non-missing p-values in ascending order and their positions in the
+	// matrix
+	private final double[] sorted;
+	private final int[] sortedRows;
+	private final int[] sortedColumns;
+
+	/**
+	 * Packs and sorts the p-values of a matrix
+	 *
+	 * @param pValues
+	 *            Matrix of p-values, possibly comprising NaNs
+	 */
+	public PValueAdjustment(double[][] pValues) {
+		this.columns = new int[pValues.length];
+		int n = 0;
+		for (int i = 0; i < pValues.length; i++) {
+			columns[i] = pValues[i].length;
+			for (double p : pValues[i]) {
+				if (!Double.isNaN(p)) {
+					n++;
+				}
+			}
+		}
+
+		double[] packed = new double[n];
+		int[] rows = new int[n];
+		int[] cols = new int[n];
+		int c = 0;
+		for (int i = 0; i < pValues.length; i++) {
+			for (int j = 0; j < pValues[i].length; j++) {
+				if (!Double.isNaN(pValues[i][j])) {
+					packed[c] = pValues[i][j];
+					rows[c] = i;
+					cols[c] = j;
+					c++;
+				}
+			}
+		}
+
+		// A stable sort keeps tied p-values in their original order, as R does
+		int[] order = new int[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = i;
+		}
+		mergeSort(order, new int[n], packed, 0, n);
+
+		this.sorted = new double[n];
+		this.sortedRows = new int[n];
+		this.sortedColumns = new int[n];
+		for (int i = 0; i < n; i++) {
+			sorted[i] = packed[order[i]];
+			sortedRows[i] = rows[order[i]];
+			sortedColumns[i] = cols[order[i]];
+		}
+	}
+
+	/**
+	 * Adjusts the p-values of a matrix with several methods at once
+	 *
+	 * @param pValues
+	 *            Matrix of p-values, possibly comprising NaNs
+	 * @param methods
+	 *            The corrections to be applied
+	 * @return A map from each method to the matrix of adjusted p-values, of the
+	 *         same shape as the input and with NaNs at the same positions
+	 */
+	public static HashMap<StatsConfigConstants.CORRECTION_VALUES, double[][]> adjust(double[][] pValues, List<StatsConfigConstants.CORRECTION_VALUES> methods) {
+		PValueAdjustment adjustment = new PValueAdjustment(pValues);
+		HashMap<StatsConfigConstants.CORRECTION_VALUES, double[][]> adjusted = new HashMap<StatsConfigConstants.CORRECTION_VALUES, double[][]>();
+		for (StatsConfigConstants.CORRECTION_VALUES method : methods) {
+			adjusted.put(method, adjustment.adjust(method));
+		}
+		return adjusted;
+	}
+
+	/**
+	 * Adjusts the p-values with one method
+	 *
+	 * @param method
+	 *            The correction to be applied
+	 * @return The matrix of adjusted p-values, of the same shape as the input
+	 *         and with NaNs at the same positions
+	 */
+	public double[][] adjust(StatsConfigConstants.CORRECTION_VALUES method) {
+		double[] adjusted;
+		switch (method) {
+		case bonferroni:
+			adjusted = bonferroni(sorted);
+			break;
+		case holm:
+			adjusted = holm(sorted);
+			break;
+		case hochberg:
+			adjusted = hochberg(sorted);
+			break;
+		case hommel:
+			adjusted = hommel(sorted);
+			break;
+		case BH:
+			adjusted = benjaminiHochberg(sorted, 1);
+			break;
+		case BY:
+			double q = 0;
+			for (int i = 1; i <= sorted.length; i++) {
+				q += 1.0 / i;
+			}
+			adjusted = benjaminiHochberg(sorted, q);
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown correction method " + method);
+		}
+		return unpack(adjusted);
+	}
+
+	/**
+	 * Writes the adjusted p-values back into a matrix of the original shape
+	 */
+	private double[][] unpack(double[] adjusted) {
+		double[][] matrix = new double[columns.length][];
+		for (int i = 0; i < columns.length; i++) {
+			matrix[i] = new double[columns[i]];
+			Arrays.fill(matrix[i], Double.NaN);
+		}
+		for (int i = 0; i < adjusted.length; i++) {
+			matrix[sortedRows[i]][sortedColumns[i]] = adjusted[i];
+		}
+		return matrix;
+	}
+
+	static double[] bonferroni(double[] p) {
+		int n = p.length;
+		double[] adjusted = new double[n];
+		for (int i = 0; i < n; i++) {
+			adjusted[i] = Math.min(1, n * p[i]);
+		}
+		return adjusted;
+	}
+
+	static double[] holm(double[] p) {
+		int n = p.length;
+		double[] adjusted = new double[n];
+		double max = 0;
+		for (int i = 0; i < n; i++) {
+			max = Math.max(max, (n - i) * p[i]);
+			adjusted[i] = Math.min(1, max);
+		}
+		return adjusted;
+	}
+
+	static double[] hochberg(double[] p) {
+		int n = p.length;
+		double[] adjusted = new double[n];
+		double min = Double.POSITIVE_INFINITY;
+		for (int i = n - 1; i >= 0; i--) {
+			min = Math.min(min, (n - i) * p[i]);
+			adjusted[i] = Math.min(1, min);
+		}
+		return adjusted;
+	}
+
+	/**
+	 * Benjamini-Hochberg step-up procedure, multiplied by q for
+	 * Benjamini-Yekutieli
+	 */
+	static double[] benjaminiHochberg(double[] p, double q) {
+		int n = p.length;
+		double[] adjusted = new double[n];
+		double min = Double.POSITIVE_INFINITY;
+		for (int i = n - 1; i >= 0; i--) {
+			min = Math.min(min, q * n / (i + 1) * p[i]);
+			adjusted[i] = Math.min(1, min);
+		}
+		return adjusted;
+	}
+
+	/**
+	 * Hommel's method. p.adjust computes the adjusted p-value of the i-th
+	 * smallest p-value as the maximum over m=1..n of
+	 *
+	 * min(m*p_i, c_m) for m <= n-i+1, and c_m otherwise,
+	 *
+	 * with c_m = m*s_m and s_m = min_{j>n-m} p_j/(j-n+m), which takes O(n^2).
+	 * Here, s_m is the smallest slope from the point (n-m, 0) to the points
+	 * (j, p_j), found by binary search on the lower convex hull of the points
+	 * right of n-m. As s_m does not increase with m, min(m*p_i, c_m) is m*p_i
+	 * up to the largest m with s_m >= p_i, and c_m beyond. The adjusted p-value
+	 * is therefore the maximum of m*p_i at this split point and of the c_m
+	 * beyond it, which a suffix maximum provides in constant time.
+	 */
+	static double[] hommel(double[] p) {
+		int n = p.length;
+		double[] adjusted = new double[n];
+		if (n == 0) {
+			return adjusted;
+		}
+
+		// Slopes s_m and c_m for m=1..n (index m), from the lower convex hull
+		// of the points (j, p_j), j=1..n, built from right to left
+		double[] s = new double[n + 1];
+		double[] c = new double[n + 1];
+		int[] hull = new int[n];
+		int size = 0;
+		for (int m = 1; m <= n; m++) {
+			int left = n - m + 1;
+			while (size >= 2 && cross(left, p[left - 1], hull[size - 1], p[hull[size - 1] - 1], hull[size - 2], p[hull[size - 2] - 1]) <= 0) {
+				size--;
+			}
+			hull[size++] = left;
+
+			// The slopes from the origin to the hull vertices, from left
+			// (index size-1) to right (index 0), decrease and then increase
+			double origin = n - m;
+			int lo = 0;
+			int hi = size - 1;
+			while (lo < hi) {
+				int mid = (lo + hi) >>> 1;
+				// Compare the vertex mid with its left neighbour mid+1
+				if (slope(origin, hull[mid], p[hull[mid] - 1]) <= slope(origin, hull[mid + 1], p[hull[mid + 1] - 1])) {
+					hi = mid;
+				} else {
+					lo = mid + 1;
+				}
+			}
+			s[m] = slope(origin, hull[lo], p[hull[lo] - 1]);
+			c[m] = m * s[m];
+		}
+
+		// Maxima of c_m over m' >= m
+		double[] suffixMax = new double[n + 2];
+		suffixMax[n + 1] = 0;
+		for (int m = n; m >= 1; m--) {
+			suffixMax[m] = Math.max(suffixMax[m + 1], c[m]);
+		}
+
+		// The largest m with s_m >= p_i decreases with increasing p_i
+		int threshold = n;
+		for (int i = 1; i <= n; i++) {
+			double pi = p[i - 1];
+			while (threshold >= 1 && s[threshold] < pi) {
+				threshold--;
+			}
+			int split = Math.min(threshold, n - i + 1);
+			adjusted[i - 1] = Math.max(Math.max(split * pi, suffixMax[split + 1]), pi);
+		}
+		return adjusted;
+	}
+
+	/**
+	 * @return the slope from (x0, 0) to (x, y)
+	 */
+	private static double slope(double x0, int x, double y) {
+		return y / (x - x0);
+	}
+
+	/**
+	 * @return the cross product (b-a)x(c-a), positive if a, b, c are in
+	 *         counter-clockwise order
+	 */
+	private static double cross(int ax, double ay, int bx, double by, int cx, double cy) {
+		return (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
+	}
+
+	/**
+	 * Stable merge sort of indices by their values
+	 */
+	private static void mergeSort(int[] order, int[] scratch, double[] values, int from, int to) {
+		if (to - from < 2) {
+			return;
+		}
+		int mid = (from + to) >>> 1;
+		mergeSort(order, scratch, values, from, mid);
+		mergeSort(order, scratch, values, mid, to);
+		if (values[order[mid - 1]] <= values[order[mid]]) {
+			return;
+		}
+		System.arraycopy(order, from, scratch, from, to - from);
+		int i = from;
+		int j = mid;
+		for (int k = from; k < to; k++) {
+			if (j >= to || (i < mid && values[scratch[i]] <= values[scratch[j]])) {
+				order[k] = scratch[i++];
+			} else {
+				order[k] = scratch[j++];
+			}
+		}
+	}
+
+}
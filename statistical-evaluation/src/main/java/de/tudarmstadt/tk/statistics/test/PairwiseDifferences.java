@@ -0,0 +1,185 @@
+package de.tudarmstadt.tk.statistics.test;
+
+/**
+ * Copyright 2014
+ * Telecooperation (TK) Lab
+ * Technische Universit�t Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import de.tudarmstadt.tk.statistics.numerics.ShapiroWilk;
+
+/**
+ * Differences between the samples of all pairs of models, computed once into
+ * a single primitive array and shared by the checks of assumptions on them,
+ * e.g. the normality required by pairwise t-tests, and the QQ-Normal plots of
+ * the report. Pairs are stored in the lower-triangular order of
+ * {@link PairwiseTestResult}, the differences of the pair (c, c1) with c<c1
+ * being values[c1]-values[c]. Folds with a missing value for either model are
+ * omitted, so the number of differences may vary between pairs.
+ *
+ * Checking the normality of all k(k-1)/2 pairs with {@link #testNormality()}
+ * runs the Shapiro-Wilk kernel in Java, instead of one evaluation in R per
+ * pair.
+ *
+ * @author Guckelsberger, Schulz
+ */
+public final class PairwiseDifferences {
+
+	private final int k;
+	private final int n;
+
+	// Differences of pair p in differences[p*n] to differences[p*n+sizes[p]-1]
+	private final double[] differences;
+	private final int[] sizes;
+
+	/**
+	 * @param values
+	 *            The samples values[model][fold], which may be of unequal size
+	 *            and contain missing values (NaN)
+	 */
+	public PairwiseDifferences(double[][] values) {
+		k = values.length;
+		int folds = 0;
+		for (double[] v : values) {
+			folds = Math.max(folds, v.length);
+		}
+		n = folds;
+
+		int pairs = k * (k - 1) / 2;
+		differences = new double[pairs * n];
+		sizes = new int[pairs];
+		for (int c1 = 1; c1 < k; c1++) {
+			double[] y = values[c1];
+			for (int c = 0; c < c1; c++) {
+				double[] x = values[c];
+				int p = index(c, c1);
+				int offset = p * n;
+				int m = 0;
+				for (int i = 0; i < Math.min(x.length, y.length); i++) {
+					double d = y[i] - x[i];
+					if (!Double.isNaN(d)) {
+						differences[offset + m++] = d;
+					}
+				}
+				sizes[p] = m;
+			}
+		}
+	}
+
+	/**
+	 * @param samples
+	 *            The samples of one performance measure per model, as stored
+	 *            by {@link SampleData}
+	 */
+	public PairwiseDifferences(ArrayList<ArrayList<Double>> samples) {
+		this(toArray(samples));
+	}
+
+	private static double[][] toArray(ArrayList<ArrayList<Double>> samples) {
+		double[][] values = new double[samples.size()][];
+		for (int c = 0; c < values.length; c++) {
+			ArrayList<Double> s = samples.get(c);
+			values[c] = new double[s.size()];
+			for (int i = 0; i < values[c].length; i++) {
+				values[c][i] = s.get(i);
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * @return The index of the pair (c, c1) with c<c1 in lower-triangular
+	 *         order: (0,1), (0,2), (1,2), (0,3), ...
+	 */
+	private static int index(int c, int c1) {
+		return c1 * (c1 - 1) / 2 + c;
+	}
+
+	/**
+	 * @return The number of models
+	 */
+	public int getModels() {
+		return k;
+	}
+
+	/**
+	 * @return The differences values[a]-values[b], without missing values
+	 */
+	public double[] get(int a, int b) {
+		double[] d = new double[n];
+		return Arrays.copyOf(d, copy(a, b, d));
+	}
+
+	/**
+	 * Copies the differences values[a]-values[b] into a buffer
+	 *
+	 * @param buffer
+	 *            Receives the differences, of at least the number of folds
+	 * @return The number of differences copied
+	 */
+	int copy(int a, int b, double[] buffer) {
+		if (a == b || a < 0 || b < 0 || a >= k || b >= k) {
+			throw new IllegalArgumentException(String.format("No pair of models (%d, %d) among %d models.", a, b, k));
+		}
+		int p = index(Math.min(a, b), Math.max(a, b));
+		int m = sizes[p];
+		System.arraycopy(differences, p * n, buffer, 0, m);
+		if (a < b) {
+			for (int i = 0; i < m; i++) {
+				buffer[i] = -buffer[i];
+			}
+		}
+		return m;
+	}
+
+	/**
+	 * Shapiro-Wilk tests of the normality of the differences of all pairs,
+	 * equivalent to shapiro.test in R for each pair. Pairs for which the test
+	 * is not applicable, e.g. of fewer than 3 or constant differences, have
+	 * NaN as statistic and p-value.
+	 *
+	 * @return The statistics W and p-values of all pairs
+	 */
+	public PairwiseTestResult testNormality() {
+		double[][] statistic = new double[Math.max(k - 1, 0)][Math.max(k - 1, 0)];
+		double[][] pValue = new double[Math.max(k - 1, 0)][Math.max(k - 1, 0)];
+		for (int c = 0; c < k - 1; c++) {
+			Arrays.fill(pValue[c], Double.NaN);
+			Arrays.fill(statistic[c], Double.NaN);
+		}
+
+		// W does not depend on the sign of the differences
+		double[] sorted = new double[n];
+		for (int c1 = 1; c1 < k; c1++) {
+			for (int c = 0; c < c1; c++) {
+				int p = index(c, c1);
+				int m = sizes[p];
+				System.arraycopy(differences, p * n, sorted, 0, m);
+				Arrays.sort(sorted, 0, m);
+				double w = ShapiroWilk.statistic(sorted, m);
+				statistic[c1 - 1][c] = w;
+				pValue[c1 - 1][c] = ShapiroWilk.pValue(w, m);
+			}
+		}
+
+		PairwiseTestResult normality = new PairwiseTestResult("Shapiro-Wilk normality test", null, pValue, statistic);
+		normality.setStatisticType("W");
+		return normality;
+	}
+
+}
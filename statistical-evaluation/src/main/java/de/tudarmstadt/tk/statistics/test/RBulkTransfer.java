@@ -0,0 +1,113 @@
+package de.tudarmstadt.tk.statistics.test;
+
+/**
+ * Copyright 2014
+ * Telecooperation (TK) Lab
+ * Technische Universit�t Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Transfers large samples into R through a memory-mapped file, which R reads
+ * with readBin. The samples are written once, directly from the
+ * two-dimensional array, whereas passing them to JRI requires flattening them
+ * into a new array, which is copied again by JRI. The file is reused and grows
+ * with the largest samples transferred.
+ *
+ * The samples values[model][fold] are written one model after another, i.e.
+ * column-major with respect to the matrix with one column per model created
+ * in R. Not thread-safe; used by the engine thread of {@link REngineExecutor}
+ * only.
+ *
+ * @author Guckelsberger, Schulz
+ */
+final class RBulkTransfer implements Closeable {
+
+	private static final int MIN_CAPACITY = 1 << 20;
+
+	private final File file;
+	private final RandomAccessFile access;
+	private MappedByteBuffer buffer = null;
+
+	RBulkTransfer() throws IOException {
+		file = File.createTempFile("statistics-r", ".bin");
+		file.deleteOnExit();
+		access = new RandomAccessFile(file, "rw");
+	}
+
+	/**
+	 * Writes samples into the file
+	 *
+	 * @param values
+	 *            The samples, which may be of unequal size
+	 * @return The number of values written
+	 */
+	int write(double[][] values) throws IOException {
+		int size = 0;
+		for (double[] v : values) {
+			size += v.length;
+		}
+		ensureCapacity(size * 8L);
+
+		DoubleBuffer doubles = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+		for (double[] v : values) {
+			doubles.put(v);
+		}
+		return size;
+	}
+
+	/**
+	 * @param size
+	 *            The number of values written
+	 * @return The R expression reading the values written last as numeric
+	 *         vector
+	 */
+	String readExpression(int size) {
+		// R accepts forward slashes on all platforms
+		String path = file.getAbsolutePath().replace('\\', '/').replace("'", "\\'");
+		return String.format("readBin('%s', what = 'double', n = %d, size = 8, endian = 'little')", path, size);
+	}
+
+	private void ensureCapacity(long bytes) throws IOException {
+		if (buffer != null && buffer.capacity() >= bytes) {
+			return;
+		}
+		if (bytes > Integer.MAX_VALUE) {
+			throw new IOException(String.format("Samples of %d bytes exceed the size of a mapped file.", bytes));
+		}
+		long capacity = Math.max(MIN_CAPACITY, Long.highestOneBit(bytes - 1) << 1);
+		capacity = Math.min(capacity, Integer.MAX_VALUE);
+		access.setLength(capacity);
+		buffer = access.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+	}
+
+	/**
+	 * Closes and deletes the file
+	 */
+	public void close() throws IOException {
+		buffer = null;
+		access.close();
+		file.delete();
+	}
+
+}
@@ -0,0 +1,380 @@
+package de.tudarmstadt.tk.statistics.test;
+
+/**
+ * Copyright 2014
+ * Telecooperation (TK) Lab
+ * Technische Universit�t Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.rosuda.JRI.REXP;
+import org.rosuda.JRI.Rengine;
+
+/**
+ * Owns the embedded R engine of {@link Statistics} and performs all requests
+ * to it on a single thread, in the order of their submission. Requests may be
+ * submitted from any thread. Each request is evaluated in an R environment of
+ * its own, whose parent is the global environment holding the library of tests
+ * and the loaded packages. Variables of different requests thus cannot
+ * interfere, and they are discarded once the request has been performed.
+ *
+ * {@link #eval(String)} and the assign methods may only be called by requests
+ * running on the engine thread.
+ *
+ * @author Guckelsberger, Schulz
+ */
+final class REngineExecutor {
+
+	private static final Logger logger = LogManager.getLogger("Statistics");
+
+	// Samples comprising at least this number of values are transferred
+	// through a memory-mapped file instead of being copied by JRI (512 KB)
+	static final int BULK_THRESHOLD = 1 << 16;
+
+	private final Rengine engine;
+	private final ExecutorService executor;
+	private volatile Thread thread = null;
+
+	// R environment of the request currently performed, 0 if none
+	private long environment = 0;
+
+	// The request currently performed, guarded by this
+	private Callable<?> running = null;
+	// Whether the running request has been interrupted because of a timeout
+	private volatile boolean interrupted = false;
+
+	// Created on the first transfer of large samples, null if not available
+	private RBulkTransfer bulk = null;
+	private boolean bulkAvailable = true;
+
+	// Time spent transferring samples into R in ns and the number of values
+	private volatile long transferTime = 0;
+	private volatile long transferredValues = 0;
+	// Number of R expressions evaluated, only written by the engine thread
+	private volatile long evaluations = 0;
+
+	/**
+	 * @param engine
+	 *            The R engine, which must not be accessed other than by this
+	 *            executor
+	 */
+	REngineExecutor(Rengine engine) {
+		this.engine = engine;
+		executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				thread = new Thread(r, "R engine");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Queues a request, which is performed after all requests submitted before
+	 *
+	 * @param request
+	 *            The request, evaluating R expressions with
+	 *            {@link #eval(String)}
+	 * @return The future result of the request
+	 */
+	<T> Future<T> submit(final Callable<T> request) {
+		return executor.submit(new Callable<T>() {
+			@Override
+			public T call() throws Exception {
+				synchronized (REngineExecutor.this) {
+					running = request;
+				}
+				environment = createEnvironment();
+				try {
+					return request.call();
+				} finally {
+					synchronized (REngineExecutor.this) {
+						running = null;
+					}
+					if (interrupted) {
+						consumeInterrupt();
+					}
+					engine.rniRelease(environment);
+					environment = 0;
+				}
+			}
+		});
+	}
+
+	/**
+	 * Performs a request and waits for its result. Requests issued on the
+	 * engine thread, i.e. by another request, are performed immediately in the
+	 * environment of the issuing request.
+	 *
+	 * @param request
+	 *            The request
+	 * @return The result of the request or null if it failed
+	 */
+	<T> T call(Callable<T> request) {
+		try {
+			if (isEngineThread()) {
+				return request.call();
+			}
+			return submit(request).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException e) {
+			String error = "Exception while performing a request to R:" + e.getCause();
+			logger.log(Level.ERROR, error);
+			System.err.println(error);
+			return null;
+		} catch (Exception e) {
+			String error = "Exception while performing a request to R:" + e;
+			logger.log(Level.ERROR, error);
+			System.err.println(error);
+			return null;
+		}
+	}
+
+	/**
+	 * Performs a request and waits for its result at most until the timeout.
+	 * A request exceeding it is interrupted in R, which aborts the running
+	 * evaluation at its next check for user interrupts. Requests issued on the
+	 * engine thread are performed immediately and without timeout.
+	 *
+	 * @param request
+	 *            The request
+	 * @param timeout
+	 *            The timeout in ms, or 0 for no timeout
+	 * @param operation
+	 *            The description of the request for reporting a timeout
+	 * @return The result of the request or null if it failed
+	 * @throws RTimeoutException
+	 *             If the request exceeded the timeout
+	 */
+	<T> T call(Callable<T> request, long timeout, String operation) {
+		if (timeout <= 0 || isEngineThread()) {
+			return call(request);
+		}
+		Future<T> future = submit(request);
+		try {
+			return future.get(timeout, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			interrupt(request);
+			future.cancel(false);
+			logger.log(Level.WARN, String.format("%s exceeded the timeout of %d ms and was interrupted.", operation, timeout));
+			throw new RTimeoutException(operation, timeout);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException e) {
+			String error = "Exception while performing a request to R:" + e.getCause();
+			logger.log(Level.ERROR, error);
+			System.err.println(error);
+			return null;
+		}
+	}
+
+	/**
+	 * Interrupts the evaluation in R if the given request is still running
+	 */
+	private synchronized void interrupt(Callable<?> request) {
+		if (running == request) {
+			interrupted = true;
+			engine.rniStop(0);
+		}
+	}
+
+	/**
+	 * R notices a pending interrupt only when checking for it. If the request
+	 * finished before, the interrupt is triggered here instead of aborting
+	 * the next request.
+	 */
+	private void consumeInterrupt() {
+		interrupted = false;
+		evalReference("tryCatch(for (i in 1:10000) NULL, interrupt = function(e) NULL)");
+	}
+
+	/**
+	 * @return True if the calling thread is the one performing the requests
+	 */
+	boolean isEngineThread() {
+		return Thread.currentThread() == thread;
+	}
+
+	/**
+	 * Evaluates an R expression in the environment of the current request
+	 *
+	 * @param expression
+	 *            The R expression
+	 * @return The result or null if the evaluation failed
+	 */
+	REXP eval(String expression) {
+		checkThread();
+		long result = evalReference(expression);
+		return result == 0 ? null : new REXP(engine, result, true);
+	}
+
+	/**
+	 * Evaluates an R expression without transferring the result to Java
+	 *
+	 * @return The reference to the R object or 0 if the evaluation failed
+	 */
+	private long evalReference(String expression) {
+		evaluations++;
+		long parsed = engine.rniParse(expression, 1);
+		if (parsed == 0) {
+			return 0;
+		}
+		return engine.rniEval(parsed, environment);
+	}
+
+	/**
+	 * Assigns samples to a variable in the environment of the current request,
+	 * as numeric vector of the samples of one model after another. Samples
+	 * comprising at least {@link #BULK_THRESHOLD} values are transferred
+	 * through a memory-mapped file, cf. {@link RBulkTransfer}.
+	 *
+	 * @param values
+	 *            The samples, which may be of unequal size
+	 */
+	boolean assign(String name, double[][] values) {
+		checkThread();
+		long start = System.nanoTime();
+
+		int size = 0;
+		for (double[] v : values) {
+			size += v.length;
+		}
+
+		boolean assigned;
+		boolean viaFile = size >= BULK_THRESHOLD && getBulkTransfer() != null;
+		if (viaFile) {
+			try {
+				long vector = evalReference(bulk.readExpression(bulk.write(values)));
+				assigned = vector != 0 && engine.rniAssign(name, vector, environment);
+			} catch (IOException e) {
+				logger.log(Level.WARN, "Samples could not be transferred through a file, passing them to JRI: " + e.getMessage());
+				assigned = assign(name, flatten(values, size));
+			}
+		} else {
+			assigned = assign(name, flatten(values, size));
+		}
+
+		long time = System.nanoTime() - start;
+		transferTime += time;
+		transferredValues += size;
+		logger.log(Level.DEBUG, String.format("Transferred %d values into R in %.3f ms%s.", size, time / 1e6, viaFile ? " through a file" : ""));
+		return assigned;
+	}
+
+	/**
+	 * @return The time spent transferring samples into R in ns
+	 */
+	long getTransferTime() {
+		return transferTime;
+	}
+
+	/**
+	 * @return The number of sample values transferred into R
+	 */
+	long getTransferredValues() {
+		return transferredValues;
+	}
+
+	/**
+	 * @return The number of R expressions evaluated
+	 */
+	long getEvaluations() {
+		return evaluations;
+	}
+
+	/**
+	 * Assigns a numeric vector to a variable in the environment of the current
+	 * request
+	 */
+	boolean assign(String name, double[] values) {
+		checkThread();
+		return engine.rniAssign(name, engine.rniPutDoubleArray(values), environment);
+	}
+
+	/**
+	 * Assigns an integer vector to a variable in the environment of the
+	 * current request
+	 */
+	boolean assign(String name, int[] values) {
+		checkThread();
+		return engine.rniAssign(name, engine.rniPutIntArray(values), environment);
+	}
+
+	/**
+	 * Assigns a string to a variable in the environment of the current request
+	 */
+	boolean assign(String name, String value) {
+		checkThread();
+		return engine.rniAssign(name, engine.rniPutString(value), environment);
+	}
+
+	private RBulkTransfer getBulkTransfer() {
+		if (bulk == null && bulkAvailable) {
+			try {
+				bulk = new RBulkTransfer();
+			} catch (IOException e) {
+				logger.log(Level.WARN, "No file for transferring large samples into R: " + e.getMessage());
+				bulkAvailable = false;
+			}
+		}
+		return bulk;
+	}
+
+	/**
+	 * Concatenates the samples into a new array, as required by JRI
+	 */
+	private static double[] flatten(double[][] values, int size) {
+		double[] flat = new double[size];
+		int c = 0;
+		for (double[] v : values) {
+			System.arraycopy(v, 0, flat, c, v.length);
+			c += v.length;
+		}
+		return flat;
+	}
+
+	private long createEnvironment() {
+		long env = engine.rniEval(engine.rniParse("new.env(parent = globalenv())", 1), 0);
+		if (env == 0) {
+			throw new IllegalStateException("No R environment could be created for the request.");
+		}
+		// Protect the environment from R's garbage collection until released
+		engine.rniPreserve(env);
+		return env;
+	}
+
+	private void checkThread() {
+		if (!isEngineThread() || environment == 0) {
+			throw new IllegalStateException("R may only be accessed by requests performed by the engine thread.");
+		}
+	}
+
+}
@@ -0,0 +1,289 @@
+package de.tudarmstadt.tk.statistics.test;
+
+/**
+ * Copyright 2014
+ * Telecooperation (TK) Lab
+ * Technische Universit�t Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.HashMap;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.rosuda.JRI.REXP;
+import org.rosuda.JRI.RList;
+
+import de.tudarmstadt.tk.statistics.config.StatsConfigConstants;
+
+/**
+ * Decodes htest and pairwise.htest objects as well as the normalised test
+ * results created by the R library of {@link Statistics} (cf. st.result in
+ * R/statistics.R) into {@link TestResult} and {@link PairwiseTestResult}. The
+ * R object is fetched once; decoding works on the transferred copy and only
+ * reads attributes (class, names, dim) of it, without evaluating further R
+ * expressions. Expressions must be decoded before the next evaluation in the
+ * same R session. Results of R worker processes ({@link RWorkerPool}) are
+ * transferred in JSON form instead (cf. st.json in R/worker.R), which is
+ * decoded into the same structure.
+ *
+ * @author Guckelsberger, Schulz
+ */
+public final class RResultDecoder {
+
+	private RResultDecoder() {
+	}
+
+	/**
+	 * Decodes a named list of normalised test results, as returned by st.plan
+	 *
+	 * @param exp
+	 *            The R list
+	 * @return A map from the names of the list to the decoded test results.
+	 *         Tests which failed in R are mapped to null.
+	 */
+	public static HashMap<String, AbstractTestResult> decodeAll(REXP exp) {
+		HashMap<String, AbstractTestResult> results = new HashMap<String, AbstractTestResult>();
+		RList list = exp == null ? null : exp.asList();
+		if (list == null || list.keys() == null) {
+			return results;
+		}
+		for (String key : list.keys()) {
+			results.put(key, decode(list.at(key)));
+		}
+		return results;
+	}
+
+	/**
+	 * Decodes a normalised test result
+	 *
+	 * @param exp
+	 *            The R list created by st.result
+	 * @return An instance of class AbstractTestResult that can be casted to
+	 *         either TestResult or PairwiseTestResult, or null if the
+	 *         expression does not represent a test result
+	 */
+	public static AbstractTestResult decode(REXP exp) {
+		RList list = exp == null ? null : exp.asList();
+		if (list == null || list.at("p.value") == null) {
+			return null;
+		}
+
+		String method = list.at("method").asString();
+		HashMap<String, Double> parameter = decodeNamedDoubles(list.at("parameter"));
+
+		AbstractTestResult result;
+		if (isTrue(list.at("pairwise"))) {
+			PairwiseTestResult pairwise = new PairwiseTestResult(method, parameter, list.at("p.value").asDoubleMatrix(), decodeMatrix(list.at("statistic")));
+			pairwise.setRequiresPValueCorrection(isTrue(list.at("requires.correction")));
+			RList corrections = asNamedList(list.at("corrections"));
+			if (corrections != null) {
+				for (String key : corrections.keys()) {
+					pairwise.addPValueCorrections(StatsConfigConstants.CORRECTION_VALUES.valueOf(key), corrections.at(key).asDoubleMatrix());
+				}
+			}
+			result = pairwise;
+		} else {
+			result = new TestResult(method, parameter, decodeDouble(list.at("p.value")), decodeDouble(list.at("statistic")));
+		}
+		result.setStatisticType(list.at("statistic.type").asString());
+
+		RList assumptions = asNamedList(list.at("assumptions"));
+		if (assumptions != null) {
+			for (String key : assumptions.keys()) {
+				result.getAssumptions().put(key, decode(assumptions.at(key)));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Decodes a JSON object of normalised test results, as returned by st.plan
+	 *
+	 * @param json
+	 *            The JSON object
+	 * @return A map from the keys of the object to the decoded test results.
+	 *         Tests which failed in R are mapped to null.
+	 */
+	public static HashMap<String, AbstractTestResult> decodeAll(JSONObject json) {
+		HashMap<String, AbstractTestResult> results = new HashMap<String, AbstractTestResult>();
+		String[] keys = json == null ? null : JSONObject.getNames(json);
+		if (keys == null) {
+			return results;
+		}
+		for (String key : keys) {
+			results.put(key, decode(json.optJSONObject(key)));
+		}
+		return results;
+	}
+
+	/**
+	 * Decodes a normalised test result in JSON form
+	 *
+	 * @param json
+	 *            The JSON object of the list created by st.result
+	 * @return An instance of class AbstractTestResult that can be casted to
+	 *         either TestResult or PairwiseTestResult, or null if the object
+	 *         is null
+	 */
+	public static AbstractTestResult decode(JSONObject json) {
+		if (json == null) {
+			return null;
+		}
+
+		String method = json.optString("method");
+		HashMap<String, Double> parameter = new HashMap<String, Double>();
+		JSONObject parameterObject = json.optJSONObject("parameter");
+		if (parameterObject != null && JSONObject.getNames(parameterObject) != null) {
+			for (String key : JSONObject.getNames(parameterObject)) {
+				parameter.put(key, parameterObject.optDouble(key));
+			}
+		}
+
+		AbstractTestResult result;
+		if (json.optBoolean("pairwise")) {
+			PairwiseTestResult pairwise = new PairwiseTestResult(method, parameter, decodeMatrix(json.optJSONArray("p.value")), decodeMatrix(json.optJSONArray("statistic")));
+			pairwise.setRequiresPValueCorrection(json.optBoolean("requires.correction"));
+			JSONObject corrections = json.optJSONObject("corrections");
+			if (corrections != null && JSONObject.getNames(corrections) != null) {
+				for (String key : JSONObject.getNames(corrections)) {
+					pairwise.addPValueCorrections(StatsConfigConstants.CORRECTION_VALUES.valueOf(key), decodeMatrix(corrections.optJSONArray(key)));
+				}
+			}
+			result = pairwise;
+		} else {
+			result = new TestResult(method, parameter, json.optDouble("p.value"), json.optDouble("statistic"));
+		}
+		result.setStatisticType(json.optString("statistic.type"));
+
+		JSONObject assumptions = json.optJSONObject("assumptions");
+		if (assumptions != null && JSONObject.getNames(assumptions) != null) {
+			for (String key : JSONObject.getNames(assumptions)) {
+				result.getAssumptions().put(key, decode(assumptions.optJSONObject(key)));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Decodes a htest or pairwise.htest object, as returned by the tests in R
+	 *
+	 * @param exp
+	 *            The R object
+	 * @return An instance of class AbstractTestResult that can be casted to
+	 *         either TestResult or PairwiseTestResult, or null if the
+	 *         expression is neither a htest nor a pairwise.htest object. The
+	 *         statistic type is not part of the object and remains unset.
+	 */
+	public static AbstractTestResult decodeHtest(REXP exp) {
+		if (exp == null) {
+			return null;
+		}
+		REXP classAttribute = exp.getAttribute("class");
+		String resultType = classAttribute == null ? null : classAttribute.asString();
+		RList list = exp.asList();
+		if (list == null || resultType == null) {
+			return null;
+		}
+
+		String method = list.at("method").asString();
+		HashMap<String, Double> parameter = decodeNamedDoubles(list.at("parameter"));
+		if (resultType.equals("htest")) {
+			return new TestResult(method, parameter, decodeDouble(list.at("p.value")), decodeDouble(list.at("statistic")));
+		} else if (resultType.equals("pairwise.htest")) {
+			return new PairwiseTestResult(method, parameter, list.at("p.value").asDoubleMatrix(), decodeMatrix(list.at("statistic")));
+		}
+		return null;
+	}
+
+	/**
+	 * @return The elements of a named numeric vector, e.g. the parameters of
+	 *         an htest object
+	 */
+	static HashMap<String, Double> decodeNamedDoubles(REXP exp) {
+		HashMap<String, Double> values = new HashMap<String, Double>();
+		double[] v = toDoubles(exp);
+		REXP names = exp == null ? null : exp.getAttribute("names");
+		String[] keys = names == null ? null : names.asStringArray();
+		if (v != null && keys != null) {
+			for (int i = 0; i < Math.min(v.length, keys.length); i++) {
+				values.put(keys[i], v[i]);
+			}
+		}
+		return values;
+	}
+
+	private static double decodeDouble(REXP exp) {
+		double[] v = toDoubles(exp);
+		return v == null || v.length == 0 ? Double.NaN : v[0];
+	}
+
+	private static double[][] decodeMatrix(REXP exp) {
+		if (exp == null || exp.getType() == REXP.XT_NULL) {
+			return null;
+		}
+		return exp.asDoubleMatrix();
+	}
+
+	/**
+	 * @return The matrix of a JSON array of rows, nulls being decoded as NaN
+	 */
+	private static double[][] decodeMatrix(JSONArray json) {
+		if (json == null) {
+			return null;
+		}
+		double[][] matrix = new double[json.length()][];
+		for (int i = 0; i < matrix.length; i++) {
+			JSONArray row = json.optJSONArray(i);
+			matrix[i] = new double[row == null ? 0 : row.length()];
+			for (int j = 0; j < matrix[i].length; j++) {
+				matrix[i][j] = row.optDouble(j);
+			}
+		}
+		return matrix;
+	}
+
+	/**
+	 * R's NA is transferred as NaN for doubles, but as the smallest integer
+	 * for integers
+	 */
+	private static double[] toDoubles(REXP exp) {
+		if (exp == null) {
+			return null;
+		}
+		double[] v = exp.asDoubleArray();
+		if (v == null) {
+			int[] i = exp.asIntArray();
+			if (i != null) {
+				v = new double[i.length];
+				for (int j = 0; j < i.length; j++) {
+					v[j] = i[j] == Integer.MIN_VALUE ? Double.NaN : i[j];
+				}
+			}
+		}
+		return v;
+	}
+
+	private static boolean isTrue(REXP exp) {
+		return exp != null && exp.asBool() != null && exp.asBool().isTRUE();
+	}
+
+	private static RList asNamedList(REXP exp) {
+		RList list = exp == null ? null : exp.asList();
+		if (list == null || list.keys() == null) {
+			return null;
+		}
+		return list;
+	}
+}
@@ -0,0 +1,82 @@
+package de.tudarmstadt.tk.statistics.test;
+
+/**
+ * Copyright 2014
+ * Telecooperation (TK) Lab
+ * Technische Universit�t Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.HashMap;
+import java.util.List;
+
+import de.tudarmstadt.tk.statistics.config.StatsConfigConstants;
+
+/**
+ * Backend performing the statistical tests in R, either in the embedded
+ * engine ({@link Statistics}) or in separate R processes
+ * ({@link RWorkerPool}). Both load the library of tests in R/statistics.R and
+ * are able to perform several tests within a single call. Calls to R may be
+ * bounded by a deadline.
+ *
+ * @author Guckelsberger, Schulz
+ */
+public interface RStatisticsBackend extends StatisticsBackend {
+
+	/**
+	 * Performs several tests on the same samples within a single call to R,
+	 * i.e. the omnibus and post-hoc tests of one performance measure. The
+	 * p-values of pairwise tests requiring it are adjusted with the given
+	 * corrections in the same call.
+	 *
+	 * @param values
+	 *            Individual performance results of different items (e.g. models
+	 *            -> rows) over different domains or folds (columns)
+	 * @param tests
+	 *            The names of the tests to be performed, as in the names of
+	 *            the test methods, e.g. "Friedman" for
+	 *            {@link #testFriedman(double[][])}. Tests on two samples are
+	 *            performed on the first two items.
+	 * @param isBaselineEvaluation
+	 *            If true, pairwise tests only compare each item against the
+	 *            first
+	 * @param corrections
+	 *            The corrections to be applied to pairwise p-values
+	 * @return A map from the names of the tests to their results, null for
+	 *         tests that failed, or null if the call to R failed as a whole
+	 */
+	HashMap<String, AbstractTestResult> testPlan(double[][] values, List<String> tests, boolean isBaselineEvaluation, List<StatsConfigConstants.CORRECTION_VALUES> corrections);
+
+	/**
+	 * Sets the deadline of the calls to R, i.e. of each test, test plan,
+	 * correction and plot. A call exceeding it is aborted and throws an
+	 * {@link RTimeoutException}.
+	 *
+	 * @param timeout
+	 *            The maximum duration of a call in ms, or 0 for no deadline
+	 */
+	void setTimeout(long timeout);
+
+	/**
+	 * @return The number of evaluations in R so far, i.e. of R expressions
+	 *         for the embedded engine and of requests for worker processes
+	 */
+	long getEvaluations();
+
+	/**
+	 * @return The number of bytes transferred between Java and R so far
+	 */
+	long getTransferredBytes();
+
+}
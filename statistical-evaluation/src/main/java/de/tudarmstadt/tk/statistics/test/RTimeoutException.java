@@ -0,0 +1,52 @@
+package de.tudarmstadt.tk.statistics.test;
+
+/**
+ * Copyright 2014
+ * Telecooperation (TK) Lab
+ * Technische Universit�t Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Thrown by the R backends if a call exceeds its deadline, cf.
+ * {@link RStatisticsBackend#setTimeout(long)}. The call has been aborted and
+ * its result is discarded.
+ *
+ * @author Guckelsberger, Schulz
+ */
+public class RTimeoutException extends RuntimeException {
+
+	private static final long serialVersionUID = 4721097153658127204L;
+
+	private final long timeout;
+
+	/**
+	 * @param operation
+	 *            The call which was aborted, e.g. the names of the tests
+	 * @param timeout
+	 *            The timeout which was exceeded in ms
+	 */
+	public RTimeoutException(String operation, long timeout) {
+		super(String.format("%s exceeded the timeout of %d ms.", operation, timeout));
+		this.timeout = timeout;
+	}
+
+	/**
+	 * @return The timeout which was exceeded in ms
+	 */
+	public long getTimeout() {
+		return timeout;
+	}
+
+}
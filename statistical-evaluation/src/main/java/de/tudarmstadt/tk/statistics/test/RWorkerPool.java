@@ -0,0 +1,598 @@
+package de.tudarmstadt.tk.statistics.test;
+
+/**
+ * Copyright 2014
+ * Telecooperation (TK) Lab
+ * Technische Universit�t Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import de.tudarmstadt.tk.statistics.config.StatsConfigConstants;
+
+/**
+ * Backend performing the statistical tests in a pool of separate R processes
+ * (Rscript), as an alternative to the embedded engine of {@link Statistics}.
+ * JRI allows only one R engine per JVM, which serializes all calls, whereas
+ * the workers of the pool perform tests in parallel. Each worker runs
+ * R/worker.R, which loads the library of tests and answers requests for test
+ * plans sent through its standard input with one line of JSON on its standard
+ * output. A worker which terminates is restarted and the request is repeated
+ * once.
+ *
+ * The pool can be shared between threads; each request occupies one worker.
+ * Plots are not available, the p-value corrections are computed in Java. A
+ * worker exceeding the timeout of a request is terminated and restarted.
+ *
+ * @author Guckelsberger, Schulz
+ */
+public class RWorkerPool implements RStatisticsBackend, Closeable {
+
+	private static final Logger logger = LogManager.getLogger("Statistics");
+
+	private static final String RSCRIPT = "Rscript";
+
+	// Prefix of the response lines written by the workers
+	private static final String MARKER = "@@RESULT ";
+
+	// Whether Rscript can be started, determined on first request
+	private static volatile Boolean available = null;
+
+	private final File library;
+	private final File script;
+	private final String packages;
+	private final List<Worker> workers = new ArrayList<Worker>();
+	private final BlockingQueue<Worker> idle = new LinkedBlockingQueue<Worker>();
+
+	// Maximum duration of a request in ms, 0 for none
+	private volatile long timeout = 0;
+
+	// Number of requests sent to the workers and characters of the requests
+	// and responses
+	private final AtomicLong requestCount = new AtomicLong();
+	private final AtomicLong transferredBytes = new AtomicLong();
+
+	// Terminates workers exceeding the timeout
+	private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "R worker watchdog");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	/**
+	 * Starts the worker processes. They load R and the packages in parallel
+	 * and in the background; the first requests wait until a worker is ready.
+	 *
+	 * @param size
+	 *            The number of worker processes, e.g. the number of cores
+	 * @param packages
+	 *            The R packages to be loaded by each worker on start-up, cf.
+	 *            {@link Statistics#getRequiredPackages(Collection, boolean)}
+	 * @throws IOException
+	 *             If the R scripts cannot be provided or Rscript cannot be
+	 *             started
+	 */
+	public RWorkerPool(int size, Collection<String> packages) throws IOException {
+
+		if (size < 1) {
+			throw new IllegalArgumentException("An R worker pool requires at least one worker.");
+		}
+
+		File directory = Files.createTempDirectory("statistics-r").toFile();
+		directory.deleteOnExit();
+		library = extract("/R/statistics.R", directory);
+		script = extract("/R/worker.R", directory);
+
+		StringBuilder names = new StringBuilder();
+		for (String p : packages) {
+			names.append(names.length() == 0 ? "" : ",").append(p);
+		}
+		this.packages = names.toString();
+
+		for (int i = 0; i < size; i++) {
+			Worker worker = new Worker(i);
+			workers.add(worker);
+			idle.add(worker);
+		}
+		logger.log(Level.INFO, String.format("Started %d R worker processes.", size));
+	}
+
+	/**
+	 * Checks whether R worker processes can be started, i.e. whether Rscript
+	 * is found on the path
+	 *
+	 * @return True if Rscript can be executed
+	 */
+	public static boolean isAvailable() {
+		if (available == null) {
+			synchronized (RWorkerPool.class) {
+				if (available == null) {
+					try {
+						Process process = new ProcessBuilder(RSCRIPT, "--version").redirectErrorStream(true).start();
+						InputStream in = process.getInputStream();
+						while (in.read() != -1) {
+						}
+						available = process.waitFor() == 0;
+					} catch (IOException e) {
+						logger.log(Level.WARN, String.format("%s not found, R worker processes are not available: %s", RSCRIPT, e.getMessage()));
+						available = false;
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return false;
+					}
+				}
+			}
+		}
+		return available;
+	}
+
+	/**
+	 * @return The number of worker processes
+	 */
+	public int getSize() {
+		return workers.size();
+	}
+
+	/**
+	 * Terminates all worker processes
+	 */
+	public void close() {
+		watchdog.shutdownNow();
+		for (Worker worker : workers) {
+			worker.stop();
+		}
+	}
+
+	/**
+	 * A worker exceeding the timeout is terminated and restarted; the request
+	 * is not repeated.
+	 *
+	 * @see RStatisticsBackend#setTimeout(long)
+	 */
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
+	public long getEvaluations() {
+		return requestCount.get();
+	}
+
+	/**
+	 * Counts the characters of the JSON requests and responses, which consist
+	 * of ASCII characters only
+	 */
+	public long getTransferredBytes() {
+		return transferredBytes.get();
+	}
+
+	public StatsConfigConstants.BACKEND_VALUES getBackendType() {
+		return StatsConfigConstants.BACKEND_VALUES.R;
+	}
+
+	/**
+	 * All tests of the library are available.
+	 */
+	public boolean supportsTest(String testName) {
+		return true;
+	}
+
+	/**
+	 * All corrections are available, cf. {@link PValueAdjustment}.
+	 */
+	public boolean supportsCorrection(StatsConfigConstants.CORRECTION_VALUES method) {
+		return true;
+	}
+
+	/**
+	 * Plots are only available in the embedded engine.
+	 */
+	public boolean supportsPlotting() {
+		return false;
+	}
+
+	/**
+	 * Performs several tests within a single request to one of the workers.
+	 * Samples of unequal size are filled with NaNs.
+	 *
+	 * @see RStatisticsBackend#testPlan(double[][], List, boolean, List)
+	 */
+	public HashMap<String, AbstractTestResult> testPlan(double[][] values, List<String> tests, boolean isBaselineEvaluation, List<StatsConfigConstants.CORRECTION_VALUES> corrections) {
+
+		if (values.length == 0 || tests.isEmpty()) {
+			String error = "No samples or tests for performing a test plan in R. Please check!";
+			logger.log(Level.ERROR, error);
+			System.err.println(error);
+			return null;
+		}
+
+		String response = perform(encode(values, tests, isBaselineEvaluation, corrections), tests.toString());
+		if (response == null) {
+			return null;
+		}
+
+		try {
+			JSONObject json = new JSONObject(response);
+			if (json.has("error")) {
+				String error = String.format("Exception while performing %s in an R worker: %s", tests, json.optString("error"));
+				logger.log(Level.ERROR, error);
+				System.err.println(error);
+				return null;
+			}
+			return RResultDecoder.decodeAll(json.optJSONObject("results"));
+		} catch (JSONException e) {
+			String error = "Malformed response of an R worker:" + e;
+			logger.log(Level.ERROR, error);
+			System.err.println(error);
+			return null;
+		}
+	}
+
+	public TestResult testKruskalWallis(double[][] values) {
+		return (TestResult) test("KruskalWallis", values, false);
+	}
+
+	public TestResult testFriedman(double[][] values) {
+		return (TestResult) test("Friedman", values, false);
+	}
+
+	public PairwiseTestResult testNemenyi(double[][] values) {
+		return (PairwiseTestResult) test("Nemenyi", values, false);
+	}
+
+	public TestResult testMcNemar(int[][] contingencies) {
+		double[][] values = new double[contingencies.length][];
+		for (int i = 0; i < contingencies.length; i++) {
+			values[i] = new double[contingencies[i].length];
+			for (int j = 0; j < contingencies[i].length; j++) {
+				values[i][j] = contingencies[i][j];
+			}
+		}
+		return (TestResult) test("McNemar", values, false);
+	}
+
+	public TestResult testMannWhitneyU(double[] x, double[] y) {
+		return (TestResult) test("MannWhitneyU", new double[][] { x, y }, false);
+	}
+
+	public TestResult testWilcoxonSignedRank(double[] x, double[] y) {
+		return (TestResult) test("WilcoxonSignedRank", new double[][] { x, y }, false);
+	}
+
+	public PairwiseTestResult testPairwiseWilcoxonSignedRank(double[][] values) {
+		return testPairwiseWilcoxonSignedRank(values, true);
+	}
+
+	public PairwiseTestResult testPairwiseWilcoxonSignedRank(double[][] values, boolean isBaselineEvaluation) {
+		return (PairwiseTestResult) test("PairwiseWilcoxonSignedRank", values, isBaselineEvaluation);
+	}
+
+	public PairwiseTestResult testPairwiseIndependentT(double[][] values) {
+		return testPairwiseT(values, false);
+	}
+
+	public PairwiseTestResult testPairwiseDependentT(double[][] values) {
+		return testPairwiseT(values, true);
+	}
+
+	public PairwiseTestResult testPairwiseT(double[][] values, boolean paired) {
+		return (PairwiseTestResult) test(paired ? "PairwiseDependentT" : "PairwiseIndependentT", values, false);
+	}
+
+	public TestResult testDependentT(double[] x, double[] y) {
+		return (TestResult) test("DependentT", new double[][] { x, y }, false);
+	}
+
+	public TestResult testRepeatedMeasuresOneWayANOVA(double[][] values) {
+		return (TestResult) test("RepeatedMeasuresOneWayANOVA", values, false);
+	}
+
+	public PairwiseTestResult testDunett(double[][] values) {
+		return (PairwiseTestResult) test("Dunett", values, false);
+	}
+
+	public PairwiseTestResult testTukey(double[][] values) {
+		return (PairwiseTestResult) test("Tukey", values, false);
+	}
+
+	/**
+	 * Adjusts the p-values in Java, which is equivalent to p.adjust in R and
+	 * does not occupy a worker.
+	 */
+	public double[][] adjustP(PairwiseTestResult result, StatsConfigConstants.CORRECTION_VALUES method) {
+		return new PValueAdjustment(result.getpValue()).adjust(method);
+	}
+
+	public boolean plotQQNorm(double[] samples, String model, String measure, String filename) {
+		unsupported("QQ-Normal-plot");
+		return false;
+	}
+
+	public boolean plotBoxWhisker(double[][] s, int min, int max, String filename, String measure) {
+		unsupported("Box-Whisker-diagram");
+		return false;
+	}
+
+	public boolean plotGraph(int[][] edgelist, int nModels, String filename) {
+		unsupported("graph plot");
+		return false;
+	}
+
+	private void unsupported(String operation) {
+		String error = String.format("The %s is not available in R worker processes.", operation);
+		logger.log(Level.ERROR, error);
+		System.err.println(error);
+	}
+
+	/**
+	 * Performs a single test
+	 */
+	private AbstractTestResult test(String testName, double[][] values, boolean isBaselineEvaluation) {
+		HashMap<String, AbstractTestResult> results = testPlan(values, Arrays.asList(testName), isBaselineEvaluation, Collections.<StatsConfigConstants.CORRECTION_VALUES> emptyList());
+		return results == null ? null : results.get(testName);
+	}
+
+	/**
+	 * Sends a request to the next idle worker, restarting the worker if it
+	 * fails
+	 *
+	 * @param operation
+	 *            The description of the request for reporting a timeout
+	 * @return The JSON response or null if the request failed
+	 * @throws RTimeoutException
+	 *             If the request exceeded the timeout
+	 */
+	private String perform(String request, String operation) {
+		Worker worker;
+		try {
+			worker = idle.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+
+		try {
+			for (int attempt = 0; attempt < 2; attempt++) {
+				long deadline = timeout;
+				// Set by the watchdog if it terminates the process during
+				// this request
+				AtomicBoolean timedOut = new AtomicBoolean(false);
+				ScheduledFuture<?> kill = deadline > 0 ? watchdog.schedule(worker.killer(timedOut), deadline, TimeUnit.MILLISECONDS) : null;
+				String response;
+				try {
+					requestCount.incrementAndGet();
+					response = worker.request(request);
+				} catch (IOException e) {
+					if (kill != null) {
+						kill.cancel(false);
+					}
+					if (timedOut.get()) {
+						logger.log(Level.WARN, String.format("%s exceeded the timeout of %d ms, restarting R worker %d.", operation, deadline, worker.id));
+						restart(worker);
+						throw new RTimeoutException(operation, deadline);
+					}
+					logger.log(Level.WARN, String.format("R worker %d failed, restarting it: %s", worker.id, e.getMessage()));
+					try {
+						worker.restart();
+					} catch (IOException e1) {
+						String error = String.format("R worker %d could not be restarted: %s", worker.id, e1.getMessage());
+						logger.log(Level.ERROR, error);
+						System.err.println(error);
+						return null;
+					}
+					continue;
+				}
+
+				// The watchdog may have fired after the response had been
+				// read, terminating the process of the next request
+				if (kill != null && !kill.cancel(false)) {
+					logger.log(Level.DEBUG, String.format("The timeout of R worker %d expired after its response, restarting it.", worker.id));
+					restart(worker);
+				}
+				transferredBytes.addAndGet(request.length() + response.length());
+				return response;
+			}
+			String error = "Request failed twice in an R worker. Returning null!";
+			logger.log(Level.ERROR, error);
+			System.err.println(error);
+			return null;
+		} finally {
+			idle.add(worker);
+		}
+	}
+
+	/**
+	 * Restarts a worker after a timeout. A worker which cannot be restarted
+	 * remains terminated, failing its next request once more.
+	 */
+	private void restart(Worker worker) {
+		try {
+			worker.restart();
+		} catch (IOException e) {
+			String error = String.format("R worker %d could not be restarted: %s", worker.id, e.getMessage());
+			logger.log(Level.ERROR, error);
+			System.err.println(error);
+		}
+	}
+
+	/**
+	 * Encodes a request in the line-based format read by R/worker.R
+	 */
+	private static String encode(double[][] values, List<String> tests, boolean isBaselineEvaluation, List<StatsConfigConstants.CORRECTION_VALUES> corrections) {
+
+		// Samples are passed as matrix, thus filling smaller ones with NaNs
+		int folds = 0;
+		for (double[] v : values) {
+			folds = Math.max(folds, v.length);
+		}
+
+		StringBuilder request = new StringBuilder("plan\t");
+		request.append(values.length).append('\t').append(folds).append('\t').append(isBaselineEvaluation ? "TRUE" : "FALSE").append('\t');
+		for (int i = 0; i < values.length; i++) {
+			for (int j = 0; j < folds; j++) {
+				double v = j < values[i].length ? values[i][j] : Double.NaN;
+				if (i > 0 || j > 0) {
+					request.append(' ');
+				}
+				if (Double.isNaN(v)) {
+					request.append("NaN");
+				} else if (Double.isInfinite(v)) {
+					request.append(v > 0 ? "Inf" : "-Inf");
+				} else {
+					request.append(v);
+				}
+			}
+		}
+
+		request.append('\t');
+		for (int i = 0; i < tests.size(); i++) {
+			request.append(i == 0 ? "" : ",").append(tests.get(i));
+		}
+		request.append('\t');
+		if (corrections.isEmpty()) {
+			request.append('-');
+		}
+		for (int i = 0; i < corrections.size(); i++) {
+			request.append(i == 0 ? "" : ",").append(corrections.get(i).name());
+		}
+		return request.toString();
+	}
+
+	/**
+	 * Copies an R script from the classpath into a directory
+	 */
+	private static File extract(String resource, File directory) throws IOException {
+		InputStream in = RWorkerPool.class.getResourceAsStream(resource);
+		if (in == null) {
+			throw new IOException(String.format("R script %s not found on the classpath", resource));
+		}
+		File file = new File(directory, new File(resource).getName());
+		try {
+			Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			in.close();
+		}
+		file.deleteOnExit();
+		return file;
+	}
+
+	/**
+	 * An R process answering requests one after another
+	 */
+	private class Worker {
+
+		private final int id;
+		private Process process;
+		private BufferedWriter requests;
+		private BufferedReader responses;
+
+		Worker(int id) throws IOException {
+			this.id = id;
+			start();
+		}
+
+		private void start() throws IOException {
+			List<String> command = new ArrayList<String>(Arrays.asList(RSCRIPT, "--vanilla", script.getAbsolutePath(), library.getAbsolutePath()));
+			if (!packages.isEmpty()) {
+				command.add(packages);
+			}
+			ProcessBuilder builder = new ProcessBuilder(command);
+			builder.redirectError(Redirect.INHERIT);
+			process = builder.start();
+			requests = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), "UTF-8"));
+			responses = new BufferedReader(new InputStreamReader(process.getInputStream(), "UTF-8"));
+		}
+
+		String request(String request) throws IOException {
+			requests.write(request);
+			requests.write('\n');
+			requests.flush();
+
+			// Skip any other output of R, e.g. from installing packages
+			String line;
+			while ((line = responses.readLine()) != null) {
+				if (line.startsWith(MARKER)) {
+					return line.substring(MARKER.length());
+				}
+			}
+			throw new IOException("R worker terminated");
+		}
+
+		/**
+		 * @param timedOut
+		 *            The flag of the current request, set when its process is
+		 *            terminated
+		 * @return A task terminating the process of the current request
+		 */
+		Runnable killer(final AtomicBoolean timedOut) {
+			final Process current = process;
+			return new Runnable() {
+				@Override
+				public void run() {
+					timedOut.set(true);
+					current.destroy();
+				}
+			};
+		}
+
+		void restart() throws IOException {
+			stop();
+			start();
+		}
+
+		void stop() {
+			try {
+				requests.close();
+			} catch (IOException e) {
+				// The process is terminated anyway
+			}
+			process.destroy();
+		}
+	}
+
+}
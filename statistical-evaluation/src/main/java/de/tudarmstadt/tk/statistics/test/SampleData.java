@@ -19,6 +19,7 @@ package de.tudarmstadt.tk.statistics.test;
  */
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 
@@ -63,6 +64,14 @@ public class SampleData {
 
 	// Indicates if this is a nxn or 1:n baseline evaluation
 	private boolean isBaselineEvaluation=false;
+
+	// Differences between the samples of all pairs of models per performance
+	// measure, computed on first use
+	private HashMap<String, PairwiseDifferences> pairwiseDifferences = new HashMap<String, PairwiseDifferences>();
+
+	// Sufficient statistics of the samples per performance measure, computed
+	// on first use and updated with the samples added since
+	private HashMap<String, SufficientStatistics> sufficientStatistics = new HashMap<String, SufficientStatistics>();
 	
 	/**
 	 * Creates an object he entire sample information for a particular pipeline
@@ -119,6 +128,105 @@ public class SampleData {
 		return samplesAverage;
 	}
 
+	/**
+	 * @param measure
+	 *            The performance measure
+	 * @return The differences between the samples of all pairs of models for
+	 *         the measure, computed once and shared by all users, or null if
+	 *         there are no samples for the measure
+	 */
+	public synchronized PairwiseDifferences getPairwiseDifferences(String measure) {
+		PairwiseDifferences differences = pairwiseDifferences.get(measure);
+		if (differences == null && samples.containsKey(measure)) {
+			differences = new PairwiseDifferences(samples.get(measure));
+			pairwiseDifferences.put(measure, differences);
+		}
+		return differences;
+	}
+
+	/**
+	 * @param measure
+	 *            The performance measure
+	 * @param parts
+	 *            The optional parts of the statistics required
+	 * @return A copy of the sufficient statistics of the samples of all models
+	 *         for the measure, updated with the folds added since the last
+	 *         call, or null if there are no samples for the measure
+	 */
+	public SufficientStatistics getSufficientStatistics(String measure, EnumSet<SufficientStatistics.Part> parts) {
+		ArrayList<ArrayList<Double>> valuesPerModel;
+		SufficientStatistics statistics;
+		synchronized (this) {
+			valuesPerModel = samples.get(measure);
+			if (valuesPerModel == null) {
+				return null;
+			}
+			statistics = sufficientStatistics.get(measure);
+			// Statistics lacking a part are computed again, from all folds
+			if (statistics == null || !statistics.hasParts(parts)) {
+				EnumSet<SufficientStatistics.Part> all = EnumSet.copyOf(parts);
+				if (statistics != null) {
+					all.addAll(statistics.getParts());
+				}
+				statistics = new SufficientStatistics(valuesPerModel.size(), all);
+				sufficientStatistics.put(measure, statistics);
+			}
+		}
+		// The measures, which are evaluated in parallel, are updated
+		// independently of each other
+		synchronized (statistics) {
+			statistics.update(valuesPerModel);
+			return statistics.copy();
+		}
+	}
+
+	/**
+	 * Appends further samples of the models, e.g. of folds completed after the
+	 * samples had been imported. The averages and the number of folds or
+	 * repetitions are updated accordingly; the sufficient statistics are
+	 * updated on their next use. Samples must not be added while they are
+	 * evaluated.
+	 * 
+	 * @param newSamples
+	 *            The samples to be added per performance measure and model
+	 *            index, in the order of the model metadata
+	 */
+	public synchronized void addSamples(HashMap<String, ArrayList<ArrayList<Double>>> newSamples) {
+		for (String measure : newSamples.keySet()) {
+			ArrayList<ArrayList<Double>> valuesPerModel = samples.get(measure);
+			ArrayList<ArrayList<Double>> newValuesPerModel = newSamples.get(measure);
+			if (valuesPerModel == null || valuesPerModel.size() != newValuesPerModel.size()) {
+				throw new IllegalArgumentException(String.format("The samples to be added do not match the models evaluated on %s.", measure));
+			}
+			ArrayList<Double> averages = samplesAverage.get(measure);
+			for (int i = 0; i < valuesPerModel.size(); i++) {
+				ArrayList<Double> values = valuesPerModel.get(i);
+				ArrayList<Double> newValues = newValuesPerModel.get(i);
+				if (newValues.isEmpty()) {
+					continue;
+				}
+				double sum = averages.get(i) * values.size();
+				for (double v : newValues) {
+					sum += v;
+				}
+				values.addAll(newValues);
+				averages.set(i, sum / values.size());
+			}
+			pairwiseDifferences.remove(measure);
+		}
+
+		// The number of samples per model is the number of folds of a CV and
+		// the number of repetitions of a repeated CV
+		if (!samples.isEmpty() && !samples.values().iterator().next().isEmpty()) {
+			int size = samples.values().iterator().next().get(0).size();
+			if (pipelineType == ReportTypes.CV) {
+				nFolds = size;
+			} else if (pipelineType == ReportTypes.MULTIPLE_CV) {
+				nRepetitions = size;
+			}
+		}
+	}
+
 	public List<Pair<String, String>> getDatasetNames() {
 		return datasetNames;
 	}
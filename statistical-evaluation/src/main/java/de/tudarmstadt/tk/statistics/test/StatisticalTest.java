@@ -0,0 +1,161 @@
+package de.tudarmstadt.tk.statistics.test;
+
+/**
+ * Copyright 2014
+ * Telecooperation (TK) Lab
+ * Technische Universit�t Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.EnumSet;
+
+import de.tudarmstadt.tk.statistics.config.StatsConfigConstants;
+
+/**
+ * Handler performing a statistical test on a {@link StatisticsBackend},
+ * registered under the name of the test in a {@link TestRegistry}. A handler
+ * takes one kind of input, which determines the test classes it may be
+ * configured for, and implements the corresponding perform method only.
+ *
+ * @author Guckelsberger, Schulz
+ */
+public abstract class StatisticalTest {
+
+	/**
+	 * The kinds of input of the tests
+	 */
+	public static enum Input {
+		// A contingency table of two models
+		Contingency,
+		// The samples of two models
+		TwoSamples,
+		// The samples of two or more models
+		MultipleSamples
+	};
+
+	private final String name;
+	private final Input input;
+
+	/**
+	 * @param name
+	 *            The name of the test as used in the config, e.g. "Friedman"
+	 * @param input
+	 *            The kind of input of the test
+	 */
+	protected StatisticalTest(String name, Input input) {
+		this.name = name;
+		this.input = input;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Input getInput() {
+		return input;
+	}
+
+	/**
+	 * @param testClass
+	 *            A class of tests in the config
+	 * @return The kind of input of the tests of the class
+	 */
+	public static Input getInput(StatsConfigConstants.TEST_CLASSES testClass) {
+		switch (testClass) {
+		case TwoSamplesNonParametricContingency:
+			return Input.Contingency;
+		case TwoSamplesParametric:
+		case TwoSamplesNonParametric:
+			return Input.TwoSamples;
+		default:
+			return Input.MultipleSamples;
+		}
+	}
+
+	/**
+	 * @param backend
+	 *            A backend
+	 * @return True if the test can be performed on the backend. By default,
+	 *         this is decided by {@link StatisticsBackend#supportsTest(String)}
+	 */
+	public boolean isSupportedBy(StatisticsBackend backend) {
+		return backend.supportsTest(name);
+	}
+
+	/**
+	 * @return True if the test is part of the library of tests in
+	 *         R/statistics.R, and may thus be performed within a single call
+	 *         together with other tests, cf.
+	 *         {@link RStatisticsBackend#testPlan(double[][], java.util.List, boolean, java.util.List)}
+	 */
+	public boolean isInRLibrary() {
+		return false;
+	}
+
+	/**
+	 * Performs a test on a contingency table
+	 */
+	public AbstractTestResult perform(StatisticsBackend backend, int[][] contingency) {
+		throw unsupported();
+	}
+
+	/**
+	 * Performs a test on the samples of two models
+	 */
+	public AbstractTestResult perform(StatisticsBackend backend, double[] x, double[] y) {
+		throw unsupported();
+	}
+
+	/**
+	 * Performs a test on the samples values[model][fold] of two or more models
+	 */
+	public AbstractTestResult perform(StatisticsBackend backend, double[][] values) {
+		throw unsupported();
+	}
+
+	/**
+	 * @return True if the test can be performed by {@link JavaStatistics} on
+	 *         the {@link SufficientStatistics} of the samples, and may thus be
+	 *         updated in time proportional to the folds added
+	 */
+	public boolean supportsSufficientStatistics() {
+		return getRequiredStatistics() != null;
+	}
+
+	/**
+	 * @return The optional parts of the {@link SufficientStatistics} the test
+	 *         requires, or null if it cannot be performed on them
+	 */
+	public EnumSet<SufficientStatistics.Part> getRequiredStatistics() {
+		return null;
+	}
+
+	/**
+	 * Performs a test on the sufficient statistics of the samples of two or
+	 * more models, cf. {@link #supportsSufficientStatistics()}
+	 */
+	public AbstractTestResult perform(JavaStatistics backend, SufficientStatistics statistics) {
+		throw new UnsupportedOperationException(String.format("%s cannot be performed on sufficient statistics.", name));
+	}
+
+	private UnsupportedOperationException unsupported() {
+		return new UnsupportedOperationException(String.format("%s does not take input of type %s.", name, input));
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+
+}
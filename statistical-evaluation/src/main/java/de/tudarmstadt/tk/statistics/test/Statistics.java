@@ -18,22 +18,39 @@ package de.tudarmstadt.tk.statistics.test;
  * limitations under the License.
  */
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.commons.io.IOUtils;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.rosuda.JRI.REXP;
-import org.rosuda.JRI.RList;
 import org.rosuda.JRI.RMainLoopCallbacks;
 import org.rosuda.JRI.Rengine;
 
 import de.tudarmstadt.tk.statistics.config.StatsConfigConstants;
 
 /**
- * Wrapper class for performing statistics using R and the JRI bridge
- * (Singleton).
+ * Wrapper class for performing statistics using R and the JRI bridge. The
+ * methods may be called from any thread; all requests to R are performed by a
+ * single thread, cf. {@link #submit(Callable)}. JRI supports a single R
+ * engine per JVM, which is shared by all instances. Each instance is a
+ * context of the engine with its own timeout and counters, cf.
+ * {@link #createContext()}, so that evaluations with different
+ * configurations may use R concurrently.
  * 
  * @author Guckelsberger, Schulz
  *
@@ -64,19 +81,46 @@ import de.tudarmstadt.tk.statistics.config.StatsConfigConstants;
  *         -r-integration-with-jri-for-on-demand-predictions/
  *
  */
-public class Statistics {
+public class Statistics implements RStatisticsBackend {
 
-	private Rengine engine = null;
+	// Performs all requests to the R engine on a single thread
+	private REngineExecutor engine = null;
 
-	// Singleton
+	// Default context of the engine, cf. getInstance
 	private static volatile Statistics instance = null;
 
+	// Whether the native JRI library can be loaded, determined on first request
+	private static volatile Boolean available = null;
+
 	private static final Logger logger = LogManager.getLogger("Statistics");
 
+	// Library of tests loaded into the R session, cf. testPlan
+	private static final String LIBRARY = "/R/statistics.R";
+
+	// Background start of the engine, cf. warmUp
+	private static Future<Statistics> warmUp = null;
+
+	// Packages already loaded into the R session, shared by all contexts
+	private final Set<String> loadedPackages;
+
+	// Maximum duration of a call from another thread in ms, 0 for none
+	private volatile long timeout = 0;
+
+	// Durations of the engine start and of preloading packages in ms
+	private long startUpTime = 0;
+	private volatile long preloadTime = 0;
+
+	// Requests of this context: R expressions evaluated, sample values
+	// transferred and the time spent transferring them in ns. Only written by
+	// the engine thread.
+	private volatile long evaluations = 0;
+	private volatile long transferredValues = 0;
+	private volatile long transferTime = 0;
+
 	/**
-	 * (Internal) Create singleton instance of class RStatistics. Main goal:
+	 * (Internal) Create the R engine and its default context. Main goal:
 	 * Create R-engine instance to be used for any of the statistics methods.
-	 * Multiple calls share a common context which is maintained throughout the
+	 * All contexts share a common R session which is maintained throughout the
 	 * lifecycle of a Rengine instance.
 	 * 
 	 * @param chatty
@@ -85,6 +129,9 @@ public class Statistics {
 	 */
 	private Statistics(boolean chatty) {
 
+		long start = System.currentTimeMillis();
+		loadedPackages = Collections.synchronizedSet(new TreeSet<String>());
+
 		// Just making sure we have the right version of everything
 		if (!Rengine.versionCheck()) {
 			System.err.println("JRI: Version mismatch - Java files don't match library version.");
@@ -105,42 +152,68 @@ public class Statistics {
 		// only want to use R as calculation slave, thus deactivated it.
 		// Third parameter used to attach listener and listen to R events, e.g.
 		// errors
-		engine = Rengine.getMainEngine();
-		if (engine == null)
-			engine = new Rengine(new String[] { "--vanilla" }, false, listener);
+		Rengine rengine = Rengine.getMainEngine();
+		if (rengine == null)
+			rengine = new Rengine(new String[] { "--vanilla" }, false, listener);
 
 		// Wait until REngine-thread is ready
-		if (!engine.waitForR()) {
+		if (!rengine.waitForR()) {
 			System.err.println("Cannot load R. Is the environment variable R_HOME set correctly?");
 			System.exit(1);
 		}
+		engine = new REngineExecutor(rengine);
+
+		// Initialize session. Definitions are stored in the global
+		// environment, the parent of the environments of all requests.
+		engine.call(new Callable<Void>() {
+			@Override
+			public Void call() {
+				try {
+					// Set default CRAN repository for package installation
+					engine.eval("options(repos = c(CRAN = 'http://cran.at.r-project.org'))");
+					// Add function to R session to install packages only if not
+					// already present. Use first specified library directory to
+					// store packages. Attached packages are not looked up again.
+					engine.eval("usePackage <<- function(p) { if (p %in% .packages()) return(invisible(TRUE)); if (!is.element(p, installed.packages()[,1])) install.packages(p, dep = TRUE, lib=.libPaths()[1]); require(p, character.only = TRUE)}");
+					// Load the library of tests used for performing several
+					// tests within a single call
+					engine.assign("statisticsLibrary", readLibrary());
+					engine.eval("eval(parse(text = statisticsLibrary), envir = globalenv())");
+				} catch (Exception e) {
+					String error = "Exception while performing R engine initialisation:" + e;
+					logger.log(Level.ERROR, error);
+					System.out.println(error);
+					e.printStackTrace();
+				}
+				return null;
+			}
+		});
 
-		// Initialize session
-		try {
-			// Set default CRAN repository for package installation
-			engine.eval("options(repos = c(CRAN = 'http://cran.at.r-project.org'))");
-			// Add function to R session to install packages only if not already
-			// present. Use first specified library directory to store packages.
-			engine.eval("usePackage <- function(p) { if (!is.element(p, installed.packages()[,1])) install.packages(p, dep = TRUE, lib=.libPaths()[1]); require(p, character.only = TRUE)}");
-		} catch (Exception e) {
-			String error = "Exception while performing R engine initialisation:" + e;
-			logger.log(Level.ERROR, error);
-			System.out.println(error);
-			e.printStackTrace();
-		}
+		startUpTime = System.currentTimeMillis() - start;
+		logger.log(Level.INFO, String.format("R engine started in %d ms.", startUpTime));
+	}
 
+	/**
+	 * (Internal) Create a further context of the engine of another instance
+	 */
+	private Statistics(Statistics shared) {
+		engine = shared.engine;
+		loadedPackages = shared.loadedPackages;
+		startUpTime = shared.startUpTime;
 	}
 
 	/**
-	 * Create singleton instance of class RStatistics. Main goal: Create
-	 * R-engine instance to be used for any of the statistics methods. Multiple
-	 * calls share a common context which is maintained throughout the lifecycle
-	 * of a Rengine instance.
+	 * Create the R engine on the first call. Main goal: Create R-engine
+	 * instance to be used for any of the statistics methods. Multiple calls
+	 * share a common context which is maintained throughout the lifecycle of
+	 * a Rengine instance. Evaluations which configure the engine, e.g. its
+	 * timeout, should use a context of their own instead, cf.
+	 * {@link #createContext()}.
 	 * 
 	 * @param chatty
 	 *            If true, a event listener is attached to the R session to
 	 *            track events and errors and print them to the log
-	 * @return An instance of class RStatistics
+	 * @return The default context of the R engine
 	 */
 	public static Statistics getInstance(boolean chatty) {
 		if (instance == null) {
@@ -154,59 +227,393 @@ public class Statistics {
 	}
 
 	/**
-	 * Transforms either a htest or pairwise.htest R object to its java
-	 * equivalent TestResult and PairwiseTestResult
+	 * Creates a context of the R engine of this instance. Contexts share the R
+	 * session, i.e. the library of tests and the loaded packages, but each has
+	 * its own timeout and counters, e.g. {@link #getEvaluations()}. Requests
+	 * of different contexts are performed in separate R environments, cf.
+	 * {@link #submit(Callable)}.
 	 * 
-	 * @param The
-	 *            name of the R resource that represents the htest or
-	 *            pairwise.htest object
-	 * @return An instance of class AbstractTestResult that can be casted to
-	 *         either TestResult or PairwiseTestResult
+	 * @return The new context
+	 */
+	public Statistics createContext() {
+		return new Statistics(this);
+	}
+
+	/**
+	 * Wraps a request to count its evaluations and transferred values for this
+	 * context. Requests issued on the engine thread are counted by the
+	 * enclosing request.
 	 */
-	private AbstractTestResult toTestResult(String resourceName) {
-
-		String resultType = engine.eval(String.format("class(%s)", resourceName)).asString();
-		if (resultType.equals("htest")) {
-			REXP htest = engine.eval(resourceName);
-			RList resultList = htest.asList();
-			double p = resultList.at("p.value").asDouble();
-			double statistic = resultList.at("statistic").asDouble();
-			String method = resultList.at("method").asString();
-			HashMap<String, Double> parameter = new HashMap<String, Double>();
-			RList parameterList = engine.eval(String.format("names(%s$parameter)", resourceName)).asList();
-			if (parameterList != null) {
-				String[] keys = parameterList.keys();
-				for (int i = 0; i < keys.length; i++) {
-					String key = keys[i];
-					parameter.put(key, parameterList.at(key).asDouble());
+	private <T> Callable<T> counted(final Callable<T> request) {
+		if (engine.isEngineThread()) {
+			return request;
+		}
+		return new Callable<T>() {
+			@Override
+			public T call() throws Exception {
+				long e = engine.getEvaluations();
+				long v = engine.getTransferredValues();
+				long t = engine.getTransferTime();
+				try {
+					return request.call();
+				} finally {
+					evaluations += engine.getEvaluations() - e;
+					transferredValues += engine.getTransferredValues() - v;
+					transferTime += engine.getTransferTime() - t;
 				}
 			}
+		};
+	}
 
-			return new TestResult(method, parameter, p, statistic);
+	/**
+	 * Starts the R engine on a background thread and preloads the given
+	 * packages, so that the first test performed in R does not have to wait
+	 * for the whole start-up. Only the first call starts the engine; later
+	 * calls return the same future. {@link #getInstance(boolean)} waits for a
+	 * start in progress.
+	 * 
+	 * @param chatty
+	 *            Passed to {@link #getInstance(boolean)}
+	 * @param packages
+	 *            The R packages to be loaded, cf.
+	 *            {@link #getRequiredPackages(Collection, boolean)}
+	 * @return The future instance, which is available once the engine has
+	 *         started and the packages have been loaded
+	 */
+	public static synchronized Future<Statistics> warmUp(final boolean chatty, final Collection<String> packages) {
+		if (warmUp == null) {
+			ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "R warm-up");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			warmUp = executor.submit(new Callable<Statistics>() {
+				@Override
+				public Statistics call() {
+					Statistics statistics = getInstance(chatty);
+					statistics.preload(packages);
+					return statistics;
+				}
+			});
+			executor.shutdown();
+		}
+		return warmUp;
+	}
+
+	/**
+	 * Submits a request to the R engine. Requests are performed one after
+	 * another on the engine thread, in the order of their submission, and may
+	 * be submitted from any thread. The wrapper methods of this class called
+	 * by a request share an R environment, which is discarded afterwards. The
+	 * wrapper methods called directly from other threads are submitted as
+	 * requests of their own and wait for the result.
+	 * 
+	 * @param request
+	 *            The request, e.g. calling several wrapper methods
+	 * @return The future result of the request
+	 */
+	public <T> Future<T> submit(Callable<T> request) {
+		return engine.submit(counted(request));
+	}
+
+	/**
+	 * Submits a test plan to the R engine, cf. {@link #submit(Callable)}
+	 * 
+	 * @see RStatisticsBackend#testPlan(double[][], List, boolean, List)
+	 * @return The future results of the test plan
+	 */
+	public Future<HashMap<String, AbstractTestResult>> submitTestPlan(final double[][] values, final List<String> tests, final boolean isBaselineEvaluation, final List<StatsConfigConstants.CORRECTION_VALUES> corrections) {
+		return engine.submit(counted(new Callable<HashMap<String, AbstractTestResult>>() {
+			@Override
+			public HashMap<String, AbstractTestResult> call() {
+				return testPlan(values, tests, isBaselineEvaluation, corrections);
+			}
+		}));
+	}
 
-		} else if (resultType.equals("pairwise.htest")) {
-			REXP pairwiseHtest = engine.eval(resourceName);
-			RList resultList = pairwiseHtest.asList();
-			double[][] p = resultList.at("p.value").asDoubleMatrix();
-			double[][] statistic = null;
-			if (resultList.at("statistic") != null) {
-				statistic = resultList.at("statistic").asDoubleMatrix();
+	/**
+	 * Determines the R packages required by tests and plots
+	 * 
+	 * @param testNames
+	 *            The names of the tests to be performed in R, e.g. "Nemenyi"
+	 * @param plotting
+	 *            Whether plots are created in R
+	 * @return The names of the packages
+	 */
+	public static Set<String> getRequiredPackages(Collection<String> testNames, boolean plotting) {
+		Set<String> packages = new TreeSet<String>();
+		for (String test : testNames) {
+			if (test.equals("Nemenyi")) {
+				packages.add("PMCMR");
+			} else if (test.equals("RepeatedMeasuresOneWayANOVA")) {
+				packages.addAll(Arrays.asList("reshape2", "ez"));
+			} else if (test.equals("Dunett") || test.equals("Tukey")) {
+				packages.addAll(Arrays.asList("reshape2", "nlme", "multcomp"));
+			} else if (test.equals("PairwiseDependentT") || test.equals("PairwiseIndependentT")) {
+				packages.add("reshape2");
 			}
-			String method = resultList.at("method").asString();
-			HashMap<String, Double> parameter = new HashMap<String, Double>();
-			RList parameterList = engine.eval(String.format("names(%s$parameter)", resourceName)).asList();
-			if (parameterList != null) {
-				String[] keys = parameterList.keys();
-				for (int i = 0; i < keys.length; i++) {
-					String key = keys[i];
-					parameter.put(key, parameterList.at(key).asDouble());
+		}
+		if (plotting) {
+			packages.addAll(Arrays.asList("reshape2", "ggplot2", "igraph"));
+		}
+		return packages;
+	}
+
+	/**
+	 * Loads R packages into the session once, so that tests using them do not
+	 * have to. The time taken is added to {@link #getPreloadTime()}.
+	 * 
+	 * @param packages
+	 *            The names of the packages
+	 */
+	public void preload(final Collection<String> packages) {
+
+		if (!engine.isEngineThread()) {
+			engine.call(counted(new Callable<Void>() {
+				@Override
+				public Void call() {
+					preload(packages);
+					return null;
+				}
+			}));
+			return;
+		}
+
+		long start = System.currentTimeMillis();
+		usePackages(packages.toArray(new String[packages.size()]));
+		preloadTime += System.currentTimeMillis() - start;
+		logger.log(Level.INFO, String.format("R packages %s loaded in %d ms.", packages, System.currentTimeMillis() - start));
+	}
+
+	/**
+	 * @return The time it took to start the R engine in ms
+	 */
+	public long getStartUpTime() {
+		return startUpTime;
+	}
+
+	/**
+	 * @return The time spent preloading R packages in ms
+	 */
+	public long getPreloadTime() {
+		return preloadTime;
+	}
+
+	/**
+	 * Sets the deadline of the wrapper methods of this context called from
+	 * threads other than the engine thread. A call exceeding it is interrupted in R, which aborts
+	 * the running evaluation at R's next check for user interrupts, and
+	 * throws an {@link RTimeoutException}; plots return false instead.
+	 * Requests passed to
+	 * {@link #submit(Callable)} are bounded by waiting for their future with
+	 * a timeout instead.
+	 * 
+	 * @see RStatisticsBackend#setTimeout(long)
+	 */
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
+	/**
+	 * @return The time spent transferring samples into R in ms for requests of
+	 *         this context, cf. {@link #getTransferredValues()}
+	 */
+	public double getTransferTime() {
+		return transferTime / 1e6;
+	}
+
+	/**
+	 * @return The number of sample values transferred into R by requests of
+	 *         this context
+	 */
+	public long getTransferredValues() {
+		return transferredValues;
+	}
+
+	/**
+	 * Only requests of this context are counted
+	 */
+	public long getEvaluations() {
+		return evaluations;
+	}
+
+	/**
+	 * Only the samples of requests of this context are counted, i.e. 8 bytes
+	 * per value transferred
+	 */
+	public long getTransferredBytes() {
+		return transferredValues * 8;
+	}
+
+	/**
+	 * Loads R packages which have not been loaded before, installing them from
+	 * CRAN if required
+	 * 
+	 * @param packages
+	 *            The names of the packages
+	 */
+	private void usePackages(String... packages) {
+		for (String p : packages) {
+			if (!loadedPackages.contains(p)) {
+				REXP loaded = engine.eval(String.format("usePackage('%s')", p));
+				if (loaded != null && loaded.asBool() != null && loaded.asBool().isTRUE()) {
+					loadedPackages.add(p);
+				} else {
+					logger.log(Level.WARN, String.format("R package %s could not be loaded.", p));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks whether R can be used from within this JVM, i.e. whether the
+	 * native JRI library can be found. The check deliberately avoids touching
+	 * {@link Rengine}, which terminates the JVM if its library is missing.
+	 * 
+	 * @return True if the R engine can be started
+	 */
+	public static boolean isAvailable() {
+		if (available == null) {
+			synchronized (Statistics.class) {
+				if (available == null) {
+					try {
+						System.loadLibrary("jri");
+						available = true;
+					} catch (UnsatisfiedLinkError | SecurityException e) {
+						logger.log(Level.WARN, "JRI native library not found, R is not available: " + e.getMessage());
+						available = false;
+					}
+				}
+			}
+		}
+		return available;
+	}
+
+	public StatsConfigConstants.BACKEND_VALUES getBackendType() {
+		return StatsConfigConstants.BACKEND_VALUES.R;
+	}
+
+	/**
+	 * All tests, corrections and plots are available in R.
+	 */
+	public boolean supportsTest(String testName) {
+		return true;
+	}
+
+	public boolean supportsCorrection(StatsConfigConstants.CORRECTION_VALUES method) {
+		return true;
+	}
+
+	public boolean supportsPlotting() {
+		return true;
+	}
+
+	/**
+	 * Reads the R library of tests from the classpath
+	 *
+	 * @return The source code of the library
+	 */
+	private static String readLibrary() throws IOException {
+		InputStream in = Statistics.class.getResourceAsStream(LIBRARY);
+		if (in == null) {
+			throw new IOException(String.format("R library %s not found on the classpath", LIBRARY));
+		}
+		try {
+			return IOUtils.toString(in, "UTF-8");
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Performs several tests within a single call to the embedded engine.
+	 * Compared to calling the individual wrapper methods, the samples are
+	 * transferred once and all results are retrieved as one list, which is
+	 * decoded without further calls to R.
+	 * 
+	 * @see RStatisticsBackend#testPlan(double[][], List, boolean, List)
+	 */
+	public HashMap<String, AbstractTestResult> testPlan(final double[][] values, final List<String> tests, final boolean isBaselineEvaluation, final List<StatsConfigConstants.CORRECTION_VALUES> corrections) {
+
+		if (!engine.isEngineThread()) {
+			return engine.call(counted(new Callable<HashMap<String, AbstractTestResult>>() {
+				@Override
+				public HashMap<String, AbstractTestResult> call() {
+					return testPlan(values, tests, isBaselineEvaluation, corrections);
 				}
+			}), timeout, "testPlan");
+		}
+
+		if (values.length == 0 || tests.isEmpty()) {
+			String error = "No samples or tests for performing a test plan in R. Please check!";
+			logger.log(Level.ERROR, error);
+			System.err.println(error);
+			return null;
+		}
+
+		StringBuilder testNames = new StringBuilder();
+		for (String test : tests) {
+			testNames.append(testNames.length() == 0 ? "" : ",").append('\'').append(test).append('\'');
+		}
+		StringBuilder correctionNames = new StringBuilder();
+		for (StatsConfigConstants.CORRECTION_VALUES correction : corrections) {
+			correctionNames.append(correctionNames.length() == 0 ? "" : ",").append('\'').append(correction.name()).append('\'');
+		}
+
+		// Samples are passed as matrix, thus filling smaller ones with NaNs
+		int folds = 0;
+		boolean unequal = false;
+		for (double[] v : values) {
+			unequal |= v.length != values[0].length;
+			folds = Math.max(folds, v.length);
+		}
+		double[][] matrix = values;
+		if (unequal) {
+			matrix = new double[values.length][];
+			for (int i = 0; i < values.length; i++) {
+				matrix[i] = Arrays.copyOf(values[i], folds);
+				Arrays.fill(matrix[i], values[i].length, folds, Double.NaN);
 			}
+		}
 
-			return new PairwiseTestResult(method, parameter, p, statistic);
+		try {
+			// The samples are passed column-major and unfolded within R again
+			engine.assign("v", matrix);
+			REXP plan = engine.eval(String.format("st.plan(v, c(%d,%d), c(%s), %s, as.character(c(%s)))", values.length, folds, testNames, isBaselineEvaluation ? "TRUE" : "FALSE", correctionNames));
+			if (plan == null) {
+				String error = "Test plan could not be performed in R. Returning null!";
+				logger.log(Level.ERROR, error);
+				System.err.println(error);
+				return null;
+			}
+			return RResultDecoder.decodeAll(plan);
+
+		} catch (Exception e) {
+			String error = "Exception while performing a test plan in R:" + e;
+			logger.log(Level.ERROR, error);
+			System.out.println(error);
+			return null;
 		}
+	}
 
-		return null;
+	/**
+	 * Transforms either a htest or pairwise.htest R object to its java
+	 * equivalent TestResult and PairwiseTestResult. The object is decoded from
+	 * the expression returned by the evaluation which created it, without
+	 * further evaluations in R.
+	 * 
+	 * @param htest
+	 *            The R expression of the htest or pairwise.htest object, e.g.
+	 *            as returned by {@link Rengine#eval(String)}
+	 * @return An instance of class AbstractTestResult that can be casted to
+	 *         either TestResult or PairwiseTestResult, or null if the
+	 *         expression is neither a htest nor a pairwise.htest object
+	 */
+	private AbstractTestResult toTestResult(REXP htest) {
+		return RResultDecoder.decodeHtest(htest);
 	}
 
 	/**
@@ -224,7 +631,16 @@ public class Statistics {
 	 * @return Instance of class TestResult, comprising p-Values, statistics,
 	 *         the method applied, etc. and a method for human-friendly printing
 	 */
-	public TestResult testKruskalWallis(double[][] values) {
+	public TestResult testKruskalWallis(final double[][] values) {
+
+		if (!engine.isEngineThread()) {
+			return engine.call(counted(new Callable<TestResult>() {
+				@Override
+				public TestResult call() {
+					return testKruskalWallis(values);
+				}
+			}), timeout, "testKruskalWallis");
+		}
 
 		if (values.length < 3) {
 			String error = "Less than three samples given to Kruskal-Wallis-test. Please check input or use a more suitable test.";
@@ -233,14 +649,11 @@ public class Statistics {
 			return null;
 		}
 
-		// Only one-dimensional arrays can be passed to R, thus flattening it
-		// here and unfolding it within R again
-		double[] v = flattenArray(values);
 		TestResult result = null;
 
 		try {
 			// Pass array and 2d-array dimensions to R
-			engine.assign("v", v);
+			engine.assign("v", values);
 			engine.assign("dimensions", new int[] { values.length, values[0].length });
 
 			// Transform it into a matrix in R, as required by the following
@@ -252,8 +665,7 @@ public class Statistics {
 			engine.eval("l <- as.list(data.frame(m))");
 
 			// Perform KW-test on matrix
-			engine.eval("res<-kruskal.test(l)");
-			result = (TestResult) toTestResult("res");
+			result = (TestResult) toTestResult(engine.eval("res<-kruskal.test(l)"));
 			result.setStatisticType("H");
 
 		} catch (Exception e) {
@@ -281,7 +693,16 @@ public class Statistics {
 	 * @return Instance of class TestResult, comprising p-Values, statistics,
 	 *         the method applied, etc. and a method for human-friendly printing
 	 */
-	public TestResult testFriedman(double[][] values) {
+	public TestResult testFriedman(final double[][] values) {
+
+		if (!engine.isEngineThread()) {
+			return engine.call(counted(new Callable<TestResult>() {
+				@Override
+				public TestResult call() {
+					return testFriedman(values);
+				}
+			}), timeout, "testFriedman");
+		}
 
 		if (values.length == 0) {
 			String error = "No samples for Friedman test. Please check!";
@@ -296,14 +717,11 @@ public class Statistics {
 			return null;
 		}
 
-		// Only one-dimensional arrays can be passed to R, thus flattening it
-		// here and unfolding it within R again
-		double[] v = flattenArray(values);
 		TestResult result = null;
 
 		try {
 			// Pass array and 2d-array dimensions to R
-			engine.assign("v", v);
+			engine.assign("v", values);
 			engine.assign("dimensions", new int[] { values.length, values[0].length });
 
 			// Transform it into a matrix in R, as required by the
@@ -312,8 +730,7 @@ public class Statistics {
 			engine.eval("m<-matrix(v,nrow = dimensions[2],ncol = dimensions[1])");
 
 			// Perform Friedman-test on matrix
-			engine.eval("res<-friedman.test(m)");
-			result = (TestResult) toTestResult("res");
+			result = (TestResult) toTestResult(engine.eval("res<-friedman.test(m)"));
 			result.setStatisticType("Q");
 
 		} catch (Exception e) {
@@ -342,7 +759,16 @@ public class Statistics {
 	 *         p-Values, statistics, the method applied, etc. and a method for
 	 *         human-friendly printing
 	 */
-	public PairwiseTestResult testNemenyi(double[][] values) {
+	public PairwiseTestResult testNemenyi(final double[][] values) {
+
+		if (!engine.isEngineThread()) {
+			return engine.call(counted(new Callable<PairwiseTestResult>() {
+				@Override
+				public PairwiseTestResult call() {
+					return testNemenyi(values);
+				}
+			}), timeout, "testNemenyi");
+		}
 
 		if (values.length == 0) {
 			String error = "No samples for Nemenyi test. Please check!";
@@ -351,14 +777,11 @@ public class Statistics {
 			return null;
 		}
 
-		// Only one-dimensional arrays can be passed to R, thus flattening it
-		// here and unfolding it within R again
-		double[] v = flattenArray(values);
 		PairwiseTestResult result = null;
 
 		try {
 			// Pass array and 2d-array dimensions to R
-			engine.assign("v", v);
+			engine.assign("v", values);
 			engine.assign("dimensions", new int[] { values.length, values[0].length });
 
 			// Transform it into a matrix in R, as required by the following
@@ -367,12 +790,11 @@ public class Statistics {
 
 			// Initialise Nemenyi library. Load package from CRAN mirror, if
 			// required.
-			engine.eval("usePackage('PMCMR')");
+			usePackages("PMCMR");
 
 			// Perform test on matrix (second parameter determines to how many
 			// digits the samples are rounded)
-			engine.eval("res<-posthoc.friedman.nemenyi.test(m)");
-			result = (PairwiseTestResult) toTestResult("res");
+			result = (PairwiseTestResult) toTestResult(engine.eval("res<-posthoc.friedman.nemenyi.test(m)"));
 			result.setRequiresPValueCorrection(false);
 			result.setStatisticType("q");
 
@@ -400,7 +822,16 @@ public class Statistics {
 	 * @return Instance of class TestResult, comprising p-Values, statistics,
 	 *         the method applied, etc. and a method for human-friendly printing
 	 */
-	public TestResult testMcNemar(int[][] contingencies) {
+	public TestResult testMcNemar(final int[][] contingencies) {
+
+		if (!engine.isEngineThread()) {
+			return engine.call(counted(new Callable<TestResult>() {
+				@Override
+				public TestResult call() {
+					return testMcNemar(contingencies);
+				}
+			}), timeout, "testMcNemar");
+		}
 
 		if (contingencies.length == 0) {
 			String error = "Empty contingency matrix for McNemar's test. Please check!";
@@ -423,9 +854,7 @@ public class Statistics {
 			// Transform it into a matrix in R, as required by the following
 			// methods
 			engine.eval("m<-matrix(v,nrow = dimensions[2],ncol = dimensions[1])");
-			engine.eval("res<-mcnemar.test(m, y = NULL, correct = TRUE)");
-
-			result = (TestResult) toTestResult("res");
+			result = (TestResult) toTestResult(engine.eval("res<-mcnemar.test(m, y = NULL, correct = TRUE)"));
 			result.setStatisticType("\\chi^2");
 
 		} catch (Exception e) {
@@ -453,7 +882,16 @@ public class Statistics {
 	 * @return Instance of class TestResult, comprising p-Values, statistics,
 	 *         the method applied, etc. and a method for human-friendly printing
 	 */
-	public TestResult testMannWhitneyU(double[] x, double[] y) {
+	public TestResult testMannWhitneyU(final double[] x, final double[] y) {
+
+		if (!engine.isEngineThread()) {
+			return engine.call(counted(new Callable<TestResult>() {
+				@Override
+				public TestResult call() {
+					return testMannWhitneyU(x, y);
+				}
+			}), timeout, "testMannWhitneyU");
+		}
 
 		if (x.length == 0 || y.length == 0) {
 			String error = "No samples for Mann-Whitney-U test. Please check!";
@@ -470,9 +908,7 @@ public class Statistics {
 			engine.assign("x", x);
 			engine.assign("y", y);
 
-			engine.eval("res<-wilcox.test(x,y)");
-
-			result = (TestResult) toTestResult("res");
+			result = (TestResult) toTestResult(engine.eval("res<-wilcox.test(x,y)"));
 			result.setStatisticType("U");
 
 		} catch (Exception e) {
@@ -498,7 +934,16 @@ public class Statistics {
 	 * @return Instance of class TestResult, comprising p-Values, statistics,
 	 *         the method applied, etc. and a method for human-friendly printing
 	 */
-	public TestResult testWilcoxonSignedRank(double[] x, double[] y) {
+	public TestResult testWilcoxonSignedRank(final double[] x, final double[] y) {
+
+		if (!engine.isEngineThread()) {
+			return engine.call(counted(new Callable<TestResult>() {
+				@Override
+				public TestResult call() {
+					return testWilcoxonSignedRank(x, y);
+				}
+			}), timeout, "testWilcoxonSignedRank");
+		}
 
 		if (x.length == 0 || y.length == 0) {
 			String error = "No samples for Wilcoxon-Signed-Rank test. Please check!";
@@ -515,9 +960,7 @@ public class Statistics {
 			engine.assign("x", x);
 			engine.assign("y", y);
 
-			engine.eval("res<-wilcox.test(x,y,paired=TRUE, correct=FALSE)");
-
-			result = (TestResult) toTestResult("res");
+			result = (TestResult) toTestResult(engine.eval("res<-wilcox.test(x,y,paired=TRUE, correct=FALSE)"));
 			result.setStatisticType("W");
 
 		} catch (Exception e) {
@@ -547,7 +990,16 @@ public class Statistics {
 	 *         p-Values, statistics, the method applied, etc. and a method for
 	 *         human-friendly printing
 	 */
-	public PairwiseTestResult testPairwiseWilcoxonSignedRank(double[][] values, boolean isBaselineEvaluation) {
+	public PairwiseTestResult testPairwiseWilcoxonSignedRank(final double[][] values, final boolean isBaselineEvaluation) {
+
+		if (!engine.isEngineThread()) {
+			return engine.call(counted(new Callable<PairwiseTestResult>() {
+				@Override
+				public PairwiseTestResult call() {
+					return testPairwiseWilcoxonSignedRank(values, isBaselineEvaluation);
+				}
+			}), timeout, "testPairwiseWilcoxonSignedRank");
+		}
 
 		if (values.length == 0) {
 			String error = "No samples for Pairwise Wilcoxon-Signed-Rank test. Please check!";
@@ -573,9 +1025,9 @@ public class Statistics {
 				for (int i = 1; i < values.length; i++) {
 					double[] v = values[i];
 					engine.assign("v", v);
-					engine.eval("result<-wilcox.test(b,v,paired=TRUE, correct=FALSE)");
-					pValue[i - 1][0] = engine.eval("result$p.value").asDouble();
-					statistic[i - 1][0] = engine.eval("result$statistic").asDouble();
+					TestResult pair = (TestResult) toTestResult(engine.eval("wilcox.test(b,v,paired=TRUE, correct=FALSE)"));
+					pValue[i - 1][0] = pair.getpValue();
+					statistic[i - 1][0] = pair.getStatistic();
 				}
 			} else {
 				for (int c = 0; c < values.length; c++) {
@@ -584,9 +1036,9 @@ public class Statistics {
 						double[] w = values[c1];
 						engine.assign("v", v);
 						engine.assign("w", w);
-						engine.eval("result<-wilcox.test(v, w, paired=TRUE, correct=FALSE)");
-						pValue[c1 - 1][c] = engine.eval("result$p.value").asDouble();
-						statistic[c1 - 1][c] = engine.eval("result$statistic").asDouble();
+						TestResult pair = (TestResult) toTestResult(engine.eval("wilcox.test(v, w, paired=TRUE, correct=FALSE)"));
+						pValue[c1 - 1][c] = pair.getpValue();
+						statistic[c1 - 1][c] = pair.getStatistic();
 					}
 				}
 			}
@@ -653,7 +1105,16 @@ public class Statistics {
 	 *         p-Values, statistics, the method applied, etc. and a method for
 	 *         human-friendly printing
 	 */
-	public PairwiseTestResult testPairwiseT(double[][] values, boolean paired) {
+	public PairwiseTestResult testPairwiseT(final double[][] values, final boolean paired) {
+
+		if (!engine.isEngineThread()) {
+			return engine.call(counted(new Callable<PairwiseTestResult>() {
+				@Override
+				public PairwiseTestResult call() {
+					return testPairwiseT(values, paired);
+				}
+			}), timeout, "testPairwiseT");
+		}
 
 		if (values.length == 0) {
 			String error = "No samples for Pairwise t-test. Please check!";
@@ -662,18 +1123,15 @@ public class Statistics {
 			return null;
 		}
 
-		// Only one-dimensional arrays can be passed to R, thus flattening it
-		// here and unfolding it within R again
-		double[] v = flattenArray(values);
 		PairwiseTestResult result = null;
 
 		try {
 
 			// Initialize required libraries
-			engine.eval("usePackage('reshape2')");
+			usePackages("reshape2");
 
 			// Pass array and 2d-array dimensions to R
-			engine.assign("v", v);
+			engine.assign("v", values);
 			engine.assign("dimensions", new int[] { values.length, values[0].length });
 
 			// Add column with fold indices
@@ -686,25 +1144,9 @@ public class Statistics {
 			engine.eval("df <- as.data.frame(m)");
 			engine.eval("names(df)<-c('Fold',1:(dimensions[1]-1))");
 
-			// check pairwise normality assumption
-			double[][] statistic = new double[values.length - 1][values.length - 1];
-			double[][] pValue = new double[values.length - 1][values.length - 1];
-			for (int c = 0; c < values.length - 1; c++) {
-				Arrays.fill(pValue[c], Double.NaN);
-				Arrays.fill(statistic[c], Double.NaN);
-			}
-			for (int c = 0; c < values.length; c++) {
-				for (int c1 = c + 1; c1 < values.length; c1++) {
-					engine.eval(String.format("diff<-df[%d]-df[%d]", c + 2, c1 + 2));
-					if (engine.eval("res<-shapiro.test(diff[,1])") != null) {
-						TestResult normalityTest = (TestResult) toTestResult("res");
-						pValue[c1 - 1][c] = normalityTest.getpValue();
-						statistic[c1 - 1][c] = normalityTest.getStatistic();
-					}
-				}
-			}
-			PairwiseTestResult normality = new PairwiseTestResult("Shapiro-Wilk normality test", null, pValue, statistic);
-			normality.setStatisticType("W");
+			// Check pairwise normality assumption in Java for all pairs at
+			// once, rather than by one evaluation in R per pair
+			PairwiseTestResult normality = new PairwiseDifferences(values).testNormality();
 
 			// Transform data frame to long format and set models as grouping
 			// factor
@@ -714,9 +1156,7 @@ public class Statistics {
 
 			// Perform pairwise t-test without corrections (these can be applied
 			// later)
-			engine.eval("res <- pairwise.t.test(df$Performance,df$model,paired=TRUE,p.adjust.method='none')");
-
-			result = (PairwiseTestResult) toTestResult("res");
+			result = (PairwiseTestResult) toTestResult(engine.eval(String.format("res <- pairwise.t.test(df$Performance,df$model,paired=%s,p.adjust.method='none')", paired ? "TRUE" : "FALSE")));
 			result.getAssumptions().put("Normality", normality);
 			result.setRequiresPValueCorrection(true);
 			result.setStatisticType("t");
@@ -746,7 +1186,16 @@ public class Statistics {
 	 * @return Instance of class TestResult, comprising p-Values, statistics,
 	 *         the method applied, etc. and a method for human-friendly printing
 	 */
-	public TestResult testDependentT(double[] x, double[] y) {
+	public TestResult testDependentT(final double[] x, final double[] y) {
+
+		if (!engine.isEngineThread()) {
+			return engine.call(counted(new Callable<TestResult>() {
+				@Override
+				public TestResult call() {
+					return testDependentT(x, y);
+				}
+			}), timeout, "testDependentT");
+		}
 
 		if (x.length == 0 || y.length == 0) {
 			String error = "No samples for dependend t-test. Please check!";
@@ -766,13 +1215,12 @@ public class Statistics {
 			// Check if assumptions for this parametric test (normality of
 			// differences) are met and store result in parent test
 			engine.eval("diff<-x-y");
-			if (engine.eval("res<-shapiro.test(diff)") != null) {
-				normalityTest = (TestResult) toTestResult("res");
+			normalityTest = (TestResult) toTestResult(engine.eval("res<-shapiro.test(diff)"));
+			if (normalityTest != null) {
 				normalityTest.setStatisticType("W");
 			}
 
-			engine.eval("res<-t.test(x,y,paired=TRUE)");
-			result = (TestResult) toTestResult("res");
+			result = (TestResult) toTestResult(engine.eval("res<-t.test(x,y,paired=TRUE)"));
 			result.getAssumptions().put("Normality", normalityTest);
 			result.setStatisticType("t");
 
@@ -803,7 +1251,16 @@ public class Statistics {
 	 *         Greenhouse-Geissner and Huynh-Feldt are comprised in the
 	 *         parameters map.
 	 */
-	public TestResult testRepeatedMeasuresOneWayANOVA(double[][] values) {
+	public TestResult testRepeatedMeasuresOneWayANOVA(final double[][] values) {
+
+		if (!engine.isEngineThread()) {
+			return engine.call(counted(new Callable<TestResult>() {
+				@Override
+				public TestResult call() {
+					return testRepeatedMeasuresOneWayANOVA(values);
+				}
+			}), timeout, "testRepeatedMeasuresOneWayANOVA");
+		}
 
 		if (values.length == 0) {
 			String error = "No samples for Repeated Measures One-Way ANOVA. Please check!";
@@ -812,21 +1269,17 @@ public class Statistics {
 			return null;
 		}
 
-		// Only one-dimensional arrays can be passed to R, thus flattening it
-		// here and unfolding it within R again
-		double[] v = flattenArray(values);
 		TestResult result = null;
 		
 		try{
 			//Initialize required libraries
-	        engine.eval("usePackage('reshape2')");
-	        engine.eval("usePackage('ez')");
+	        usePackages("reshape2", "ez");
 	        
 	        //Set sum-to-zero convention for effect weights
 	        engine.eval("options(contrasts=c('contr.sum','contr.poly'))");
 	        
 	        // Pass array and 2d-array dimensions to R
-	        engine.assign("v", v);
+	        engine.assign("v", values);
 	        engine.assign("dimensions", new int[]{values.length,values[0].length});
 	        
 	        // Transform it into a matrix in R, then transform the matrix into a data frame
@@ -888,7 +1341,16 @@ public class Statistics {
 	 *         p-Values, statistics, the method applied, etc. and a method for
 	 *         human-friendly printing.
 	 */
-	public PairwiseTestResult testDunett(double[][] values) {
+	public PairwiseTestResult testDunett(final double[][] values) {
+
+		if (!engine.isEngineThread()) {
+			return engine.call(counted(new Callable<PairwiseTestResult>() {
+				@Override
+				public PairwiseTestResult call() {
+					return testDunett(values);
+				}
+			}), timeout, "testDunett");
+		}
 
 		if (values.length == 0) {
 			String error = "No samples for Dunett's test. Please check!";
@@ -897,20 +1359,17 @@ public class Statistics {
 			return null;
 		}
 
-		double[] v = flattenArray(values);
 		PairwiseTestResult result = null;
 
 		try {
 			// Initialize required libraries
-			engine.eval("usePackage('reshape2')");
-			engine.eval("usePackage('nlme')");
-			engine.eval("usePackage('multcomp')");
+			usePackages("reshape2", "nlme", "multcomp");
 
 			// Set sum-to-zero convention for effect weights
 			engine.eval("options(contrasts=c('contr.sum','contr.poly'))");
 
 			// Pass array and 2d-array dimensions to R
-			engine.assign("v", v);
+			engine.assign("v", values);
 			engine.assign("dimensions", new int[] { values.length, values[0].length });
 
 			// Transform it into a matrix in R, then transform the matrix into a
@@ -971,7 +1430,16 @@ public class Statistics {
 	 *         p-Values, statistics, the method applied, etc. and a method for
 	 *         human-friendly printing.
 	 */
-	public PairwiseTestResult testTukey(double[][] values) {
+	public PairwiseTestResult testTukey(final double[][] values) {
+
+		if (!engine.isEngineThread()) {
+			return engine.call(counted(new Callable<PairwiseTestResult>() {
+				@Override
+				public PairwiseTestResult call() {
+					return testTukey(values);
+				}
+			}), timeout, "testTukey");
+		}
 
 		if (values.length == 0) {
 			String error = "No samples for Tukey's test. Please check!";
@@ -980,22 +1448,17 @@ public class Statistics {
 			return null;
 		}
 
-		// Only one-dimensional arrays can be passed to R, thus flattening it
-		// here and unfolding it within R again
-		double[] v = flattenArray(values);
 		PairwiseTestResult result = null;
 
 		try {
 			// Initialize required libraries
-			engine.eval("usePackage('reshape2')");
-			engine.eval("usePackage('nlme')");
-			engine.eval("usePackage('multcomp')");
+			usePackages("reshape2", "nlme", "multcomp");
 
 			// Set sum-to-zero convention for effect weights
 			engine.eval("options(contrasts=c('contr.sum','contr.poly'))");
 
 			// Pass array and 2d-array dimensions to R
-			engine.assign("v", v);
+			engine.assign("v", values);
 			engine.assign("dimensions", new int[] { values.length, values[0].length });
 
 			// Transform it into a matrix in R, then transform the matrix into a
@@ -1076,15 +1539,21 @@ public class Statistics {
 	 *            adjustment
 	 * @return an updated copy of PairwiseTestResult with adjusted p-values
 	 */
-	public double[][] adjustP(PairwiseTestResult result, StatsConfigConstants.CORRECTION_VALUES method) {
+	public double[][] adjustP(final PairwiseTestResult result, final StatsConfigConstants.CORRECTION_VALUES method) {
+
+		if (!engine.isEngineThread()) {
+			return engine.call(counted(new Callable<double[][]>() {
+				@Override
+				public double[][] call() {
+					return adjustP(result, method);
+				}
+			}), timeout, "adjustP");
+		}
 
-		// Extract p-values and flatten array, in order to pass to R
-		double[] v = flattenArray(result.getpValue());
-
 		try{
 			
 	        // Pass array and dimensions of origin matrix to R
-	        engine.assign("v", v);
+	        engine.assign("v", result.getpValue());
 	        engine.assign("dimensions", new int[]{result.getpValue().length,result.getpValue()[0].length});
 	        
 	        engine.eval(String.format("adjusted <- p.adjust(v,method='%s')",method.name()));
@@ -1116,7 +1585,22 @@ public class Statistics {
 	 *            The name of the performance measure the samples represent
 	 * @return True if plotting and saving to file succeeded, false otherwise.
 	 */
-	public boolean plotQQNorm(double[] samples, String model, String measure, String filename) {
+	public boolean plotQQNorm(final double[] samples, final String model, final String measure, final String filename) {
+
+		if (!engine.isEngineThread()) {
+			try {
+				Boolean done = engine.call(counted(new Callable<Boolean>() {
+					@Override
+					public Boolean call() {
+						return plotQQNorm(samples, model, measure, filename);
+					}
+				}), timeout, "plotQQNorm");
+				return done != null && done;
+			} catch (RTimeoutException e) {
+				// Reports are created without the plot
+				return false;
+			}
+		}
 
 		try {
 			// Pass array to R
@@ -1150,23 +1634,34 @@ public class Statistics {
 	 *            The name of the performance measure the samples represent
 	 * @return True if plotting and saving to file succeeded, false otherwise.
 	 **/
-	public boolean plotBoxWhisker(double[][] s, int min, int max, String filename, String measure) {
+	public boolean plotBoxWhisker(final double[][] s, final int min, final int max, final String filename, final String measure) {
+
+		if (!engine.isEngineThread()) {
+			try {
+				Boolean done = engine.call(counted(new Callable<Boolean>() {
+					@Override
+					public Boolean call() {
+						return plotBoxWhisker(s, min, max, filename, measure);
+					}
+				}), timeout, "plotBoxWhisker");
+				return done != null && done;
+			} catch (RTimeoutException e) {
+				// Reports are created without the plot
+				return false;
+			}
+		}
 
 		if (s.length == 0) {
 			System.err.println("Empty input matrix. Please check! Returning empty string.");
 			return false;
 		}
 
-		// Only one-dimensional arrays can be passed to R, thus flattening it
-		// here and unfolding it within R again
-		double[] v = flattenArray(s);
 
 		try {
-			engine.eval("usePackage('reshape2')");
-			engine.eval("usePackage('ggplot2')");
+			usePackages("reshape2", "ggplot2");
 
 			// Pass array and 2d-array dimensions to R
-			engine.assign("v", v);
+			engine.assign("v", s);
 			engine.assign("dimensions", new int[] { s.length, s[0].length });
 
 			// Transform it into a matrix in R, then transform the matrix into a
@@ -1218,7 +1713,22 @@ public class Statistics {
 	 *            The place where the plot should be stored
 	 * @return indicates whether the plot was successful or not
 	 */
-	public boolean plotGraph(int[][] edgelist, int nModels, String filename) {
+	public boolean plotGraph(final int[][] edgelist, final int nModels, final String filename) {
+
+		if (!engine.isEngineThread()) {
+			try {
+				Boolean done = engine.call(counted(new Callable<Boolean>() {
+					@Override
+					public Boolean call() {
+						return plotGraph(edgelist, nModels, filename);
+					}
+				}), timeout, "plotGraph");
+				return done != null && done;
+			} catch (RTimeoutException e) {
+				// Reports are created without the plot
+				return false;
+			}
+		}
 
 		if (edgelist == null) {
 			System.err.println("Empty input matrix. Please check! Returning empty string.");
@@ -1235,7 +1745,7 @@ public class Statistics {
 		int[] flattenedEdges = flattenArray(edgelist);
 
 		try {
-			engine.eval("usePackage('igraph')");
+			usePackages("igraph");
 
 			// Pass vertices to R
 			engine.assign("vertices", vertices);
@@ -1273,33 +1783,6 @@ public class Statistics {
 		return true;
 	}
 
-	/**
-	 * Flattens a 2-dimensional double array into a one-dimensional one
-	 * 
-	 * @param inputArray
-	 *            a 2-dimensional double array
-	 * @return a one-dimensional double array comprising all values from the
-	 *         2-dimensional input array
-	 */
-	private double[] flattenArray(double[][] inputArray) {
-
-		int totalSize = 0;
-		for (double[] subArray : inputArray) {
-			totalSize += subArray.length;
-		}
-
-		double[] flat = new double[totalSize];
-		int c = 0;
-		for (double[] subArray : inputArray) {
-			for (double element : subArray) {
-				flat[c] = element;
-				c++;
-			}
-		}
-
-		return flat;
-	}
-
 	/**
 	 * Flattens a 2-dimensional integer array into a one-dimensional one
 	 * 
@@ -0,0 +1,95 @@
+package de.tudarmstadt.tk.statistics.test;
+
+/**
+ * Copyright 2014
+ * Telecooperation (TK) Lab
+ * Technische Universit�t Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import de.tudarmstadt.tk.statistics.config.StatsConfigConstants;
+
+/**
+ * Common interface of the engines performing statistical tests, p-value
+ * corrections and plots. The test methods are named after the tests in
+ * {@link StatsConfigConstants#TESTS}, prefixed with "test", and share the
+ * input conventions documented in {@link Statistics}.
+ *
+ * @author Guckelsberger, Schulz
+ */
+public interface StatisticsBackend {
+
+	/**
+	 * @return The kind of engine this backend represents
+	 */
+	StatsConfigConstants.BACKEND_VALUES getBackendType();
+
+	/**
+	 * @param testName
+	 *            The name of a test as used in the config, e.g. "Friedman"
+	 * @return True if this backend implements the given test
+	 */
+	boolean supportsTest(String testName);
+
+	/**
+	 * @param method
+	 *            A p-value correction method
+	 * @return True if this backend implements the given correction
+	 */
+	boolean supportsCorrection(StatsConfigConstants.CORRECTION_VALUES method);
+
+	/**
+	 * @return True if this backend is able to create plots
+	 */
+	boolean supportsPlotting();
+
+	TestResult testKruskalWallis(double[][] values);
+
+	TestResult testFriedman(double[][] values);
+
+	PairwiseTestResult testNemenyi(double[][] values);
+
+	TestResult testMcNemar(int[][] contingencies);
+
+	TestResult testMannWhitneyU(double[] x, double[] y);
+
+	TestResult testWilcoxonSignedRank(double[] x, double[] y);
+
+	PairwiseTestResult testPairwiseWilcoxonSignedRank(double[][] values);
+
+	PairwiseTestResult testPairwiseWilcoxonSignedRank(double[][] values, boolean isBaselineEvaluation);
+
+	PairwiseTestResult testPairwiseIndependentT(double[][] values);
+
+	PairwiseTestResult testPairwiseDependentT(double[][] values);
+
+	PairwiseTestResult testPairwiseT(double[][] values, boolean paired);
+
+	TestResult testDependentT(double[] x, double[] y);
+
+	TestResult testRepeatedMeasuresOneWayANOVA(double[][] values);
+
+	PairwiseTestResult testDunett(double[][] values);
+
+	PairwiseTestResult testTukey(double[][] values);
+
+	double[][] adjustP(PairwiseTestResult result, StatsConfigConstants.CORRECTION_VALUES method);
+
+	boolean plotQQNorm(double[] samples, String model, String measure, String filename);
+
+	boolean plotBoxWhisker(double[][] s, int min, int max, String filename, String measure);
+
+	boolean plotGraph(int[][] edgelist, int nModels, String filename);
+
+}
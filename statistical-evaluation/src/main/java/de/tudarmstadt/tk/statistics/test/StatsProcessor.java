@@ -19,15 +19,25 @@ package de.tudarmstadt.tk.statistics.test;
  * limitations under the License.
  */
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
 
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.Level;
@@ -39,20 +49,100 @@ import de.tudarmstadt.tk.statistics.config.ReportTypes;
 import de.tudarmstadt.tk.statistics.config.StatsConfig;
 import de.tudarmstadt.tk.statistics.config.StatsConfigConstants;
 import de.tudarmstadt.tk.statistics.helper.ImprovedDirectedGraph;
+import de.tudarmstadt.tk.statistics.helper.Metrics;
 import de.tudarmstadt.tk.statistics.importer.ExternalResultsReader;
 import de.tudarmstadt.tk.statistics.report.EvaluationResults;
 import de.tudarmstadt.tk.statistics.report.ReportGenerator;
+import de.tudarmstadt.tk.statistics.report.ResultsSink;
 
 /**
- * Class to perform statistical evaluation of machine-learning sample data
+ * Class to perform statistical evaluation of machine-learning sample data.
+ * Each processor uses its own configuration, tests and backends, including a
+ * context of the R engine, so that several evaluations with different
+ * configurations may run concurrently.
  * @author Guckelsberger, Schulz
  */
 public class StatsProcessor {	
     private static final Logger logger = LogManager.getLogger("Statistics");
     private StatsConfig config;
+    private JavaStatistics javaStatistics;
+    // Handlers of the configured tests by test class
+    private EnumMap<StatsConfigConstants.TEST_CLASSES, StatisticalTest> tests;
+    // Pool of R processes used instead of the embedded R engine, if configured
+    private RWorkerPool rWorkerPool = null;
+    // Context of the embedded R engine, created on first use
+    private Statistics rContext = null;
+    // The R backend used so far, if any, whose counters are added to the metrics
+    private volatile RStatisticsBackend usedRBackend = null;
+    private final Metrics metrics = new Metrics();
+    // Performs the tasks of the evaluations: splits, measures and the chains
+    // of tests of each measure
+    private final ForkJoinPool pool;
     
 	public StatsProcessor(StatsConfig config) {
+		this(config, TestRegistry.getDefault());
+	}
+
+	/**
+	 * @param registry
+	 *            The registry resolving the tests of the configuration
+	 */
+	public StatsProcessor(StatsConfig config, TestRegistry registry) {
 		this.config=config;
+		this.javaStatistics=new JavaStatistics();
+		this.pool = new ForkJoinPool(config.getParallelism() > 0 ? config.getParallelism() : Runtime.getRuntime().availableProcessors());
+
+		// Tests which are not registered fail here rather than during the
+		// evaluation
+		this.tests = registry.resolve(config.getRequiredTests());
+
+		// Start R in the background if any of the configured tests requires
+		// it, together with the packages for the tests and the report's plots
+		Set<String> rTests = new TreeSet<String>();
+		for (Entry<StatsConfigConstants.TEST_CLASSES, StatisticalTest> e : tests.entrySet()) {
+			if (e.getValue().isInRLibrary() && selectBackend(e.getKey()) == StatsConfigConstants.BACKEND_VALUES.R) {
+				rTests.add(e.getValue().getName());
+			}
+		}
+		if (!rTests.isEmpty() && config.getRWorkers() > 0 && RWorkerPool.isAvailable()) {
+			try {
+				rWorkerPool = new RWorkerPool(config.getRWorkers(), Statistics.getRequiredPackages(rTests, false));
+			} catch (IOException e) {
+				logger.log(Level.ERROR, "R worker processes could not be started, using the embedded R engine: " + e.getMessage());
+			}
+		}
+		// The embedded engine performs the tests not assigned to workers and
+		// creates the plots, if configured
+		Set<String> embeddedTests = rWorkerPool == null ? rTests : new TreeSet<String>();
+		if ((!embeddedTests.isEmpty() || config.isPlots()) && Statistics.isAvailable()) {
+			logger.log(Level.INFO, String.format("Starting R in the background for %s%s.", embeddedTests, config.isPlots() ? " and the plots of the reports" : ""));
+			Statistics.warmUp(true, Statistics.getRequiredPackages(embeddedTests, config.isPlots()));
+		}
+	}
+
+	/**
+	 * @return The metrics of the tests performed by this processor and the
+	 *         phases of its evaluations, including the number of evaluations
+	 *         and the bytes transferred of the R backend if it has been used
+	 */
+	public Metrics getMetrics() {
+		RStatisticsBackend r = usedRBackend;
+		if (r != null) {
+			metrics.setCounter("r_evaluations", r.getEvaluations());
+			metrics.setCounter("r_transferred_bytes", r.getTransferredBytes());
+		}
+		return metrics;
+	}
+
+	/**
+	 * Terminates the threads performing the evaluations and the R worker
+	 * processes, if any
+	 */
+	public void close() {
+		pool.shutdown();
+		if (rWorkerPool != null) {
+			rWorkerPool.close();
+		}
 	}
 	
 
@@ -115,26 +205,140 @@ public class StatsProcessor {
 
 	private static void evaluate(StatsConfig config, String pathToCsvFile, String outputPath, char separator, ReportTypes pipelineType, HashMap<String, Integer> pipelineMetadata) {
 
-		List<String[]> rows = ExternalResultsReader.readAndCheckCSV(pathToCsvFile, separator);
-		SampleData sampleData = ExternalResultsReader.interpretCSV(config, rows, pipelineType, pipelineMetadata);
-		List<SampleData> splittedSamples = ExternalResultsReader.splitData(sampleData, config);
-
 		StatsProcessor stats = new StatsProcessor(config);
-		//String outputPath = new File(pathToCsvFile).getParentFile().getAbsolutePath();
+		stats.evaluate(pathToCsvFile, outputPath, separator, pipelineType, pipelineMetadata);
+		stats.close();
 
-		for(int i=0; i<splittedSamples.size(); i++){
-			
-			SampleData samples = splittedSamples.get(i);
-	
-			EvaluationResults evalResults = stats.performStatisticalEvaluation(samples);
-						
-			if(evalResults==null){
-				continue;
+		if (config.isExportMetrics()) {
+			exportMetrics(stats.getMetrics(), outputPath);
+		}
+	}
+
+	/**
+	 * Evaluates external data with the tests and backends of this processor and
+	 * stores the reports in the output folder, each as soon as its split has
+	 * been evaluated. Several files may be evaluated concurrently, cf.
+	 * {@link BatchEvaluator}.
+	 * 
+	 * @return True if the data could be read and the reports of all splits
+	 *         have been written
+	 */
+	boolean evaluate(String pathToCsvFile, final String outputPath, char separator, ReportTypes pipelineType, HashMap<String, Integer> pipelineMetadata) {
+		return evaluate(pathToCsvFile, separator, pipelineType, pipelineMetadata, new ResultsSink() {
+			@Override
+			public void onResults(String pathToCsvFile, int split, EvaluationResults results) {
+				long start = System.nanoTime();
+				ReportGenerator.createEvaluationReport(outputPath, pathToCsvFile, results, getPlottingBackend());
+				metrics.recordPhase("report", System.nanoTime() - start);
+			}
+
+			@Override
+			public void onComplete(String pathToCsvFile) {
+			}
+		});
+	}
+
+	/**
+	 * Evaluates external data with the tests and backends of this processor and
+	 * passes the results of each split to the sink as soon as the split has
+	 * been evaluated. Splits are evaluated in parallel; a sink blocking in
+	 * {@link ResultsSink#onResults} holds back the evaluation of further
+	 * splits.
+	 * 
+	 * @param pathToCsvFile
+	 *            The path to the external data file.
+	 * @param separator
+	 *            The character used to separate columns in the file.
+	 * @param pipelineType
+	 *            The pipeline the data stems from, cf.
+	 *            {@link #evaluateCV(StatsConfig, String, String, char)} etc.
+	 * @param pipelineMetadata
+	 *            Further information on the pipeline, e.g. "nFolds" for
+	 *            repeated cross-validations
+	 * @param sink
+	 *            The receiver of the results, which is completed even if the
+	 *            evaluation fails
+	 * @return True if the data could be read and all splits have been
+	 *         evaluated
+	 */
+	public boolean evaluate(final String pathToCsvFile, char separator, ReportTypes pipelineType, HashMap<String, Integer> pipelineMetadata, final ResultsSink sink) {
+
+		try {
+			long start = System.nanoTime();
+			List<String[]> rows = ExternalResultsReader.readCSV(pathToCsvFile, separator);
+			SampleData sampleData = rows == null ? null : ExternalResultsReader.interpretCSV(config, rows, pipelineType, pipelineMetadata);
+			metrics.recordPhase("import", System.nanoTime() - start);
+			if (sampleData == null) {
+				String error = String.format("%s could not be imported. Aborting.", pathToCsvFile);
+				logger.log(Level.ERROR, error);
+				System.err.println(error);
+				return false;
+			}
+
+			start = System.nanoTime();
+			List<SampleData> splittedSamples = ExternalResultsReader.splitData(sampleData, config);
+			metrics.recordPhase("split", System.nanoTime() - start);
+
+			// Splits are evaluated in parallel and passed on in order of their
+			// completion
+			List<ForkJoinTask<Boolean>> futures = new ArrayList<ForkJoinTask<Boolean>>();
+			for (int i = 0; i < splittedSamples.size(); i++) {
+				final int split = i;
+				final SampleData samples = splittedSamples.get(i);
+				futures.add(pool.submit(new Callable<Boolean>() {
+					@Override
+					public Boolean call() {
+						long start = System.nanoTime();
+						EvaluationResults evalResults;
+						try {
+							evalResults = performStatisticalEvaluation(samples);
+						} finally {
+							metrics.recordPhase("test", System.nanoTime() - start);
+						}
+						if (evalResults == null) {
+							return false;
+						}
+						sink.onResults(pathToCsvFile, split, evalResults);
+						return true;
+					}
+				}));
+			}
+
+			boolean complete = true;
+			for (int i = 0; i < futures.size(); i++) {
+				try {
+					complete &= futures.get(i).get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return false;
+				} catch (ExecutionException e) {
+					logger.log(Level.ERROR, "Error while evaluating split " + i + ": " + e.getCause());
+					complete = false;
+				}
 			}
-			
-			ReportGenerator.createEvaluationReport(outputPath, pathToCsvFile, evalResults);
-			
-		}	
+			return complete;
+		} finally {
+			sink.onComplete(pathToCsvFile);
+		}
+	}
+
+	/**
+	 * Writes the metrics of an evaluation into the output folder, as
+	 * metrics.json and in the text format of Prometheus as metrics.prom
+	 */
+	static void exportMetrics(Metrics metrics, String outputPath) {
+		LinkedHashMap<String, String> files = new LinkedHashMap<String, String>();
+		files.put("metrics.json", metrics.toJSON());
+		files.put("metrics.prom", metrics.toPrometheus());
+		for (Entry<String, String> e : files.entrySet()) {
+			File file = new File(outputPath, e.getKey());
+			try {
+				Files.write(file.toPath(), e.getValue().getBytes("UTF-8"));
+				logger.log(Level.INFO, String.format("Metrics written to %s.", file.getAbsolutePath()));
+			} catch (IOException ex) {
+				logger.log(Level.ERROR, String.format("Metrics could not be written to %s: %s", file.getAbsolutePath(), ex.getMessage()));
+			}
+		}
 	}
 
 	/**
@@ -154,19 +358,45 @@ public class StatsProcessor {
 	 * @return An object of type {@Link EvaluationResults} with the
 	 *         results of the statistical evaluation
 	 */
-	public EvaluationResults performStatisticalEvaluation(SampleData sampleData){
+	public EvaluationResults performStatisticalEvaluation(final SampleData sampleData){
+		return performStatisticalEvaluation(sampleData, false);
+	}
+
+	/**
+	 * Performs a statistical evaluation like
+	 * {@link #performStatisticalEvaluation(SampleData)}
+	 * 
+	 * @param incremental
+	 *            Whether the tests performed in Java on repeated measures use
+	 *            the {@link SufficientStatistics} of the samples, which are
+	 *            kept by the sample data and updated with the folds added
+	 *            since, cf. {@link IncrementalEvaluation}
+	 */
+	EvaluationResults performStatisticalEvaluation(final SampleData sampleData, final boolean incremental){
+
+		// The measures are evaluated by tasks of the pool
+		if (ForkJoinTask.getPool() != pool) {
+			return pool.invoke(new RecursiveTask<EvaluationResults>() {
+				@Override
+				protected EvaluationResults compute() {
+					return performStatisticalEvaluation(sampleData, incremental);
+				}
+			});
+		}
 
-		EvaluationResults evalResults = new EvaluationResults();
+		final EvaluationResults evalResults = new EvaluationResults();
 		evalResults.setSampleData(sampleData);
 		evalResults.setSignificanceLevel(config.getSignificanceLevels().get(StatsConfigConstants.SIGNIFICANCE_LEVEL_VALUES.low), config.getSignificanceLevels().get(StatsConfigConstants.SIGNIFICANCE_LEVEL_VALUES.medium), config.getSignificanceLevels().get(StatsConfigConstants.SIGNIFICANCE_LEVEL_VALUES.high) );
 		evalResults.setIsBaselineEvaluation(sampleData.isBaselineEvaluation());
 		int nModels = 0;
 
-		// Perform statistical evaluation for all performance measures
+		// Perform statistical evaluation for all performance measures in
+		// parallel
+		List<RecursiveTask<Boolean>> measureTasks = new ArrayList<RecursiveTask<Boolean>>();
 		Iterator<Entry<String, ArrayList<ArrayList<Double>>>> it = sampleData.getSamples().entrySet().iterator();
 		while (it.hasNext()) {
 			Entry<String, ArrayList<ArrayList<Double>>> entry = it.next();
-			String measure = entry.getKey();
+			final String measure = entry.getKey();
 			evalResults.addMeasure(measure);
 			ArrayList<ArrayList<Double>> valuesPerModel = entry.getValue();
 			logger.log(Level.INFO, String.format("Evaluating %s samples.", measure));
@@ -184,7 +414,7 @@ public class StatsProcessor {
 			} else if (nModels >= 2) {
 
 				// Store values in a two-dimensional array
-				double[][] samplesPerModel = new double[nModels][];
+				final double[][] samplesPerModel = new double[nModels][];
 				for (int i = 0; i < valuesPerModel.size(); i++) {
 					samplesPerModel[i] = new double[valuesPerModel.get(i).size()];
 					for (int j = 0; j < valuesPerModel.get(i).size(); j++) {
@@ -194,18 +424,31 @@ public class StatsProcessor {
 				
 				// Use appropriate test as specified in config file, depending
 				// on the number of comparisons
-				try {
-					if (nModels == 2) {// 2 models
-						this.testTwoModels(evalResults, config.getRequiredTests(), samplesPerModel, measure);
-					} else if (nModels > 2) {// Multiple models
-						ArrayList<Double> averageSamplesPerModel = sampleData.getSamplesAverage().get(entry.getKey());
-						this.testMultipleModels(evalResults, config.getRequiredTests(), config.getRequiredCorrections(), samplesPerModel, averageSamplesPerModel, measure, sampleData.isBaselineEvaluation());
+				final ArrayList<Double> averageSamplesPerModel = sampleData.getSamplesAverage().get(entry.getKey());
+				measureTasks.add(new RecursiveTask<Boolean>() {
+					@Override
+					protected Boolean compute() {
+						try {
+							if (samplesPerModel.length == 2) {// 2 models
+								testTwoModels(evalResults, config.getRequiredTests(), samplesPerModel, measure);
+							} else {// Multiple models
+								testMultipleModels(evalResults, config.getRequiredTests(), config.getRequiredCorrections(), samplesPerModel, incremental ? sampleData : null, averageSamplesPerModel, measure, sampleData.isBaselineEvaluation());
+							}
+							return true;
+						} catch (Exception e) {
+							logger.log(Level.ERROR, String.format("Error while performing statistical tests on %s: %s", measure, e));
+							return false;
+						}
 					}
-				} catch (Exception e) {
-					logger.log(Level.ERROR, "Error while performing statistical tests. Aborting.");
-					System.err.println("Error while performing statistical tests. Aborting.");
-					return null;
-				}
+				});
+			}
+		}
+
+		for (RecursiveTask<Boolean> task : ForkJoinTask.invokeAll(measureTasks)) {
+			if (!task.join()) {
+				logger.log(Level.ERROR, "Error while performing statistical tests. Aborting.");
+				System.err.println("Error while performing statistical tests. Aborting.");
+				return null;
 			}
 		}
 
@@ -220,16 +463,9 @@ public class StatsProcessor {
 				logger.log(Level.ERROR, "No contingency matrix provided for McNemar test! Test failed.");
 				System.err.println("No contingency matrix provided for McNemar test! Test failed.");
 			} else {
-				Statistics stats = Statistics.getInstance(false);
 				evalResults.setNonParametricTest(nonParametricContingency);
 				evalResults.addMeasure("Contingency Table");
-				TestResult result = null;
-				try {
-					Method m = Statistics.class.getMethod(String.format("test%s", nonParametricContingency), int[][].class);
-					result = (TestResult) m.invoke(stats, contingency);
-				} catch (NoSuchMethodException | SecurityException | IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-					e.printStackTrace();
-				}
+				TestResult result = (TestResult) performTest(StatsConfigConstants.TEST_CLASSES.TwoSamplesNonParametricContingency, false, null, null, contingency, null, evalResults, "Contingency Table");
 				evalResults.addNonParametricTestResult(Pair.of(nonParametricContingency, (AbstractTestResult) result), "Contingency Table");
 			}
 		}
@@ -249,10 +485,7 @@ public class StatsProcessor {
 	 *            A two-dimensional array of performance measure samples for the
 	 *            different models/folds
 	 */
-	private void testTwoModels(EvaluationResults evalResults, HashMap<StatsConfigConstants.TEST_CLASSES, String> requiredTests, double[][] samples, String measure) throws NoSuchMethodException, SecurityException, IllegalAccessException, IllegalArgumentException,
-			InvocationTargetException {
-
-		Statistics stats = Statistics.getInstance(false);
+	private void testTwoModels(EvaluationResults evalResults, HashMap<StatsConfigConstants.TEST_CLASSES, String> requiredTests, double[][] samples, String measure) {
 
 		// Get required tests for two samples on one/multiple domains
 		String testParametric = requiredTests.get(StatsConfigConstants.TEST_CLASSES.TwoSamplesParametric);
@@ -261,17 +494,19 @@ public class StatsProcessor {
 		evalResults.setParametricTest(testParametric);
 		evalResults.setNonParametricTest(testNonParametric);
 
+		// Tests to be performed in R are performed at once
+		HashMap<String, AbstractTestResult> planned = planTests(Arrays.asList(StatsConfigConstants.TEST_CLASSES.TwoSamplesParametric, StatsConfigConstants.TEST_CLASSES.TwoSamplesNonParametric), samples, false,
+				new ArrayList<StatsConfigConstants.CORRECTION_VALUES>(), false, evalResults, measure);
+
 		// Call corresponding parametric method using reflection
 		logger.log(Level.INFO, String.format("Performing parametric omnibus test for comparing 2 models: %s", testParametric));
 		TestResult result = null;
-		Method m = Statistics.class.getMethod(String.format("test%s", testParametric), double[].class, double[].class);
-		result = (TestResult) m.invoke(stats, samples[0], samples[1]);
+		result = (TestResult) performTest(StatsConfigConstants.TEST_CLASSES.TwoSamplesParametric, false, samples, null, null, planned, evalResults, measure);
 		evalResults.addParametricTestResult(Pair.of(testParametric, (AbstractTestResult) result), measure);
 
 		// Always perform non-parametric alternative
 		logger.log(Level.INFO, String.format("Performing non-parametric omnibus test for comparing 2 models: %s", testNonParametric));
-		m = Statistics.class.getMethod(String.format("test%s", testNonParametric), double[].class, double[].class);
-		result = (TestResult) m.invoke(stats, samples[0], samples[1]);
+		result = (TestResult) performTest(StatsConfigConstants.TEST_CLASSES.TwoSamplesNonParametric, false, samples, null, null, planned, evalResults, measure);
 		evalResults.addNonParametricTestResult(Pair.of(testNonParametric, (AbstractTestResult) result), measure);
 	}
 
@@ -285,108 +520,423 @@ public class StatsProcessor {
 	 * @param samples
 	 *            A two-dimensional array of performance measure samples for the
 	 *            different models/folds
+	 * @param sampleData
+	 *            The sample data keeping the sufficient statistics of the
+	 *            samples for the tests performed in Java which support them,
+	 *            or null if the samples are to be used
 	 * @param requiredCorrections
 	 *            The corrections to be performed when doing multiple
 	 *            comparisons testing, e.g. Bonferroni adjustment
 	 */
-	private void testMultipleModels(EvaluationResults evalResults, HashMap<StatsConfigConstants.TEST_CLASSES, String> requiredTests, List<StatsConfigConstants.CORRECTION_VALUES> requiredCorrections, double[][] samples, ArrayList<Double> averageSamplesPerModel, String measure, boolean isBaselineEvaluation)
-			throws NoSuchMethodException, SecurityException, IllegalAccessException, IllegalArgumentException, InvocationTargetException {
+	private void testMultipleModels(final EvaluationResults evalResults, HashMap<StatsConfigConstants.TEST_CLASSES, String> requiredTests, final List<StatsConfigConstants.CORRECTION_VALUES> requiredCorrections, final double[][] samples, final SampleData sampleData, final ArrayList<Double> averageSamplesPerModel, final String measure,
+			boolean isBaselineEvaluation) {
 
-		Statistics stats = Statistics.getInstance(true);
 		// Get required tests for >2 samples
 		String testParametric = requiredTests.get(StatsConfigConstants.TEST_CLASSES.MultipleSamplesParametric);
 		String testNonParametric = requiredTests.get(StatsConfigConstants.TEST_CLASSES.MultipleSamplesNonParametric);
 
-		String testPostHocParametric = null;
-		String testPostHocNonParametric = null;
+		StatsConfigConstants.TEST_CLASSES postHocParametricClass = null;
+		StatsConfigConstants.TEST_CLASSES postHocNonParametricClass = null;
 		if (!isBaselineEvaluation) {
-			testPostHocParametric = requiredTests.get(StatsConfigConstants.TEST_CLASSES.MultipleSamplesParametricPosthoc);
-			testPostHocNonParametric = requiredTests.get(StatsConfigConstants.TEST_CLASSES.MultipleSamplesNonParametricPostHoc);
+			postHocParametricClass = StatsConfigConstants.TEST_CLASSES.MultipleSamplesParametricPosthoc;
+			postHocNonParametricClass = StatsConfigConstants.TEST_CLASSES.MultipleSamplesNonParametricPostHoc;
 		} else {
-			testPostHocParametric = requiredTests.get(StatsConfigConstants.TEST_CLASSES.MultipleSamplesParametricPosthocBaseline);
-			testPostHocNonParametric = requiredTests.get(StatsConfigConstants.TEST_CLASSES.MultipleSamplesNonParametricPostHocBaseline);
+			postHocParametricClass = StatsConfigConstants.TEST_CLASSES.MultipleSamplesParametricPosthocBaseline;
+			postHocNonParametricClass = StatsConfigConstants.TEST_CLASSES.MultipleSamplesNonParametricPostHocBaseline;
 		}
+		String testPostHocParametric = requiredTests.get(postHocParametricClass);
+		String testPostHocNonParametric = requiredTests.get(postHocNonParametricClass);
 
 		evalResults.setParametricTest(testParametric);
 		evalResults.setNonParametricTest(testNonParametric);
 		evalResults.setParametricPostHocTest(testPostHocParametric);
 		evalResults.setNonParametricPostHocTest(testPostHocNonParametric);
 
-		// Call corresponding parametric method using reflection
-		logger.log(Level.INFO, String.format("Performing parametric omnibus test for comparing >2 models: %s", testParametric));
-		Method m = Statistics.class.getMethod(String.format("test%s", testParametric), double[][].class);
-		TestResult result = (TestResult) m.invoke(stats, samples);
-		evalResults.addParametricTestResult(Pair.of(testParametric, (AbstractTestResult) result), measure);
+		// Tests to be performed in R are performed at once, including the
+		// corrections not available in Java
+		final HashMap<String, AbstractTestResult> planned = planTests(Arrays.asList(StatsConfigConstants.TEST_CLASSES.MultipleSamplesParametric, postHocParametricClass, StatsConfigConstants.TEST_CLASSES.MultipleSamplesNonParametric,
+				postHocNonParametricClass), samples, isBaselineEvaluation, requiredCorrections, true, evalResults, measure);
+
+		// The parametric and the non-parametric chain, each of omnibus test,
+		// post-hoc test, corrections and ordering, are independent of each
+		// other
+		final StatsConfigConstants.TEST_CLASSES parametricPostHoc = postHocParametricClass;
+		final StatsConfigConstants.TEST_CLASSES nonParametricPostHoc = postHocNonParametricClass;
+		ForkJoinTask.invokeAll(new RecursiveAction() {
+			@Override
+			protected void compute() {
+				testChain(evalResults, true, StatsConfigConstants.TEST_CLASSES.MultipleSamplesParametric, parametricPostHoc, requiredCorrections, samples, sampleData, averageSamplesPerModel, planned, measure);
+			}
+		}, new RecursiveAction() {
+			@Override
+			protected void compute() {
+				testChain(evalResults, false, StatsConfigConstants.TEST_CLASSES.MultipleSamplesNonParametric, nonParametricPostHoc, requiredCorrections, samples, sampleData, averageSamplesPerModel, planned, measure);
+			}
+		});
+	}
+
+	/**
+	 * Perform an omnibus test and, if it succeeded, the post-hoc test and the
+	 * required corrections, and determine the ordering of the models by
+	 * significant differences
+	 * 
+	 * @param parametric
+	 *            Whether the results are stored as parametric or
+	 *            non-parametric tests
+	 * @param omnibusClass
+	 *            The test class of the omnibus test
+	 * @param postHocClass
+	 *            The test class of the post-hoc test
+	 */
+	private void testChain(EvaluationResults evalResults, boolean parametric, StatsConfigConstants.TEST_CLASSES omnibusClass, StatsConfigConstants.TEST_CLASSES postHocClass, List<StatsConfigConstants.CORRECTION_VALUES> requiredCorrections,
+			double[][] samples, SampleData sampleData, ArrayList<Double> averageSamplesPerModel, HashMap<String, AbstractTestResult> planned, String measure) {
+
+		String kind = parametric ? "parametric" : "non-parametric";
+		String testOmnibus = config.getRequiredTests().get(omnibusClass);
+		String testPostHoc = config.getRequiredTests().get(postHocClass);
+
+		logger.log(Level.INFO, String.format("Performing %s omnibus test for comparing >2 models: %s", kind, testOmnibus));
+		TestResult result = (TestResult) performTest(omnibusClass, true, samples, sampleData, null, planned, evalResults, measure);
+		if (parametric) {
+			evalResults.addParametricTestResult(Pair.of(testOmnibus, (AbstractTestResult) result), measure);
+		} else {
+			evalResults.addNonParametricTestResult(Pair.of(testOmnibus, (AbstractTestResult) result), measure);
+		}
 
 		// If test successful, print result and call post-hoc test
-		if (result != null && !Double.isNaN(result.getpValue())) {
-			// Perform parametric post-hoc test
-			logger.log(Level.INFO, String.format("Performing parametric post-hoc test: %s", testPostHocParametric));
-			m = Statistics.class.getMethod(String.format("test%s", testPostHocParametric), double[][].class);
-			PairwiseTestResult postHocResult = (PairwiseTestResult) m.invoke(stats, samples);
-
-			if (postHocResult.getRequiresPValueCorrection()) {
-				for (StatsConfigConstants.CORRECTION_VALUES s : requiredCorrections) {
-					postHocResult.addPValueCorrections(s, stats.adjustP(postHocResult, s));
-				}
+		if (result == null || Double.isNaN(result.getpValue())) {
+			return;
+		}
+		logger.log(Level.INFO, String.format("Performing %s post-hoc test: %s", kind, testPostHoc));
+		PairwiseTestResult postHocResult = (PairwiseTestResult) performTest(postHocClass, true, samples, sampleData, null, planned, evalResults, measure);
+		if (parametric) {
+			evalResults.addParametricPostHocTestResult(Pair.of(testPostHoc, (AbstractTestResult) postHocResult), measure);
+		} else {
+			evalResults.addNonParametricPostHocTestResult(Pair.of(testPostHoc, (AbstractTestResult) postHocResult), measure);
+		}
+
+		// Failed or timed out tests are reported without ordering
+		if (postHocResult == null) {
+			return;
+		}
+		if (postHocResult.getRequiresPValueCorrection()) {
+			adjustP(postHocResult, requiredCorrections);
+		}
+
+		// Determine ordering of significant differences between models,
+		// based on unadjusted(!) p-values
+		logger.log(Level.INFO, "Calculating chain of statistical significance via topological ordering");
+		ImprovedDirectedGraph<Integer, DefaultEdge> graph = createSignificanceGraph(postHocResult, averageSamplesPerModel);
+		HashMap<Integer, TreeSet<Integer>> ordering = calcOrderOfSignificantDifferences(graph);
+		Set<DefaultEdge> e = graph.edgeSet();
+		int[][] edgelist = new int[2][e.size()];
+		int i = 0;
+		for (DefaultEdge edge : e) {
+			edgelist[0][i] = graph.getEdgeSource(edge);
+			edgelist[1][i] = graph.getEdgeTarget(edge);
+			i++;
+		}
+		if (parametric) {
+			evalResults.addParametricPostHocOrdering(measure, ordering, edgelist);
+		} else {
+			evalResults.addNonParametricPostHocOrdering(measure, ordering, edgelist);
+		}
+	}
+
+	/**
+	 * Determine the backend to perform a test with. A backend configured for
+	 * the test class is used if it is able to perform the test. Otherwise, the
+	 * fastest backend supporting the test is chosen. R is only started if it is
+	 * actually required.
+	 * 
+	 * @param testClass
+	 *            The class of the test to be performed
+	 * @param chatty
+	 *            Passed to {@link Statistics#getInstance(boolean)} if R is used
+	 * @return The backend to be used or null if no backend is able to perform
+	 *         the test
+	 */
+	private StatisticsBackend getBackend(StatsConfigConstants.TEST_CLASSES testClass, boolean chatty) {
+
+		String testName = tests.get(testClass).getName();
+		StatsConfigConstants.BACKEND_VALUES preferred = config.getBackends().get(testClass);
+		StatsConfigConstants.BACKEND_VALUES selected = selectBackend(testClass);
+		if (preferred != null && preferred != selected) {
+			logger.log(Level.WARN, String.format("Backend %s is not able to perform %s. Choosing another backend.", preferred, testName));
+		}
+
+		if (selected == StatsConfigConstants.BACKEND_VALUES.Java) {
+			return javaStatistics;
+		} else if (selected == StatsConfigConstants.BACKEND_VALUES.R) {
+			return getRBackend(chatty);
+		}
+
+		logger.log(Level.ERROR, String.format("No backend available to perform %s!", testName));
+		System.err.println(String.format("No backend available to perform %s!", testName));
+		return null;
+	}
+
+	/**
+	 * Determine the type of backend to perform a test with, as described in
+	 * {@link #getBackend(StatsConfigConstants.TEST_CLASSES, boolean)}, without
+	 * starting R
+	 * 
+	 * @return The type of the backend or null if no backend is able to perform
+	 *         the test
+	 */
+	private StatsConfigConstants.BACKEND_VALUES selectBackend(StatsConfigConstants.TEST_CLASSES testClass) {
+
+		StatisticalTest test = tests.get(testClass);
+		StatsConfigConstants.BACKEND_VALUES preferred = config.getBackends().get(testClass);
+		boolean rAvailable = rWorkerPool != null || Statistics.isAvailable();
+		if (preferred == StatsConfigConstants.BACKEND_VALUES.R && rAvailable) {
+			return preferred;
+		} else if (preferred == StatsConfigConstants.BACKEND_VALUES.Java && test.isSupportedBy(javaStatistics)) {
+			return preferred;
+		}
+
+		// Backends ordered from fastest to slowest
+		if (test.isSupportedBy(javaStatistics)) {
+			return StatsConfigConstants.BACKEND_VALUES.Java;
+		} else if (rAvailable) {
+			return StatsConfigConstants.BACKEND_VALUES.R;
+		}
+		return null;
+	}
+
+	/**
+	 * @param chatty
+	 *            Passed to {@link Statistics#getInstance(boolean)} if the
+	 *            embedded engine is used
+	 * @return The R worker processes if configured, otherwise the context of
+	 *         the embedded R engine, with the configured timeout
+	 */
+	private RStatisticsBackend getRBackend(boolean chatty) {
+		RStatisticsBackend backend = rWorkerPool;
+		if (backend == null) {
+			backend = getRContext(chatty);
+		}
+		backend.setTimeout(config.getRTimeout() * 1000L);
+		usedRBackend = backend;
+		return backend;
+	}
+
+	/**
+	 * @param chatty
+	 *            Passed to {@link Statistics#getInstance(boolean)} if the
+	 *            engine has not been started yet
+	 * @return The context of the embedded R engine used by this processor,
+	 *         with the configured timeout
+	 */
+	private synchronized Statistics getRContext(boolean chatty) {
+		if (rContext == null) {
+			rContext = Statistics.getInstance(chatty).createContext();
+			rContext.setTimeout(config.getRTimeout() * 1000L);
+		}
+		return rContext;
+	}
+
+	/**
+	 * @return The backend creating the plots of the reports: the context of
+	 *         the embedded R engine if plots are configured and R is
+	 *         available, otherwise the Java backend, which creates no plots
+	 */
+	public StatisticsBackend getPlottingBackend() {
+		return config.isPlots() && Statistics.isAvailable() ? getRContext(true) : javaStatistics;
+	}
+
+	/**
+	 * Perform all tests of a measure that are assigned to the R backend within
+	 * a single call to R, cf.
+	 * {@link RStatisticsBackend#testPlan(double[][], List, boolean, List)}. This
+	 * avoids transferring the samples and results for each test individually.
+	 * 
+	 * @param testClasses
+	 *            The classes of the tests to be performed for the measure
+	 * @param samples
+	 *            A two-dimensional array of performance measure samples for the
+	 *            different models/folds
+	 * @param requiredCorrections
+	 *            The corrections to be performed for pairwise tests. Only those
+	 *            not available in Java are applied in R.
+	 * @param chatty
+	 *            Passed to {@link Statistics#getInstance(boolean)} if R is used
+	 * @param evalResults
+	 *            The results in which the tests are marked if the call times
+	 *            out
+	 * @param measure
+	 *            The measure the tests are performed on
+	 * @return The results of the tests performed in R by their names. Empty if
+	 *         no test is assigned to R or the call failed, in which case the
+	 *         tests are performed individually. Tests which timed out are
+	 *         mapped to null.
+	 */
+	private HashMap<String, AbstractTestResult> planTests(List<StatsConfigConstants.TEST_CLASSES> testClasses, double[][] samples, boolean isBaselineEvaluation,
+			List<StatsConfigConstants.CORRECTION_VALUES> requiredCorrections, boolean chatty, EvaluationResults evalResults, String measure) {
+
+		HashMap<String, AbstractTestResult> planned = new HashMap<String, AbstractTestResult>();
+
+		// R requires samples of equal size
+		for (double[] s : samples) {
+			if (s.length != samples[0].length) {
+				return planned;
 			}
+		}
 
-			// Determine ordering of significant differences between models,
-			// based on unadjusted(!) p-values
-			logger.log(Level.INFO, "Calculating chain of statistical significance via topological ordering");
-			ImprovedDirectedGraph<Integer, DefaultEdge> graph = createSignificanceGraph(postHocResult, averageSamplesPerModel);
-			HashMap<Integer, TreeSet<Integer>> ordering = calcOrderOfSignificantDifferences(graph);
-			Set<DefaultEdge> e = graph.edgeSet();
-			int[][] edgelist = new int[2][e.size()];
-			int i = 0;
-			for (DefaultEdge edge : e) {
-				edgelist[0][i] = graph.getEdgeSource(edge);
-				edgelist[1][i] = graph.getEdgeTarget(edge);
-				i++;
+		List<String> planTests = new ArrayList<String>();
+		for (StatsConfigConstants.TEST_CLASSES testClass : testClasses) {
+			StatisticalTest test = tests.get(testClass);
+			if (test == null || !test.isInRLibrary() || planTests.contains(test.getName())) {
+				continue;
+			}
+			if (selectBackend(testClass) == StatsConfigConstants.BACKEND_VALUES.R) {
+				planTests.add(test.getName());
 			}
-			evalResults.getParameticPostHocOrdering().put(measure, ordering);
-			evalResults.getParameticPostHocEdgelist().put(measure, edgelist);
+		}
+		if (planTests.isEmpty()) {
+			return planned;
+		}
 
-			evalResults.addParametricPostHocTestResult(Pair.of(testPostHocParametric, (AbstractTestResult) postHocResult), measure);
+		List<StatsConfigConstants.CORRECTION_VALUES> corrections = new ArrayList<StatsConfigConstants.CORRECTION_VALUES>();
+		for (StatsConfigConstants.CORRECTION_VALUES s : requiredCorrections) {
+			if (!javaStatistics.supportsCorrection(s)) {
+				corrections.add(s);
+			}
 		}
 
-		//Perform non-parametric tests
-		logger.log(Level.INFO, String.format("Performing non-parametric omnibus test for comparing >2 models: %s", testParametric));
-		m = Statistics.class.getMethod(String.format("test%s", testNonParametric), double[][].class);
-		result = (TestResult) m.invoke(stats, samples);
-		evalResults.addNonParametricTestResult(Pair.of(testNonParametric, (AbstractTestResult) result), measure);
+		logger.log(Level.DEBUG, String.format("Performing %s with the R backend in a single call.", planTests));
+		HashMap<String, AbstractTestResult> results = null;
+		long start = System.nanoTime();
+		try {
+			results = getRBackend(chatty).testPlan(samples, planTests, isBaselineEvaluation, corrections);
+		} catch (RTimeoutException e) {
+			// The tests are not repeated individually
+			for (String test : planTests) {
+				evalResults.addTimedOutTest(test, measure);
+				planned.put(test, null);
+			}
+		} finally {
+			metrics.recordCall("TestPlan", StatsConfigConstants.BACKEND_VALUES.R.name(), System.nanoTime() - start, results == null);
+		}
+		if (results != null) {
+			planned.putAll(results);
+		}
+		return planned;
+	}
 
-		// If test successful, print result and call non-parametric post-hoc test
-		if (result != null && !Double.isNaN(result.getpValue())) {
-			logger.log(Level.INFO, String.format("Performing non-parametric post-hoc test: %s", testPostHocParametric));
-			m = Statistics.class.getMethod(String.format("test%s", testPostHocNonParametric), double[][].class);
-			PairwiseTestResult postHocResult = (PairwiseTestResult) m.invoke(stats, samples);
-	
-			if (postHocResult.getRequiresPValueCorrection()) {
-				for (StatsConfigConstants.CORRECTION_VALUES s : requiredCorrections) {
-					postHocResult.addPValueCorrections(s, stats.adjustP(postHocResult, s));
+	/**
+	 * Perform the configured test of a test class on the backend determined by
+	 * {@link #getBackend(StatsConfigConstants.TEST_CLASSES, boolean)}
+	 * 
+	 * @param testClass
+	 *            The class of the test to be performed
+	 * @param chatty
+	 *            Passed to {@link Statistics#getInstance(boolean)} if R is used
+	 * @param samples
+	 *            The samples for tests on two or more models, or null
+	 * @param sampleData
+	 *            The sample data keeping the sufficient statistics of the
+	 *            samples, which are used instead of the samples by tests
+	 *            performed in Java supporting them, or null
+	 * @param contingency
+	 *            The contingency table for tests on a contingency table, or
+	 *            null
+	 * @param planned
+	 *            Results of tests already performed by
+	 *            {@link #planTests(List, double[][], boolean, List, boolean, EvaluationResults, String)}
+	 *            , or null
+	 * @param evalResults
+	 *            The results in which the test is marked if it times out
+	 * @param measure
+	 *            The measure the test is performed on
+	 * @return The result of the test or null, if no backend is available or
+	 *         the test timed out
+	 */
+	private AbstractTestResult performTest(StatsConfigConstants.TEST_CLASSES testClass, boolean chatty, double[][] samples, SampleData sampleData, int[][] contingency, HashMap<String, AbstractTestResult> planned, EvaluationResults evalResults, String measure) {
+
+		StatisticalTest test = tests.get(testClass);
+		if (test == null) {
+			logger.log(Level.ERROR, String.format("No test configured for %s!", testClass));
+			System.err.println(String.format("No test configured for %s!", testClass));
+			return null;
+		}
+		if (planned != null && planned.containsKey(test.getName())) {
+			return planned.get(test.getName());
+		}
+
+		StatisticsBackend backend = getBackend(testClass, chatty);
+		if (backend == null) {
+			return null;
+		}
+		logger.log(Level.DEBUG, String.format("Performing %s with the %s backend.", test.getName(), backend.getBackendType()));
+		AbstractTestResult result = null;
+		long start = System.nanoTime();
+		try {
+			switch (test.getInput()) {
+			case Contingency:
+				result = test.perform(backend, contingency);
+				break;
+			case TwoSamples:
+				result = test.perform(backend, samples[0], samples[1]);
+				break;
+			default:
+				// Only fetched for the tests taking them, as the statistics
+				// are computed on first use
+				if (sampleData != null && backend == javaStatistics && test.supportsSufficientStatistics()) {
+					result = test.perform(javaStatistics, sampleData.getSufficientStatistics(measure, test.getRequiredStatistics()));
+				} else {
+					result = test.perform(backend, samples);
 				}
 			}
-			
-			// Determine ordering of significant differences between models,
-			// based on unadjusted(!) p-values
-			logger.log(Level.INFO, "Calculating chain of statistical significance via topological ordering");
-			ImprovedDirectedGraph<Integer, DefaultEdge> graph = createSignificanceGraph(postHocResult, averageSamplesPerModel);
-			HashMap<Integer, TreeSet<Integer>> ordering = calcOrderOfSignificantDifferences(graph);
-			Set<DefaultEdge> e = graph.edgeSet();
-			int[][] edgelist = new int[2][e.size()];
-			int i = 0;
-			for (DefaultEdge edge : e) {
-				edgelist[0][i] = graph.getEdgeSource(edge);
-				edgelist[1][i] = graph.getEdgeTarget(edge);
-				i++;
+		} catch (RTimeoutException e) {
+			evalResults.addTimedOutTest(test.getName(), measure);
+		} finally {
+			metrics.recordCall(test.getName(), backend.getBackendType().name(), System.nanoTime() - start, result == null);
+		}
+		return result;
+	}
+
+	/**
+	 * Apply the required p-value corrections to a post-hoc test result, each
+	 * on the fastest backend supporting it
+	 * 
+	 * @param postHocResult
+	 *            The result of a post-hoc test
+	 * @param requiredCorrections
+	 *            The corrections to be performed
+	 */
+	private void adjustP(PairwiseTestResult postHocResult, List<StatsConfigConstants.CORRECTION_VALUES> requiredCorrections) {
+
+		// Corrections available in Java are computed together from one sort of
+		// the p-values
+		List<StatsConfigConstants.CORRECTION_VALUES> javaCorrections = new ArrayList<StatsConfigConstants.CORRECTION_VALUES>();
+		for (StatsConfigConstants.CORRECTION_VALUES s : requiredCorrections) {
+			if (javaStatistics.supportsCorrection(s)) {
+				javaCorrections.add(s);
+			}
+		}
+		if (!javaCorrections.isEmpty()) {
+			for (Entry<StatsConfigConstants.CORRECTION_VALUES, double[][]> e : javaStatistics.adjustP(postHocResult, javaCorrections).entrySet()) {
+				postHocResult.addPValueCorrections(e.getKey(), e.getValue());
 			}
-			evalResults.getNonParameticPostHocOrdering().put(measure, ordering);
-			evalResults.getNonParameticPostHocEdgelist().put(measure, edgelist);
-			
-			evalResults.addNonParametricPostHocTestResult(Pair.of(testPostHocNonParametric, (AbstractTestResult) postHocResult), measure);
 		}
 
+		// Corrections only available in R may already have been applied
+		// together with the test
+		for (StatsConfigConstants.CORRECTION_VALUES s : requiredCorrections) {
+			if (javaCorrections.contains(s) || postHocResult.getpValueCorrections().containsKey(s)) {
+				continue;
+			}
+			if (rWorkerPool == null && !Statistics.isAvailable()) {
+				logger.log(Level.ERROR, String.format("No backend available to perform the %s correction!", s));
+				continue;
+			}
+			try {
+				postHocResult.addPValueCorrections(s, getRBackend(true).adjustP(postHocResult, s));
+			} catch (RTimeoutException e) {
+				logger.log(Level.ERROR, String.format("The %s correction timed out!", s));
+			}
+		}
 	}
 
 	/**
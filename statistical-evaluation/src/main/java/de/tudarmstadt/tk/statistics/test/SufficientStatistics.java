@@ -0,0 +1,287 @@
+package de.tudarmstadt.tk.statistics.test;
+
+/**
+ * Copyright 2014
+ * Telecooperation (TK) Lab
+ * Technische Universit�t Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.EnumSet;
+import java.util.List;
+
+import de.tudarmstadt.tk.statistics.numerics.Ranks;
+
+/**
+ * Sufficient statistics of the samples values[model][fold] of several models
+ * for the tests on repeated measures of {@link JavaStatistics}: the sums and
+ * sums of squares of the items and folds and, if required, the rank sums and
+ * tie correction of the ranks within each fold and the sums and cross
+ * products of orthonormal contrasts between the items. Folds are added as
+ * they arrive, so that the Friedman and Nemenyi test, the Repeated-Measures
+ * One-Way ANOVA and Tukey's and Dunnett's test can be updated in time
+ * proportional to the new folds rather than to all samples. Folds are
+ * accumulated in the same order and in the same way as by the tests on the
+ * complete samples, whose results are thus reproduced exactly.
+ * 
+ * A fold is added once all items have a value for it. Folds with missing
+ * values (NaNs) are omitted. Not thread-safe.
+ *
+ * @author Guckelsberger, Schulz
+ */
+public final class SufficientStatistics {
+
+	/**
+	 * The optional parts of the statistics, each computed only if required
+	 * by a test
+	 */
+	public static enum Part {
+		// Rank sums and tie correction, for the Friedman and Nemenyi test
+		Ranks,
+		// Sums and cross products of the contrasts, for the ANOVA
+		Contrasts
+	};
+
+	// Number of items
+	final int k;
+	private final EnumSet<Part> parts;
+	// Number of folds added so far, including incomplete ones
+	private int columns = 0;
+	// Number of complete folds
+	int n = 0;
+
+	final double[] itemSums;
+	double sumOfSquares = 0;
+	double foldSumsOfSquares = 0;
+	double total = 0;
+	// Sums and cross products of the contrasts (lower triangle), null if not
+	// required
+	final double[] contrastSums;
+	final double[][] crossProducts;
+	// Rank sums of the items and tie correction term sum(t^3-t), null if not
+	// required
+	final double[] rankSums;
+	double ties = 0;
+
+	// Buffers for adding a fold
+	private final double[] fold;
+	private final double[] scratch;
+	private final double[] contrasts;
+
+	/**
+	 * @param k
+	 *            The number of items (e.g. models)
+	 * @param parts
+	 *            The optional parts to be computed
+	 */
+	public SufficientStatistics(int k, EnumSet<Part> parts) {
+		this.k = k;
+		this.parts = EnumSet.copyOf(parts);
+		itemSums = new double[k];
+		fold = new double[k];
+		if (parts.contains(Part.Ranks)) {
+			rankSums = new double[k];
+			scratch = new double[k];
+		} else {
+			rankSums = null;
+			scratch = null;
+		}
+		if (parts.contains(Part.Contrasts)) {
+			int p = Math.max(k - 1, 0);
+			contrastSums = new double[p];
+			crossProducts = new double[p][];
+			for (int a = 0; a < p; a++) {
+				crossProducts[a] = new double[a + 1];
+			}
+			contrasts = new double[p];
+		} else {
+			contrastSums = null;
+			crossProducts = null;
+			contrasts = null;
+		}
+	}
+
+	/**
+	 * @param values
+	 *            Individual performance results of different items (e.g. models
+	 *            -> rows) over different domains or folds (columns)
+	 * @param parts
+	 *            The optional parts to be computed
+	 */
+	public SufficientStatistics(double[][] values, EnumSet<Part> parts) {
+		this(values.length, parts);
+		update(values);
+	}
+
+	/**
+	 * Adds the folds which have been measured for all items since the last
+	 * update
+	 * 
+	 * @param values
+	 *            Individual performance results of different items (rows) over
+	 *            different folds (columns), comprising at least the folds of
+	 *            the previous updates
+	 * @return The number of folds added
+	 */
+	public int update(double[][] values) {
+		checkItems(values.length);
+		int nFolds = k == 0 ? 0 : Integer.MAX_VALUE;
+		for (double[] v : values) {
+			nFolds = Math.min(nFolds, v.length);
+		}
+		int added = 0;
+		for (; columns < nFolds; columns++) {
+			for (int i = 0; i < k; i++) {
+				fold[i] = values[i][columns];
+			}
+			addFold();
+			added++;
+		}
+		return added;
+	}
+
+	/**
+	 * Adds the folds which have been measured for all items since the last
+	 * update
+	 * 
+	 * @param valuesPerModel
+	 *            The samples of each item, comprising at least the folds of
+	 *            the previous updates
+	 * @return The number of folds added
+	 */
+	public int update(List<? extends List<Double>> valuesPerModel) {
+		checkItems(valuesPerModel.size());
+		int nFolds = k == 0 ? 0 : Integer.MAX_VALUE;
+		for (List<Double> v : valuesPerModel) {
+			nFolds = Math.min(nFolds, v.size());
+		}
+		int added = 0;
+		for (; columns < nFolds; columns++) {
+			for (int i = 0; i < k; i++) {
+				fold[i] = valuesPerModel.get(i).get(columns);
+			}
+			addFold();
+			added++;
+		}
+		return added;
+	}
+
+	/**
+	 * @return The number of items
+	 */
+	public int getItems() {
+		return k;
+	}
+
+	/**
+	 * @return The number of folds added, including incomplete ones
+	 */
+	public int getColumns() {
+		return columns;
+	}
+
+	/**
+	 * @return The number of complete folds added
+	 */
+	public int getFolds() {
+		return n;
+	}
+
+	/**
+	 * @return True if the optional parts are computed
+	 */
+	public boolean hasParts(EnumSet<Part> required) {
+		return parts.containsAll(required);
+	}
+
+	/**
+	 * @return The optional parts computed
+	 */
+	public EnumSet<Part> getParts() {
+		return EnumSet.copyOf(parts);
+	}
+
+	/**
+	 * @return An independent copy, e.g. to be evaluated while this one is
+	 *         updated
+	 */
+	public SufficientStatistics copy() {
+		SufficientStatistics copy = new SufficientStatistics(k, parts);
+		copy.columns = columns;
+		copy.n = n;
+		System.arraycopy(itemSums, 0, copy.itemSums, 0, k);
+		copy.sumOfSquares = sumOfSquares;
+		copy.foldSumsOfSquares = foldSumsOfSquares;
+		copy.total = total;
+		if (contrastSums != null) {
+			System.arraycopy(contrastSums, 0, copy.contrastSums, 0, contrastSums.length);
+			for (int a = 0; a < crossProducts.length; a++) {
+				System.arraycopy(crossProducts[a], 0, copy.crossProducts[a], 0, a + 1);
+			}
+		}
+		if (rankSums != null) {
+			System.arraycopy(rankSums, 0, copy.rankSums, 0, k);
+			copy.ties = ties;
+		}
+		return copy;
+	}
+
+	/**
+	 * Adds the fold in the buffer, unless it is incomplete
+	 */
+	private void addFold() {
+		for (int i = 0; i < k; i++) {
+			if (Double.isNaN(fold[i])) {
+				return;
+			}
+		}
+		double foldSum = 0;
+		for (int i = 0; i < k; i++) {
+			double v = fold[i];
+			itemSums[i] += v;
+			foldSum += v;
+			sumOfSquares += v * v;
+			// Orthonormal Helmert contrasts from the running sum
+			if (contrasts != null && i > 0) {
+				contrasts[i - 1] = (foldSum - v - i * v) / Math.sqrt(i * (i + 1.0));
+			}
+		}
+		total += foldSum;
+		foldSumsOfSquares += foldSum * foldSum;
+		if (contrasts != null) {
+			for (int a = 0; a < contrasts.length; a++) {
+				contrastSums[a] += contrasts[a];
+				for (int b = 0; b <= a; b++) {
+					crossProducts[a][b] += contrasts[a] * contrasts[b];
+				}
+			}
+		}
+
+		// Ranks replace the values in the buffer
+		if (rankSums != null) {
+			ties += Ranks.rank(fold, k, scratch);
+			for (int i = 0; i < k; i++) {
+				rankSums[i] += fold[i];
+			}
+		}
+		n++;
+	}
+
+	private void checkItems(int items) {
+		if (items != k) {
+			throw new IllegalArgumentException(String.format("Samples of %d items cannot be added to statistics of %d items.", items, k));
+		}
+	}
+
+}
@@ -0,0 +1,41 @@
+package de.tudarmstadt.tk.statistics.test;
+
+/**
+ * Copyright 2014
+ * Telecooperation (TK) Lab
+ * Technische Universit�t Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Provider of additional statistical tests, which are registered in the
+ * default {@link TestRegistry} on its creation. Providers are discovered by
+ * {@link java.util.ServiceLoader}, i.e. listed in a file
+ * META-INF/services/de.tudarmstadt.tk.statistics.test.TestProvider on the
+ * class path. The tests may then be configured like the built-in ones.
+ *
+ * @author Guckelsberger, Schulz
+ */
+public interface TestProvider {
+
+	/**
+	 * Registers the tests of this provider
+	 *
+	 * @param registry
+	 *            The registry, cf.
+	 *            {@link TestRegistry#register(de.tudarmstadt.tk.statistics.config.StatsConfigConstants.TEST_CLASSES, StatisticalTest)}
+	 */
+	void registerTests(TestRegistry registry);
+
+}
@@ -0,0 +1,288 @@
+package de.tudarmstadt.tk.statistics.test;
+
+/**
+ * Copyright 2014
+ * Telecooperation (TK) Lab
+ * Technische Universit�t Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map.Entry;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.tudarmstadt.tk.statistics.config.StatsConfigConstants;
+
+/**
+ * Maps the tests of each test class to the handlers performing them. The
+ * built-in tests of {@link StatsConfigConstants#TESTS} call the corresponding
+ * method of {@link StatisticsBackend} directly. Additional tests are
+ * registered by {@link TestProvider}s. Whether a test takes the input of its
+ * class is checked when it is registered, so that a configuration can be
+ * resolved into handlers before any test is performed.
+ *
+ * @author Guckelsberger, Schulz
+ */
+public final class TestRegistry {
+
+	private static final Logger logger = LogManager.getLogger("Statistics");
+
+	private static TestRegistry defaultRegistry = null;
+
+	private final EnumMap<StatsConfigConstants.TEST_CLASSES, HashMap<String, StatisticalTest>> tests = new EnumMap<StatsConfigConstants.TEST_CLASSES, HashMap<String, StatisticalTest>>(
+			StatsConfigConstants.TEST_CLASSES.class);
+
+	/**
+	 * Creates a registry of the built-in tests
+	 */
+	public TestRegistry() {
+		for (StatsConfigConstants.TEST_CLASSES testClass : StatsConfigConstants.TEST_CLASSES.values()) {
+			tests.put(testClass, new HashMap<String, StatisticalTest>());
+		}
+		for (Entry<StatsConfigConstants.TEST_CLASSES, ArrayList<String>> e : StatsConfigConstants.TESTS.entrySet()) {
+			for (String name : e.getValue()) {
+				register(e.getKey(), builtIn(name));
+			}
+		}
+	}
+
+	/**
+	 * @return The registry of the built-in tests and the tests of all
+	 *         {@link TestProvider}s on the class path, created on first use
+	 */
+	public static synchronized TestRegistry getDefault() {
+		if (defaultRegistry == null) {
+			TestRegistry registry = new TestRegistry();
+			try {
+				for (TestProvider provider : ServiceLoader.load(TestProvider.class)) {
+					logger.log(Level.INFO, String.format("Registering the tests of %s.", provider.getClass().getName()));
+					provider.registerTests(registry);
+				}
+			} catch (ServiceConfigurationError e) {
+				logger.log(Level.ERROR, "Additional tests could not be loaded: " + e.getMessage());
+			}
+			defaultRegistry = registry;
+		}
+		return defaultRegistry;
+	}
+
+	/**
+	 * Registers a test for a test class, replacing a test of the same name
+	 *
+	 * @throws IllegalArgumentException
+	 *             If the test does not take the input of the test class
+	 */
+	public synchronized void register(StatsConfigConstants.TEST_CLASSES testClass, StatisticalTest test) {
+		if (test.getInput() != StatisticalTest.getInput(testClass)) {
+			throw new IllegalArgumentException(String.format("%s takes input of type %s, but tests of class %s take %s.", test.getName(), test.getInput(), testClass, StatisticalTest.getInput(testClass)));
+		}
+		tests.get(testClass).put(test.getName(), test);
+	}
+
+	/**
+	 * @return The test of the given name for the test class, or null if there
+	 *         is none
+	 */
+	public synchronized StatisticalTest get(StatsConfigConstants.TEST_CLASSES testClass, String name) {
+		return tests.get(testClass).get(name);
+	}
+
+	/**
+	 * @return True if a test of the given name is registered for the test
+	 *         class
+	 */
+	public boolean contains(StatsConfigConstants.TEST_CLASSES testClass, String name) {
+		return get(testClass, name) != null;
+	}
+
+	/**
+	 * Resolves the tests of a configuration into their handlers
+	 *
+	 * @param requiredTests
+	 *            The names of the tests by test class, as specified in the
+	 *            config. Classes without test are omitted.
+	 * @return The handlers of the tests by test class
+	 * @throws IllegalArgumentException
+	 *             If a test is not registered for its class
+	 */
+	public EnumMap<StatsConfigConstants.TEST_CLASSES, StatisticalTest> resolve(HashMap<StatsConfigConstants.TEST_CLASSES, String> requiredTests) {
+		EnumMap<StatsConfigConstants.TEST_CLASSES, StatisticalTest> resolved = new EnumMap<StatsConfigConstants.TEST_CLASSES, StatisticalTest>(StatsConfigConstants.TEST_CLASSES.class);
+		for (Entry<StatsConfigConstants.TEST_CLASSES, String> e : requiredTests.entrySet()) {
+			if (e.getValue() == null || e.getValue().isEmpty()) {
+				continue;
+			}
+			StatisticalTest test = get(e.getKey(), e.getValue());
+			if (test == null) {
+				throw new IllegalArgumentException(e.getValue() + " is not a valid test for test class " + e.getKey() + "!");
+			}
+			resolved.put(e.getKey(), test);
+		}
+		return resolved;
+	}
+
+	/**
+	 * @return The handler of a built-in test, calling the method of the
+	 *         backend named after the test
+	 */
+	private static StatisticalTest builtIn(String name) {
+		switch (name) {
+		case "McNemar":
+			return new BuiltInTest(name, StatisticalTest.Input.Contingency) {
+				@Override
+				public AbstractTestResult perform(StatisticsBackend backend, int[][] contingency) {
+					return backend.testMcNemar(contingency);
+				}
+			};
+		case "DependentT":
+			return new BuiltInTest(name, StatisticalTest.Input.TwoSamples) {
+				@Override
+				public AbstractTestResult perform(StatisticsBackend backend, double[] x, double[] y) {
+					return backend.testDependentT(x, y);
+				}
+			};
+		case "WilcoxonSignedRank":
+			return new BuiltInTest(name, StatisticalTest.Input.TwoSamples) {
+				@Override
+				public AbstractTestResult perform(StatisticsBackend backend, double[] x, double[] y) {
+					return backend.testWilcoxonSignedRank(x, y);
+				}
+			};
+		case "RepeatedMeasuresOneWayANOVA":
+			return new BuiltInTest(name, StatisticalTest.Input.MultipleSamples) {
+				@Override
+				public AbstractTestResult perform(StatisticsBackend backend, double[][] values) {
+					return backend.testRepeatedMeasuresOneWayANOVA(values);
+				}
+
+				@Override
+				public EnumSet<SufficientStatistics.Part> getRequiredStatistics() {
+					return EnumSet.of(SufficientStatistics.Part.Contrasts);
+				}
+
+				@Override
+				public AbstractTestResult perform(JavaStatistics backend, SufficientStatistics statistics) {
+					return backend.testRepeatedMeasuresOneWayANOVA(statistics);
+				}
+			};
+		case "PairwiseDependentT":
+			return new BuiltInTest(name, StatisticalTest.Input.MultipleSamples) {
+				@Override
+				public AbstractTestResult perform(StatisticsBackend backend, double[][] values) {
+					return backend.testPairwiseDependentT(values);
+				}
+			};
+		case "Tukey":
+			return new BuiltInTest(name, StatisticalTest.Input.MultipleSamples) {
+				@Override
+				public AbstractTestResult perform(StatisticsBackend backend, double[][] values) {
+					return backend.testTukey(values);
+				}
+
+				@Override
+				public EnumSet<SufficientStatistics.Part> getRequiredStatistics() {
+					return EnumSet.noneOf(SufficientStatistics.Part.class);
+				}
+
+				@Override
+				public AbstractTestResult perform(JavaStatistics backend, SufficientStatistics statistics) {
+					return backend.testTukey(statistics);
+				}
+			};
+		case "Dunett":
+			return new BuiltInTest(name, StatisticalTest.Input.MultipleSamples) {
+				@Override
+				public AbstractTestResult perform(StatisticsBackend backend, double[][] values) {
+					return backend.testDunett(values);
+				}
+
+				@Override
+				public EnumSet<SufficientStatistics.Part> getRequiredStatistics() {
+					return EnumSet.noneOf(SufficientStatistics.Part.class);
+				}
+
+				@Override
+				public AbstractTestResult perform(JavaStatistics backend, SufficientStatistics statistics) {
+					return backend.testDunett(statistics);
+				}
+			};
+		case "Friedman":
+			return new BuiltInTest(name, StatisticalTest.Input.MultipleSamples) {
+				@Override
+				public AbstractTestResult perform(StatisticsBackend backend, double[][] values) {
+					return backend.testFriedman(values);
+				}
+
+				@Override
+				public EnumSet<SufficientStatistics.Part> getRequiredStatistics() {
+					return EnumSet.of(SufficientStatistics.Part.Ranks);
+				}
+
+				@Override
+				public AbstractTestResult perform(JavaStatistics backend, SufficientStatistics statistics) {
+					return backend.testFriedman(statistics);
+				}
+			};
+		case "Nemenyi":
+			return new BuiltInTest(name, StatisticalTest.Input.MultipleSamples) {
+				@Override
+				public AbstractTestResult perform(StatisticsBackend backend, double[][] values) {
+					return backend.testNemenyi(values);
+				}
+
+				@Override
+				public EnumSet<SufficientStatistics.Part> getRequiredStatistics() {
+					return EnumSet.of(SufficientStatistics.Part.Ranks);
+				}
+
+				@Override
+				public AbstractTestResult perform(JavaStatistics backend, SufficientStatistics statistics) {
+					return backend.testNemenyi(statistics);
+				}
+			};
+		case "PairwiseWilcoxonSignedRank":
+			return new BuiltInTest(name, StatisticalTest.Input.MultipleSamples) {
+				@Override
+				public AbstractTestResult perform(StatisticsBackend backend, double[][] values) {
+					return backend.testPairwiseWilcoxonSignedRank(values);
+				}
+			};
+		default:
+			throw new IllegalStateException("No handler for the built-in test " + name + ".");
+		}
+	}
+
+	/**
+	 * Built-in tests are part of the library of tests in R
+	 */
+	private static abstract class BuiltInTest extends StatisticalTest {
+
+		BuiltInTest(String name, StatisticalTest.Input input) {
+			super(name, input);
+		}
+
+		@Override
+		public boolean isInRLibrary() {
+			return true;
+		}
+	}
+
+}
@@ -18,15 +18,36 @@ package de.tudarmstadt.tk.statistics.unittest;
  * limitations under the License.
  */
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import de.tudarmstadt.tk.statistics.config.StatsConfig;
+import de.tudarmstadt.tk.statistics.config.ReportTypes;
 import de.tudarmstadt.tk.statistics.config.StatsConfigConstants;
+import de.tudarmstadt.tk.statistics.importer.ExternalResultsReader;
+import de.tudarmstadt.tk.statistics.report.EvaluationResults;
+import de.tudarmstadt.tk.statistics.report.ResultsQueue;
+import de.tudarmstadt.tk.statistics.test.BatchEvaluator;
+import de.tudarmstadt.tk.statistics.test.IncrementalEvaluation;
+import de.tudarmstadt.tk.statistics.test.SampleData;
 import de.tudarmstadt.tk.statistics.test.StatsProcessor;
+import de.tudarmstadt.tk.statistics.test.TestResult;
 
 /**
  * Several methods reading different sorts of example data and demonstrating the different approaches of configuring STATSREP-ML 
@@ -35,6 +56,9 @@ import de.tudarmstadt.tk.statistics.test.StatsProcessor;
  */
 public class ExampleInputTester {
 	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
 	/*
 	 * The file contains performance samples for three classification algorithms and a fixed feature set.
 	 */
@@ -68,7 +92,7 @@ public class ExampleInputTester {
         int selectBestN = 10;
         String selectByMeasure = "Weighted F-Measure";
         
-        StatsConfig config = StatsConfig.getInstance(requiredTests, requiredCorrections, significanceLevels, selectBestN, selectByMeasure, fixIndependentVariable);
+        StatsConfig config = new StatsConfig(requiredTests, requiredCorrections, significanceLevels, selectBestN, selectByMeasure, fixIndependentVariable);
 
 		String csvPath = "src/main/resources/examples/CV.csv";
 		String outputPath = "src/main/resources/examples/";
@@ -83,7 +107,7 @@ public class ExampleInputTester {
 	public void testCVFeaturesBaseline(){
 		
         //Programmatic configuration, using default values
-		StatsConfig config = StatsConfig.getInstance();
+		StatsConfig config = StatsConfig.createDefault();
 
 		String csvPath = "src/main/resources/examples/CVFeaturesBaseline.csv";
 		String outputPath = "src/main/resources/examples/";
@@ -98,7 +122,7 @@ public class ExampleInputTester {
 	public void testCVClassifierBaseline(){
 		
 		//Read configuration from file and alter it slightly
-        StatsConfig config = StatsConfig.getInstance("config.xml");
+        StatsConfig config = new StatsConfig("config.xml");
 		config.setFixIndependentVariable(StatsConfigConstants.INDEPENDENT_VARIABLES_VALUES.Classifier);
 
 		String csvPath = "src/main/resources/examples/CVClassifierBaseline.csv";
@@ -114,7 +138,7 @@ public class ExampleInputTester {
 	@Test
 	public void testCVTwoIV(){
 		
-		StatsConfig config = StatsConfig.getInstance();
+		StatsConfig config = StatsConfig.createDefault();
 		config.setFixIndependentVariable(StatsConfigConstants.INDEPENDENT_VARIABLES_VALUES.FeatureSet);
 
 		String csvPath = "src/main/resources/examples/CV2IV.csv";
@@ -130,7 +154,7 @@ public class ExampleInputTester {
 	@Test
 	public void testTrainTestFeaturesBaseline(){
 		
-		StatsConfig config = StatsConfig.getInstance();
+		StatsConfig config = StatsConfig.createDefault();
 
 		String csvPath = "src/main/resources/examples/TrainTestFeaturesBaseline.csv";
 		String outputPath = "src/main/resources/examples/";
@@ -138,4 +162,126 @@ public class ExampleInputTester {
 		
 	}
 
+	/*
+	 * Several files are evaluated in a batch, listed in a manifest. Completed files are recorded in a journal and skipped when the batch is restarted.
+	 */
+	@Test
+	public void testBatch() throws IOException{
+		
+		StatsConfig config = StatsConfig.createDefault();
+
+		File manifest = folder.newFile("manifest.txt");
+		String examples = new File("src/main/resources/examples/").getAbsolutePath();
+		Files.write(manifest.toPath(), Arrays.asList(
+				"# Examples evaluated with the default configuration",
+				examples + "/CVFeaturesBaseline.csv;CV",
+				examples + "/TrainTestFeaturesBaseline.csv;TrainTest",
+				"missing.csv"), StandardCharsets.UTF_8);
+		
+		List<BatchEvaluator.Input> inputs = BatchEvaluator.readManifest(manifest.getPath());
+		Assert.assertEquals(3, inputs.size());
+		
+		String outputPath = folder.newFolder("reports").getPath();
+		BatchEvaluator batch = new BatchEvaluator(config, outputPath, ';', 2);
+		Assert.assertEquals(1, batch.evaluate(inputs));
+		List<String> journal = Files.readAllLines(new File(outputPath, BatchEvaluator.JOURNAL).toPath(), StandardCharsets.UTF_8);
+		Assert.assertEquals(2, journal.size());
+		
+		// Only the missing file is evaluated again
+		Assert.assertEquals(1, batch.evaluate(inputs));
+		journal = Files.readAllLines(new File(outputPath, BatchEvaluator.JOURNAL).toPath(), StandardCharsets.UTF_8);
+		Assert.assertEquals(2, journal.size());
+		
+	}
+
+	/*
+	 * The results of the splits are consumed on another thread as they become available, instead of being written to reports.
+	 * The file is split into two evaluations, one per feature set.
+	 */
+	@Test
+	public void testStreaming() throws Exception{
+		
+		StatsConfig config = StatsConfig.createDefault();
+		config.setFixIndependentVariable(StatsConfigConstants.INDEPENDENT_VARIABLES_VALUES.FeatureSet);
+		final StatsProcessor stats = new StatsProcessor(config);
+		final ResultsQueue queue = new ResultsQueue(1);
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Future<Boolean> evaluation = executor.submit(new Callable<Boolean>() {
+			@Override
+			public Boolean call() {
+				return stats.evaluate("src/main/resources/examples/CV2IV.csv", ';', ReportTypes.CV, new HashMap<String, Integer>(), queue);
+			}
+		});
+		
+		int splits = 0;
+		EvaluationResults results;
+		while ((results = queue.take()) != null) {
+			Assert.assertFalse(results.getMeasures().isEmpty());
+			splits++;
+		}
+		Assert.assertTrue(evaluation.get());
+		Assert.assertEquals(2, splits);
+		// Without plots configured, reports never start R
+		Assert.assertEquals(StatsConfigConstants.BACKEND_VALUES.Java, stats.getPlottingBackend().getBackendType());
+		executor.shutdown();
+		stats.close();
+		
+	}
+
+	/*
+	 * The folds of a running cross-validation are appended to the file while it is evaluated. Each update reads the new rows only
+	 * and arrives at the results of evaluating the complete file at once.
+	 */
+	@Test
+	public void testIncremental() throws IOException{
+		
+		StatsConfig config = StatsConfig.createDefault();
+		List<String> lines = Files.readAllLines(new File("src/main/resources/examples/CV.csv").toPath(), StandardCharsets.UTF_8);
+		File file = folder.newFile("CV.csv");
+		
+		// The first six of ten folds of all models
+		List<String> folds = new ArrayList<String>();
+		List<String> first = new ArrayList<String>();
+		List<String> rest = new ArrayList<String>();
+		for (String line : lines) {
+			String fold = line.split(";")[0];
+			if (!folds.contains(fold)) {
+				folds.add(fold);
+			}
+			(folds.indexOf(fold) < 6 ? first : rest).add(line);
+		}
+		Files.write(file.toPath(), first, StandardCharsets.UTF_8);
+		
+		IncrementalEvaluation evaluation = new IncrementalEvaluation(config, file.getPath(), ';', ReportTypes.CV, new HashMap<String, Integer>());
+		List<EvaluationResults> results = evaluation.update();
+		Assert.assertEquals(1, results.size());
+		Assert.assertEquals(6, results.get(0).getSampleData().getnFolds());
+		
+		// An incomplete row is not read yet
+		Files.write(file.toPath(), rest.get(0).substring(0, 20).getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+		Assert.assertSame(results.get(0), evaluation.update().get(0));
+		
+		StringBuilder appended = new StringBuilder(rest.get(0).substring(20)).append('\n');
+		for (String line : rest.subList(1, rest.size())) {
+			appended.append(line).append('\n');
+		}
+		Files.write(file.toPath(), appended.toString().getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+		results = evaluation.update();
+		Assert.assertEquals(10, results.get(0).getSampleData().getnFolds());
+		evaluation.close();
+		
+		StatsProcessor stats = new StatsProcessor(config);
+		SampleData sampleData = ExternalResultsReader.interpretCSV(config, ExternalResultsReader.readCSV("src/main/resources/examples/CV.csv", ';'), ReportTypes.CV, new HashMap<String, Integer>());
+		EvaluationResults expected = stats.performStatisticalEvaluation(sampleData);
+		stats.close();
+		for (String measure : expected.getMeasures()) {
+			TestResult friedman = (TestResult) expected.getNonParametricTestResults().get(measure).getValue();
+			TestResult anova = (TestResult) expected.getParametricTestResults().get(measure).getValue();
+			Assert.assertEquals(friedman.getStatistic(), ((TestResult) results.get(0).getNonParametricTestResults().get(measure).getValue()).getStatistic(), 1e-9);
+			Assert.assertEquals(anova.getpValue(), ((TestResult) results.get(0).getParametricTestResults().get(measure).getValue()).getpValue(), 1e-9);
+		}
+		
+	}
+
 }
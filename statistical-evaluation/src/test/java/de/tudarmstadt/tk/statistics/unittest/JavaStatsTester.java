@@ -0,0 +1,476 @@
+package de.tudarmstadt.tk.statistics.unittest;
+
+/**
+ * Copyright 2014
+ * Telecooperation (TK) Lab
+ * Technische Universit�t Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.tudarmstadt.tk.statistics.config.StatsConfigConstants;
+import de.tudarmstadt.tk.statistics.numerics.SignedRank;
+import de.tudarmstadt.tk.statistics.numerics.StudentizedRange;
+import de.tudarmstadt.tk.statistics.test.JavaStatistics;
+import de.tudarmstadt.tk.statistics.test.PairwiseDifferences;
+import de.tudarmstadt.tk.statistics.test.PairwiseTestResult;
+import de.tudarmstadt.tk.statistics.test.SufficientStatistics;
+import de.tudarmstadt.tk.statistics.test.TestRegistry;
+import de.tudarmstadt.tk.statistics.test.TestResult;
+
+/**
+ * Test cases for performing statistical tests with the in-process Java
+ * backend. Expected values are taken from the equivalent tests in R, cf.
+ * {@link RStatsTester}. Unlike those, these tests do not require R.
+ *
+ * @author Guckelsberger, Schulz
+ */
+public class JavaStatsTester {
+
+	private final double EPSILON = 0.001;
+
+	@Test
+	public void testFriedman() {
+
+		/*
+		 * Example from: Japkowicz/Shah (2011), Evaluating Learning Algorithms.
+		 * Pages 255 ff. Individual performance results of different classifiers
+		 * (rows) over different domains (columns)
+		 */
+		double[] classifierA = { 85.83, 85.91, 86.12, 85.82, 86.28, 86.42, 85.91, 86.10, 85.95, 86.12 };
+		double[] classifierB = { 75.86, 73.18, 69.08, 74.05, 74.71, 65.90, 76.25, 75.10, 70.50, 73.95 };
+		double[] classifierC = { 84.19, 85.91, 83.83, 85.11, 86.38, 81.20, 86.38, 86.75, 88.03, 87.18 };
+		double[][] classifiers = { classifierA, classifierB, classifierC };
+
+		JavaStatistics stats = new JavaStatistics();
+		TestResult r = stats.testFriedman(classifiers);
+
+		Assert.assertEquals(0.0005531, r.getpValue(), EPSILON);
+		Assert.assertEquals(2, r.getParameter().get("df"), 0);
+	}
+
+	@Test
+	public void testFriedmanTies() {
+
+		/*
+		 * Example from: Hollander & Wolfe (1973), p. 140 ff., as in the R
+		 * documentation of friedman.test. Times of 22 baseball players
+		 * (columns) for rounding first base with three methods (rows).
+		 */
+		double[] roundOut = { 5.40, 5.85, 5.20, 5.55, 5.90, 5.45, 5.40, 5.45, 5.25, 5.85, 5.25, 5.65, 5.60, 5.05, 5.50, 5.45, 5.55, 5.45, 5.50, 5.65, 5.70, 6.30 };
+		double[] narrowAngle = { 5.50, 5.70, 5.60, 5.50, 5.85, 5.55, 5.40, 5.50, 5.15, 5.80, 5.20, 5.55, 5.35, 5.00, 5.50, 5.55, 5.55, 5.50, 5.45, 5.60, 5.65, 6.30 };
+		double[] wideAngle = { 5.55, 5.75, 5.50, 5.40, 5.70, 5.60, 5.35, 5.35, 5.00, 5.70, 5.10, 5.45, 5.45, 4.95, 5.40, 5.50, 5.35, 5.55, 5.25, 5.40, 5.55, 6.25 };
+		double[][] methods = { roundOut, narrowAngle, wideAngle };
+
+		JavaStatistics stats = new JavaStatistics();
+		TestResult r = stats.testFriedman(methods);
+
+		Assert.assertEquals(11.143, r.getStatistic(), EPSILON);
+		Assert.assertEquals(0.003805, r.getpValue(), EPSILON);
+	}
+
+	@Test
+	public void testNemenyi() {
+
+		/*
+		 * Example from: Japkowicz/Shah (2011), Evaluating Learning Algorithms.
+		 * Pages 255 ff. Individual performance results of different classifiers
+		 * (rows) over different domains (columns)
+		 */
+		double[] classifierA = { 85.83, 85.91, 86.12, 85.82, 86.28, 86.42, 85.91, 86.10, 85.95, 86.12 };
+		double[] classifierB = { 75.86, 73.18, 69.08, 74.05, 74.71, 65.90, 76.25, 75.10, 70.50, 73.95 };
+		double[] classifierC = { 84.19, 85.91, 83.83, 85.11, 86.38, 81.20, 86.38, 86.75, 88.03, 87.18 };
+		double[][] classifiers = { classifierA, classifierB, classifierC };
+
+		JavaStatistics stats = new JavaStatistics();
+		PairwiseTestResult r = stats.testNemenyi(classifiers);
+
+		double[][] actual = r.getpValue();
+		Assert.assertTrue(actual[0][0] <= 0.05);
+		Assert.assertTrue(actual[1][0] > 0.05);
+		Assert.assertTrue(actual[1][1] <= 0.05);
+		Assert.assertTrue(Double.isNaN(actual[0][1]));
+		Assert.assertEquals(0.2236, r.getStatistic()[1][0], EPSILON);
+		Assert.assertFalse(r.getRequiresPValueCorrection());
+	}
+
+	@Test
+	public void testNemenyi2() {
+
+		/*
+		 * Example from: Zar, J. H. (2010), Biostatistical Analysis, Pages 216,
+		 * 241. Distribution of flies (rows) in three different vegetation
+		 * layers (columns)
+		 */
+		double[] herbs = { 14, 12.1, 9.6, 8.2, 10.2 };
+		double[] shrubs = { 8.4, 5.1, 5.5, 6.6, 6.3 };
+		double[] trees = { 6.9, 7.3, 5.8, 4.1, 5.4 };
+		double[][] flies = { herbs, shrubs, trees };
+
+		JavaStatistics stats = new JavaStatistics();
+		PairwiseTestResult r = stats.testNemenyi(flies);
+
+		double[][] actual = r.getpValue();
+		Assert.assertTrue(actual[0][0] <= 0.1);
+		Assert.assertTrue(actual[1][0] <= 0.05);
+		Assert.assertTrue(actual[1][1] > 0.05);
+	}
+
+	@Test
+	public void testMcNemar() {
+
+		/*
+		 * Example from: Japkowicz/Shah (2011), Evaluating Learning Algorithms.
+		 * Pages 226 ff.
+		 */
+		int[][] contingencies = { { 4, 11 }, { 2, 40 } };
+
+		JavaStatistics stats = new JavaStatistics();
+		TestResult r = stats.testMcNemar(contingencies);
+
+		Assert.assertEquals(0.0265, r.getpValue(), EPSILON);
+		Assert.assertEquals(64 / 13.0, r.getStatistic(), 1e-12);
+	}
+
+	@Test
+	public void testKruskalWallis() {
+
+		/*
+		 * Example from: Hollander & Wolfe (1973), 116. Mucociliary efficiency
+		 * from the rate of removal of dust in normal subjects, subjects with
+		 * obstructive airway disease, and subjects with asbestosis.
+		 */
+
+		double[] sampleA = { 2.9, 3.0, 2.5, 2.6, 3.2 }; // normal subjects
+		double[] sampleB = { 3.8, 2.7, 4.0, 2.4, Double.NaN }; // with
+																// obstructive
+																// airway
+																// disease
+		double[] sampleC = { 2.8, 3.4, 3.7, 2.2, 2.0 }; // with asbestosis
+		double[][] samples = { sampleA, sampleB, sampleC };
+
+		JavaStatistics stats = new JavaStatistics();
+		TestResult r = stats.testKruskalWallis(samples);
+
+		Assert.assertEquals(0.68, r.getpValue(), EPSILON);
+		Assert.assertEquals(0.7714, r.getStatistic(), EPSILON);
+	}
+
+	@Test
+	public void testMannWhitneyU() {
+
+		/*
+		 * Example from: Field/Miles/Field (2012), 655ff. (Made up) depressant
+		 * effects of recreational drugs (ecstasy/alcohol)
+		 */
+
+		double[] sampleA = { 15, 35, 16, 18, 19, 17, 27, 16, 13, 20 }; // ecstasy
+		double[] sampleB = { 16, 15, 20, 15, 16, 13, 14, 19, 18, 18 }; // alcohol
+
+		JavaStatistics stats = new JavaStatistics();
+		TestResult r = stats.testMannWhitneyU(sampleA, sampleB);
+
+		Assert.assertEquals(0.2861, r.getpValue(), EPSILON);
+		Assert.assertEquals(64.5, r.getStatistic(), EPSILON);
+
+		// Example from the documentation of wilcox.test in R, without ties
+		double[] x = { 0.80, 0.83, 1.89, 1.04, 1.45, 1.38, 1.91, 1.64, 0.73, 1.46 };
+		double[] y = { 1.15, 0.88, 0.90, 0.74, 1.21 };
+		r = stats.testMannWhitneyU(x, y);
+		Assert.assertEquals("Wilcoxon rank sum exact test", r.getMethod());
+		Assert.assertEquals(35, r.getStatistic(), EPSILON);
+		Assert.assertEquals(0.2544, r.getpValue(), EPSILON);
+	}
+
+	@Test
+	public void testWilcoxonSignedRank() {
+
+		/*
+		 * Example from: Field/Miles/Field (2012), 655ff. (Made up) depressant
+		 * effects of ecstasy consumed on different days
+		 */
+
+		double[] sampleA = { 15, 35, 16, 18, 19, 17, 27, 16, 13, 20 }; // on a
+																		// sunday
+		double[] sampleB = { 28, 35, 35, 24, 39, 32, 27, 29, 36, 35 }; // on a
+																		// monday
+
+		JavaStatistics stats = new JavaStatistics();
+		TestResult r = stats.testWilcoxonSignedRank(sampleA, sampleB);
+
+		Assert.assertEquals(0.01151, r.getpValue(), EPSILON);
+	}
+
+	@Test
+	public void testWilcoxonSignedRankExact() {
+
+		/*
+		 * Example from: Hollander & Wolfe (1973), 29f., as in the R
+		 * documentation of wilcox.test. Depression scale factor measurements
+		 * of patients at the first (x) and second (y) visit after initiation
+		 * of a therapy.
+		 */
+		double[] x = { 1.83, 0.50, 1.62, 2.48, 1.68, 1.88, 1.55, 3.06, 1.30 };
+		double[] y = { 0.878, 0.647, 0.598, 2.05, 1.06, 1.29, 1.06, 3.14, 1.29 };
+
+		JavaStatistics stats = new JavaStatistics();
+		TestResult r = stats.testWilcoxonSignedRank(x, y);
+
+		Assert.assertEquals(40, r.getStatistic(), 0);
+		Assert.assertEquals(0.03906, r.getpValue(), EPSILON);
+
+		// Normal approximation for the same data
+		r = new JavaStatistics(0).testWilcoxonSignedRank(x, y);
+		Assert.assertEquals(0.03832, r.getpValue(), EPSILON);
+
+		Assert.assertEquals(10 / 1024.0, SignedRank.psignrank(5, 10, true), 1e-12);
+		Assert.assertEquals(10 / 1024.0, SignedRank.psignrank(49, 10, false), 1e-12);
+	}
+
+	@Test
+	public void testPairwiseWilcoxonSignedRank() {
+
+		double[] baseline = { 1.83, 0.50, 1.62, 2.48, 1.68, 1.88, 1.55, 3.06, 1.30 };
+		double[] modelA = { 0.878, 0.647, 0.598, 2.05, 1.06, 1.29, 1.06, 3.14, 1.29 };
+		double[] modelB = { 15, 35, 16, 18, 19, 17, 27, 16, 13 };
+		double[][] models = { baseline, modelA, modelB };
+
+		JavaStatistics stats = new JavaStatistics();
+		PairwiseTestResult r = stats.testPairwiseWilcoxonSignedRank(models, true);
+
+		Assert.assertEquals(0.03906, r.getpValue()[0][0], EPSILON);
+		Assert.assertEquals(stats.testWilcoxonSignedRank(baseline, modelB).getpValue(), r.getpValue()[1][0], 0);
+		Assert.assertTrue(Double.isNaN(r.getpValue()[1][1]));
+		Assert.assertTrue(r.getRequiresPValueCorrection());
+
+		r = stats.testPairwiseWilcoxonSignedRank(models, false);
+		Assert.assertEquals(stats.testWilcoxonSignedRank(modelA, modelB).getpValue(), r.getpValue()[1][1], 0);
+	}
+
+	@Test
+	public void testRepeatedMeasuresOneWayANOVA() {
+
+		/*
+		 * Example from: Field/Miles/Field (2012), p. 563 ff. (Made up) time to
+		 * retch after consuming different food types
+		 */
+
+		double[] sampleA = { 8, 9, 6, 5, 8, 7, 10, 12 }; // Stick insect
+		double[] sampleB = { 7, 5, 2, 3, 4, 5, 2, 6 }; // Kangaroo testicle
+		double[] sampleC = { 1, 2, 3, 1, 5, 6, 7, 8 }; // Fish eye
+		double[] sampleD = { 6, 5, 8, 9, 8, 7, 2, 1 }; // Witchetty grub
+		double[][] samples = { sampleA, sampleB, sampleC, sampleD };
+
+		JavaStatistics stats = new JavaStatistics();
+		TestResult r = stats.testRepeatedMeasuresOneWayANOVA(samples);
+
+		Assert.assertEquals(0.025570, r.getpValue(), EPSILON);
+		Assert.assertEquals(3.794, r.getStatistic(), EPSILON);
+		Assert.assertEquals(3, r.getParameter().get("df"), 0);
+
+		TestResult sphericity = (TestResult) r.getAssumptions().get("Sphericity");
+		Assert.assertEquals(0.136, sphericity.getStatistic(), EPSILON);
+		Assert.assertEquals(0.047, sphericity.getpValue(), EPSILON);
+		Assert.assertEquals(0.063, sphericity.getParameter().get("p_{GG}"), EPSILON);
+		Assert.assertEquals(0.048, sphericity.getParameter().get("p_{HF}"), EPSILON);
+	}
+
+	@Test
+	public void testDependentT() {
+
+		/*
+		 * Example from: Field/Miles/Field (2012), p. 389 ff. (Made up) anxiety
+		 * raised by real and pictures of spiders
+		 */
+
+		double[] sampleA = { 30, 35, 45, 40, 50, 35, 55, 25, 30, 45, 40, 50 }; // real
+		double[] sampleB = { 40, 35, 50, 55, 65, 55, 50, 35, 30, 50, 60, 39 }; // pictures
+
+		JavaStatistics stats = new JavaStatistics();
+		TestResult r = stats.testDependentT(sampleA, sampleB);
+
+		Assert.assertEquals(0.03098, r.getpValue(), EPSILON);
+		Assert.assertEquals(-2.473, r.getStatistic(), EPSILON);
+		Assert.assertEquals(11, r.getParameter().get("df"), EPSILON);
+		Assert.assertNotNull(r.getAssumptions().get("Normality"));
+	}
+
+	@Test
+	public void testPairwiseT() {
+
+		/*
+		 * Example from: Field/Miles/Field (2012), p. 563 ff. (Made up) time to
+		 * retch after consuming different food types
+		 */
+
+		double[] sampleA = { 8, 9, 6, 5, 8, 7, 10, 12 }; // Stick insect
+		double[] sampleB = { 7, 5, 2, 3, 4, 5, 2, 6 }; // Kangaroo testicle
+		double[] sampleC = { 1, 2, 3, 1, 5, 6, 7, 8 }; // Fish eye
+		double[] sampleD = { 6, 5, 8, 9, 8, 7, 2, 1 }; // Witchetty grub
+		double[][] samples = { sampleA, sampleB, sampleC, sampleD };
+
+		JavaStatistics stats = new JavaStatistics();
+		PairwiseTestResult r = stats.testPairwiseDependentT(samples);
+
+		double[][] expected = { { 0.00202 }, { 0.00094, 0.92007 }, { 0.22673, 0.29867, 0.40204 } };
+		double[][] actual = r.getpValue();
+		for (int i = 0; i < expected.length; i++) {
+			for (int j = 0; j < expected[i].length; j++) {
+				Assert.assertEquals(expected[i][j], actual[i][j], EPSILON);
+			}
+		}
+		Assert.assertTrue(Double.isNaN(actual[0][1]));
+
+		// The normality of each pairwise difference agrees with the single test
+		PairwiseTestResult normality = (PairwiseTestResult) r.getAssumptions().get("Normality");
+		TestResult single = (TestResult) stats.testDependentT(sampleD, sampleB).getAssumptions().get("Normality");
+		Assert.assertEquals(single.getpValue(), normality.getpValue()[2][1], 1e-12);
+		Assert.assertEquals(single.getStatistic(), normality.getStatistic()[2][1], 1e-12);
+	}
+
+	@Test
+	public void testPairwiseDifferences() {
+
+		double[] sampleA = { 8, 9, 6, 5, 8, 7, 10, 12 };
+		double[] sampleB = { 7, 5, 2, Double.NaN, 4, 5, 2, 6 };
+		double[] sampleC = { 1, 2, 3, 1, 5, 6, 7, 8 };
+		double[][] samples = { sampleA, sampleB, sampleC };
+
+		PairwiseDifferences differences = new PairwiseDifferences(samples);
+		Assert.assertEquals(3, differences.getModels());
+
+		// Folds missing for either model are omitted, either order may be used
+		Assert.assertArrayEquals(new double[] { 1, 4, 4, 4, 2, 8, 6 }, differences.get(0, 1), 1e-12);
+		Assert.assertArrayEquals(new double[] { -1, -4, -4, -4, -2, -8, -6 }, differences.get(1, 0), 1e-12);
+		Assert.assertArrayEquals(new double[] { 7, 7, 3, 4, 3, 1, 3, 4 }, differences.get(0, 2), 1e-12);
+
+		// All pairs agree with the normality check of the dependent t-test
+		JavaStatistics stats = new JavaStatistics();
+		PairwiseTestResult normality = differences.testNormality();
+		Assert.assertEquals("W", normality.getStatisticType());
+		for (int c1 = 1; c1 < samples.length; c1++) {
+			for (int c = 0; c < c1; c++) {
+				TestResult single = (TestResult) stats.testDependentT(samples[c], samples[c1]).getAssumptions().get("Normality");
+				Assert.assertEquals(single.getpValue(), normality.getpValue()[c1 - 1][c], 1e-12);
+				Assert.assertEquals(single.getStatistic(), normality.getStatistic()[c1 - 1][c], 1e-12);
+			}
+		}
+		Assert.assertTrue(Double.isNaN(normality.getpValue()[0][1]));
+	}
+
+	@Test
+	public void testTukeyAndDunnett() {
+
+		/*
+		 * Example from: Field/Miles/Field (2012), p. 563 ff. (Made up) time to
+		 * retch after consuming different food types
+		 */
+
+		double[] sampleA = { 8, 9, 6, 5, 8, 7, 10, 12 }; // Stick insect
+		double[] sampleB = { 7, 5, 2, 3, 4, 5, 2, 6 }; // Kangaroo testicle
+		double[] sampleC = { 1, 2, 3, 1, 5, 6, 7, 8 }; // Fish eye
+		double[] sampleD = { 6, 5, 8, 9, 8, 7, 2, 1 }; // Witchetty grub
+		double[][] samples = { sampleA, sampleB, sampleC, sampleD };
+
+		JavaStatistics stats = new JavaStatistics();
+		PairwiseTestResult tukey = stats.testTukey(samples);
+		PairwiseTestResult dunnett = stats.testDunett(samples);
+
+		// Mean difference of B and A over the standard error sqrt(2*MSE/n),
+		// with MSE=153.375/21 from the ANOVA
+		Assert.assertEquals(-2.868, tukey.getStatistic()[0][0], EPSILON);
+		Assert.assertEquals(StudentizedRange.ptukey(2.8676 * Math.sqrt(2), 4, Double.POSITIVE_INFINITY, false), tukey.getpValue()[0][0], EPSILON);
+		Assert.assertTrue(Double.isNaN(tukey.getpValue()[0][1]));
+		Assert.assertEquals(0.0, tukey.getStatistic()[2][2] + tukey.getStatistic()[1][1] - tukey.getStatistic()[2][1], 1e-12);
+
+		// Comparisons with the baseline only
+		Assert.assertEquals(tukey.getStatistic()[2][0], dunnett.getStatistic()[2][0], 1e-12);
+		Assert.assertTrue(Double.isNaN(dunnett.getpValue()[1][1]));
+		Assert.assertTrue(dunnett.getpValue()[0][0] < tukey.getpValue()[0][0]);
+	}
+
+	@Test
+	public void testSufficientStatistics() {
+
+		// Samples of testTukeyAndDunnett with an incomplete fold
+		double[][] samples = { { 8, 9, 6, 5, 8, 7, 10, 12 }, { 7, 5, Double.NaN, 3, 4, 5, 2, 6 }, { 1, 2, 3, 1, 5, 6, 7, 8 }, { 6, 5, 8, 9, 8, 7, 2, 1 } };
+		double[][] firstFolds = new double[samples.length][];
+		for (int i = 0; i < samples.length; i++) {
+			firstFolds[i] = Arrays.copyOf(samples[i], 5);
+		}
+		// Folds measured for some of the models only are added later
+		firstFolds[0] = Arrays.copyOf(samples[0], 7);
+
+		SufficientStatistics statistics = new SufficientStatistics(samples.length, EnumSet.allOf(SufficientStatistics.Part.class));
+		Assert.assertEquals(5, statistics.update(firstFolds));
+		Assert.assertEquals(4, statistics.getFolds());
+		SufficientStatistics snapshot = statistics.copy();
+		Assert.assertEquals(3, statistics.update(samples));
+		Assert.assertEquals(8, statistics.getColumns());
+		Assert.assertEquals(7, statistics.getFolds());
+		Assert.assertEquals(4, snapshot.getFolds());
+
+		// The updated statistics reproduce the tests on all samples exactly
+		JavaStatistics stats = new JavaStatistics();
+		TestResult friedman = stats.testFriedman(samples);
+		Assert.assertEquals(friedman.getStatistic(), stats.testFriedman(statistics).getStatistic(), 0);
+		Assert.assertEquals(friedman.getpValue(), stats.testFriedman(statistics).getpValue(), 0);
+		TestResult anova = stats.testRepeatedMeasuresOneWayANOVA(samples);
+		TestResult updatedAnova = stats.testRepeatedMeasuresOneWayANOVA(statistics);
+		Assert.assertEquals(anova.getpValue(), updatedAnova.getpValue(), 0);
+		Assert.assertEquals(((TestResult) anova.getAssumptions().get("Sphericity")).getpValue(), ((TestResult) updatedAnova.getAssumptions().get("Sphericity")).getpValue(), 0);
+		Assert.assertArrayEquals(stats.testNemenyi(samples).getpValue()[2], stats.testNemenyi(statistics).getpValue()[2], 0);
+		Assert.assertArrayEquals(stats.testTukey(samples).getStatistic()[1], stats.testTukey(statistics).getStatistic()[1], 0);
+		Assert.assertArrayEquals(stats.testDunett(samples).getpValue()[2], stats.testDunett(statistics).getpValue()[2], 0);
+
+		// Too few folds, or parts not computed
+		Assert.assertNull(stats.testTukey(new SufficientStatistics(new double[][] { { 1 }, { 2 }, { 3 } }, EnumSet.allOf(SufficientStatistics.Part.class))));
+		Assert.assertNull(stats.testFriedman(new SufficientStatistics(samples, EnumSet.of(SufficientStatistics.Part.Contrasts))));
+		Assert.assertTrue(TestRegistry.getDefault().get(StatsConfigConstants.TEST_CLASSES.MultipleSamplesNonParametric, "Friedman").supportsSufficientStatistics());
+	}
+
+	@Test
+	public void testAdjustP() {
+
+		// P-values of the pairwise dependent t-test of the example in
+		// RStatsTester.testPairwiseT, NaNs in the upper triangle
+		double[][] pValues = { { 0.00202, Double.NaN, Double.NaN }, { 0.00094, 0.92007, Double.NaN }, { 0.22673, 0.29867, 0.40204 } };
+		PairwiseTestResult r = new PairwiseTestResult("Pairwise t-test", new HashMap<String, Double>(), pValues, null);
+
+		JavaStatistics stats = new JavaStatistics();
+		double[][] expected = { { 0.0121 }, { 0.0056, 1 }, { 1, 1, 1 } };
+		double[][] actual = stats.adjustP(r, StatsConfigConstants.CORRECTION_VALUES.bonferroni);
+		for (int i = 0; i < expected.length; i++) {
+			for (int j = 0; j < expected[i].length; j++) {
+				Assert.assertEquals(expected[i][j], actual[i][j], EPSILON);
+			}
+		}
+		Assert.assertTrue(Double.isNaN(actual[0][1]));
+
+		// Reference values from p.adjust in R
+		HashMap<StatsConfigConstants.CORRECTION_VALUES, double[][]> all = stats.adjustP(r, Arrays.asList(StatsConfigConstants.CORRECTION_VALUES.values()));
+		Assert.assertEquals(0.01010, all.get(StatsConfigConstants.CORRECTION_VALUES.holm)[0][0], EPSILON);
+		Assert.assertEquals(0.92007, all.get(StatsConfigConstants.CORRECTION_VALUES.hochberg)[1][1], EPSILON);
+		Assert.assertEquals(0.01010, all.get(StatsConfigConstants.CORRECTION_VALUES.hommel)[0][0], EPSILON);
+		Assert.assertEquals(0.00606, all.get(StatsConfigConstants.CORRECTION_VALUES.BH)[0][0], EPSILON);
+		Assert.assertEquals(0.01485, all.get(StatsConfigConstants.CORRECTION_VALUES.BY)[0][0], EPSILON);
+	}
+
+}
@@ -0,0 +1,72 @@
+package de.tudarmstadt.tk.statistics.unittest;
+
+/**
+ * Copyright 2014
+ * Telecooperation (TK) Lab
+ * Technische Universit�t Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.tudarmstadt.tk.statistics.helper.Metrics;
+
+/**
+ * Test cases for recording and exporting latencies and counters with
+ * {@link Metrics}.
+ *
+ * @author Guckelsberger, Schulz
+ */
+public class MetricsTester {
+
+	@Test
+	public void testMetrics() {
+
+		Metrics metrics = new Metrics();
+		for (int i = 1; i <= 100; i++) {
+			// 1 ms to 100 ms
+			metrics.recordCall("Friedman", "Java", i * 1000000L, i == 100);
+		}
+		metrics.recordCall("Friedman", "R", 5000000L, false);
+		metrics.recordPhase("import", 2000000L);
+		metrics.setCounter("r_evaluations", 42);
+
+		Assert.assertEquals(100, metrics.getCallCount("Friedman", "Java"));
+		Assert.assertEquals(1, metrics.getFailures("Friedman", "Java"));
+		Assert.assertEquals(1, metrics.getCallCount("Friedman", "R"));
+		Assert.assertEquals(0, metrics.getCallCount("Nemenyi", "Java"));
+
+		// Quantiles are exact up to the resolution of the buckets (powers of
+		// two)
+		double p50 = metrics.getLatency("Friedman", "Java", 0.5);
+		double p99 = metrics.getLatency("Friedman", "Java", 0.99);
+		Assert.assertTrue(p50 >= 25 && p50 <= 100);
+		Assert.assertTrue(p99 >= 64 && p99 <= 132);
+		Assert.assertTrue(p50 <= p99);
+		Assert.assertEquals(2, metrics.getPhaseTime("import"), 1e-9);
+
+		JSONObject json = new JSONObject(metrics.toJSON());
+		Assert.assertEquals(100, json.getJSONObject("tests").getJSONObject("Friedman").getJSONObject("Java").getLong("count"));
+		Assert.assertEquals(42, json.getJSONObject("counters").getLong("r_evaluations"));
+
+		String prometheus = metrics.toPrometheus();
+		Assert.assertTrue(prometheus.contains("# TYPE statistics_test_duration_seconds summary"));
+		Assert.assertTrue(prometheus.contains("statistics_test_duration_seconds_count{test=\"Friedman\",backend=\"Java\"} 100"));
+		Assert.assertTrue(prometheus.contains("statistics_test_failures_total{test=\"Friedman\",backend=\"Java\"} 1"));
+		Assert.assertTrue(prometheus.contains("statistics_phase_duration_seconds_sum{phase=\"import\"} 0.002000000"));
+		Assert.assertTrue(prometheus.contains("statistics_r_evaluations_total 42"));
+	}
+}
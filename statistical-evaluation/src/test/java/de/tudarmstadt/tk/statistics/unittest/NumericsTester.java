@@ -0,0 +1,203 @@
+package de.tudarmstadt.tk.statistics.unittest;
+
+/**
+ * Copyright 2014
+ * Telecooperation (TK) Lab
+ * Technische Universit�t Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.tudarmstadt.tk.statistics.numerics.Distributions;
+import de.tudarmstadt.tk.statistics.numerics.MultivariateT;
+import de.tudarmstadt.tk.statistics.numerics.RankSum;
+import de.tudarmstadt.tk.statistics.numerics.ShapiroWilk;
+import de.tudarmstadt.tk.statistics.numerics.SignedRank;
+import de.tudarmstadt.tk.statistics.numerics.SpecialFunctions;
+import de.tudarmstadt.tk.statistics.numerics.StudentizedRange;
+
+/**
+ * Accuracy tests of the numerical distributions underlying the Java backend.
+ * Expected values are computed with the equivalent functions in R, e.g.
+ * pt(2, 5) for {@link Distributions#pt(double, double, boolean)}.
+ *
+ * @author Guckelsberger, Schulz
+ */
+public class NumericsTester {
+
+	// Relative accuracy of values given with seven significant digits
+	private final double RELATIVE = 1e-6;
+
+	@Test
+	public void testNormal() {
+		assertRelative(7.619853e-24, Distributions.pnorm(-10, 0, 1, true));
+		assertRelative(7.619853e-24, Distributions.pnorm(10, 0, 1, false));
+		assertRelative(0.9750021, Distributions.pnorm(1.96, 0, 1, true));
+		assertRelative(1.959964, Distributions.qnorm(0.975, 0, 1, true));
+		assertRelative(-6.361341, Distributions.qnorm(1e-10, 0, 1, true));
+		assertRelative(6.361341, Distributions.qnorm(1e-10, 0, 1, false));
+		assertRelative(8.919928, Distributions.qnorm(0.975, 5, 2, true));
+	}
+
+	@Test
+	public void testStudentT() {
+		assertRelative(0.9490303, Distributions.pt(2, 5, true));
+		assertRelative(0.05096974, Distributions.pt(2, 5, false));
+		assertRelative(2.228139, Distributions.qt(0.975, 10, true));
+		assertRelative(-2.228139, Distributions.qt(0.025, 10, true));
+		assertRelative(2.228139, Distributions.qt(0.025, 10, false));
+		assertRelative(12.7062, Distributions.qt(0.975, 1, true));
+		Assert.assertEquals(0, Distributions.qt(0.5, 3, true), 0);
+	}
+
+	@Test
+	public void testChiSquaredAndF() {
+		assertRelative(3.454931e-05, Distributions.pchisq(100, 50, false));
+		assertRelative(3.841459, Distributions.qchisq(0.95, 1, true));
+		assertRelative(18.30704, Distributions.qchisq(0.05, 10, false));
+		assertRelative(0.9375, Distributions.pf(3, 4, 12, true));
+		assertRelative(4.102821, Distributions.qf(0.95, 2, 10, true));
+		assertRelative(2.71089, Distributions.qf(0.05, 5, 20, false));
+
+		// The regularized incomplete functions at the boundaries
+		Assert.assertEquals(0, SpecialFunctions.regularizedBeta(0, 2, 3), 0);
+		Assert.assertEquals(1, SpecialFunctions.regularizedBeta(1, 2, 3), 0);
+		Assert.assertEquals(1, SpecialFunctions.regularizedGammaP(2, 0) + SpecialFunctions.regularizedGammaQ(2, 0), 1e-15);
+	}
+
+	@Test
+	public void testQuantilesInvertDistributions() {
+		for (double p = 1e-12; p < 1; p = p < 0.01 ? p * 10 : p + 0.07) {
+			assertRelative(p, Distributions.pnorm(Distributions.qnorm(p, 0, 1, true), 0, 1, true));
+			assertRelative(p, Distributions.pt(Distributions.qt(p, 7, true), 7, true));
+			assertRelative(p, Distributions.pchisq(Distributions.qchisq(p, 3, false), 3, false));
+			assertRelative(p, Distributions.pf(Distributions.qf(p, 3, 17, false), 3, 17, false));
+		}
+	}
+
+	@Test
+	public void testRankDistributions() {
+		// pwilcox(3, 4, 5) and psignrank(3, 5) in R
+		assertRelative(7 / 126.0, RankSum.pwilcox(3, 4, 5, true));
+		assertRelative(5 / 32.0, SignedRank.psignrank(3, 5, true));
+
+		// Both distributions are symmetric
+		for (int q = 0; q < 20; q++) {
+			Assert.assertEquals(RankSum.pwilcox(q, 4, 5, true), RankSum.pwilcox(19 - q, 4, 5, false), 1e-15);
+			Assert.assertEquals(RankSum.pwilcox(q, 4, 5, true), RankSum.pwilcox(q, 5, 4, true), 1e-15);
+		}
+	}
+
+	@Test
+	public void testMultivariateT() {
+		// Critical value of the two-sided Dunnett distribution for two
+		// comparisons, cf. Dunnett (1955)
+		Assert.assertEquals(0.05, MultivariateT.pmaxabs(2.212, 2, 0.5, Double.POSITIVE_INFINITY, false), 0.001);
+
+		// A single variable follows the t distribution
+		Assert.assertEquals(Distributions.pt(-2, 9, true) * 2, MultivariateT.pmaxabs(2, 1, 0, 9, false), 1e-6);
+
+		// Product correlations with equal factors are equicorrelated
+		double lambda = Math.sqrt(0.5);
+		Assert.assertEquals(MultivariateT.pmaxabs(2.4, 3, 0.5, 12, true), MultivariateT.pmaxabs(2.4, new double[] { lambda, lambda, lambda }, 12, true), 1e-12);
+
+		// Uncorrelated normal variables are independent
+		double p = 2 * Distributions.pnorm(2, 0, 1, true) - 1;
+		Assert.assertEquals(p * p * p, MultivariateT.pmaxabs(2, new double[] { 0, 0, 0 }, Double.POSITIVE_INFINITY, true), 1e-8);
+	}
+
+	@Test
+	public void testShapiroWilk() {
+
+		// mpg of the mtcars data set in R: shapiro.test(mtcars$mpg) yields
+		// W = 0.94756, p-value = 0.1229
+		double[] mpg = { 21.0, 21.0, 22.8, 21.4, 18.7, 18.1, 14.3, 24.4, 22.8, 19.2, 17.8, 16.4, 17.3, 15.2, 10.4, 10.4, 14.7, 32.4, 30.4, 33.9, 21.5, 15.5, 15.2, 13.3, 19.2, 27.3, 26.0, 30.4, 15.8, 19.7, 15.0, 21.4 };
+		Arrays.sort(mpg);
+		double w = ShapiroWilk.statistic(mpg, mpg.length);
+		Assert.assertEquals(0.94756, w, 1e-5);
+		Assert.assertEquals(0.1229, ShapiroWilk.pValue(w, mpg.length), 1e-4);
+
+		// Exact p-value for three observations
+		double[] three = { 1, 2, 4 };
+		w = ShapiroWilk.statistic(three, 3);
+		Assert.assertEquals(6 / Math.PI * (Math.asin(Math.sqrt(w)) - Math.PI / 3), ShapiroWilk.pValue(w, 3), 1e-12);
+
+		// Constant samples cannot be tested
+		Assert.assertTrue(Double.isNaN(ShapiroWilk.statistic(new double[] { 1, 1, 1, 1 }, 4)));
+	}
+
+
+	@Test
+	public void testStudentizedRange() {
+
+		// Critical values of the studentized range for alpha=0.05, cf. the
+		// tables in Zar (2010), Appendix B.5, and qtukey in R
+		Assert.assertEquals(0.05, StudentizedRange.ptukey(2.771808, 2, Double.POSITIVE_INFINITY, false), 1e-6);
+		Assert.assertEquals(0.05, StudentizedRange.ptukey(3.314493, 3, Double.POSITIVE_INFINITY, false), 1e-6);
+		Assert.assertEquals(0.05, StudentizedRange.ptukey(3.877, 3, 10, false), 0.001);
+		Assert.assertEquals(0.05, StudentizedRange.ptukey(4.474, 10, Double.POSITIVE_INFINITY, false), 0.001);
+
+		// The quantiles invert the distribution function
+		assertRelative(3.876777, StudentizedRange.qtukey(0.95, 3, 10, true));
+		assertRelative(2.771808, StudentizedRange.qtukey(0.05, 2, Double.POSITIVE_INFINITY, false));
+
+		// The cached table agrees with the direct computation
+		for (double q = 0.01; q < 8; q += 0.037) {
+			Assert.assertEquals(StudentizedRange.ptukey(q, 5, 20, false), StudentizedRange.upperTail(q, 5, 20), 1e-5);
+		}
+	}
+
+	@Test
+	public void testConcurrentCaches() throws Exception {
+
+		// Several threads requesting the same new tables obtain the same
+		// values as a sequential computation
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<double[]>> futures = new ArrayList<Future<double[]>>();
+		for (int t = 0; t < 8; t++) {
+			futures.add(executor.submit(new Callable<double[]>() {
+				public double[] call() {
+					double[] p = new double[3];
+					p[0] = StudentizedRange.upperTail(3.1, 7, 13);
+					p[1] = RankSum.pwilcox(300, 23, 31, true);
+					p[2] = SignedRank.psignrank(200, 37, true);
+					return p;
+				}
+			}));
+		}
+		executor.shutdown();
+
+		double[] expected = { StudentizedRange.ptukey(3.1, 7, 13, false), RankSum.pwilcox(300, 23, 31, true), SignedRank.psignrank(200, 37, true) };
+		for (Future<double[]> future : futures) {
+			double[] actual = future.get();
+			Assert.assertEquals(expected[0], actual[0], 1e-6);
+			Assert.assertTrue(Arrays.equals(Arrays.copyOfRange(expected, 1, 3), Arrays.copyOfRange(actual, 1, 3)));
+		}
+	}
+
+	private void assertRelative(double expected, double actual) {
+		Assert.assertEquals(expected, actual, Math.abs(expected) * RELATIVE);
+	}
+
+}
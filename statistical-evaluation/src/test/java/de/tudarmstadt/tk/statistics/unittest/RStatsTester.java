@@ -18,11 +18,24 @@ package de.tudarmstadt.tk.statistics.unittest;
  * limitations under the License.
  */
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.junit.Assert;
 import org.junit.Test;
 
 import de.tudarmstadt.tk.statistics.config.StatsConfigConstants;
+import de.tudarmstadt.tk.statistics.test.AbstractTestResult;
+import de.tudarmstadt.tk.statistics.test.JavaStatistics;
 import de.tudarmstadt.tk.statistics.test.PairwiseTestResult;
+import de.tudarmstadt.tk.statistics.test.RTimeoutException;
 import de.tudarmstadt.tk.statistics.test.Statistics;
 import de.tudarmstadt.tk.statistics.test.TestResult;
 
@@ -321,4 +334,157 @@ public class RStatsTester {
 
 	}
 
+	@Test
+	public void testPlan() {
+
+		/*
+		 * Samples of testAdjustP, performing the omnibus and post-hoc tests
+		 * and the correction within a single call
+		 */
+		double[] sampleA = { 8, 9, 6, 5, 8, 7, 10, 12 };
+		double[] sampleB = { 7, 5, 2, 3, 4, 5, 2, 6 };
+		double[] sampleC = { 1, 2, 3, 1, 5, 6, 7, 8 };
+		double[] sampleD = { 6, 5, 8, 9, 8, 7, 2, 1 };
+		double[][] samples = { sampleA, sampleB, sampleC, sampleD };
+
+		Statistics stats = Statistics.getInstance(true);
+		HashMap<String, AbstractTestResult> results = stats.testPlan(samples, Arrays.asList("Friedman", "PairwiseDependentT"), false, Arrays.asList(StatsConfigConstants.CORRECTION_VALUES.bonferroni));
+
+		TestResult friedman = (TestResult) results.get("Friedman");
+		Assert.assertEquals(stats.testFriedman(samples).getpValue(), friedman.getpValue(), EPSILON);
+		Assert.assertEquals("Q", friedman.getStatisticType());
+		Assert.assertTrue(friedman.getParameter().containsKey("df"));
+
+		PairwiseTestResult pairwise = (PairwiseTestResult) results.get("PairwiseDependentT");
+		Assert.assertTrue(pairwise.getRequiresPValueCorrection());
+		Assert.assertNotNull(pairwise.getAssumptions().get("Normality"));
+		double[][] actual = pairwise.getpValueCorrections().get(StatsConfigConstants.CORRECTION_VALUES.bonferroni);
+		double[][] expected = { { 0.0121 }, { 0.0056, 1 }, { 1, 1, 1 } };
+		for (int i = 0; i < expected.length; i++) {
+			for (int j = 0; j < expected[i].length; j++) {
+				Assert.assertEquals(expected[i][j], actual[i][j], EPSILON);
+			}
+		}
+	}
+
+	@Test
+	public void testConcurrentRequests() throws Exception {
+
+		/*
+		 * Tests submitted from several threads at once are performed in
+		 * environments of their own and must not see the samples of others
+		 */
+		final double[][] samplesA = { { 8, 9, 6, 5, 8, 7, 10, 12 }, { 7, 5, 2, 3, 4, 5, 2, 6 }, { 1, 2, 3, 1, 5, 6, 7, 8 } };
+		final double[][] samplesB = { { 6, 5, 8, 9, 8, 7, 2, 1 }, { 1, 2, 3, 1, 5, 6, 7, 8 }, { 8, 9, 6, 5, 8, 7, 10, 12 } };
+		final Statistics stats = Statistics.getInstance(true);
+		final double expectedA = stats.testFriedman(samplesA).getpValue();
+		final double expectedB = stats.testFriedman(samplesB).getpValue();
+
+		ExecutorService clients = Executors.newFixedThreadPool(4);
+		List<Future<Boolean>> checks = new ArrayList<Future<Boolean>>();
+		for (int i = 0; i < 40; i++) {
+			final boolean a = i % 2 == 0;
+			checks.add(clients.submit(new Callable<Boolean>() {
+				@Override
+				public Boolean call() throws Exception {
+					TestResult result = stats.submit(new Callable<TestResult>() {
+						@Override
+						public TestResult call() {
+							return stats.testFriedman(a ? samplesA : samplesB);
+						}
+					}).get();
+					return Math.abs(result.getpValue() - (a ? expectedA : expectedB)) < EPSILON;
+				}
+			}));
+		}
+		clients.shutdown();
+		for (Future<Boolean> check : checks) {
+			Assert.assertTrue(check.get());
+		}
+	}
+
+	@Test
+	public void testBulkTransfer() {
+
+		/*
+		 * Samples of a large sweep exceed the threshold for transferring them
+		 * through a file and must yield the same result as in Java
+		 */
+		Random random = new Random(42);
+		double[][] samples = new double[1000][100];
+		for (int i = 0; i < samples.length; i++) {
+			for (int j = 0; j < samples[i].length; j++) {
+				samples[i][j] = random.nextDouble();
+			}
+		}
+
+		Statistics stats = Statistics.getInstance(true);
+		long transferred = stats.getTransferredValues();
+		double time = stats.getTransferTime();
+		TestResult result = stats.testFriedman(samples);
+		TestResult expected = new JavaStatistics().testFriedman(samples);
+
+		Assert.assertEquals(100000, stats.getTransferredValues() - transferred);
+		Assert.assertTrue(stats.getTransferTime() > time);
+		Assert.assertEquals(expected.getStatistic(), result.getStatistic(), EPSILON);
+		Assert.assertEquals(expected.getpValue(), result.getpValue(), EPSILON);
+	}
+
+	@Test
+	public void testTimeout() {
+
+		/*
+		 * Tukey's test on many models exceeds a short timeout. It is
+		 * interrupted, and the engine performs subsequent tests as usual.
+		 */
+		Random random = new Random(42);
+		double[][] samples = new double[200][10];
+		for (int i = 0; i < samples.length; i++) {
+			for (int j = 0; j < samples[i].length; j++) {
+				samples[i][j] = random.nextDouble();
+			}
+		}
+
+		Statistics stats = Statistics.getInstance(true);
+		stats.setTimeout(50);
+		try {
+			stats.testTukey(samples);
+			Assert.fail("Tukey's test did not time out");
+		} catch (RTimeoutException e) {
+			Assert.assertEquals(50, e.getTimeout());
+		} finally {
+			stats.setTimeout(0);
+		}
+
+		double[][] small = { { 8, 9, 6, 5, 8, 7, 10, 12 }, { 7, 5, 2, 3, 4, 5, 2, 6 }, { 1, 2, 3, 1, 5, 6, 7, 8 } };
+		Assert.assertNotNull(stats.testFriedman(small));
+	}
+
+	@Test
+	public void testDecoding() throws Exception {
+
+		/*
+		 * A request assigns its own samples and decodes the test result from
+		 * the expression returned by the test in its environment. The decoded
+		 * fields equal those of R and of the Java backend.
+		 */
+		double[] classifierA = { 85.83, 85.91, 86.12, 85.82, 86.28, 86.42, 85.91, 86.10, 85.95, 86.12 };
+		double[] classifierB = { 75.86, 73.18, 69.08, 74.05, 74.71, 65.90, 76.25, 75.10, 70.50, 73.95 };
+		double[] classifierC = { 84.19, 85.91, 83.83, 85.11, 86.38, 81.20, 86.38, 86.75, 88.03, 87.18 };
+		final double[][] classifiers = { classifierA, classifierB, classifierC };
+
+		final Statistics stats = Statistics.getInstance(true);
+		TestResult r = stats.submit(new Callable<TestResult>() {
+			@Override
+			public TestResult call() {
+				return stats.testFriedman(classifiers);
+			}
+		}).get();
+		TestResult expected = new JavaStatistics().testFriedman(classifiers);
+
+		Assert.assertEquals(0.0005531, r.getpValue(), EPSILON);
+		Assert.assertEquals(expected.getStatistic(), r.getStatistic(), EPSILON);
+		Assert.assertEquals(2, r.getParameter().get("df"), EPSILON);
+	}
+
 }
@@ -0,0 +1,58 @@
+package de.tudarmstadt.tk.statistics.unittest;
+
+/**
+ * Copyright 2014
+ * Telecooperation (TK) Lab
+ * Technische Universit�t Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.HashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.tudarmstadt.tk.statistics.config.StatsConfig;
+import de.tudarmstadt.tk.statistics.config.StatsConfigConstants;
+
+/**
+ * Test cases for creating and validating configurations of an evaluation
+ * with {@link StatsConfig}.
+ *
+ * @author Guckelsberger, Schulz
+ */
+public class StatsConfigTester {
+
+	@Test
+	public void testIndependentConfigs() {
+
+		StatsConfig a = StatsConfig.createDefault();
+		StatsConfig b = StatsConfig.createDefault();
+		Assert.assertNotSame(a, b);
+
+		// Changing one configuration does not affect evaluations using another
+		a.setFixIndependentVariable(StatsConfigConstants.INDEPENDENT_VARIABLES_VALUES.FeatureSet);
+		a.setParallelism(2);
+		Assert.assertEquals(StatsConfigConstants.INDEPENDENT_VARIABLES_VALUES.Classifier, b.getFixIndependentVariable());
+		Assert.assertEquals(0, b.getParallelism());
+
+		HashMap<StatsConfigConstants.TEST_CLASSES, String> tests = new HashMap<StatsConfigConstants.TEST_CLASSES, String>(b.getRequiredTests());
+		tests.put(StatsConfigConstants.TEST_CLASSES.MultipleSamplesNonParametric, "Unknown");
+		try {
+			new StatsConfig(tests, b.getRequiredCorrections(), b.getSignificanceLevels(), 10, "Weighted F-Measure", StatsConfigConstants.INDEPENDENT_VARIABLES_VALUES.Classifier);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package de.tudarmstadt.tk.statistics.unittest;
+
+/**
+ * Copyright 2014
+ * Telecooperation (TK) Lab
+ * Technische Universit�t Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.EnumMap;
+import java.util.HashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.tudarmstadt.tk.statistics.config.StatsConfigConstants;
+import de.tudarmstadt.tk.statistics.test.JavaStatistics;
+import de.tudarmstadt.tk.statistics.test.StatisticalTest;
+import de.tudarmstadt.tk.statistics.test.TestRegistry;
+import de.tudarmstadt.tk.statistics.test.TestResult;
+
+/**
+ * Test cases for resolving and dispatching statistical tests through the
+ * {@link TestRegistry}.
+ *
+ * @author Guckelsberger, Schulz
+ */
+public class TestRegistryTester {
+
+	@Test
+	public void testRegistry() {
+
+		TestRegistry registry = new TestRegistry();
+		HashMap<StatsConfigConstants.TEST_CLASSES, String> requiredTests = new HashMap<StatsConfigConstants.TEST_CLASSES, String>();
+		requiredTests.put(StatsConfigConstants.TEST_CLASSES.TwoSamplesNonParametricContingency, "");
+		requiredTests.put(StatsConfigConstants.TEST_CLASSES.TwoSamplesParametric, "DependentT");
+		requiredTests.put(StatsConfigConstants.TEST_CLASSES.MultipleSamplesNonParametric, "Friedman");
+		EnumMap<StatsConfigConstants.TEST_CLASSES, StatisticalTest> tests = registry.resolve(requiredTests);
+		Assert.assertEquals(2, tests.size());
+
+		// Dispatch through the handler equals the direct call
+		double[][] samples = { { 8, 9, 6, 5, 8, 7, 10, 12 }, { 7, 5, 2, 3, 4, 5, 2, 6 }, { 1, 2, 3, 1, 5, 6, 7, 8 } };
+		JavaStatistics stats = new JavaStatistics();
+		StatisticalTest friedman = tests.get(StatsConfigConstants.TEST_CLASSES.MultipleSamplesNonParametric);
+		Assert.assertEquals(StatisticalTest.Input.MultipleSamples, friedman.getInput());
+		Assert.assertEquals(stats.testFriedman(samples).getpValue(), ((TestResult) friedman.perform(stats, samples)).getpValue(), 1e-12);
+		StatisticalTest dependentT = tests.get(StatsConfigConstants.TEST_CLASSES.TwoSamplesParametric);
+		Assert.assertEquals(stats.testDependentT(samples[0], samples[1]).getpValue(), ((TestResult) dependentT.perform(stats, samples[0], samples[1])).getpValue(), 1e-12);
+
+		// Tests of another class or input are rejected up front
+		requiredTests.put(StatsConfigConstants.TEST_CLASSES.MultipleSamplesParametric, "DependentT");
+		try {
+			registry.resolve(requiredTests);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			registry.register(StatsConfigConstants.TEST_CLASSES.TwoSamplesParametric, new StatisticalTest("Custom", StatisticalTest.Input.MultipleSamples) {
+			});
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+		}
+		registry.register(StatsConfigConstants.TEST_CLASSES.MultipleSamplesParametric, new StatisticalTest("Custom", StatisticalTest.Input.MultipleSamples) {
+		});
+		Assert.assertTrue(registry.contains(StatsConfigConstants.TEST_CLASSES.MultipleSamplesParametric, "Custom"));
+	}
+}